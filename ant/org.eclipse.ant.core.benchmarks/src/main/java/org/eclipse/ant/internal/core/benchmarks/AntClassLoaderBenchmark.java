@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ant.internal.core.AntClassLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class and resource lookups of an {@link AntClassLoader} through many plug-in class loaders.
+ * <ul>
+ * <li><code>loadClassFromLastPlugin</code>: a task class contributed by the last plug-in, the worst case of a hit.</li>
+ * <li><code>loadMissingClass</code>: a class no plug-in has, as Ant probes for optional tasks and libraries.</li>
+ * <li><code>findResourceFromLastPlugin</code>: an <code>antlib.xml</code> style resource of the last plug-in.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AntClassLoaderBenchmark {
+
+	@Param({"10", "100", "500"})
+	int plugins;
+
+	private SyntheticPlugins syntheticPlugins;
+	private AntClassLoader loader;
+	private String lastClassName;
+	private String lastResourceName;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		syntheticPlugins = SyntheticPlugins.create(plugins);
+		loader = new AntClassLoader(new URL[0], syntheticPlugins.getLoaders());
+		lastClassName = SyntheticPlugins.getClassName(plugins - 1);
+		lastResourceName = SyntheticPlugins.getResourceName(plugins - 1);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		loader.close();
+		syntheticPlugins.delete();
+	}
+
+	@Benchmark
+	public Class<?> loadClassFromLastPlugin() throws Exception {
+		return loader.loadClass(lastClassName);
+	}
+
+	@Benchmark
+	public boolean loadMissingClass() {
+		try {
+			loader.loadClass("synthetic.missing.OptionalTask"); //$NON-NLS-1$
+			return true;
+		}
+		catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	@Benchmark
+	public URL findResourceFromLastPlugin() {
+		return loader.getResource(lastResourceName);
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <code>AntRunner.getAvailableTargets()</code> on build files of increasing size, as done by the launch configuration tab and the Ant view for every
+ * build file they show. Each invocation uses a new runner, class loader and Ant project, like the callers do. The runner is the one of the Ant core
+ * plug-in in the framework of {@link BenchmarkEnvironment}, called through reflection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AntRunnerBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	int targets;
+
+	private SyntheticBuildFile buildFile;
+	private Class<?> runnerClass;
+	private Method setBuildFileLocation;
+	private Method setCustomClasspath;
+	private Method getAvailableTargets;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		BenchmarkEnvironment.start();
+		buildFile = SyntheticBuildFile.create(targets);
+		runnerClass = BenchmarkEnvironment.getAntCore().loadClass("org.eclipse.ant.core.AntRunner"); //$NON-NLS-1$
+		setBuildFileLocation = runnerClass.getMethod("setBuildFileLocation", String.class); //$NON-NLS-1$
+		setCustomClasspath = runnerClass.getMethod("setCustomClasspath", URL[].class); //$NON-NLS-1$
+		getAvailableTargets = runnerClass.getMethod("getAvailableTargets"); //$NON-NLS-1$
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		buildFile.delete();
+		BenchmarkEnvironment.stop();
+	}
+
+	@Benchmark
+	public Object getAvailableTargets() throws Exception {
+		Object runner = runnerClass.newInstance();
+		setBuildFileLocation.invoke(runner, buildFile.getFile().getAbsolutePath());
+		setCustomClasspath.invoke(runner, (Object) BenchmarkEnvironment.getAntClasspath());
+		return getAvailableTargets.invoke(runner);
+	}
+}
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.launch.Framework;
+import org.osgi.framework.launch.FrameworkFactory;
+
+/**
+ * Runs the Ant core plug-in in an Equinox framework started in the benchmark VM, so that <code>AntRunner</code> and
+ * <code>InternalAntRunner</code> are measured with the real extension registry, preferences and plug-in class loaders.
+ * <p>
+ * The bundles are packaged under <code>bundles/</code> and the Ant jars under <code>ant/</code> of the benchmark jar. Classes of the Ant
+ * core plug-in must be loaded from {@link #getAntCore()}, the copies on the class path of the benchmarks are not those of the framework.
+ * </p>
+ */
+final class BenchmarkEnvironment {
+
+	private static final String BUNDLES = "bundles/"; //$NON-NLS-1$
+
+	private static final String ANT = "ant/"; //$NON-NLS-1$
+
+	private static final String ANT_CORE = "org.eclipse.ant.core"; //$NON-NLS-1$
+
+	private static File area;
+	private static Framework framework;
+	private static Bundle antCore;
+	private static URL[] antClasspath;
+
+	private BenchmarkEnvironment() {
+		// Do not instantiate
+	}
+
+	/**
+	 * Starts the framework with the Ant core plug-in, once per VM.
+	 */
+	static synchronized void start() throws Exception {
+		if (framework != null)
+			return;
+		area = Files.createTempDirectory("antBenchmarks").toFile(); //$NON-NLS-1$
+		Map<String, String> configuration = new HashMap<>();
+		configuration.put(Constants.FRAMEWORK_STORAGE, new File(area, "configuration").getAbsolutePath()); //$NON-NLS-1$
+		configuration.put(Constants.FRAMEWORK_STORAGE_CLEAN, Constants.FRAMEWORK_STORAGE_CLEAN_ONFIRSTINIT);
+		configuration.put("osgi.instance.area", new File(area, "workspace").toURI().toString()); //$NON-NLS-1$ //$NON-NLS-2$
+		configuration.put("eclipse.consoleLog", "true"); //$NON-NLS-1$ //$NON-NLS-2$
+		FrameworkFactory factory = ServiceLoader.load(FrameworkFactory.class).iterator().next();
+		framework = factory.newFramework(configuration);
+		framework.start();
+
+		BundleContext context = framework.getBundleContext();
+		List<Bundle> installed = new ArrayList<>();
+		for (String name : list(BUNDLES)) {
+			try (InputStream in = open(name)) {
+				installed.add(context.installBundle(name, in));
+			}
+		}
+		for (Bundle bundle : installed) {
+			if (bundle.getHeaders().get(Constants.FRAGMENT_HOST) != null)
+				continue;
+			if (ANT_CORE.equals(bundle.getSymbolicName())) {
+				antCore = bundle;
+				bundle.start();
+			} else {
+				bundle.start(Bundle.START_ACTIVATION_POLICY);
+			}
+		}
+		if (antCore == null)
+			throw new IllegalStateException(ANT_CORE);
+
+		List<String> jars = list(ANT);
+		antClasspath = new URL[jars.size()];
+		for (int i = 0; i < antClasspath.length; i++) {
+			File jar = new File(area, jars.get(i));
+			jar.getParentFile().mkdirs();
+			try (InputStream in = open(jars.get(i))) {
+				Files.copy(in, jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			antClasspath[i] = jar.toURI().toURL();
+		}
+	}
+
+	/**
+	 * Stops the framework and deletes its configuration and workspace.
+	 */
+	static synchronized void stop() throws Exception {
+		if (framework == null)
+			return;
+		framework.stop();
+		framework.waitForStop(10000);
+		framework = null;
+		antCore = null;
+		antClasspath = null;
+		delete(area);
+	}
+
+	/**
+	 * Returns the started Ant core plug-in.
+	 */
+	static Bundle getAntCore() {
+		return antCore;
+	}
+
+	/**
+	 * Returns the Ant jars of the benchmarks, which are not on the class path of the framework.
+	 */
+	static URL[] getAntClasspath() {
+		return antClasspath;
+	}
+
+	private static InputStream open(String name) throws IOException {
+		InputStream in = BenchmarkEnvironment.class.getClassLoader().getResourceAsStream(name);
+		if (in == null)
+			throw new IOException(name);
+		return in;
+	}
+
+	/*
+	 * Lists the jars packaged under the given folder of the benchmark jar, or of the classes folder when run from an IDE.
+	 */
+	private static List<String> list(String folder) throws Exception {
+		List<String> names = new ArrayList<>();
+		File location = new File(BenchmarkEnvironment.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+		if (location.isDirectory()) {
+			String[] children = new File(location, folder).list();
+			if (children != null) {
+				for (String child : children) {
+					if (child.endsWith(".jar")) //$NON-NLS-1$
+						names.add(folder + child);
+				}
+			}
+			return names;
+		}
+		try (JarFile jar = new JarFile(location)) {
+			for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+				String name = entries.nextElement().getName();
+				if (name.startsWith(folder) && name.endsWith(".jar") && name.indexOf('/', folder.length()) == -1) //$NON-NLS-1$
+					names.add(name);
+			}
+		}
+		return names;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children)
+				delete(child);
+		}
+		file.delete();
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares the JSON results of two benchmark runs (<code>-rf json</code>) and fails when a benchmark got slower.
+ * <p>
+ * Usage: <code>CompareResults &lt;baseline.json&gt; &lt;current.json&gt; [&lt;tolerance in percent&gt;]</code>
+ * </p>
+ * <p>
+ * A benchmark regressed when its score is worse than the baseline by more than the tolerance (10% by default) and by more than the error
+ * margins of both runs together, so noise alone does not fail a build. Benchmarks that are only in one of the runs are listed but never fail.
+ * The exit code is <code>1</code> if any benchmark regressed.
+ * </p>
+ */
+public final class CompareResults {
+
+	private static final double DEFAULT_TOLERANCE = 10;
+
+	private static final class Result {
+		final String mode;
+		final double score;
+		final double error;
+		final String unit;
+
+		Result(String mode, double score, double error, String unit) {
+			this.mode = mode;
+			this.score = score;
+			this.error = error;
+			this.unit = unit;
+		}
+
+		/**
+		 * Whether a higher score is better, as for throughput, rather than worse, as for times.
+		 */
+		boolean isHigherBetter() {
+			return "thrpt".equals(mode); //$NON-NLS-1$
+		}
+	}
+
+	private CompareResults() {
+		// Do not instantiate
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: CompareResults <baseline.json> <current.json> [<tolerance in percent>]"); //$NON-NLS-1$
+			System.exit(2);
+		}
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE;
+		Map<String, Result> baseline = read(args[0]);
+		Map<String, Result> current = read(args[1]);
+
+		List<String> regressions = new ArrayList<>();
+		for (Map.Entry<String, Result> entry : current.entrySet()) {
+			String name = entry.getKey();
+			Result now = entry.getValue();
+			Result before = baseline.get(name);
+			if (before == null || !before.unit.equals(now.unit)) {
+				System.out.println(String.format("%-100s %12s %12.3f %s", name, "new", now.score, now.unit)); //$NON-NLS-1$ //$NON-NLS-2$
+				continue;
+			}
+			double change = (now.score - before.score) / before.score * 100;
+			double worse = now.isHigherBetter() ? before.score - now.score : now.score - before.score;
+			boolean regressed = worse > before.score * tolerance / 100 && worse > before.error + now.error;
+			System.out.println(String.format("%-100s %12.3f %12.3f %s %+7.1f%%%s", name, before.score, now.score, now.unit, change, regressed ? "  REGRESSION" : "")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			if (regressed) {
+				regressions.add(name);
+			}
+		}
+		for (String name : baseline.keySet()) {
+			if (!current.containsKey(name)) {
+				System.out.println(String.format("%-100s %12s", name, "missing")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+
+		if (!regressions.isEmpty()) {
+			System.out.println();
+			System.out.println(regressions.size() + " benchmark(s) regressed by more than " + tolerance + "%"); //$NON-NLS-1$ //$NON-NLS-2$
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Reads the primary results of a JMH JSON result file, keyed by benchmark name and parameters.
+	 */
+	private static Map<String, Result> read(String fileName) throws IOException {
+		JsonArray runs;
+		try (Reader reader = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+			runs = new JsonParser().parse(reader).getAsJsonArray();
+		}
+		Map<String, Result> results = new LinkedHashMap<>();
+		for (JsonElement element : runs) {
+			JsonObject run = element.getAsJsonObject();
+			StringBuffer name = new StringBuffer(run.get("benchmark").getAsString()); //$NON-NLS-1$
+			JsonElement params = run.get("params"); //$NON-NLS-1$
+			if (params != null) {
+				// sorted, so the key does not depend on the order of the parameters in the file
+				Map<String, String> sorted = new TreeMap<>();
+				for (Map.Entry<String, JsonElement> param : params.getAsJsonObject().entrySet()) {
+					sorted.put(param.getKey(), param.getValue().getAsString());
+				}
+				for (Map.Entry<String, String> param : sorted.entrySet()) {
+					name.append(' ').append(param.getKey()).append('=').append(param.getValue());
+				}
+			}
+			JsonObject metric = run.getAsJsonObject("primaryMetric"); //$NON-NLS-1$
+			JsonElement error = metric.get("scoreError"); //$NON-NLS-1$
+			double scoreError = 0;
+			if (error != null && error.isJsonPrimitive() && error.getAsJsonPrimitive().isNumber()) {
+				// "NaN" for a single measurement
+				scoreError = error.getAsDouble();
+			}
+			results.put(name.toString(), new Result(run.get("mode").getAsString(), metric.get("score").getAsDouble(), scoreError, metric.get("scoreUnit").getAsString())); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+		return results;
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The fixed cost of setting up an <code>InternalAntRunner</code>: the Ant class path, a new Ant project with its default tasks and types, the
+ * contributed tasks and types, properties and the input handler. The build file has a single target, so parsing it is negligible.
+ * <p>
+ * The runner is loaded by a class loader of the Ant core plug-in in the framework of {@link BenchmarkEnvironment}, with the Ant jars and the extra
+ * class path entries of the plug-in, as <code>AntRunner</code> does for a custom class path.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InternalAntRunnerBenchmark {
+
+	private SyntheticBuildFile buildFile;
+	private ClassLoader loader;
+	private Class<?> runnerClass;
+	private Method setBuildFileLocation;
+	private Method getTargets;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		BenchmarkEnvironment.start();
+		buildFile = SyntheticBuildFile.create(1);
+		Class<?> pluginClass = BenchmarkEnvironment.getAntCore().loadClass("org.eclipse.ant.core.AntCorePlugin"); //$NON-NLS-1$
+		Object plugin = pluginClass.getMethod("getPlugin").invoke(null); //$NON-NLS-1$
+		Object preferences = pluginClass.getMethod("getPreferences").invoke(plugin); //$NON-NLS-1$
+		URL[] extra = (URL[]) preferences.getClass().getMethod("getExtraClasspathURLs").invoke(preferences); //$NON-NLS-1$
+		URL[] ant = BenchmarkEnvironment.getAntClasspath();
+		URL[] urls = Arrays.copyOf(ant, ant.length + extra.length);
+		System.arraycopy(extra, 0, urls, ant.length, extra.length);
+		loader = (ClassLoader) pluginClass.getMethod("getNewClassLoader", URL[].class).invoke(plugin, (Object) urls); //$NON-NLS-1$
+		runnerClass = loader.loadClass("org.eclipse.ant.internal.core.ant.InternalAntRunner"); //$NON-NLS-1$
+		setBuildFileLocation = runnerClass.getMethod("setBuildFileLocation", String.class); //$NON-NLS-1$
+		getTargets = runnerClass.getMethod("getTargets"); //$NON-NLS-1$
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		buildFile.delete();
+		BenchmarkEnvironment.stop();
+	}
+
+	@Benchmark
+	public Object setUpRunner() throws Exception {
+		Thread thread = Thread.currentThread();
+		ClassLoader original = thread.getContextClassLoader();
+		thread.setContextClassLoader(loader);
+		try {
+			Object runner = runnerClass.newInstance();
+			setBuildFileLocation.invoke(runner, buildFile.getFile().getAbsolutePath());
+			return getTargets.invoke(runner);
+		}
+		finally {
+			thread.setContextClassLoader(original);
+		}
+	}
+}
@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Target;
+import org.apache.tools.ant.taskdefs.Echo;
+import org.eclipse.ant.internal.launching.remote.logger.RemoteAntBuildLogger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Marshalling of build events by the {@link RemoteAntBuildLogger} of a build in a separate VM, down to the socket. The other end of the socket
+ * is a thread that reads and discards everything, so the numbers include the cost of writing but not of the Eclipse side.
+ * <ul>
+ * <li><code>taskMessage</code>: a message of a task, alternating between two tasks in different files so both the full and the abbreviated
+ * form are sent.</li>
+ * <li><code>message</code>: a message logged outside of a task.</li>
+ * <li><code>targetStarted</code>: the start of a target.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteAntBuildLoggerBenchmark {
+
+	/**
+	 * Number of lines per message.
+	 */
+	@Param({"1", "10"})
+	int lines;
+
+	private ServerSocket serverSocket;
+	private Thread drain;
+	private RemoteAntBuildLogger logger;
+	private BuildEvent buildEvent;
+	private BuildEvent[] taskEvents;
+	private BuildEvent messageEvent;
+	private BuildEvent targetEvent;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		serverSocket = new ServerSocket(0, 1, InetAddress.getByName(null));
+		drain = new Thread(() -> {
+			try (Socket socket = serverSocket.accept(); InputStream in = socket.getInputStream()) {
+				byte[] buffer = new byte[8192];
+				while (in.read(buffer) != -1) {
+					// discard
+				}
+			}
+			catch (IOException e) {
+				// closed
+			}
+		}, "Remote Ant Build Listener"); //$NON-NLS-1$
+		drain.setDaemon(true);
+		drain.start();
+
+		Project project = new Project();
+		project.setName("synthetic"); //$NON-NLS-1$
+		StringBuffer text = new StringBuffer();
+		for (int i = 0; i < lines; i++) {
+			if (i > 0) {
+				text.append('\n');
+			}
+			text.append("[javac] Compiling source file ").append(i).append(" of the synthetic project to the output folder"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		taskEvents = new BuildEvent[] {createTaskEvent(project, "/workspace/project/build.xml", text.toString()), //$NON-NLS-1$
+				createTaskEvent(project, "/workspace/project/common.xml", text.toString())}; //$NON-NLS-1$
+		messageEvent = new BuildEvent(project);
+		messageEvent.setMessage(text.toString(), Project.MSG_INFO);
+		Target target = new Target();
+		target.setProject(project);
+		target.setName("compile"); //$NON-NLS-1$
+		target.setLocation(new Location("/workspace/project/build.xml", 42, 5)); //$NON-NLS-1$
+		targetEvent = new BuildEvent(target);
+
+		logger = new RemoteAntBuildLogger();
+		logger.setMessageOutputLevel(Project.MSG_INFO);
+		Map<String, String> properties = new HashMap<>();
+		properties.put("eclipse.connect.port", Integer.toString(serverSocket.getLocalPort())); //$NON-NLS-1$
+		properties.put("org.eclipse.ant.core.ANT_PROCESS_ID", "benchmark"); //$NON-NLS-1$ //$NON-NLS-2$
+		logger.configure(properties);
+		buildEvent = new BuildEvent(project);
+		logger.buildStarted(buildEvent);
+	}
+
+	private static BuildEvent createTaskEvent(Project project, String fileName, String message) {
+		Echo task = new Echo();
+		task.setProject(project);
+		task.setTaskName("echo"); //$NON-NLS-1$
+		task.setLocation(new Location(fileName, 10, 9));
+		BuildEvent event = new BuildEvent(task);
+		event.setMessage(message, Project.MSG_INFO);
+		return event;
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		logger.buildFinished(buildEvent);
+		serverSocket.close();
+		drain.join();
+	}
+
+	@Benchmark
+	public void taskMessage() {
+		logger.messageLogged(taskEvents[next++ & 1]);
+	}
+
+	@Benchmark
+	public void message() {
+		logger.messageLogged(messageEvent);
+	}
+
+	@Benchmark
+	public void targetStarted() {
+		logger.targetStarted(targetEvent);
+	}
+}
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Generates a build file with a given number of targets, shaped like a typical hand written build file: properties at the top, targets with
+ * descriptions every other target, a few dependencies on earlier targets and a handful of tasks each.
+ */
+final class SyntheticBuildFile {
+
+	private final File file;
+
+	private SyntheticBuildFile(File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Creates a build file with the given number of targets in a new temporary directory.
+	 */
+	static SyntheticBuildFile create(int targets) throws IOException {
+		File directory = Files.createTempDirectory("ant-benchmark").toFile(); //$NON-NLS-1$
+		File file = new File(directory, "build.xml"); //$NON-NLS-1$
+		try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+			writer.write("<project name=\"synthetic\" default=\"target0\" basedir=\".\">\n"); //$NON-NLS-1$
+			writer.write("\t<description>Synthetic build file with " + targets + " targets</description>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			for (int i = 0; i < 20; i++) {
+				writer.write("\t<property name=\"prop" + i + "\" value=\"value" + i + "\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+			for (int i = 0; i < targets; i++) {
+				writer.write("\t<target name=\"target" + i + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+				if (i % 2 == 0) {
+					writer.write(" description=\"Builds part " + i + "\""); //$NON-NLS-1$ //$NON-NLS-2$
+				}
+				if (i > 0) {
+					writer.write(" depends=\"target" + (i - 1)); //$NON-NLS-1$
+					if (i > 2) {
+						writer.write(",target" + (i / 2)); //$NON-NLS-1$
+					}
+					writer.write('"');
+				}
+				writer.write(">\n"); //$NON-NLS-1$
+				writer.write("\t\t<echo message=\"Building ${prop" + (i % 20) + "} for target " + i + "\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				writer.write("\t\t<mkdir dir=\"${basedir}/out/part" + i + "\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				writer.write("\t\t<property name=\"done" + i + "\" value=\"true\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				writer.write("\t</target>\n"); //$NON-NLS-1$
+			}
+			writer.write("</project>\n"); //$NON-NLS-1$
+		}
+		return new SyntheticBuildFile(file);
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Deletes the build file and its directory.
+	 */
+	void delete() {
+		File directory = file.getParentFile();
+		file.delete();
+		directory.delete();
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+
+import org.eclipse.ant.internal.core.IPluginClassLoader;
+
+/**
+ * Generates directories that stand in for plug-ins contributing to the Ant class path, each with its own class loader. Plug-in <code>i</code>
+ * holds the class <code>synthetic.plugin&lt;i&gt;.Contribution</code> and the resource <code>synthetic/plugin&lt;i&gt;/contribution.txt</code>.
+ * <p>
+ * The classes are generated rather than compiled so that no other class loader, in particular the system class loader of the benchmarks, can
+ * find them. The plug-in class loaders only delegate to the boot class loader, like bundle class loaders for packages they do not import, and
+ * report their package like the bundle class loaders of the Ant core preferences.
+ * </p>
+ */
+final class SyntheticPlugins {
+
+	private static final class PluginLoader extends URLClassLoader implements IPluginClassLoader {
+
+		private final String[] packageNames;
+
+		PluginLoader(URL url, String packageName) {
+			super(new URL[] {url}, null);
+			packageNames = new String[] {packageName};
+		}
+
+		@Override
+		public String[] getPackageNames() {
+			return packageNames;
+		}
+	}
+
+	private final File root;
+	private final URLClassLoader[] loaders;
+
+	private SyntheticPlugins(File root, URLClassLoader[] loaders) {
+		this.root = root;
+		this.loaders = loaders;
+	}
+
+	/**
+	 * Creates the given number of plug-ins in a new temporary directory.
+	 */
+	static SyntheticPlugins create(int count) throws IOException {
+		File root = Files.createTempDirectory("ant-benchmark-plugins").toFile(); //$NON-NLS-1$
+		URLClassLoader[] loaders = new URLClassLoader[count];
+		for (int i = 0; i < count; i++) {
+			File plugin = new File(root, "plugin" + i); //$NON-NLS-1$
+			File packageDirectory = new File(plugin, getPackagePath(i));
+			packageDirectory.mkdirs();
+			Files.write(new File(packageDirectory, "Contribution.class").toPath(), createClass(getClassName(i).replace('.', '/'))); //$NON-NLS-1$
+			Files.write(new File(packageDirectory, "contribution.txt").toPath(), new byte[] {'x'}); //$NON-NLS-1$
+			loaders[i] = new PluginLoader(plugin.toURI().toURL(), getPackagePath(i).replace('/', '.'));
+		}
+		return new SyntheticPlugins(root, loaders);
+	}
+
+	static String getClassName(int plugin) {
+		return getPackagePath(plugin).replace('/', '.') + ".Contribution"; //$NON-NLS-1$
+	}
+
+	static String getResourceName(int plugin) {
+		return getPackagePath(plugin) + "/contribution.txt"; //$NON-NLS-1$
+	}
+
+	private static String getPackagePath(int plugin) {
+		return "synthetic/plugin" + plugin; //$NON-NLS-1$
+	}
+
+	ClassLoader[] getLoaders() {
+		return loaders;
+	}
+
+	/**
+	 * Closes the class loaders and deletes the plug-ins.
+	 */
+	void delete() throws IOException {
+		for (int i = 0; i < loaders.length; i++) {
+			loaders[i].close();
+		}
+		delete(root);
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (int i = 0; i < children.length; i++) {
+				delete(children[i]);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * Returns the bytes of an empty public class with the given internal name that extends <code>java.lang.Object</code>.
+	 */
+	private static byte[] createClass(String internalName) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0xCAFEBABE);
+		out.writeShort(0); // minor version
+		out.writeShort(52); // Java 8
+		out.writeShort(5); // constant pool count, entries 1 to 4
+		out.writeByte(7); // #1 CONSTANT_Class
+		out.writeShort(2);
+		out.writeByte(1); // #2 CONSTANT_Utf8
+		out.writeUTF(internalName);
+		out.writeByte(7); // #3 CONSTANT_Class
+		out.writeShort(4);
+		out.writeByte(1); // #4 CONSTANT_Utf8
+		out.writeUTF("java/lang/Object"); //$NON-NLS-1$
+		out.writeShort(0x0021); // ACC_PUBLIC | ACC_SUPER
+		out.writeShort(1); // this class
+		out.writeShort(3); // super class
+		out.writeShort(0); // interfaces
+		out.writeShort(0); // fields
+		out.writeShort(0); // methods
+		out.writeShort(0); // attributes
+		out.flush();
+		return bytes.toByteArray();
+	}
+}
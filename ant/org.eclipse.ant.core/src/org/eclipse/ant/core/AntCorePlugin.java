@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,7 +16,9 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.ant.internal.core.AntClassLoader;
+import org.eclipse.ant.internal.core.AntClasspathSnapshot;
 import org.eclipse.ant.internal.core.AntCoreUtil;
+import org.eclipse.ant.internal.core.PropertyFileCache;
 import org.eclipse.core.runtime.IConfigurationElement;
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IStatus;
@@ -180,6 +182,7 @@ public class AntCorePlugin extends Plugin {
 	public void stop(BundleContext context) throws Exception {
 		super.stop(context);
 		AntCoreUtil.setBundleContext(null);
+		PropertyFileCache.dispose();
 		if (preferences != null) {
 			savePluginPreferences();
 		}
@@ -253,7 +256,7 @@ public class AntCorePlugin extends Plugin {
 	 */
 	public ClassLoader getNewClassLoader() {
 		AntCorePreferences corePreferences = getPreferences();
-		return getNewClassLoader(false, corePreferences.getURLs());
+		return getNewClassLoader(false, AntClasspathSnapshot.getSnapshot(corePreferences).getURLs());
 	}
 
 	/**
@@ -277,7 +280,7 @@ public class AntCorePlugin extends Plugin {
 	 */
 	public ClassLoader getNewClassLoader(boolean allowLoading) {
 		AntCorePreferences corePreferences = getPreferences();
-		URL[] urls = corePreferences.getURLs();
+		URL[] urls = AntClasspathSnapshot.getSnapshot(corePreferences).getURLs();
 		return getNewClassLoader(allowLoading, urls);
 	}
 
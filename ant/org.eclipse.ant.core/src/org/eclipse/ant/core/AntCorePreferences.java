@@ -21,6 +21,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -28,12 +29,17 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
 
 import org.eclipse.ant.internal.core.AntClasspathEntry;
+import org.eclipse.ant.internal.core.AntClasspathSnapshot;
+import org.eclipse.ant.internal.core.AntComponentTable;
 import org.eclipse.ant.internal.core.AntObject;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
+import org.eclipse.ant.internal.core.IPluginClassLoader;
 import org.eclipse.ant.internal.core.InternalCoreAntMessages;
+import org.eclipse.ant.internal.core.PluginLoaderOrder;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -57,11 +63,8 @@ import org.eclipse.osgi.util.NLS;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.Constants;
-import org.osgi.framework.namespace.BundleNamespace;
-import org.osgi.framework.namespace.HostNamespace;
 import org.osgi.framework.namespace.PackageNamespace;
-import org.osgi.framework.wiring.BundleRevision;
-import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleCapability;
 import org.osgi.framework.wiring.BundleWiring;
 import org.osgi.service.packageadmin.ExportedPackage;
 import org.osgi.service.packageadmin.PackageAdmin;
@@ -79,8 +82,9 @@ import org.osgi.util.tracker.ServiceTracker;
 @SuppressWarnings("deprecation")
 public class AntCorePreferences implements IPropertyChangeListener {
 
-	class WrappedClassLoader extends ClassLoader {
+	class WrappedClassLoader extends ClassLoader implements IPluginClassLoader {
 		private Bundle bundle;
+		private String[] packageNames;
 
 		public WrappedClassLoader(Bundle bundle) {
 			super();
@@ -117,6 +121,37 @@ public class AntCorePreferences implements IPropertyChangeListener {
 			return bundle.getResources(name);
 		}
 
+		/*
+		 * (non-Javadoc)
+		 * 
+		 * @see org.eclipse.ant.internal.core.IPluginClassLoader#getPackageNames()
+		 */
+		@Override
+		public synchronized String[] getPackageNames() {
+			if (packageNames == null) {
+				BundleWiring wiring = bundle.adapt(BundleWiring.class);
+				if (wiring == null) {
+					// not resolved
+					return null;
+				}
+				Set<String> names = new HashSet<>();
+				List<BundleCapability> exports = wiring.getCapabilities(PackageNamespace.PACKAGE_NAMESPACE);
+				for (int i = 0; i < exports.size(); i++) {
+					names.add((String) exports.get(i).getAttributes().get(PackageNamespace.PACKAGE_NAMESPACE));
+				}
+				// the folders of the bundle and its fragments, whether they hold classes or only resources
+				Collection<String> entries = wiring.listResources("/", "*", BundleWiring.LISTRESOURCES_LOCAL | BundleWiring.LISTRESOURCES_RECURSE); //$NON-NLS-1$ //$NON-NLS-2$
+				if (entries != null) {
+					for (String entry : entries) {
+						int index = entry.lastIndexOf('/', entry.length() - 2);
+						names.add(index < 0 ? IAntCoreConstants.EMPTY_STRING : entry.substring(0, index).replace('/', '.'));
+					}
+				}
+				packageNames = names.toArray(new String[names.size()]);
+			}
+			return packageNames;
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * 
@@ -146,21 +181,6 @@ public class AntCorePreferences implements IPropertyChangeListener {
 		}
 	}
 
-	static private class Relation {
-		BundleRevision from;
-		BundleRevision to;
-
-		Relation(BundleRevision from, BundleRevision to) {
-			this.from = from;
-			this.to = to;
-		}
-
-		@Override
-		public String toString() {
-			return from.toString() + "->" + (to == null ? IAntCoreConstants.EMPTY_STRING : to.toString()); //$NON-NLS-1$
-		}
-	}
-
 	private IPreferenceChangeListener prefListener = new IPreferenceChangeListener() {
 		@Override
 		public void preferenceChange(PreferenceChangeEvent event) {
@@ -199,6 +219,12 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	private Property[] oldCustomProperties;
 	private String[] customPropertyFiles;
 
+	/**
+	 * The jars found in ${user.home}/.ant/lib, <code>null</code> if there are none, and the modification time of the folder when they were listed
+	 */
+	private IAntClasspathEntry[] userLibraries;
+	private long userLibrariesStamp = -1;
+
 	private List<WrappedClassLoader> pluginClassLoaders;
 
 	private ClassLoader[] orderedPluginClassLoaders;
@@ -259,6 +285,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 		} else {
 			customTasks = extractTasks(AntCorePlugin.getPlugin().getPluginPreferences(), getArrayFromString(tasks));
 		}
+		AntComponentTable.invalidate();
 	}
 
 	private void restoreTypes() {
@@ -268,6 +295,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 		} else {
 			customTypes = extractTypes(AntCorePlugin.getPlugin().getPluginPreferences(), getArrayFromString(types));
 		}
+		AntComponentTable.invalidate();
 	}
 
 	private void restoreAntHomeEntries() {
@@ -288,13 +316,12 @@ public class AntCorePreferences implements IPropertyChangeListener {
 				}
 			}
 			antHomeEntries = migrateURLEntries(getArrayFromString(entries));
-			return;
-		}
-		if (entries == null || IAntCoreConstants.EMPTY_STRING.equals(entries)) {
+		} else if (entries == null || IAntCoreConstants.EMPTY_STRING.equals(entries)) {
 			antHomeEntries = getDefaultAntHomeEntries();
 		} else {
 			antHomeEntries = extractEntries(getArrayFromString(entries));
 		}
+		AntClasspathSnapshot.invalidate();
 	}
 
 	private void restoreAdditionalEntries() {
@@ -314,9 +341,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 				}
 			}
 			additionalEntries = migrateURLEntries(getArrayFromString(entries));
-			return;
-		}
-		if (entries == null || IAntCoreConstants.EMPTY_STRING.equals(entries)) {
+		} else if (entries == null || IAntCoreConstants.EMPTY_STRING.equals(entries)) {
 			IAntClasspathEntry toolsJarEntry = getToolsJarEntry();
 			List<IAntClasspathEntry> userLibs = getUserLibraries();
 			if (toolsJarEntry == null) {
@@ -336,6 +361,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 		} else {
 			additionalEntries = extractEntries(getArrayFromString(entries));
 		}
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/*
@@ -361,6 +387,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 		if (antHome == null || IAntCoreConstants.EMPTY_STRING.equals(antHome)) {
 			antHome = getDefaultAntHome();
 		}
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/**
@@ -588,24 +615,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 */
 	@Deprecated
 	public URL[] getAntURLs() {
-		int extra = 0;
-		IAntClasspathEntry entry = getToolsJarEntry();
-		if (entry != null) {
-			extra++;
-		}
-		URL[] urls = new URL[antHomeEntries.length + extra];
-		int i;
-		for (i = 0; i < antHomeEntries.length; i++) {
-			URL url = antHomeEntries[i].getEntryURL();
-			if (url != null) {
-				urls[i] = url;
-			}
-		}
-		if (entry != null) {
-			urls[i] = entry.getEntryURL();
-		}
-		return urls;
-
+		return AntClasspathSnapshot.getSnapshot(this).getAntURLs().clone();
 	}
 
 	/**
@@ -650,6 +660,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 		AntClasspathEntry entry = new AntClasspathEntry(url);
 		entry.setEclipseRuntimeRequired(eclipseRuntimeRequired);
 		extraClasspathURLs.add(entry);
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/**
@@ -960,25 +971,31 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 * @return the collection of <code>IAntClasspathEntry</code> found at ${user.home}/.ant/lib or <code>null</code> if none found of location does
 	 *         not exist
 	 */
-	private List<IAntClasspathEntry> getUserLibraries() {
-		File libDir = new File(System.getProperty("user.home"), ".ant" + File.separatorChar + "lib"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-		URL[] urls = null;
-		try {
-			urls = getLocationURLs(libDir);
-		}
-		catch (MalformedURLException e) {
-			AntCorePlugin.log(e);
+	private synchronized List<IAntClasspathEntry> getUserLibraries() {
+		File libDir = AntClasspathSnapshot.getUserLibraryDirectory();
+		long stamp = libDir.lastModified();
+		if (stamp != userLibrariesStamp) {
+			URL[] urls = null;
+			try {
+				urls = getLocationURLs(libDir);
+			}
+			catch (MalformedURLException e) {
+				AntCorePlugin.log(e);
+			}
+			if (urls == null) {
+				userLibraries = null;
+			} else {
+				userLibraries = new IAntClasspathEntry[urls.length];
+				for (int i = 0; i < urls.length; i++) {
+					userLibraries[i] = new AntClasspathEntry(urls[i]);
+				}
+			}
+			userLibrariesStamp = stamp;
 		}
-		if (urls == null) {
+		if (userLibraries == null) {
 			return null;
 		}
-
-		List<IAntClasspathEntry> entries = new ArrayList<>(urls.length);
-		for (int i = 0; i < urls.length; i++) {
-			AntClasspathEntry entry = new AntClasspathEntry(urls[i]);
-			entries.add(entry);
-		}
-		return entries;
+		return new ArrayList<>(Arrays.asList(userLibraries));
 	}
 
 	private URL[] getLocationURLs(File location) throws MalformedURLException {
@@ -1055,13 +1072,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 * @return the list of extra classpath URLs
 	 */
 	public URL[] getExtraClasspathURLs() {
-		URL[] urls = new URL[extraClasspathURLs.size()];
-
-		for (int i = 0; i < extraClasspathURLs.size(); i++) {
-			IAntClasspathEntry entry = extraClasspathURLs.get(i);
-			urls[i] = entry.getEntryURL();
-		}
-		return urls;
+		return AntClasspathSnapshot.getSnapshot(this).getExtraClasspathURLs().clone();
 	}
 
 	/**
@@ -1089,227 +1100,27 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 * @return the entire runtime classpath of URLs
 	 */
 	public URL[] getURLs() {
-		List<URL> result = new ArrayList<>(60);
-		if (antHomeEntries != null) {
-			addEntryURLs(result, antHomeEntries);
-		}
-		if (additionalEntries != null && additionalEntries.length > 0) {
-			addEntryURLs(result, additionalEntries);
-		}
-
-		for (int i = 0; i < extraClasspathURLs.size(); i++) {
-			IAntClasspathEntry entry = extraClasspathURLs.get(i);
-			URL url = entry.getEntryURL();
-			if (url != null) {
-				result.add(url);
-			}
-		}
-
-		return result.toArray(new URL[result.size()]);
-	}
-
-	private void addEntryURLs(List<URL> result, IAntClasspathEntry[] entries) {
-		for (int i = 0; i < entries.length; i++) {
-			IAntClasspathEntry entry = entries[i];
-			URL url = entry.getEntryURL();
-			if (url != null) {
-				result.add(url);
-			}
-		}
+		return AntClasspathSnapshot.getSnapshot(this).getURLs().clone();
 	}
 
 	protected ClassLoader[] getPluginClassLoaders() {
 		if (orderedPluginClassLoaders == null) {
-			Iterator<WrappedClassLoader> classLoaders = pluginClassLoaders.iterator();
-			Map<String, WrappedClassLoader> idToLoader = new HashMap<>(pluginClassLoaders.size());
-			List<BundleRevision> bundles = new ArrayList<>(pluginClassLoaders.size());
-			while (classLoaders.hasNext()) {
-				WrappedClassLoader loader = classLoaders.next();
-				idToLoader.put(loader.bundle.getSymbolicName(), loader);
-				BundleRevision revision = loader.bundle.adapt(BundleRevision.class);
-				if (revision != null) {
-					bundles.add(revision);
-				}
+			Map<Bundle, WrappedClassLoader> bundleToLoader = new HashMap<>(pluginClassLoaders.size());
+			List<Bundle> bundles = new ArrayList<>(pluginClassLoaders.size());
+			for (WrappedClassLoader loader : pluginClassLoaders) {
+				bundleToLoader.put(loader.bundle, loader);
+				bundles.add(loader.bundle);
 			}
-			List<BundleRevision> sorted = computePrerequisiteOrder(bundles);
-			List<WrappedClassLoader> loaders = new ArrayList<>(sorted.size());
-			for (BundleRevision revision : sorted) {
-				String id = revision.getSymbolicName();
-				loaders.add(idToLoader.get(id));
+			List<Bundle> sorted = PluginLoaderOrder.getPrerequisiteOrder(bundles);
+			ClassLoader[] loaders = new ClassLoader[sorted.size()];
+			for (int i = 0; i < loaders.length; i++) {
+				loaders[i] = bundleToLoader.get(sorted.get(i));
 			}
-			orderedPluginClassLoaders = loaders.toArray(new ClassLoader[loaders.size()]);
+			orderedPluginClassLoaders = loaders;
 		}
 		return orderedPluginClassLoaders;
 	}
 
-	/*
-	 * Copied from org.eclipse.pde.internal.build.Utils
-	 */
-	private List<BundleRevision> computePrerequisiteOrder(List<BundleRevision> plugins) {
-		List<Relation> prereqs = new ArrayList<>(plugins.size());
-		List<BundleRevision> fragments = new ArrayList<>();
-
-		// create a collection of directed edges from plugin to prereq
-		for (BundleRevision current : plugins) {
-			if ((current.getTypes() & BundleRevision.TYPE_FRAGMENT) != 0) {
-				fragments.add(current);
-				continue;
-			}
-			boolean found = false;
-
-			BundleRevision[] prereqList = getDependentBundles(current);
-			for (BundleRevision prereq : prereqList) {
-				// ensure that we only include values from the original set.
-				if (plugins.contains(prereq)) {
-					found = true;
-					prereqs.add(new Relation(current, prereq));
-				}
-			}
-
-			// if we didn't find any prereqs for this plugin, add a null prereq
-			// to ensure the value is in the output
-			if (!found) {
-				prereqs.add(new Relation(current, null));
-			}
-		}
-
-		// The fragments needs to added relatively to their host and to their
-		// own prerequisite (bug #43244)
-		for (BundleRevision currentFrag : fragments) {
-
-			if (plugins.contains(currentFrag)) {
-				BundleWiring wiring = currentFrag.getWiring();
-				List<BundleWire> hostWires = wiring == null ? Collections.<BundleWire> emptyList()
-						: wiring.getRequiredWires(HostNamespace.HOST_NAMESPACE);
-				if (!hostWires.isEmpty()) {
-					prereqs.add(new Relation(currentFrag, hostWires.get(0).getProvider()));
-				}
-			} else {
-				AntCorePlugin.getPlugin().getLog().log(new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_MALFORMED_URL, NLS.bind(InternalCoreAntMessages.AntCorePreferences_1, new String[] {
-						currentFrag.getSymbolicName() }), null));
-			}
-		}
-
-		// do a topological sort, insert the fragments into the sorted elements
-		return computeNodeOrder(prereqs);
-	}
-
-	/*
-	 * Copied from org.eclipse.pde.internal.build.site.PDEState.
-	 */
-	private BundleRevision[] getDependentBundles(BundleRevision root) {
-		BundleRevision[] imported = getImportedBundles(root);
-		BundleRevision[] required = getRequiredBundles(root);
-		BundleRevision[] dependents = new BundleRevision[imported.length + required.length];
-		System.arraycopy(imported, 0, dependents, 0, imported.length);
-		System.arraycopy(required, 0, dependents, imported.length, required.length);
-		return dependents;
-	}
-
-	/*
-	 * Copied from org.eclipse.pde.internal.build.site.PDEState.
-	 */
-	private BundleRevision[] getRequiredBundles(BundleRevision root) {
-		return getDependantRequirements(root, BundleNamespace.BUNDLE_NAMESPACE);
-	}
-
-	/*
-	 * Copied from org.eclipse.pde.internal.build.site.PDEState.
-	 */
-	private BundleRevision[] getImportedBundles(BundleRevision root) {
-		return getDependantRequirements(root, PackageNamespace.PACKAGE_NAMESPACE);
-	}
-
-	private BundleRevision[] getDependantRequirements(BundleRevision root, String namespace) {
-		if (root == null) {
-			return new BundleRevision[0];
-		}
-		BundleWiring wiring = root.getWiring();
-		List<BundleWire> requiredWires = wiring == null ? Collections.<BundleWire> emptyList() : wiring.getRequiredWires(namespace);
-		ArrayList<BundleRevision> requirementProviders = new ArrayList<>(requiredWires.size());
-		for (BundleWire requiredWire : requiredWires) {
-			BundleRevision provider = requiredWire.getProvider();
-			if (!provider.equals(root) && !requirementProviders.contains(provider)) {
-				requirementProviders.add(provider);
-			}
-		}
-		return requirementProviders.toArray(new BundleRevision[requirementProviders.size()]);
-	}
-
-	/*
-	 * Copied from org.eclipse.pde.internal.build.Utils
-	 */
-	private void removeArcs(List<Relation> edges, List<BundleRevision> roots, Map<BundleRevision, Integer> counts) {
-		for (Iterator<BundleRevision> j = roots.iterator(); j.hasNext();) {
-			Object root = j.next();
-			for (int i = 0; i < edges.size(); i++) {
-				if (root.equals(edges.get(i).to)) {
-					BundleRevision input = edges.get(i).from;
-					Integer count = counts.get(input);
-					if (count != null) {
-						counts.put(input, Integer.valueOf(count.intValue() - 1));
-					}
-				}
-			}
-		}
-	}
-
-	/*
-	 * Copied from org.eclipse.pde.internal.build.Utils
-	 */
-	private List<BundleRevision> computeNodeOrder(List<Relation> edges) {
-		Map<BundleRevision, Integer> counts = computeCounts(edges);
-		List<BundleRevision> nodes = new ArrayList<>(counts.size());
-		while (!counts.isEmpty()) {
-			List<BundleRevision> roots = findRootNodes(counts);
-			if (roots.isEmpty()) {
-				break;
-			}
-			for (Iterator<BundleRevision> i = roots.iterator(); i.hasNext();) {
-				counts.remove(i.next());
-			}
-			nodes.addAll(roots);
-			removeArcs(edges, roots, counts);
-		}
-		return nodes;
-	}
-
-	/*
-	 * Copied from org.eclipse.pde.internal.build.Utils
-	 */
-	private Map<BundleRevision, Integer> computeCounts(List<Relation> mappings) {
-		Map<BundleRevision, Integer> counts = new HashMap<>(5);
-		for (int i = 0; i < mappings.size(); i++) {
-			BundleRevision from = mappings.get(i).from;
-			Integer fromCount = counts.get(from);
-			BundleRevision to = mappings.get(i).to;
-			if (to == null)
-				counts.put(from, Integer.valueOf(0));
-			else {
-				if (counts.get(to) == null)
-					counts.put(to, Integer.valueOf(0));
-				fromCount = fromCount == null ? Integer.valueOf(1) : new Integer(fromCount.intValue() + 1);
-				counts.put(from, fromCount);
-			}
-		}
-		return counts;
-	}
-
-	/*
-	 * Copied from org.eclipse.pde.internal.build.Utils
-	 */
-	private List<BundleRevision> findRootNodes(Map<BundleRevision, Integer> counts) {
-		List<BundleRevision> result = new ArrayList<>(5);
-		for (Iterator<BundleRevision> i = counts.keySet().iterator(); i.hasNext();) {
-			BundleRevision node = i.next();
-			int count = counts.get(node).intValue();
-			if (count == 0) {
-				result.add(node);
-			}
-		}
-		return result;
-	}
-
 	private void initializePluginClassLoaders() {
 		pluginClassLoaders = new ArrayList<>(10);
 		// ant.core should always be present
@@ -1485,6 +1296,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	public void setCustomTasks(Task[] tasks) {
 		oldCustomTasks = customTasks;
 		customTasks = tasks;
+		AntComponentTable.invalidate();
 	}
 
 	/**
@@ -1496,6 +1308,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	public void setCustomTypes(Type[] types) {
 		oldCustomTypes = customTypes;
 		customTypes = types;
+		AntComponentTable.invalidate();
 	}
 
 	/**
@@ -1513,6 +1326,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 			IAntClasspathEntry entry = new AntClasspathEntry(url);
 			additionalEntries[i] = entry;
 		}
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/**
@@ -1530,6 +1344,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 			IAntClasspathEntry entry = new AntClasspathEntry(url);
 			antHomeEntries[i] = entry;
 		}
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/**
@@ -1659,6 +1474,8 @@ public class AntCorePreferences implements IPropertyChangeListener {
 			Preferences prefs = AntCorePlugin.getPlugin().getPluginPreferences();
 			updateTasks(prefs);
 			updateTypes(prefs);
+			AntComponentTable.invalidate();
+			AntClasspathSnapshot.invalidate();
 			updateAntHomeEntries(prefs);
 			updateAdditionalEntries(prefs);
 			updateProperties(prefs);
@@ -1829,6 +1646,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 */
 	public void setAntHome(String antHome) {
 		this.antHome = antHome;
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/**
@@ -1870,6 +1688,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 */
 	public void setAntHomeClasspathEntries(IAntClasspathEntry[] entries) {
 		antHomeEntries = entries;
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/**
@@ -1881,6 +1700,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 */
 	public void setAdditionalClasspathEntries(IAntClasspathEntry[] entries) {
 		additionalEntries = entries;
+		AntClasspathSnapshot.invalidate();
 	}
 
 	/**
@@ -1890,29 +1710,7 @@ public class AntCorePreferences implements IPropertyChangeListener {
 	 * @since 3.0
 	 */
 	public URL[] getRemoteAntURLs() {
-		List<URL> result = new ArrayList<>(40);
-		if (antHomeEntries != null) {
-			for (int i = 0; i < antHomeEntries.length; i++) {
-				IAntClasspathEntry entry = antHomeEntries[i];
-				result.add(entry.getEntryURL());
-			}
-		}
-		if (additionalEntries != null && additionalEntries.length > 0) {
-			for (int i = 0; i < additionalEntries.length; i++) {
-				IAntClasspathEntry entry = additionalEntries[i];
-				result.add(entry.getEntryURL());
-			}
-		}
-		if (extraClasspathURLs != null) {
-			for (int i = 0; i < extraClasspathURLs.size(); i++) {
-				IAntClasspathEntry entry = extraClasspathURLs.get(i);
-				if (!entry.isEclipseRuntimeRequired()) {
-					result.add(entry.getEntryURL());
-				}
-			}
-		}
-
-		return result.toArray(new URL[result.size()]);
+		return AntClasspathSnapshot.getSnapshot(this).getRemoteAntURLs().clone();
 	}
 
 	/**
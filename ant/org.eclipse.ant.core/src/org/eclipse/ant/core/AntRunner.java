@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.StringTokenizer;
 
 import org.eclipse.ant.internal.core.AntClassLoader;
+import org.eclipse.ant.internal.core.AntClasspathSnapshot;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.core.InternalCoreAntMessages;
 import org.eclipse.core.runtime.CoreException;
@@ -518,13 +519,15 @@ public class AntRunner implements IApplication {
 	}
 
 	private ClassLoader getClassLoader() {
+		// called once per build, so changes of the library folders are picked up by the next build
+		AntClasspathSnapshot.refresh();
 		if (customClasspath == null) {
 			return AntCorePlugin.getPlugin().getNewClassLoader();
 		}
 		AntCorePreferences preferences = AntCorePlugin.getPlugin().getPreferences();
 		ArrayList<URL> fullClasspath = new ArrayList<>();
 		fullClasspath.addAll(Arrays.asList(customClasspath));
-		fullClasspath.addAll(Arrays.asList(preferences.getExtraClasspathURLs()));
+		fullClasspath.addAll(Arrays.asList(AntClasspathSnapshot.getSnapshot(preferences).getExtraClasspathURLs()));
 		return new AntClassLoader(fullClasspath.toArray(new URL[fullClasspath.size()]), preferences.getPluginClassLoaders());
 	}
 
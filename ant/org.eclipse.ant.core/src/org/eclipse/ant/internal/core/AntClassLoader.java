@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,18 +17,29 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AntClassLoader extends URLClassLoader {
 
 	private static final String ANT_PACKAGES_PREFIX = "org.apache.tools"; //$NON-NLS-1$
 	private static final String ANT_URL_PREFIX = "org/apache/tools"; //$NON-NLS-1$
 
+	/**
+	 * Limits the number of names remembered as not provided by any plug-in class loader
+	 */
+	private static final int MAX_MISSES = 4096;
+
 	private boolean fAllowPluginLoading = false;
 
 	protected ClassLoader[] fPluginLoaders;
 
 	private ClassLoader fContextClassloader = null;
 
+	private PluginPackageIndex fPackageIndex = null;
+	private final Set<String> fMissingClasses = ConcurrentHashMap.newKeySet();
+	private final Set<String> fMissingResources = ConcurrentHashMap.newKeySet();
+
 	public AntClassLoader(URL[] urls, ClassLoader[] pluginLoaders) {
 		super(urls, ClassLoader.getSystemClassLoader());
 		fPluginLoaders = pluginLoaders;
@@ -54,6 +65,9 @@ public class AntClassLoader extends URLClassLoader {
 	}
 
 	protected Class<?> loadClassPlugins(String name) {
+		if (fPluginLoaders == null || fMissingClasses.contains(name)) {
+			return null;
+		}
 		// remove this class loader as the context class loader
 		// when loading classes from plug-ins...see bug 94471
 		ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
@@ -62,17 +76,19 @@ public class AntClassLoader extends URLClassLoader {
 		}
 		try {
 			Class<?> result = null;
-			if (fPluginLoaders != null) {
-				for (int i = 0; (i < fPluginLoaders.length) && (result == null); i++) {
-					try {
-						result = fPluginLoaders[i].loadClass(name);
-					}
-					catch (ClassNotFoundException e) {
-						// Ignore exception now. If necessary we'll throw
-						// a ClassNotFoundException in loadClass(String)
-					}
+			ClassLoader[] loaders = getPackageIndex().getLoadersForClass(name);
+			for (int i = 0; (i < loaders.length) && (result == null); i++) {
+				try {
+					result = loaders[i].loadClass(name);
+				}
+				catch (ClassNotFoundException e) {
+					// Ignore exception now. If necessary we'll throw
+					// a ClassNotFoundException in loadClass(String)
 				}
 			}
+			if (result == null) {
+				addMiss(fMissingClasses, name);
+			}
 			return result;
 		}
 		finally {
@@ -96,6 +112,9 @@ public class AntClassLoader extends URLClassLoader {
 	}
 
 	private URL findResourcePlugins(String name) {
+		if (fPluginLoaders == null || fMissingResources.contains(name)) {
+			return null;
+		}
 		// remove this class loader as the context class loader
 		// when loading resources from plug-ins...see bug 94471
 		ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
@@ -103,15 +122,14 @@ public class AntClassLoader extends URLClassLoader {
 			Thread.currentThread().setContextClassLoader(fContextClassloader);
 		}
 		try {
-			URL result = null;
-			if (fPluginLoaders != null) {
-				for (int i = 0; i < fPluginLoaders.length; i++) {
-					result = fPluginLoaders[i].getResource(name);
-					if (result != null) {
-						return result;
-					}
+			ClassLoader[] loaders = getPackageIndex().getLoadersForResource(name);
+			for (int i = 0; i < loaders.length; i++) {
+				URL result = loaders[i].getResource(name);
+				if (result != null) {
+					return result;
 				}
 			}
+			addMiss(fMissingResources, name);
 		}
 		finally {
 			Thread.currentThread().setContextClassLoader(originalClassLoader);
@@ -133,8 +151,9 @@ public class AntClassLoader extends URLClassLoader {
 			if (fAllowPluginLoading || !(name.startsWith(ANT_URL_PREFIX) || name.startsWith(ANT_URL_PREFIX, 1))) {
 				if (fPluginLoaders != null) {
 					Enumeration<URL> result = null;
-					for (int i = 0; i < fPluginLoaders.length; i++) {
-						result = fPluginLoaders[i].getResources(name);
+					ClassLoader[] loaders = getPackageIndex().getLoadersForResource(name);
+					for (int i = 0; i < loaders.length; i++) {
+						result = loaders[i].getResources(name);
 						while (result.hasMoreElements()) {
 							all.add(result.nextElement());
 						}
@@ -157,6 +176,27 @@ public class AntClassLoader extends URLClassLoader {
 		}
 	}
 
+	/*
+	 * Returns the index of the packages provided by the plug-in class loaders, see IPluginClassLoader.
+	 */
+	private synchronized PluginPackageIndex getPackageIndex() {
+		if (fPackageIndex == null) {
+			fPackageIndex = PluginPackageIndex.getIndex(fPluginLoaders);
+		}
+		return fPackageIndex;
+	}
+
+	/*
+	 * Remembers that no plug-in class loader provides the given class or resource. The plug-in class loaders do not change, so neither does
+	 * the answer.
+	 */
+	private static void addMiss(Set<String> misses, String name) {
+		if (misses.size() >= MAX_MISSES) {
+			misses.clear();
+		}
+		misses.add(name);
+	}
+
 	/**
 	 * Sets whether this class loader will allow Apache Ant classes or resources to be found or loaded from its set of plug-in class loaders.
 	 * 
@@ -0,0 +1,273 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.ant.core.AntCorePreferences;
+import org.eclipse.ant.core.IAntClasspathEntry;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.variables.VariablesPlugin;
+
+/**
+ * An immutable snapshot of the resolved Ant runtime classpath of the preferences.
+ * <p>
+ * The snapshot is taken when the classpath is first asked for and reused until the classpath preferences change, see {@link #invalidate()}. The
+ * file system and the variables are only checked when a build starts, see {@link #refresh()}: the snapshot is then dropped if the modification
+ * time of <code>${user.home}/.ant/lib</code> or of the <code>lib</code> folder of the Ant home changed, or if a variable used by a classpath
+ * entry resolves to a different value.
+ * </p>
+ * <p>
+ * The URL arrays returned are shared and must not be modified.
+ * </p>
+ *
+ * @since 3.5.200
+ */
+public final class AntClasspathSnapshot {
+
+	private static final String VARIABLE_START = "${"; //$NON-NLS-1$
+
+	private static AntClasspathSnapshot fgSnapshot = null;
+
+	private final AntCorePreferences fPreferences;
+	private final URL[] fURLs;
+	private final URL[] fExtraURLs;
+	private final URL[] fRemoteAntURLs;
+	private final File[] fDirectories;
+	private final long[] fStamps;
+	private final String[] fVariableEntries;
+	private final String[] fExpansions;
+
+	private volatile URL[] fAntURLs = null;
+	private volatile String fSystemClasspath = null;
+
+	private AntClasspathSnapshot(AntCorePreferences preferences) {
+		fPreferences = preferences;
+		IAntClasspathEntry[] antHomeEntries = preferences.getAntHomeClasspathEntries();
+		IAntClasspathEntry[] additionalEntries = preferences.getAdditionalClasspathEntries();
+		IAntClasspathEntry[] extraEntries = preferences.getContributedClasspathEntries();
+		List<String> variableEntries = new ArrayList<>();
+
+		URL[] antHomeURLs = getEntryURLs(antHomeEntries, variableEntries);
+		URL[] additionalURLs = getEntryURLs(additionalEntries, variableEntries);
+		fExtraURLs = getEntryURLs(extraEntries, variableEntries);
+
+		List<URL> urls = new ArrayList<>(antHomeURLs.length + additionalURLs.length + fExtraURLs.length);
+		List<URL> remoteURLs = new ArrayList<>(urls.size());
+		addURLs(antHomeURLs, urls, remoteURLs);
+		addURLs(additionalURLs, urls, remoteURLs);
+		for (int i = 0; i < fExtraURLs.length; i++) {
+			if (fExtraURLs[i] != null) {
+				urls.add(fExtraURLs[i]);
+			}
+			if (!extraEntries[i].isEclipseRuntimeRequired()) {
+				remoteURLs.add(fExtraURLs[i]);
+			}
+		}
+		fURLs = urls.toArray(new URL[urls.size()]);
+		fRemoteAntURLs = remoteURLs.toArray(new URL[remoteURLs.size()]);
+
+		fVariableEntries = variableEntries.toArray(new String[variableEntries.size()]);
+		fExpansions = new String[fVariableEntries.length];
+		for (int i = 0; i < fVariableEntries.length; i++) {
+			fExpansions[i] = expand(fVariableEntries[i]);
+		}
+
+		String antHome = preferences.getAntHome();
+		if (antHome == null) {
+			fDirectories = new File[] { getUserLibraryDirectory() };
+		} else {
+			fDirectories = new File[] { getUserLibraryDirectory(), new File(antHome, "lib") }; //$NON-NLS-1$
+		}
+		fStamps = new long[fDirectories.length];
+		for (int i = 0; i < fDirectories.length; i++) {
+			fStamps[i] = fDirectories[i].lastModified();
+		}
+	}
+
+	/**
+	 * Returns the snapshot of the classpath of the given preferences, taking a new one if there is none or the last one was discarded. This does
+	 * not access the file system.
+	 *
+	 * @param preferences
+	 *            the Ant preferences
+	 * @return the current snapshot
+	 */
+	public static synchronized AntClasspathSnapshot getSnapshot(AntCorePreferences preferences) {
+		if (fgSnapshot == null || fgSnapshot.fPreferences != preferences) {
+			fgSnapshot = new AntClasspathSnapshot(preferences);
+		}
+		return fgSnapshot;
+	}
+
+	/**
+	 * Discards the current snapshot if the library folders or the variables it was taken from have changed. Called once when a build starts.
+	 */
+	public static void refresh() {
+		AntClasspathSnapshot snapshot;
+		synchronized (AntClasspathSnapshot.class) {
+			snapshot = fgSnapshot;
+		}
+		if (snapshot == null || snapshot.isCurrent()) {
+			return;
+		}
+		synchronized (AntClasspathSnapshot.class) {
+			if (fgSnapshot == snapshot) {
+				fgSnapshot = null;
+			}
+		}
+	}
+
+	/**
+	 * Discards the current snapshot. Called whenever the classpath entries or the Ant home of the preferences change.
+	 */
+	public static synchronized void invalidate() {
+		fgSnapshot = null;
+	}
+
+	/**
+	 * Returns the <code>${user.home}/.ant/lib</code> directory.
+	 */
+	public static File getUserLibraryDirectory() {
+		return new File(System.getProperty("user.home"), ".ant" + File.separatorChar + "lib"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Returns the given URLs as file system paths in the form used for <code>org.apache.tools.ant.types.Path.systemClasspath</code>. URLs that
+	 * cannot be converted to a file are left out.
+	 *
+	 * @param urls
+	 *            the classpath URLs
+	 * @return the paths separated by <code>"; "</code>
+	 */
+	public static String toSystemClasspath(URL[] urls) {
+		StringBuffer buff = new StringBuffer();
+		for (int i = 0; i < urls.length; i++) {
+			File file = null;
+			try {
+				file = new File(FileLocator.toFileURL(urls[i]).getPath());
+			}
+			catch (IOException e) {
+				continue;
+			}
+			if (buff.length() > 0) {
+				buff.append("; "); //$NON-NLS-1$
+			}
+			buff.append(file.getAbsolutePath());
+		}
+		return buff.toString();
+	}
+
+	private static URL[] getEntryURLs(IAntClasspathEntry[] entries, List<String> variableEntries) {
+		if (entries == null) {
+			return new URL[0];
+		}
+		URL[] urls = new URL[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			urls[i] = entries[i].getEntryURL();
+			String label = entries[i].getLabel();
+			if (label != null && label.indexOf(VARIABLE_START) >= 0) {
+				variableEntries.add(label);
+			}
+		}
+		return urls;
+	}
+
+	private static void addURLs(URL[] entryURLs, List<URL> urls, List<URL> remoteURLs) {
+		for (int i = 0; i < entryURLs.length; i++) {
+			if (entryURLs[i] != null) {
+				urls.add(entryURLs[i]);
+			}
+			remoteURLs.add(entryURLs[i]);
+		}
+	}
+
+	private static String expand(String entry) {
+		try {
+			return VariablesPlugin.getDefault().getStringVariableManager().performStringSubstitution(entry);
+		}
+		catch (CoreException e) {
+			return entry;
+		}
+	}
+
+	private boolean isCurrent() {
+		for (int i = 0; i < fDirectories.length; i++) {
+			if (fDirectories[i].lastModified() != fStamps[i]) {
+				return false;
+			}
+		}
+		for (int i = 0; i < fVariableEntries.length; i++) {
+			if (!expand(fVariableEntries[i]).equals(fExpansions[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the URLs of the Ant home, additional and contributed classpath entries, see {@link AntCorePreferences#getURLs()}.
+	 */
+	public URL[] getURLs() {
+		return fURLs;
+	}
+
+	/**
+	 * Returns the URLs of the contributed classpath entries, see {@link AntCorePreferences#getExtraClasspathURLs()}.
+	 */
+	public URL[] getExtraClasspathURLs() {
+		return fExtraURLs;
+	}
+
+	/**
+	 * Returns the URLs of the classpath of a build without the Eclipse runtime, see {@link AntCorePreferences#getRemoteAntURLs()}.
+	 */
+	public URL[] getRemoteAntURLs() {
+		return fRemoteAntURLs;
+	}
+
+	/**
+	 * Returns the URLs of the Ant home entries followed by the tools.jar, if any, see {@link AntCorePreferences#getAntURLs()}.
+	 */
+	public URL[] getAntURLs() {
+		URL[] urls = fAntURLs;
+		if (urls == null) {
+			IAntClasspathEntry[] antHomeEntries = fPreferences.getAntHomeClasspathEntries();
+			IAntClasspathEntry toolsJar = fPreferences.getToolsJarEntry();
+			urls = new URL[antHomeEntries.length + (toolsJar == null ? 0 : 1)];
+			for (int i = 0; i < antHomeEntries.length; i++) {
+				urls[i] = antHomeEntries[i].getEntryURL();
+			}
+			if (toolsJar != null) {
+				urls[antHomeEntries.length] = toolsJar.getEntryURL();
+			}
+			fAntURLs = urls;
+		}
+		return urls;
+	}
+
+	/**
+	 * Returns {@link #getURLs()} as file system paths, see {@link #toSystemClasspath(URL[])}.
+	 */
+	public String getSystemClasspath() {
+		String classpath = fSystemClasspath;
+		if (classpath == null) {
+			classpath = toSystemClasspath(fURLs);
+			fSystemClasspath = classpath;
+		}
+		return classpath;
+	}
+}
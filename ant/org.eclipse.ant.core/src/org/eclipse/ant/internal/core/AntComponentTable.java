@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.ant.core.AntCorePreferences;
+import org.eclipse.ant.core.Task;
+import org.eclipse.ant.core.Type;
+
+/**
+ * An immutable snapshot of the tasks and types contributed by plug-ins and defined by the user, with the component names Ant registers them
+ * under.
+ * <p>
+ * The snapshot is taken when a build first asks for it and shared by all builds until the tasks or types of the preferences change, see
+ * {@link #invalidate()}.
+ * </p>
+ *
+ * @since 3.5.200
+ */
+public final class AntComponentTable {
+
+	/**
+	 * The namespace of the core Ant components, see <code>org.apache.tools.ant.ProjectHelper.ANT_CORE_URI</code>
+	 */
+	private static final String ANT_CORE_URI = "antlib:org.apache.tools.ant"; //$NON-NLS-1$
+
+	private static AntComponentTable fgTable = null;
+
+	private final AntCorePreferences fPreferences;
+	private final List<Task> fTasks;
+	private final List<Type> fTypes;
+	private final String[] fTaskNames;
+	private final String[] fTypeNames;
+
+	private AntComponentTable(AntCorePreferences preferences, List<Task> tasks, List<Type> types) {
+		fPreferences = preferences;
+		fTasks = Collections.unmodifiableList(tasks);
+		fTypes = Collections.unmodifiableList(types);
+		fTaskNames = new String[tasks.size()];
+		for (int i = 0; i < fTaskNames.length; i++) {
+			Task task = tasks.get(i);
+			fTaskNames[i] = getComponentName(task.getURI(), task.getTaskName());
+		}
+		fTypeNames = new String[types.size()];
+		for (int i = 0; i < fTypeNames.length; i++) {
+			Type type = types.get(i);
+			fTypeNames[i] = getComponentName(type.getURI(), type.getTypeName());
+		}
+	}
+
+	/**
+	 * Returns the snapshot of the tasks and types of the given preferences, taking it if there is none.
+	 *
+	 * @param preferences
+	 *            the Ant preferences
+	 * @return the current snapshot
+	 */
+	public static synchronized AntComponentTable getTable(AntCorePreferences preferences) {
+		if (fgTable == null || fgTable.fPreferences != preferences) {
+			fgTable = new AntComponentTable(preferences, preferences.getTasks(), preferences.getTypes());
+		}
+		return fgTable;
+	}
+
+	/**
+	 * Discards the current snapshot. Called whenever the tasks or types of the preferences change.
+	 */
+	public static synchronized void invalidate() {
+		fgTable = null;
+	}
+
+	/**
+	 * Mirrors <code>org.apache.tools.ant.ProjectHelper.genComponentName(String, String)</code>, which is not visible here.
+	 */
+	private static String getComponentName(String uri, String name) {
+		if (uri == null || uri.length() == 0 || uri.equals(ANT_CORE_URI)) {
+			return name;
+		}
+		return uri + ':' + name;
+	}
+
+	/**
+	 * Returns the default and custom tasks. The list cannot be modified.
+	 */
+	public List<Task> getTasks() {
+		return fTasks;
+	}
+
+	/**
+	 * Returns the default and custom types. The list cannot be modified.
+	 */
+	public List<Type> getTypes() {
+		return fTypes;
+	}
+
+	/**
+	 * Returns the name the task at the given index of {@link #getTasks()} is registered under, qualified by its namespace.
+	 */
+	public String getTaskComponentName(int index) {
+		return fTaskNames[index];
+	}
+
+	/**
+	 * Returns the name the type at the given index of {@link #getTypes()} is registered under, qualified by its namespace.
+	 */
+	public String getTypeComponentName(int index) {
+		return fTypeNames[index];
+	}
+}
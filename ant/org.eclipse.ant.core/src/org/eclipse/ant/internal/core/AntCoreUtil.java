@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,21 +11,14 @@
 package org.eclipse.ant.internal.core;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 
-import org.eclipse.ant.core.AntCorePlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
-import org.eclipse.core.variables.IStringVariableManager;
-import org.eclipse.core.variables.VariablesPlugin;
 import org.osgi.framework.BundleContext;
 
 public class AntCoreUtil {
@@ -130,42 +123,38 @@ public class AntCoreUtil {
 	}
 
 	/**
-	 * Returns a list of Properties contained in the list of fileNames.
+	 * Returns the properties contained in the list of fileNames. The files are read in parallel and their contents are cached, see
+	 * {@link PropertyFileCache}. The returned maps are shared and cannot be modified.
 	 * 
 	 * @param fileNames
 	 *            the names of the properties files to load from
 	 * @param base
 	 *            the base directory name
 	 * @param buildFileLocation
-	 * @return a list of {@link Properties} objects for each filename
+	 * @return the properties of each file by name
 	 * @throws IOException
 	 */
-	public static List<Properties> loadPropertyFiles(List<String> fileNames, String base, String buildFileLocation) throws IOException {
-		ArrayList<Properties> allProperties = new ArrayList<>(fileNames.size());
+	public static List<Map<String, String>> loadPropertyFiles(List<String> fileNames, String base, String buildFileLocation) throws IOException {
+		List<File> files = new ArrayList<>(fileNames.size());
 		for (int i = 0; i < fileNames.size(); i++) {
-			String filename = fileNames.get(i);
-			File file = getFileRelativeToBaseDir(filename, base, buildFileLocation);
-			Properties props = new Properties();
-			try (FileInputStream fis = new FileInputStream(file)) {
-				props.load(fis);
-			}
-			Enumeration<?> propertyNames = props.propertyNames();
-			while (propertyNames.hasMoreElements()) {
-				String name = (String) propertyNames.nextElement();
-				String value = props.getProperty(name);
-				props.remove(name);
-				IStringVariableManager stringVariableManager = VariablesPlugin.getDefault().getStringVariableManager();
-				try {
-					name = stringVariableManager.performStringSubstitution(name);
-					value = stringVariableManager.performStringSubstitution(value);
-				}
-				catch (CoreException e) {
-					AntCorePlugin.log(e);
-				}
-				props.setProperty(name, value);
-			}
-			allProperties.add(props);
+			files.add(getFileRelativeToBaseDir(fileNames.get(i), base, buildFileLocation));
+		}
+		return PropertyFileCache.getProperties(files);
+	}
+
+	/**
+	 * Returns the given bytes, for example a digest, as a string of lower case hexadecimal digits, two per byte.
+	 * 
+	 * @param bytes
+	 *            the bytes to convert
+	 * @return the hexadecimal string
+	 */
+	public static String toHexString(byte[] bytes) {
+		StringBuffer buffer = new StringBuffer(bytes.length * 2);
+		for (int i = 0; i < bytes.length; i++) {
+			buffer.append(Character.forDigit((bytes[i] >> 4) & 0xF, 16));
+			buffer.append(Character.forDigit(bytes[i] & 0xF, 16));
 		}
-		return allProperties;
+		return buffer.toString();
 	}
 }
@@ -0,0 +1,28 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+/**
+ * A plug-in class loader of an {@link AntClassLoader} that can tell which packages it provides itself, so that the Ant class loader only asks
+ * it for classes and resources of those packages.
+ *
+ * @since 3.5.200
+ */
+public interface IPluginClassLoader {
+
+	/**
+	 * Returns the names of the packages that this class loader exports or contains, including packages that only hold resources, or
+	 * <code>null</code> if they cannot be determined. Packages are named with dots, the root package is the empty string.
+	 *
+	 * @return the package names or <code>null</code>
+	 */
+	String[] getPackageNames();
+}
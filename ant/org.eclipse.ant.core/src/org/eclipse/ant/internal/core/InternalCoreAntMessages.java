@@ -21,13 +21,14 @@ public class InternalCoreAntMessages extends NLS {
 	public static String AntCorePreferences_8;
 	public static String AntCorePreferences_6;
 	public static String AntCorePreferences_0;
-	public static String AntCorePreferences_1;
 
 	public static String AntRunner_Could_not_find_one_or_more_classes__Please_check_the_Ant_classpath__1;
 	public static String AntRunner_Could_not_find_one_or_more_classes__Please_check_the_Ant_classpath__2;
 	public static String AntRunner_Build_Failed__3;
 	public static String AntRunner_Already_in_progess;
 
+	public static String PluginLoaderOrder_Fragment_without_host;
+
 	static {
 		// load message values from bundle file
 		NLS.initializeMessages(BUNDLE_NAME, InternalCoreAntMessages.class);
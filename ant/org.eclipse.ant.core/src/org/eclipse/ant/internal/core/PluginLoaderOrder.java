@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.namespace.BundleNamespace;
+import org.osgi.framework.namespace.HostNamespace;
+import org.osgi.framework.namespace.PackageNamespace;
+import org.osgi.framework.wiring.BundleRevision;
+import org.osgi.framework.wiring.BundleWire;
+import org.osgi.framework.wiring.BundleWiring;
+
+/**
+ * Orders the bundles that contribute to the Ant classpath so that every bundle comes after the bundles it imports packages from or requires,
+ * and every fragment after its host.
+ * <p>
+ * The order is computed from the current wiring each time it is asked for. The sort is linear in the number of bundles and wires, so keeping it
+ * across sessions would not pay for the risk of a stale order after the wiring changed.
+ * </p>
+ *
+ * @since 3.5.200
+ */
+public final class PluginLoaderOrder {
+
+	/**
+	 * The code of the status logged for a fragment that is not attached to a host, following the codes of <code>AntCorePlugin</code>
+	 */
+	public static final int FRAGMENT_WITHOUT_HOST = 121;
+
+	private PluginLoaderOrder() {
+		// Do not instantiate
+	}
+
+	/**
+	 * Returns the given bundles in prerequisite order. Bundles that are part of a cycle keep their relative order and follow the others.
+	 *
+	 * @param bundles
+	 *            the bundles to order
+	 * @return a new list with the same bundles
+	 */
+	public static List<Bundle> getPrerequisiteOrder(List<Bundle> bundles) {
+		return sort(bundles);
+	}
+
+	/*
+	 * Kahn's algorithm over an adjacency index: linear in the number of bundles and wires.
+	 */
+	private static List<Bundle> sort(List<Bundle> bundles) {
+		int count = bundles.size();
+		Map<BundleRevision, Integer> indices = new HashMap<>(count * 2);
+		BundleRevision[] revisions = new BundleRevision[count];
+		for (int i = 0; i < count; i++) {
+			revisions[i] = bundles.get(i).adapt(BundleRevision.class);
+			if (revisions[i] != null) {
+				indices.put(revisions[i], Integer.valueOf(i));
+			}
+		}
+
+		// dependents[i] lists the bundles that need bundle i, inDegree[i] counts the bundles that bundle i needs
+		int[][] dependents = new int[count][];
+		int[] dependentCounts = new int[count];
+		int[] inDegree = new int[count];
+		for (int i = 0; i < count; i++) {
+			if (revisions[i] == null) {
+				continue;
+			}
+			BundleWiring wiring = revisions[i].getWiring();
+			if (wiring == null) {
+				continue;
+			}
+			if ((revisions[i].getTypes() & BundleRevision.TYPE_FRAGMENT) != 0) {
+				// fragments are placed after their host (bug 43244)
+				List<BundleWire> hostWires = wiring.getRequiredWires(HostNamespace.HOST_NAMESPACE);
+				if (hostWires.isEmpty()) {
+					// placed with the bundles that have no prerequisite
+					AntCorePlugin.getPlugin().getLog().log(new Status(IStatus.WARNING, AntCorePlugin.PI_ANTCORE, FRAGMENT_WITHOUT_HOST, NLS.bind(InternalCoreAntMessages.PluginLoaderOrder_Fragment_without_host, new String[] {
+							revisions[i].getSymbolicName() }), null));
+				} else {
+					addEdge(hostWires.get(0).getProvider(), i, indices, dependents, dependentCounts, inDegree);
+				}
+				continue;
+			}
+			addEdges(wiring.getRequiredWires(PackageNamespace.PACKAGE_NAMESPACE), i, indices, dependents, dependentCounts, inDegree);
+			addEdges(wiring.getRequiredWires(BundleNamespace.BUNDLE_NAMESPACE), i, indices, dependents, dependentCounts, inDegree);
+		}
+
+		int[] queue = new int[count];
+		int head = 0;
+		int tail = 0;
+		for (int i = 0; i < count; i++) {
+			if (inDegree[i] == 0) {
+				queue[tail++] = i;
+			}
+		}
+		boolean[] placed = new boolean[count];
+		List<Bundle> sorted = new ArrayList<>(count);
+		while (head < tail) {
+			int current = queue[head++];
+			placed[current] = true;
+			sorted.add(bundles.get(current));
+			for (int j = 0; j < dependentCounts[current]; j++) {
+				int dependent = dependents[current][j];
+				if (--inDegree[dependent] == 0) {
+					queue[tail++] = dependent;
+				}
+			}
+		}
+		if (sorted.size() < count) {
+			for (int i = 0; i < count; i++) {
+				if (!placed[i]) {
+					sorted.add(bundles.get(i));
+				}
+			}
+		}
+		return sorted;
+	}
+
+	private static void addEdges(List<BundleWire> wires, int dependent, Map<BundleRevision, Integer> indices, int[][] dependents, int[] dependentCounts, int[] inDegree) {
+		for (int i = 0; i < wires.size(); i++) {
+			addEdge(wires.get(i).getProvider(), dependent, indices, dependents, dependentCounts, inDegree);
+		}
+	}
+
+	private static void addEdge(BundleRevision provider, int dependent, Map<BundleRevision, Integer> indices, int[][] dependents, int[] dependentCounts, int[] inDegree) {
+		Integer index = indices.get(provider);
+		if (index == null || index.intValue() == dependent) {
+			// only bundles of the given set count
+			return;
+		}
+		int from = index.intValue();
+		int[] list = dependents[from];
+		int size = dependentCounts[from];
+		for (int i = 0; i < size; i++) {
+			if (list[i] == dependent) {
+				// several packages from the same bundle
+				return;
+			}
+		}
+		if (list == null) {
+			list = new int[4];
+			dependents[from] = list;
+		} else if (size == list.length) {
+			int[] grown = new int[size * 2];
+			System.arraycopy(list, 0, grown, 0, size);
+			list = grown;
+			dependents[from] = list;
+		}
+		list[size] = dependent;
+		dependentCounts[from] = size + 1;
+		inDegree[dependent]++;
+	}
+}
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps package names to the plug-in class loaders of an {@link AntClassLoader} that provide them, see {@link IPluginClassLoader}.
+ * <p>
+ * A package that none of the loaders provides may still be visible to them through their imports, so all loaders are asked for it, in order.
+ * Loaders that cannot tell their packages are asked for every package.
+ * </p>
+ */
+final class PluginPackageIndex {
+
+	/**
+	 * The index of the last plug-in loaders, these rarely change between builds
+	 */
+	private static PluginPackageIndex fgLast = null;
+
+	private final ClassLoader[] fLoaders;
+	private final Map<String, ClassLoader[]> fPackages;
+
+	private PluginPackageIndex(ClassLoader[] loaders) {
+		fLoaders = loaders;
+		Map<String, List<ClassLoader>> packages = new HashMap<>();
+		boolean[] indexed = new boolean[loaders.length];
+		for (int i = 0; i < loaders.length; i++) {
+			String[] names = null;
+			if (loaders[i] instanceof IPluginClassLoader) {
+				names = ((IPluginClassLoader) loaders[i]).getPackageNames();
+			}
+			if (names == null) {
+				continue;
+			}
+			indexed[i] = true;
+			for (int j = 0; j < names.length; j++) {
+				List<ClassLoader> providers = packages.get(names[j]);
+				if (providers == null) {
+					providers = new ArrayList<>(2);
+					packages.put(names[j], providers);
+				}
+				if (!providers.contains(loaders[i])) {
+					providers.add(loaders[i]);
+				}
+			}
+		}
+		fPackages = new HashMap<>(packages.size());
+		for (Iterator<Map.Entry<String, List<ClassLoader>>> iter = packages.entrySet().iterator(); iter.hasNext();) {
+			Map.Entry<String, List<ClassLoader>> entry = iter.next();
+			fPackages.put(entry.getKey(), getCandidates(loaders, indexed, entry.getValue()));
+		}
+	}
+
+	/**
+	 * Returns the index of the given plug-in loaders.
+	 */
+	static synchronized PluginPackageIndex getIndex(ClassLoader[] loaders) {
+		if (fgLast == null || fgLast.fLoaders != loaders) {
+			fgLast = new PluginPackageIndex(loaders);
+		}
+		return fgLast;
+	}
+
+	/*
+	 * Returns the providers of a package together with the loaders that cannot tell their packages, in the order of all loaders.
+	 */
+	private static ClassLoader[] getCandidates(ClassLoader[] loaders, boolean[] indexed, List<ClassLoader> providers) {
+		List<ClassLoader> candidates = new ArrayList<>(providers.size());
+		for (int i = 0; i < loaders.length; i++) {
+			if (!indexed[i] || providers.contains(loaders[i])) {
+				candidates.add(loaders[i]);
+			}
+		}
+		return candidates.toArray(new ClassLoader[candidates.size()]);
+	}
+
+	/**
+	 * Returns the loaders to ask for a class of the given package, in order.
+	 */
+	ClassLoader[] getLoaders(String packageName) {
+		ClassLoader[] loaders = fPackages.get(packageName);
+		return loaders == null ? fLoaders : loaders;
+	}
+
+	/**
+	 * Returns the loaders to ask for a class with the given fully qualified name, in order.
+	 */
+	ClassLoader[] getLoadersForClass(String className) {
+		int index = className.lastIndexOf('.');
+		return getLoaders(index < 0 ? IAntCoreConstants.EMPTY_STRING : className.substring(0, index));
+	}
+
+	/**
+	 * Returns the loaders to ask for a resource with the given path, in order.
+	 */
+	ClassLoader[] getLoadersForResource(String resourceName) {
+		String name = resourceName.startsWith("/") ? resourceName.substring(1) : resourceName; //$NON-NLS-1$
+		int index = name.lastIndexOf('/');
+		return getLoaders(index < 0 ? IAntCoreConstants.EMPTY_STRING : name.substring(0, index).replace('/', '.'));
+	}
+}
@@ -0,0 +1,339 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.IValueVariableListener;
+import org.eclipse.core.variables.VariablesPlugin;
+
+/**
+ * Caches the contents of property files used by Ant builds, see {@link AntCoreUtil#loadPropertyFiles(List, String, String)}.
+ * <p>
+ * A file is read again when its modification time or length changes. Files that are not cached are read in parallel by a small pool of
+ * threads shared by all builds. The properties with variables substituted are reused as long as no value variable has changed and none of the
+ * substituted variables is a dynamic variable, whose value can change at any time.
+ * </p>
+ *
+ * @since 3.5.200
+ */
+public final class PropertyFileCache {
+
+	private static final String VARIABLE_START = "${"; //$NON-NLS-1$
+
+	private static final int MAX_FILES = 32;
+
+	/**
+	 * The maximum number of threads that read files at the same time
+	 */
+	private static final int MAX_READERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * The time in seconds after which an idle reader thread ends
+	 */
+	private static final long READER_KEEP_ALIVE = 5;
+
+	private static final Map<String, CachedFile> fgFiles = new LinkedHashMap<String, CachedFile>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedFile> eldest) {
+			return size() > MAX_FILES;
+		}
+	};
+
+	/**
+	 * Changes whenever a value variable is added, removed or changed
+	 */
+	private static int fgGeneration = 0;
+
+	private static IValueVariableListener fgListener = null;
+
+	private static ExecutorService fgReaders = null;
+
+	private static final class CachedFile {
+		final long fModified;
+		final long fLength;
+		final Properties fProperties;
+		int fGeneration = -1;
+		Map<String, String> fSubstituted = null;
+
+		CachedFile(long modified, long length, Properties properties) {
+			fModified = modified;
+			fLength = length;
+			fProperties = properties;
+		}
+	}
+
+	private PropertyFileCache() {
+		// Do not instantiate
+	}
+
+	/**
+	 * Returns the properties of the given files with variables substituted, in the order of the files. The returned maps are shared by all
+	 * callers and cannot be modified.
+	 *
+	 * @param files
+	 *            the property files
+	 * @return the properties of each file by name
+	 * @throws IOException
+	 *             if one of the files cannot be read
+	 */
+	public static List<Map<String, String>> getProperties(List<File> files) throws IOException {
+		IStringVariableManager manager = VariablesPlugin.getDefault().getStringVariableManager();
+		int generation = addListener(manager);
+		CachedFile[] cached = new CachedFile[files.size()];
+		List<File> missing = new ArrayList<>();
+		synchronized (fgFiles) {
+			for (int i = 0; i < cached.length; i++) {
+				File file = files.get(i);
+				CachedFile entry = fgFiles.get(file.getAbsolutePath());
+				if (entry != null && entry.fModified == file.lastModified() && entry.fLength == file.length()) {
+					cached[i] = entry;
+				} else {
+					missing.add(file);
+				}
+			}
+		}
+		if (!missing.isEmpty()) {
+			Map<File, CachedFile> read = readFiles(missing);
+			synchronized (fgFiles) {
+				for (int i = 0; i < cached.length; i++) {
+					if (cached[i] == null) {
+						File file = files.get(i);
+						cached[i] = read.get(file);
+						fgFiles.put(file.getAbsolutePath(), cached[i]);
+					}
+				}
+			}
+		}
+
+		List<Map<String, String>> result = new ArrayList<>(cached.length);
+		for (int i = 0; i < cached.length; i++) {
+			CachedFile entry = cached[i];
+			Map<String, String> substituted = null;
+			synchronized (fgFiles) {
+				if (entry.fGeneration == generation) {
+					substituted = entry.fSubstituted;
+				}
+			}
+			if (substituted == null) {
+				boolean[] dynamic = new boolean[1];
+				substituted = substitute(entry.fProperties, manager, dynamic);
+				if (!dynamic[0]) {
+					synchronized (fgFiles) {
+						entry.fSubstituted = substituted;
+						entry.fGeneration = generation;
+					}
+				}
+			}
+			result.add(substituted);
+		}
+		return result;
+	}
+
+	/**
+	 * Clears the cache, stops the reader threads and stops listening to variable changes.
+	 */
+	public static void dispose() {
+		IValueVariableListener listener = null;
+		synchronized (fgFiles) {
+			fgFiles.clear();
+			listener = fgListener;
+			fgListener = null;
+			if (fgReaders != null) {
+				fgReaders.shutdownNow();
+				fgReaders = null;
+			}
+		}
+		if (listener != null) {
+			VariablesPlugin.getDefault().getStringVariableManager().removeValueVariableListener(listener);
+		}
+	}
+
+	private static int addListener(IStringVariableManager manager) {
+		synchronized (fgFiles) {
+			if (fgListener == null) {
+				fgListener = new IValueVariableListener() {
+					@Override
+					public void variablesAdded(IValueVariable[] variables) {
+						variablesChanged(variables);
+					}
+
+					@Override
+					public void variablesRemoved(IValueVariable[] variables) {
+						variablesChanged(variables);
+					}
+
+					@Override
+					public void variablesChanged(IValueVariable[] variables) {
+						synchronized (fgFiles) {
+							fgGeneration++;
+						}
+					}
+				};
+				manager.addValueVariableListener(fgListener);
+			}
+			return fgGeneration;
+		}
+	}
+
+	/*
+	 * Returns the shared reader threads, which end when they have been idle for a while.
+	 */
+	private static ExecutorService getReaders() {
+		synchronized (fgFiles) {
+			if (fgReaders == null) {
+				ThreadFactory factory = new ThreadFactory() {
+					private int fCount = 0;
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "Ant Property File Reader " + (++fCount)); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					}
+				};
+				ThreadPoolExecutor readers = new ThreadPoolExecutor(MAX_READERS, MAX_READERS, READER_KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), factory);
+				readers.allowCoreThreadTimeOut(true);
+				fgReaders = readers;
+			}
+			return fgReaders;
+		}
+	}
+
+	/*
+	 * Reads the given files, in parallel if there is more than one.
+	 */
+	private static Map<File, CachedFile> readFiles(List<File> files) throws IOException {
+		Map<File, CachedFile> result = new LinkedHashMap<>(files.size());
+		if (files.size() == 1) {
+			File file = files.get(0);
+			result.put(file, readFile(file));
+			return result;
+		}
+		List<Callable<CachedFile>> readers = new ArrayList<>(files.size());
+		for (final File file : files) {
+			readers.add(() -> readFile(file));
+		}
+		List<Future<CachedFile>> futures = null;
+		try {
+			futures = getReaders().invokeAll(readers);
+			for (int i = 0; i < futures.size(); i++) {
+				result.put(files.get(i), futures.get(i).get());
+			}
+		}
+		catch (ExecutionException e) {
+			// report the first file in order that failed, as when reading one after the other
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		}
+		finally {
+			if (futures != null) {
+				for (int i = 0; i < futures.size(); i++) {
+					futures.get(i).cancel(true);
+				}
+			}
+		}
+		return result;
+	}
+
+	private static CachedFile readFile(File file) throws IOException {
+		// take the stamp first so a concurrent change is noticed by the next build
+		long modified = file.lastModified();
+		long length = file.length();
+		Properties properties = new Properties();
+		try (FileInputStream fis = new FileInputStream(file)) {
+			properties.load(fis);
+		}
+		return new CachedFile(modified, length, properties);
+	}
+
+	/*
+	 * Returns an unmodifiable copy of the given properties with variables substituted in names and values. Sets dynamic[0] if a dynamic variable
+	 * was substituted.
+	 */
+	private static Map<String, String> substitute(Properties properties, IStringVariableManager manager, boolean[] dynamic) {
+		Map<String, String> result = new HashMap<>((int) (properties.size() / 0.75f) + 1);
+		for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+			String name = substitute((String) entry.getKey(), manager, dynamic);
+			String value = substitute((String) entry.getValue(), manager, dynamic);
+			result.put(name, value);
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	private static String substitute(String text, IStringVariableManager manager, boolean[] dynamic) {
+		int start = text.indexOf(VARIABLE_START);
+		if (start < 0) {
+			return text;
+		}
+		if (!dynamic[0]) {
+			dynamic[0] = usesDynamicVariable(text, start, manager);
+		}
+		try {
+			return manager.performStringSubstitution(text);
+		}
+		catch (CoreException e) {
+			AntCorePlugin.log(e);
+			return text;
+		}
+	}
+
+	/*
+	 * Returns whether any of the variable references in the given text, starting at the given index, names a dynamic variable.
+	 */
+	private static boolean usesDynamicVariable(String text, int start, IStringVariableManager manager) {
+		while (start >= 0) {
+			int nameStart = start + VARIABLE_START.length();
+			int nameEnd = nameStart;
+			while (nameEnd < text.length()) {
+				char c = text.charAt(nameEnd);
+				if (c == '}' || c == ':' || c == '$') {
+					break;
+				}
+				nameEnd++;
+			}
+			if (manager.getDynamicVariable(text.substring(nameStart, nameEnd)) != null) {
+				return true;
+			}
+			start = text.indexOf(VARIABLE_START, nameStart);
+		}
+		return false;
+	}
+}
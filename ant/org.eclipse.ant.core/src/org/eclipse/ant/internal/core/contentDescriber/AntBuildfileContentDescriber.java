@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -32,6 +32,9 @@ import org.xml.sax.SAXException;
  * likely Ant element is found (classpath, import, macrodef, path, property, taskdef, typedef) returns VALID else: returns INDETERMINATE else returns
  * INDETERMINATE
  * </p>
+ * <p>
+ * The contents are scanned by an {@link AntPrologScanner} first; only contents the scanner cannot decide on are parsed.
+ * </p>
  * 
  * @since 3.1
  */
@@ -89,6 +92,11 @@ public final class AntBuildfileContentDescriber extends XMLContentDescriber impl
 		}
 		// super.describe will have consumed some chars, need to rewind
 		contents.reset();
+		int result = AntPrologScanner.getScanner().scan(contents);
+		if (result != AntPrologScanner.AMBIGUOUS) {
+			return result == AntPrologScanner.FOUND ? VALID : INDETERMINATE;
+		}
+		contents.reset();
 		// Check to see if we matched our criteria.
 		return checkCriteria(new InputSource(contents));
 	}
@@ -106,6 +114,11 @@ public final class AntBuildfileContentDescriber extends XMLContentDescriber impl
 		}
 		// super.describe will have consumed some chars, need to rewind
 		contents.reset();
+		int result = AntPrologScanner.getScanner().scan(contents);
+		if (result != AntPrologScanner.AMBIGUOUS) {
+			return result == AntPrologScanner.FOUND ? VALID : INDETERMINATE;
+		}
+		contents.reset();
 		// Check to see if we matched our criteria.
 		return checkCriteria(new InputSource(contents));
 	}
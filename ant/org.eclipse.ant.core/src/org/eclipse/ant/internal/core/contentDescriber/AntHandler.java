@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2011 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -68,7 +68,18 @@ public final class AntHandler extends DefaultHandler {
 	 * successful to the point of finding the top-level element.
 	 */
 	private String fTopElementFound = null;
-	private SAXParserFactory fFactory;
+
+	/**
+	 * Parser factories are not thread safe, and creating one looks up the implementation each time
+	 */
+	private static final ThreadLocal<SAXParserFactory> fgFactories = new ThreadLocal<SAXParserFactory>() {
+		@Override
+		protected SAXParserFactory initialValue() {
+			SAXParserFactory factory = SAXParserFactory.newInstance();
+			factory.setNamespaceAware(true);
+			return factory;
+		}
+	};
 
 	private boolean fDefaultAttributeFound = false;
 	private boolean fTargetFound = false;
@@ -105,24 +116,17 @@ public final class AntHandler extends DefaultHandler {
 	}
 
 	private SAXParserFactory getFactory() {
-		synchronized (this) {
-			if (fFactory != null) {
-				return fFactory;
-			}
-			fFactory = SAXParserFactory.newInstance();
-			fFactory.setNamespaceAware(true);
-		}
-		return fFactory;
+		return fgFactories.get();
 	}
 
 	protected boolean parseContents(InputSource contents) throws IOException, ParserConfigurationException, SAXException {
 		// Parse the file into we have what we need (or an error occurs).
 		try {
-			fFactory = getFactory();
-			if (fFactory == null) {
+			SAXParserFactory factory = getFactory();
+			if (factory == null) {
 				return false;
 			}
-			final SAXParser parser = createParser(fFactory);
+			final SAXParser parser = createParser(factory);
 			// to support external entities specified as relative URIs (see bug 63298)
 			contents.setSystemId("/"); //$NON-NLS-1$
 			parser.parse(contents, this);
@@ -0,0 +1,541 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.contentDescriber;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Decides whether contents look like an Ant buildfile by scanning the first bytes or characters for the same criteria as {@link AntHandler}: a
+ * <code>project</code> root element with a <code>default</code> attribute, a <code>target</code> child or another typical top level Ant element.
+ * <p>
+ * The scanner reads a bounded window into buffers that are reused by the thread, and does not allocate while scanning. It only understands the
+ * common shapes of XML: whenever the contents use a construct it does not handle (an internal DTD subset, an entity reference, a multi-byte
+ * encoding, malformed markup, or a decision beyond the window) it answers {@link #AMBIGUOUS} and the caller falls back to a SAX parse.
+ * </p>
+ * <p>
+ * Byte contents are read as ISO-8859-1. All markup of the supported (ASCII compatible) encodings is ASCII, and the bytes of multi-byte UTF-8
+ * characters are never mistaken for markup.
+ * </p>
+ *
+ * @since 3.5.200
+ */
+final class AntPrologScanner {
+
+	/**
+	 * The contents are an Ant buildfile
+	 */
+	static final int FOUND = 0;
+	/**
+	 * The contents are not recognizable as an Ant buildfile
+	 */
+	static final int NOT_FOUND = 1;
+	/**
+	 * The scanner cannot tell; the contents have to be parsed
+	 */
+	static final int AMBIGUOUS = 2;
+
+	private static final int WINDOW_SIZE = 8192;
+	private static final int MAX_DEPTH = 32;
+
+	private static final String PROJECT = "project"; //$NON-NLS-1$
+	private static final String DEFAULT = "default"; //$NON-NLS-1$
+	private static final String[] ANT_ELEMENTS = new String[] { "target", "macrodef", "taskdef", "typedef", "property", "classpath", "path", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$
+			"import" }; //$NON-NLS-1$
+
+	private static final ThreadLocal<AntPrologScanner> fgScanners = new ThreadLocal<AntPrologScanner>() {
+		@Override
+		protected AntPrologScanner initialValue() {
+			return new AntPrologScanner();
+		}
+	};
+
+	private final byte[] fBytes = new byte[WINDOW_SIZE];
+	private final char[] fChars = new char[WINDOW_SIZE];
+	private final int[] fNameStarts = new int[MAX_DEPTH];
+	private final int[] fNameLengths = new int[MAX_DEPTH];
+
+	private int fLength;
+	private int fPos;
+	/**
+	 * Whether the window holds all of the contents
+	 */
+	private boolean fComplete;
+
+	// the start tag scanned last
+	private int fNameStart;
+	private int fNameLength;
+	private boolean fEmptyElement;
+	private boolean fDefaultFound;
+
+	private AntPrologScanner() {
+	}
+
+	/**
+	 * Returns the scanner of the current thread.
+	 */
+	static AntPrologScanner getScanner() {
+		return fgScanners.get();
+	}
+
+	/**
+	 * Scans the beginning of the given contents, leaving the stream at an undefined position.
+	 *
+	 * @return one of {@link #FOUND}, {@link #NOT_FOUND} or {@link #AMBIGUOUS}
+	 */
+	int scan(InputStream contents) throws IOException {
+		int length = 0;
+		int read = 0;
+		while (length < WINDOW_SIZE && (read = contents.read(fBytes, length, WINDOW_SIZE - length)) != -1) {
+			length += read;
+		}
+		int start = 0;
+		if (length >= 3 && fBytes[0] == (byte) 0xEF && fBytes[1] == (byte) 0xBB && fBytes[2] == (byte) 0xBF) {
+			// UTF-8 byte order mark
+			start = 3;
+		}
+		for (int i = start; i < length; i++) {
+			byte b = fBytes[i];
+			if (b == 0) {
+				// UTF-16 or UTF-32
+				return AMBIGUOUS;
+			}
+			fChars[i - start] = (char) (b & 0xFF);
+		}
+		return scan(length - start, read == -1);
+	}
+
+	/**
+	 * Scans the beginning of the given contents, leaving the reader at an undefined position.
+	 *
+	 * @return one of {@link #FOUND}, {@link #NOT_FOUND} or {@link #AMBIGUOUS}
+	 */
+	int scan(Reader contents) throws IOException {
+		int length = 0;
+		int read = 0;
+		while (length < WINDOW_SIZE && (read = contents.read(fChars, length, WINDOW_SIZE - length)) != -1) {
+			length += read;
+		}
+		if (length > 0 && fChars[0] == '\uFEFF') {
+			// leave a byte order mark in decoded contents to the parser
+			return AMBIGUOUS;
+		}
+		return scan(length, read == -1);
+	}
+
+	private int scan(int length, boolean complete) {
+		fLength = length;
+		fComplete = complete;
+		fPos = 0;
+		int result = scanProlog();
+		if (result != FOUND) {
+			return result;
+		}
+		// root element
+		if (!scanStartTag()) {
+			return endOfWindow();
+		}
+		if (!localNameEquals(PROJECT)) {
+			return NOT_FOUND;
+		}
+		if (fDefaultFound) {
+			return FOUND;
+		}
+		if (fEmptyElement) {
+			return NOT_FOUND;
+		}
+		return scanContent();
+	}
+
+	/**
+	 * Skips the XML declaration, processing instructions, comments and the document type declaration.
+	 *
+	 * @return {@link #FOUND} if positioned at the root element
+	 */
+	private int scanProlog() {
+		while (true) {
+			skipWhitespace();
+			if (fPos >= fLength) {
+				return endOfWindow();
+			}
+			if (fChars[fPos] != '<') {
+				return AMBIGUOUS;
+			}
+			if (startsWith("<?")) { //$NON-NLS-1$
+				if (!skipPast("?>")) { //$NON-NLS-1$
+					return endOfWindow();
+				}
+			} else if (startsWith("<!--")) { //$NON-NLS-1$
+				if (!skipPast("-->")) { //$NON-NLS-1$
+					return endOfWindow();
+				}
+			} else if (startsWith("<!DOCTYPE")) { //$NON-NLS-1$
+				int result = skipDoctype();
+				if (result != FOUND) {
+					return result;
+				}
+			} else if (startsWith("<!")) { //$NON-NLS-1$
+				return AMBIGUOUS;
+			} else {
+				return FOUND;
+			}
+		}
+	}
+
+	/**
+	 * Skips a document type declaration without an internal subset.
+	 */
+	private int skipDoctype() {
+		fPos += 9;
+		while (fPos < fLength) {
+			char c = fChars[fPos++];
+			if (c == '>') {
+				return FOUND;
+			}
+			if (c == '[') {
+				// the internal subset may declare entities that add elements
+				return AMBIGUOUS;
+			}
+			if (c == '"' || c == '\'') {
+				if (!skipPast(c)) {
+					return endOfWindow();
+				}
+			}
+		}
+		return endOfWindow();
+	}
+
+	/**
+	 * Scans the children of the project element until a top level Ant element is found or the project element ends.
+	 */
+	private int scanContent() {
+		int depth = 0;
+		fNameStarts[0] = fNameStart;
+		fNameLengths[0] = fNameLength;
+		while (fPos < fLength) {
+			char c = fChars[fPos];
+			if (c == '&') {
+				if (!skipReference()) {
+					return AMBIGUOUS;
+				}
+				continue;
+			}
+			if (c != '<') {
+				fPos++;
+				continue;
+			}
+			if (startsWith("<!--")) { //$NON-NLS-1$
+				if (!skipPast("-->")) { //$NON-NLS-1$
+					return endOfWindow();
+				}
+			} else if (startsWith("<![CDATA[")) { //$NON-NLS-1$
+				if (!skipPast("]]>")) { //$NON-NLS-1$
+					return endOfWindow();
+				}
+			} else if (startsWith("<?")) { //$NON-NLS-1$
+				if (!skipPast("?>")) { //$NON-NLS-1$
+					return endOfWindow();
+				}
+			} else if (startsWith("</")) { //$NON-NLS-1$
+				fPos += 2;
+				int nameStart = fPos;
+				if (!skipName()) {
+					return endOfWindow();
+				}
+				if (!regionEquals(nameStart, fPos - nameStart, fNameStarts[depth], fNameLengths[depth])) {
+					// malformed
+					return AMBIGUOUS;
+				}
+				skipWhitespace();
+				if (fPos >= fLength) {
+					return endOfWindow();
+				}
+				if (fChars[fPos++] != '>') {
+					return AMBIGUOUS;
+				}
+				if (depth == 0) {
+					// end of the project element
+					return NOT_FOUND;
+				}
+				depth--;
+			} else if (startsWith("<!")) { //$NON-NLS-1$
+				return AMBIGUOUS;
+			} else {
+				if (!scanStartTag()) {
+					return endOfWindow();
+				}
+				if (depth == 0 && isAntElement()) {
+					return FOUND;
+				}
+				if (!fEmptyElement) {
+					depth++;
+					if (depth == MAX_DEPTH) {
+						return AMBIGUOUS;
+					}
+					fNameStarts[depth] = fNameStart;
+					fNameLengths[depth] = fNameLength;
+				}
+			}
+		}
+		return endOfWindow();
+	}
+
+	/**
+	 * Scans a start tag at the current position, recording its name, whether it is empty and whether it has a <code>default</code> attribute.
+	 *
+	 * @return <code>false</code> if the tag is incomplete or malformed; the position is then at or past the end of the window for incomplete tags
+	 */
+	private boolean scanStartTag() {
+		fPos++;
+		fNameStart = fPos;
+		fDefaultFound = false;
+		fEmptyElement = false;
+		if (!skipName()) {
+			return false;
+		}
+		fNameLength = fPos - fNameStart;
+		while (true) {
+			boolean whitespace = skipWhitespace();
+			if (fPos >= fLength) {
+				return false;
+			}
+			char c = fChars[fPos];
+			if (c == '>') {
+				fPos++;
+				return true;
+			}
+			if (c == '/') {
+				if (fPos + 1 >= fLength) {
+					fPos = fLength;
+					return false;
+				}
+				if (fChars[fPos + 1] != '>') {
+					return malformed();
+				}
+				fPos += 2;
+				fEmptyElement = true;
+				return true;
+			}
+			if (!whitespace) {
+				return malformed();
+			}
+			int attributeStart = fPos;
+			if (!skipName()) {
+				return false;
+			}
+			if (regionEquals(attributeStart, fPos - attributeStart, DEFAULT)) {
+				fDefaultFound = true;
+			}
+			skipWhitespace();
+			if (fPos >= fLength) {
+				return false;
+			}
+			if (fChars[fPos++] != '=') {
+				return malformed();
+			}
+			skipWhitespace();
+			if (fPos >= fLength) {
+				return false;
+			}
+			char quote = fChars[fPos++];
+			if (quote != '"' && quote != '\'') {
+				return malformed();
+			}
+			while (fPos < fLength) {
+				c = fChars[fPos];
+				if (c == quote) {
+					break;
+				}
+				if (c == '<') {
+					return malformed();
+				}
+				if (c == '&') {
+					if (!skipReference()) {
+						return malformed();
+					}
+				} else {
+					fPos++;
+				}
+			}
+			if (fPos >= fLength) {
+				return false;
+			}
+			fPos++;
+		}
+	}
+
+	/**
+	 * Marks the window as unusable so the caller answers {@link #AMBIGUOUS}.
+	 */
+	private boolean malformed() {
+		fPos = fLength;
+		fComplete = false;
+		return false;
+	}
+
+	/**
+	 * Returns the answer when the window ends before a decision: without a decision at the end of the contents, the contents are no buildfile (the
+	 * SAX parser fails on them as well), otherwise the rest of the contents may still decide.
+	 */
+	private int endOfWindow() {
+		return fComplete ? NOT_FOUND : AMBIGUOUS;
+	}
+
+	/**
+	 * Skips a character reference or a reference to one of the predefined entities. Other entities may expand to markup.
+	 */
+	private boolean skipReference() {
+		int end = fPos + 1;
+		while (end < fLength && end - fPos <= 10 && fChars[end] != ';') {
+			end++;
+		}
+		if (end >= fLength || fChars[end] != ';') {
+			return false;
+		}
+		int nameStart = fPos + 1;
+		int nameLength = end - nameStart;
+		if (nameLength > 1 && fChars[nameStart] == '#' || regionEquals(nameStart, nameLength, "amp") || regionEquals(nameStart, nameLength, "lt") //$NON-NLS-1$ //$NON-NLS-2$
+				|| regionEquals(nameStart, nameLength, "gt") || regionEquals(nameStart, nameLength, "quot") //$NON-NLS-1$ //$NON-NLS-2$
+				|| regionEquals(nameStart, nameLength, "apos")) { //$NON-NLS-1$
+			fPos = end + 1;
+			return true;
+		}
+		return false;
+	}
+
+	private boolean isAntElement() {
+		for (int i = 0; i < ANT_ELEMENTS.length; i++) {
+			if (localNameEquals(ANT_ELEMENTS[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns whether the local name (without namespace prefix) of the last start tag is the given name, as a namespace aware parser reports it.
+	 */
+	private boolean localNameEquals(String name) {
+		int start = fNameStart;
+		for (int i = fNameStart + fNameLength - 1; i >= fNameStart; i--) {
+			if (fChars[i] == ':') {
+				start = i + 1;
+				break;
+			}
+		}
+		return regionEquals(start, fNameStart + fNameLength - start, name);
+	}
+
+	private boolean regionEquals(int start, int length, String name) {
+		if (length != name.length()) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (fChars[start + i] != name.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean regionEquals(int start, int length, int otherStart, int otherLength) {
+		if (length != otherLength) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (fChars[start + i] != fChars[otherStart + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Skips an XML name at the current position.
+	 *
+	 * @return <code>false</code> if there is no valid name or it reaches the end of the window
+	 */
+	private boolean skipName() {
+		if (fPos >= fLength) {
+			return false;
+		}
+		char c = fChars[fPos];
+		if (!(Character.isLetter(c) || c == '_' || c == ':' || c >= 0x80)) {
+			return malformed();
+		}
+		fPos++;
+		while (fPos < fLength) {
+			c = fChars[fPos];
+			if (!(Character.isLetterOrDigit(c) || c == '_' || c == ':' || c == '-' || c == '.' || c >= 0x80)) {
+				return true;
+			}
+			fPos++;
+		}
+		return false;
+	}
+
+	/**
+	 * @return whether any whitespace was skipped
+	 */
+	private boolean skipWhitespace() {
+		int start = fPos;
+		while (fPos < fLength) {
+			char c = fChars[fPos];
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+				break;
+			}
+			fPos++;
+		}
+		return fPos > start;
+	}
+
+	private boolean startsWith(String prefix) {
+		int length = prefix.length();
+		if (fPos + length > fLength) {
+			// may be truncated by the window; compare what is there
+			length = fLength - fPos;
+		}
+		for (int i = 0; i < length; i++) {
+			if (fChars[fPos + i] != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Moves past the next occurrence of the given delimiter.
+	 *
+	 * @return <code>false</code> if the delimiter is not in the window
+	 */
+	private boolean skipPast(String delimiter) {
+		char first = delimiter.charAt(0);
+		int last = fLength - delimiter.length();
+		for (int i = fPos; i <= last; i++) {
+			if (fChars[i] == first && regionEquals(i, delimiter.length(), delimiter)) {
+				fPos = i + delimiter.length();
+				return true;
+			}
+		}
+		fPos = fLength;
+		return false;
+	}
+
+	private boolean skipPast(char delimiter) {
+		while (fPos < fLength) {
+			if (fChars[fPos++] == delimiter) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Project;
+
+/**
+ * Tells which threads belong to an in-process build.
+ * <p>
+ * The thread running the build is marked by {@link #mark()} for the whole build. Any other thread is marked while it performs a task of the build,
+ * from the task started to the task finished event, which covers the threads of <code>&lt;parallel&gt;</code>. Threads registered with the
+ * project for a task, like those of an in-process <code>&lt;java&gt;</code>, belong to the build as well. The mark is never inherited, so threads
+ * that are merely started while the build runs, like the worker threads of the job manager, do not belong to the build and keep no mark once it
+ * is over.
+ * </p>
+ */
+class BuildThreadMarker implements BuildListener {
+
+	private final Project project;
+	private final ThreadLocal<int[]> depths = new ThreadLocal<>();
+
+	/**
+	 * Creates the marker of the threads of a build.
+	 *
+	 * @param project
+	 *            the project of the build
+	 */
+	BuildThreadMarker(Project project) {
+		this.project = project;
+	}
+
+	/**
+	 * Marks the calling thread as a thread of the build. Each call must be matched by a call to {@link #unmark()} from the same thread.
+	 */
+	void mark() {
+		int[] depth = depths.get();
+		if (depth == null) {
+			depth = new int[1];
+			depths.set(depth);
+		}
+		depth[0]++;
+	}
+
+	/**
+	 * Removes a mark set by {@link #mark()} from the calling thread.
+	 */
+	void unmark() {
+		int[] depth = depths.get();
+		if (depth != null && --depth[0] <= 0) {
+			depths.remove();
+		}
+	}
+
+	/**
+	 * Returns whether the calling thread belongs to the build.
+	 */
+	boolean isBuildThread() {
+		return depths.get() != null || project.getThreadTask(Thread.currentThread()) != null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskStarted(BuildEvent event) {
+		mark();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.BuildListener#taskFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskFinished(BuildEvent event) {
+		unmark();
+	}
+
+	@Override
+	public void buildStarted(BuildEvent event) {
+		// the build thread is marked explicitly
+	}
+
+	@Override
+	public void buildFinished(BuildEvent event) {
+		// the build thread is unmarked explicitly
+	}
+
+	@Override
+	public void targetStarted(BuildEvent event) {
+		// only tasks run on other threads
+	}
+
+	@Override
+	public void targetFinished(BuildEvent event) {
+		// only tasks run on other threads
+	}
+
+	@Override
+	public void messageLogged(BuildEvent event) {
+		// nothing to do
+	}
+}
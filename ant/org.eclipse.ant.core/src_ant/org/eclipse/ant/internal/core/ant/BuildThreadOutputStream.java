@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.tools.ant.Project;
+
+/**
+ * Replaces <code>System.out</code> or <code>System.err</code> during an in-process build. Output of the threads that belong to the build is passed to
+ * {@link Project#demuxOutput(String, boolean)} a line at a time, like <code>org.apache.tools.ant.DemuxOutputStream</code> does. Output of any other
+ * thread of the workbench goes straight to the original stream.
+ * <p>
+ * Which threads belong to the build is told by a {@link BuildThreadMarker}.
+ * </p>
+ * <p>
+ * Each thread of the build collects its output in a buffer of its own, so threads of the build do not contend with each other or with the rest of the
+ * workbench while they write.
+ * </p>
+ */
+class BuildThreadOutputStream extends OutputStream {
+
+	/**
+	 * The size a line may grow to before it is passed on without its end
+	 */
+	private static final int MAX_SIZE = 1024;
+
+	private static final int INITIAL_SIZE = 132;
+
+	private static final byte CR = 0x0d;
+
+	private static final byte LF = 0x0a;
+
+	private final Project project;
+	private final boolean isErrorStream;
+	private final OutputStream original;
+	private final BuildThreadMarker buildThreads;
+	private final ThreadLocal<LineBuffer> buffers = new ThreadLocal<>();
+
+	/**
+	 * The not yet complete line of a thread.
+	 */
+	private static class LineBuffer {
+		byte[] bytes = new byte[INITIAL_SIZE];
+		int count = 0;
+		boolean skip = false;
+
+		void append(byte[] b, int off, int len) {
+			if (count + len > bytes.length) {
+				byte[] grown = new byte[Math.max(bytes.length * 2, count + len)];
+				System.arraycopy(bytes, 0, grown, 0, count);
+				bytes = grown;
+			}
+			System.arraycopy(b, off, bytes, count, len);
+			count += len;
+		}
+
+		String take() {
+			String line = new String(bytes, 0, count);
+			count = 0;
+			if (bytes.length > MAX_SIZE) {
+				bytes = new byte[INITIAL_SIZE];
+			}
+			return line;
+		}
+	}
+
+	/**
+	 * Creates a stream for a build.
+	 *
+	 * @param project
+	 *            the project of the build
+	 * @param isErrorStream
+	 *            whether the stream replaces <code>System.err</code>
+	 * @param original
+	 *            the stream that is replaced
+	 * @param buildThreads
+	 *            the marker of the threads of the build
+	 */
+	BuildThreadOutputStream(Project project, boolean isErrorStream, OutputStream original, BuildThreadMarker buildThreads) {
+		this.project = project;
+		this.isErrorStream = isErrorStream;
+		this.original = original;
+		this.buildThreads = buildThreads;
+	}
+
+	private LineBuffer getBuffer() {
+		LineBuffer buffer = buffers.get();
+		if (buffer == null) {
+			buffer = new LineBuffer();
+			buffers.set(buffer);
+		}
+		return buffer;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.OutputStream#write(int)
+	 */
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.OutputStream#write(byte[], int, int)
+	 */
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		if (!buildThreads.isBuildThread()) {
+			original.write(b, off, len);
+			return;
+		}
+		LineBuffer buffer = getBuffer();
+		int start = off;
+		int end = off + len;
+		for (int i = off; i < end; i++) {
+			byte c = b[i];
+			if (c == CR || c == LF) {
+				buffer.append(b, start, i - start);
+				start = i + 1;
+				// a LF that follows a CR ends no line of its own
+				if (c == LF && buffer.skip && buffer.count == 0) {
+					buffer.skip = false;
+					continue;
+				}
+				buffer.skip = c == CR;
+				project.demuxOutput(buffer.take(), isErrorStream);
+			} else {
+				buffer.skip = false;
+			}
+		}
+		buffer.append(b, start, end - start);
+		if (buffer.count > MAX_SIZE) {
+			project.demuxOutput(buffer.take(), isErrorStream);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.OutputStream#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (!buildThreads.isBuildThread()) {
+			original.flush();
+			return;
+		}
+		LineBuffer buffer = buffers.get();
+		if (buffer != null && buffer.count > 0) {
+			project.demuxFlush(buffer.take(), isErrorStream);
+		}
+	}
+
+	/**
+	 * Passes on what remains of the current line of the calling thread, see {@link #flush()}. Called when the build is over; the original stream
+	 * is not closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (buildThreads.isBuildThread()) {
+			flush();
+			buffers.remove();
+		}
+	}
+}
@@ -0,0 +1,386 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.Executor;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.SubBuildListener;
+import org.apache.tools.ant.Target;
+
+/**
+ * Executes the requested targets and their dependencies once each, like <code>org.apache.tools.ant.helper.SingleCheckExecutor</code>, but runs
+ * the targets whose dependencies are done in parallel on a bounded pool of threads. Targets of disjoint dependency graphs therefore no longer wait
+ * for each other.
+ * <p>
+ * Used by {@link EclipseDefaultExecutor} when the <code>eclipse.ant.parallelTargets</code> property of the build is set to the number of
+ * threads, or to <code>true</code> for one thread per processor. The threads are started by the build thread, so their output is captured
+ * for the build, and Ant attributes the output of each thread to the task it is running.
+ * </p>
+ * <p>
+ * A failed target stops the scheduling of further targets and the first failure is rethrown once the running targets are done. In keep going
+ * mode only the targets that depend on a failed target are skipped.
+ * </p>
+ * <p>
+ * While the targets run, the build listeners are called by one thread at a time, since the loggers of a build do not expect concurrent events.
+ * A build that is debugged runs its targets one after the other: the debug logger keeps the stack of the running targets and tasks of a single
+ * thread.
+ * </p>
+ */
+public class EclipseParallelExecutor implements Executor {
+
+	/**
+	 * The property that selects this executor
+	 */
+	public static final String PROPERTY_PARALLEL_TARGETS = "eclipse.ant.parallelTargets"; //$NON-NLS-1$
+
+	/**
+	 * The interface of the debug loggers contributed by <code>org.eclipse.ant.launching</code>, which are only known by name here
+	 */
+	private static final String DEBUG_LOGGER_TYPE = "org.eclipse.ant.internal.launching.debug.IDebugBuildLogger"; //$NON-NLS-1$
+
+	private static final EclipseSingleCheckExecutor SUB_EXECUTOR = new EclipseSingleCheckExecutor();
+
+	private final int threadCount;
+
+	/**
+	 * Creates an executor that runs at most the given number of targets at the same time.
+	 *
+	 * @param threadCount
+	 *            the number of threads
+	 */
+	public EclipseParallelExecutor(int threadCount) {
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Returns the number of threads to run the targets of the given project with.
+	 *
+	 * @param project
+	 *            the project to build
+	 * @return the number of threads or <code>0</code> if targets run one after the other
+	 */
+	public static int getThreadCount(Project project) {
+		String value = project.getProperty(PROPERTY_PARALLEL_TARGETS);
+		if (value == null) {
+			return 0;
+		}
+		if (Boolean.valueOf(value).booleanValue()) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		try {
+			return Math.max(0, Integer.parseInt(value.trim()));
+		}
+		catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.Executor#executeTargets(org.apache.tools.ant.Project, java.lang.String[])
+	 */
+	@Override
+	public void executeTargets(Project project, String[] targetNames) throws BuildException {
+		Vector<Target> sorted = project.topoSort(targetNames, project.getTargets(), false);
+		if (threadCount < 2 || sorted.size() < 2) {
+			project.executeSortedTargets(sorted);
+			return;
+		}
+		if (isDebugged(project)) {
+			project.log(InternalAntMessages.EclipseParallelExecutor_Debugged, Project.MSG_INFO);
+			project.executeSortedTargets(sorted);
+			return;
+		}
+		Vector<BuildListener> listeners = project.getBuildListeners();
+		SerializedBuildListener serialized = new SerializedBuildListener(listeners);
+		for (BuildListener listener : listeners) {
+			project.removeBuildListener(listener);
+		}
+		project.addBuildListener(serialized);
+		try {
+			executeInParallel(project, sorted);
+		}
+		finally {
+			project.removeBuildListener(serialized);
+			for (BuildListener listener : listeners) {
+				project.addBuildListener(listener);
+			}
+		}
+	}
+
+	private static boolean isDebugged(Project project) {
+		for (BuildListener listener : project.getBuildListeners()) {
+			for (Class<?> type = listener.getClass(); type != null; type = type.getSuperclass()) {
+				Class<?>[] interfaces = type.getInterfaces();
+				for (int i = 0; i < interfaces.length; i++) {
+					if (DEBUG_LOGGER_TYPE.equals(interfaces[i].getName())) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
+	private void executeInParallel(final Project project, Vector<Target> sorted) {
+		int count = sorted.size();
+		Map<String, Integer> indices = new HashMap<>(count * 2);
+		for (int i = 0; i < count; i++) {
+			indices.put(sorted.get(i).getName(), Integer.valueOf(i));
+		}
+		// pending[i] counts the dependencies of target i that are not done, dependents[i] lists the targets that depend on target i
+		int[] pending = new int[count];
+		List<List<Integer>> dependents = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			dependents.add(new ArrayList<Integer>(2));
+		}
+		for (int i = 0; i < count; i++) {
+			for (Enumeration<String> dependencies = sorted.get(i).getDependencies(); dependencies.hasMoreElements();) {
+				Integer dependency = indices.get(dependencies.nextElement());
+				if (dependency != null) {
+					pending[i]++;
+					dependents.get(dependency.intValue()).add(Integer.valueOf(i));
+				}
+			}
+		}
+
+		ExecutorService workers = Executors.newFixedThreadPool(Math.min(threadCount, count), new ThreadFactory() {
+			private int fCount = 0;
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				return new Thread(runnable, "Ant Target Runner " + (++fCount)); //$NON-NLS-1$
+			}
+		});
+		CompletionService<Integer> completion = new ExecutorCompletionService<>(workers);
+		boolean keepGoing = project.isKeepGoingMode();
+		Throwable failure = null;
+		String[] failedDependency = new String[count];
+		int running = 0;
+		try {
+			// submit in sorted order so that independent targets start in the order Ant would run them
+			for (int i = 0; i < count; i++) {
+				if (pending[i] == 0) {
+					submit(completion, sorted.get(i), i);
+					running++;
+				}
+			}
+			while (running > 0) {
+				Future<Integer> done = completion.take();
+				running--;
+				int index = -1;
+				boolean failed = false;
+				try {
+					index = done.get().intValue();
+				}
+				catch (ExecutionException e) {
+					index = ((TargetFailure) e.getCause()).fIndex;
+					failed = true;
+					if (failure == null) {
+						failure = e.getCause().getCause();
+					}
+				}
+				List<Integer> next = dependents.get(index);
+				for (int j = 0; j < next.size(); j++) {
+					int dependent = next.get(j).intValue();
+					if (failed && failedDependency[dependent] == null) {
+						failedDependency[dependent] = sorted.get(index).getName();
+					}
+					if (--pending[dependent] > 0) {
+						continue;
+					}
+					if (failure != null && !keepGoing) {
+						continue;
+					}
+					if (failedDependency[dependent] != null) {
+						skip(project, sorted, dependents, pending, failedDependency, dependent);
+						continue;
+					}
+					submit(completion, sorted.get(dependent), dependent);
+					running++;
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			workers.shutdownNow();
+			Thread.currentThread().interrupt();
+			throw new BuildException(e);
+		}
+		finally {
+			workers.shutdown();
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw new BuildException(failure);
+		}
+	}
+
+	/*
+	 * Logs that the given target is not executed because one of its dependencies failed, and the same for the targets that wait for it.
+	 */
+	private void skip(Project project, Vector<Target> sorted, List<List<Integer>> dependents, int[] pending, String[] failedDependency, int index) {
+		project.log(MessageFormat.format(InternalAntMessages.EclipseParallelExecutor_Cannot_execute, new Object[] { sorted.get(index).getName(),
+				failedDependency[index] }), Project.MSG_ERR);
+		List<Integer> next = dependents.get(index);
+		for (int j = 0; j < next.size(); j++) {
+			int dependent = next.get(j).intValue();
+			if (failedDependency[dependent] == null) {
+				failedDependency[dependent] = sorted.get(index).getName();
+			}
+			if (--pending[dependent] == 0) {
+				skip(project, sorted, dependents, pending, failedDependency, dependent);
+			}
+		}
+	}
+
+	private void submit(CompletionService<Integer> completion, final Target target, final int index) {
+		completion.submit(new Callable<Integer>() {
+			@Override
+			public Integer call() throws TargetFailure {
+				try {
+					target.performTasks();
+				}
+				catch (Throwable t) {
+					throw new TargetFailure(index, t);
+				}
+				return Integer.valueOf(index);
+			}
+		});
+	}
+
+	/**
+	 * Carries the failure of a target together with its index.
+	 */
+	private static class TargetFailure extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		final int fIndex;
+
+		TargetFailure(int index, Throwable cause) {
+			super(cause);
+			fIndex = index;
+		}
+	}
+
+	/**
+	 * Hands the events of all threads to the listeners of the build one at a time.
+	 */
+	private static class SerializedBuildListener implements SubBuildListener {
+
+		private final BuildListener[] fListeners;
+
+		SerializedBuildListener(List<BuildListener> listeners) {
+			fListeners = listeners.toArray(new BuildListener[listeners.size()]);
+		}
+
+		@Override
+		public synchronized void buildStarted(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				fListeners[i].buildStarted(event);
+			}
+		}
+
+		@Override
+		public synchronized void buildFinished(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				fListeners[i].buildFinished(event);
+			}
+		}
+
+		@Override
+		public synchronized void targetStarted(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				fListeners[i].targetStarted(event);
+			}
+		}
+
+		@Override
+		public synchronized void targetFinished(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				fListeners[i].targetFinished(event);
+			}
+		}
+
+		@Override
+		public synchronized void taskStarted(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				fListeners[i].taskStarted(event);
+			}
+		}
+
+		@Override
+		public synchronized void taskFinished(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				fListeners[i].taskFinished(event);
+			}
+		}
+
+		@Override
+		public synchronized void messageLogged(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				fListeners[i].messageLogged(event);
+			}
+		}
+
+		@Override
+		public synchronized void subBuildStarted(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				if (fListeners[i] instanceof SubBuildListener) {
+					((SubBuildListener) fListeners[i]).subBuildStarted(event);
+				}
+			}
+		}
+
+		@Override
+		public synchronized void subBuildFinished(BuildEvent event) {
+			for (int i = 0; i < fListeners.length; i++) {
+				if (fListeners[i] instanceof SubBuildListener) {
+					((SubBuildListener) fListeners[i]).subBuildFinished(event);
+				}
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.apache.tools.ant.Executor#getSubProjectExecutor()
+	 */
+	@Override
+	public Executor getSubProjectExecutor() {
+		return SUB_EXECUTOR;
+	}
+}
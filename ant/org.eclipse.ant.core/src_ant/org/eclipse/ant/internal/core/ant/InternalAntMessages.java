@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2011 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -62,6 +62,9 @@ public class InternalAntMessages extends NLS {
 
 	public static String InternalProject_could_not_create_type;
 
+	public static String EclipseParallelExecutor_Cannot_execute;
+	public static String EclipseParallelExecutor_Debugged;
+
 	static {
 		// load message values from bundle file
 		NLS.initializeMessages(BUNDLE_NAME, InternalAntMessages.class);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2017 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -41,7 +41,6 @@ import org.apache.tools.ant.BuildListener;
 import org.apache.tools.ant.BuildLogger;
 import org.apache.tools.ant.ComponentHelper;
 import org.apache.tools.ant.DefaultLogger;
-import org.apache.tools.ant.DemuxOutputStream;
 import org.apache.tools.ant.Diagnostics;
 import org.apache.tools.ant.Main;
 import org.apache.tools.ant.Project;
@@ -58,11 +57,12 @@ import org.eclipse.ant.core.TargetInfo;
 import org.eclipse.ant.core.Task;
 import org.eclipse.ant.core.Type;
 import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
+import org.eclipse.ant.internal.core.AntClasspathSnapshot;
+import org.eclipse.ant.internal.core.AntComponentTable;
 import org.eclipse.ant.internal.core.AntCoreUtil;
 import org.eclipse.ant.internal.core.AntSecurityManager;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -71,7 +71,6 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.variables.VariablesPlugin;
 import org.osgi.framework.Bundle;
-import org.osgi.framework.Version;
 
 /**
  * Eclipse application entry point into Ant. Derived from the original Ant Main class to ensure that the functionality is equivalent when running in
@@ -102,6 +101,11 @@ public class InternalAntRunner {
 	 */
 	private String antVersionNumber = null;
 
+	/**
+	 * Cache of the major, minor and micro segments of the Ant version number
+	 */
+	private int[] antVersionSegments = null;
+
 	/** Current message output status. Follows Project.MSG_XXX */
 	private int messageOutputLevel = Project.MSG_INFO;
 
@@ -305,64 +309,82 @@ public class InternalAntRunner {
 		}
 	}
 
-	private void setTasks(Project project) {
-		List<Task> tasks = AntCorePlugin.getPlugin().getPreferences().getTasks();
-		for (Task task : tasks) {
-			if (isVersionCompatible("1.6")) { //$NON-NLS-1$
+	/*
+	 * Returns the contributed and custom tasks and types. The table is shared by all builds until the tasks or types in the preferences change.
+	 */
+	private AntComponentTable getComponentTable() {
+		return AntComponentTable.getTable(AntCorePlugin.getPlugin().getPreferences());
+	}
+
+	private void setTasks(Project project, AntComponentTable table) {
+		List<Task> tasks = table.getTasks();
+		if (tasks.isEmpty()) {
+			return;
+		}
+		if (isVersionCompatible("1.6")) { //$NON-NLS-1$
+			ComponentHelper helper = ComponentHelper.getComponentHelper(project);
+			ClassLoader loader = this.getClass().getClassLoader();
+			for (int i = 0; i < tasks.size(); i++) {
 				AntTypeDefinition def = new AntTypeDefinition();
-				String name = ProjectHelper.genComponentName(task.getURI(), task.getTaskName());
-				def.setName(name);
-				def.setClassName(task.getClassName());
-				def.setClassLoader(this.getClass().getClassLoader());
+				def.setName(table.getTaskComponentName(i));
+				def.setClassName(tasks.get(i).getClassName());
+				def.setClassLoader(loader);
 				def.setAdaptToClass(org.apache.tools.ant.Task.class);
 				def.setAdapterClass(TaskAdapter.class);
-				ComponentHelper.getComponentHelper(project).addDataTypeDefinition(def);
-			} else {
-				try {
-					Class<?> taskClass = Class.forName(task.getClassName());
-					if (isVersionCompatible("1.5")) { //$NON-NLS-1$
-						try {
-							project.checkTaskClass(taskClass);
-						}
-						catch (BuildException e) {
-							IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, MessageFormat.format(InternalAntMessages.InternalAntRunner_Error_setting_Ant_task, new Object[] {
-									task.getTaskName() }), e);
-							AntCorePlugin.getPlugin().getLog().log(status);
-							continue;
-						}
+				helper.addDataTypeDefinition(def);
+			}
+			return;
+		}
+		for (Task task : tasks) {
+			try {
+				Class<?> taskClass = Class.forName(task.getClassName());
+				if (isVersionCompatible("1.5")) { //$NON-NLS-1$
+					try {
+						project.checkTaskClass(taskClass);
+					}
+					catch (BuildException e) {
+						IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, MessageFormat.format(InternalAntMessages.InternalAntRunner_Error_setting_Ant_task, new Object[] {
+								task.getTaskName() }), e);
+						AntCorePlugin.getPlugin().getLog().log(status);
+						continue;
 					}
-					project.addTaskDefinition(task.getTaskName(), taskClass);
-				}
-				catch (ClassNotFoundException e) {
-					IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, MessageFormat.format(InternalAntMessages.InternalAntRunner_Class_not_found_for_task, new Object[] {
-							task.getClassName(), task.getTaskName() }), e);
-					AntCorePlugin.getPlugin().getLog().log(status);
 				}
+				project.addTaskDefinition(task.getTaskName(), taskClass);
+			}
+			catch (ClassNotFoundException e) {
+				IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, MessageFormat.format(InternalAntMessages.InternalAntRunner_Class_not_found_for_task, new Object[] {
+						task.getClassName(), task.getTaskName() }), e);
+				AntCorePlugin.getPlugin().getLog().log(status);
 			}
 		}
 	}
 
-	private void setTypes(Project project) {
-		List<Type> types = AntCorePlugin.getPlugin().getPreferences().getTypes();
-		for (Iterator<Type> iterator = types.iterator(); iterator.hasNext();) {
-			Type type = iterator.next();
-			if (isVersionCompatible("1.6")) { //$NON-NLS-1$
+	private void setTypes(Project project, AntComponentTable table) {
+		List<Type> types = table.getTypes();
+		if (types.isEmpty()) {
+			return;
+		}
+		if (isVersionCompatible("1.6")) { //$NON-NLS-1$
+			ComponentHelper helper = ComponentHelper.getComponentHelper(project);
+			ClassLoader loader = this.getClass().getClassLoader();
+			for (int i = 0; i < types.size(); i++) {
 				AntTypeDefinition def = new AntTypeDefinition();
-				String name = ProjectHelper.genComponentName(type.getURI(), type.getTypeName());
-				def.setName(name);
-				def.setClassName(type.getClassName());
-				def.setClassLoader(this.getClass().getClassLoader());
-				ComponentHelper.getComponentHelper(project).addDataTypeDefinition(def);
-			} else {
-				try {
-					Class<?> typeClass = Class.forName(type.getClassName());
-					project.addDataTypeDefinition(type.getTypeName(), typeClass);
-				}
-				catch (ClassNotFoundException e) {
-					IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, MessageFormat.format(InternalAntMessages.InternalAntRunner_Class_not_found_for_type, new Object[] {
-							type.getClassName(), type.getTypeName() }), e);
-					AntCorePlugin.getPlugin().getLog().log(status);
-				}
+				def.setName(table.getTypeComponentName(i));
+				def.setClassName(types.get(i).getClassName());
+				def.setClassLoader(loader);
+				helper.addDataTypeDefinition(def);
+			}
+			return;
+		}
+		for (Type type : types) {
+			try {
+				Class<?> typeClass = Class.forName(type.getClassName());
+				project.addDataTypeDefinition(type.getTypeName(), typeClass);
+			}
+			catch (ClassNotFoundException e) {
+				IStatus status = new Status(IStatus.ERROR, AntCorePlugin.PI_ANTCORE, AntCorePlugin.ERROR_RUNNING_BUILD, MessageFormat.format(InternalAntMessages.InternalAntRunner_Class_not_found_for_type, new Object[] {
+						type.getClassName(), type.getTypeName() }), e);
+				AntCorePlugin.getPlugin().getLog().log(status);
 			}
 		}
 	}
@@ -414,7 +436,7 @@ public class InternalAntRunner {
 			Project antProject = getProject();
 			processAntHome(false);
 			antProject.init();
-			setTypes(antProject);
+			setTypes(antProject, getComponentTable());
 			boolean exceptionState = processProperties(AntCoreUtil.getArrayList(extraArguments));
 			if (fEarlyErrorMessage != null) {
 				if (exceptionState) {
@@ -476,7 +498,7 @@ public class InternalAntRunner {
 			antProject = getProject();
 			processAntHome(false);
 			antProject.init();
-			setTypes(antProject);
+			setTypes(antProject, getComponentTable());
 			processProperties(AntCoreUtil.getArrayList(extraArguments));
 
 			setProperties(antProject, false);
@@ -556,7 +578,11 @@ public class InternalAntRunner {
 				chosenTargets.add(defltTarget);
 			}
 		}
-		project.addBuildListener(new ProgressBuildListener(project, chosenTargets, monitor));
+		if (SampledProgressBuildListener.isEnabled(project)) {
+			project.addBuildListener(new SampledProgressBuildListener(project, chosenTargets, monitor));
+		} else {
+			project.addBuildListener(new ProgressBuildListener(project, chosenTargets, monitor));
+		}
 	}
 
 	/**
@@ -594,6 +620,9 @@ public class InternalAntRunner {
 		PrintStream originalErr = System.err;
 		PrintStream originalOut = System.out;
 		InputStream originalIn = System.in;
+		BuildThreadMarker buildThreads = null;
+		BuildThreadOutputStream buildOut = null;
+		BuildThreadOutputStream buildErr = null;
 
 		SecurityManager originalSM = System.getSecurityManager();
 		setJavaClassPath();
@@ -618,8 +647,14 @@ public class InternalAntRunner {
 			addInputHandler(getCurrentProject());
 
 			remapSystemIn();
-			System.setOut(new PrintStream(new DemuxOutputStream(getCurrentProject(), false)));
-			System.setErr(new PrintStream(new DemuxOutputStream(getCurrentProject(), true)));
+			// only the output of this thread and of the threads running tasks of the build is part of the build
+			buildThreads = new BuildThreadMarker(getCurrentProject());
+			getCurrentProject().addBuildListener(buildThreads);
+			buildThreads.mark();
+			buildOut = new BuildThreadOutputStream(getCurrentProject(), false, originalOut, buildThreads);
+			buildErr = new BuildThreadOutputStream(getCurrentProject(), true, originalErr, buildThreads);
+			System.setOut(new PrintStream(buildOut));
+			System.setErr(new PrintStream(buildErr));
 
 			if (!projectHelp) {
 				fireBuildStarted(getCurrentProject());
@@ -673,8 +708,9 @@ public class InternalAntRunner {
 				logMessage(currentProject, MessageFormat.format(InternalAntMessages.InternalAntRunner_Build_file, new Object[] {
 						getBuildFileLocation() }), Project.MSG_INFO);
 
-				setTasks(getCurrentProject());
-				setTypes(getCurrentProject());
+				AntComponentTable table = getComponentTable();
+				setTasks(getCurrentProject(), table);
+				setTypes(getCurrentProject(), table);
 
 				if (isVersionCompatible("1.6")) { //$NON-NLS-1$
 					getCurrentProject().setKeepGoingMode(keepGoing);
@@ -731,6 +767,12 @@ public class InternalAntRunner {
 			System.setErr(originalErr);
 			System.setOut(originalOut);
 			System.setIn(originalIn);
+			closeBuildStream(buildOut);
+			closeBuildStream(buildErr);
+			if (buildThreads != null) {
+				buildThreads.unmark();
+				getCurrentProject().removeBuildListener(buildThreads);
+			}
 			if (System.getSecurityManager() instanceof AntSecurityManager) {
 				System.setSecurityManager(originalSM);
 			}
@@ -757,6 +799,18 @@ public class InternalAntRunner {
 		}
 	}
 
+	private void closeBuildStream(BuildThreadOutputStream stream) {
+		if (stream == null) {
+			return;
+		}
+		try {
+			stream.close();
+		}
+		catch (IOException e) {
+			// nothing to do
+		}
+	}
+
 	/**
 	 * Re-maps {@link System.in} to the Ant input stream setter
 	 */
@@ -1017,10 +1071,50 @@ public class InternalAntRunner {
 	 * current version.
 	 */
 	protected boolean isVersionCompatible(String comparison) {
-		String version = getAntVersionNumber();
-		Version osgiVersion = new Version(version);
-		Version osgiComparison = new Version(comparison);
-		return osgiVersion.compareTo(osgiComparison) >= 0;
+		if (antVersionSegments == null) {
+			antVersionSegments = new int[3];
+			String version = getAntVersionNumber();
+			int index = 0;
+			for (int i = 0; i < antVersionSegments.length; i++) {
+				antVersionSegments[i] = getVersionSegment(version, index);
+				index = version.indexOf('.', index);
+				if (index < 0) {
+					break;
+				}
+				index++;
+			}
+		}
+		// compare segment by segment without creating any objects, this is called many times per build
+		int index = 0;
+		for (int i = 0; i < antVersionSegments.length; i++) {
+			int segment = index < 0 ? 0 : getVersionSegment(comparison, index);
+			if (antVersionSegments[i] != segment) {
+				return antVersionSegments[i] > segment;
+			}
+			if (index >= 0) {
+				index = comparison.indexOf('.', index);
+				if (index >= 0) {
+					index++;
+				}
+			}
+		}
+		// a qualifier only makes a version greater
+		return true;
+	}
+
+	/*
+	 * Returns the value of the leading digits of the version segment starting at the given index.
+	 */
+	private static int getVersionSegment(String version, int index) {
+		int segment = 0;
+		for (int i = index; i < version.length(); i++) {
+			char c = version.charAt(i);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			segment = segment * 10 + (c - '0');
+		}
+		return segment;
 	}
 
 	/**
@@ -1434,18 +1528,12 @@ public class InternalAntRunner {
 			userProperties = new HashMap<>();
 		}
 		try {
-			List<Properties> allProperties = AntCoreUtil.loadPropertyFiles(propertyFiles, currentProject.getUserProperty("basedir"), getBuildFileLocation()); //$NON-NLS-1$
-			Iterator<Properties> iter = allProperties.iterator();
-			while (iter.hasNext()) {
-				Properties props = iter.next();
-				Enumeration<?> propertyNames = props.propertyNames();
-				while (propertyNames.hasMoreElements()) {
-					String name = (String) propertyNames.nextElement();
+			List<Map<String, String>> allProperties = AntCoreUtil.loadPropertyFiles(propertyFiles, currentProject.getUserProperty("basedir"), getBuildFileLocation()); //$NON-NLS-1$
+			for (int i = 0; i < allProperties.size(); i++) {
+				for (Map.Entry<String, String> entry : allProperties.get(i).entrySet()) {
 					// most specific to global
 					// do not overwrite specific with a global property
-					if (userProperties.get(name) == null) {
-						userProperties.put(name, props.getProperty(name));
-					}
+					userProperties.putIfAbsent(entry.getKey(), entry.getValue());
 				}
 			}
 		}
@@ -1473,30 +1561,20 @@ public class InternalAntRunner {
 	 * Sets the Java class path in org.apache.tools.ant.types.Path
 	 */
 	private void setJavaClassPath() {
-		URL[] antClasspath = null;
 		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		AntClasspathSnapshot snapshot = AntClasspathSnapshot.getSnapshot(prefs);
+		String classpath = null;
 		if (customClasspath == null) {
-			antClasspath = prefs.getURLs();
+			classpath = snapshot.getSystemClasspath();
 		} else {
-			URL[] extraClasspath = prefs.getExtraClasspathURLs();
-			antClasspath = new URL[customClasspath.length + extraClasspath.length];
+			URL[] extraClasspath = snapshot.getExtraClasspathURLs();
+			URL[] antClasspath = new URL[customClasspath.length + extraClasspath.length];
 			System.arraycopy(customClasspath, 0, antClasspath, 0, customClasspath.length);
 			System.arraycopy(extraClasspath, 0, antClasspath, customClasspath.length, extraClasspath.length);
+			classpath = AntClasspathSnapshot.toSystemClasspath(antClasspath);
 		}
-		StringBuffer buff = new StringBuffer();
-		File file = null;
-		for (int i = 0; i < antClasspath.length; i++) {
-			try {
-				file = new File(FileLocator.toFileURL(antClasspath[i]).getPath());
-			}
-			catch (IOException e) {
-				continue;
-			}
-			buff.append(file.getAbsolutePath());
-			buff.append("; "); //$NON-NLS-1$
-		}
-
-		org.apache.tools.ant.types.Path systemClasspath = new org.apache.tools.ant.types.Path(null, buff.substring(0, buff.length() - 2));
+		// the Path class comes from the class loader of this build, so only the resolved paths can be shared between builds
+		org.apache.tools.ant.types.Path systemClasspath = new org.apache.tools.ant.types.Path(null, classpath);
 		org.apache.tools.ant.types.Path.systemClasspath = systemClasspath;
 	}
 
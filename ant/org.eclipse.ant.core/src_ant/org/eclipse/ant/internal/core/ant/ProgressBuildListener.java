@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2013 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -11,8 +11,10 @@
 package org.eclipse.ant.internal.core.ant;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
@@ -43,6 +45,12 @@ public class ProgressBuildListener implements BuildListener {
 	protected Project parentProject;
 	private Thread currentTaskThread;
 
+	/**
+	 * The work of the targets already counted, keyed by build file and target name. Each call of a target through <code>antcall</code> or
+	 * <code>ant</code> parses the build file into a new project, so the targets themselves cannot serve as keys.
+	 */
+	private Map<String, Integer> targetWork = new HashMap<>();
+
 	/**
 	 * Contains the progress monitor instances for the various projects in a chain.
 	 */
@@ -123,12 +131,43 @@ public class ProgressBuildListener implements BuildListener {
 	protected int computeWork(List<Target> targets) {
 		int result = 0;
 		for (int i = 0; i < targets.size(); i++) {
-			result = result + countTarget(targets.get(i), new ArrayList<String>());
+			Target target = targets.get(i);
+			String key = getWorkKey(target);
+			Integer work = (key == null) ? null : targetWork.get(key);
+			if (work == null) {
+				work = Integer.valueOf(countTarget(target, new HashSet<String>()));
+				if (key != null) {
+					targetWork.put(key, work);
+				}
+			}
+			result = result + work.intValue();
 		}
 		return result;
 	}
 
+	/*
+	 * Returns the key of the work of the given target or null if its project was not read from a build file.
+	 */
+	private String getWorkKey(Target target) {
+		String buildFile = target.getProject().getProperty("ant.file"); //$NON-NLS-1$
+		if (buildFile == null) {
+			return null;
+		}
+		return buildFile + '#' + target.getName();
+	}
+
 	protected int countTarget(Target target, List<String> alreadySeen) {
+		return countTargetWork(target, alreadySeen);
+	}
+
+	/**
+	 * Same as {@link #countTarget(Target, List)}, with a set of the names of the targets already seen that is cheaper to look up.
+	 */
+	protected int countTarget(Target target, Set<String> alreadySeen) {
+		return countTargetWork(target, alreadySeen);
+	}
+
+	private int countTargetWork(Target target, Collection<String> alreadySeen) {
 		int result = 1;
 		Project project = target.getProject();
 		Hashtable<String, Target> targets = project.getTargets();
@@ -142,7 +181,7 @@ public class ProgressBuildListener implements BuildListener {
 			alreadySeen.add(targetName);
 			dependency = targets.get(targetName);
 			if (dependency != null) {
-				result = result + countTarget(dependency, alreadySeen);
+				result = result + countTargetWork(dependency, alreadySeen);
 			}
 		}
 		// we have to handle antcall tasks as well
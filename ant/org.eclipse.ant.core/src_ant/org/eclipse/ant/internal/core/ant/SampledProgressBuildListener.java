@@ -0,0 +1,314 @@
+/*******************************************************************************
+ *  Copyright (c) 2018 IBM Corporation and others.
+ *  All rights reserved. This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License v1.0
+ *  which accompanies this distribution, and is available at
+ *  http://www.eclipse.org/legal/epl-v10.html
+ *
+ *  Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.core.ant;
+
+import java.util.List;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.apache.tools.ant.taskdefs.Ant;
+import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+/**
+ * Reports progress of a script execution in samples rather than for every task, for builds that run a great many short tasks.
+ * <p>
+ * The monitor of a target is told about the finished tasks once {@link #SAMPLE_TASKS} tasks have finished or {@link #SAMPLE_INTERVAL}
+ * milliseconds have passed. A task still finds a progress monitor under the {@link AntCorePlugin#ECLIPSE_PROGRESS_MONITOR} reference while it
+ * runs; the monitor is shared by the tasks of a target and only takes a tick of the target for the tasks that call
+ * {@link IProgressMonitor#beginTask(String, int)} on it.
+ * </p>
+ * <p>
+ * The monitor of the build is asked for cancellation at most every {@link #SAMPLE_INTERVAL} milliseconds, when a task or target starts or
+ * finishes or a message is logged. Once the build is canceled it ends with an {@link OperationCanceledException} at the next such event of the
+ * thread running the current task. A running task that polls the monitor it finds under the {@link AntCorePlugin#ECLIPSE_PROGRESS_MONITOR}
+ * reference sees the cancellation right away and can stop early; tasks are never interrupted, so none is left with a half written file.
+ * </p>
+ * <p>
+ * Used instead of {@link ProgressBuildListener} when the <code>eclipse.ant.progressSampling</code> property of the build is <code>true</code>.
+ * </p>
+ *
+ * @since 3.5.200
+ */
+public class SampledProgressBuildListener extends ProgressBuildListener {
+
+	/**
+	 * The property that selects this listener
+	 */
+	public static final String PROPERTY_PROGRESS_SAMPLING = "eclipse.ant.progressSampling"; //$NON-NLS-1$
+
+	/**
+	 * The number of finished tasks reported at once
+	 */
+	public static final int SAMPLE_TASKS = 100;
+
+	/**
+	 * The number of milliseconds between two reports of finished tasks and between two checks for cancellation
+	 */
+	public static final long SAMPLE_INTERVAL = 250;
+
+	private volatile boolean canceled = false;
+	private volatile Thread taskThread = null;
+	private long lastCancelCheck = 0;
+
+	/**
+	 * The target monitor that has not been told about the last tasks yet
+	 */
+	private IProgressMonitor pendingMonitor = null;
+	private int pendingTasks = 0;
+	private long lastReport = System.currentTimeMillis();
+
+	/**
+	 * The progress monitor handed to the tasks of a target.
+	 */
+	private final class TaskMonitor implements IProgressMonitor {
+
+		private final IProgressMonitor targetMonitor;
+
+		/**
+		 * The monitor for the tick of the current task, only created when the task begins a task of its own
+		 */
+		private IProgressMonitor taskMonitor;
+
+		TaskMonitor(IProgressMonitor targetMonitor) {
+			this.targetMonitor = targetMonitor;
+		}
+
+		IProgressMonitor getTargetMonitor() {
+			return targetMonitor;
+		}
+
+		/**
+		 * Returns whether the current task took its tick of the target
+		 */
+		boolean isClaimed() {
+			return taskMonitor != null;
+		}
+
+		void reset() {
+			taskMonitor = null;
+		}
+
+		@Override
+		public void beginTask(String name, int totalWork) {
+			if (taskMonitor == null) {
+				taskMonitor = subMonitorFor(targetMonitor, 1);
+			}
+			taskMonitor.beginTask(name, totalWork);
+		}
+
+		@Override
+		public void done() {
+			if (taskMonitor != null) {
+				taskMonitor.done();
+			}
+		}
+
+		@Override
+		public void internalWorked(double work) {
+			if (taskMonitor != null) {
+				taskMonitor.internalWorked(work);
+			}
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return canceled || targetMonitor.isCanceled();
+		}
+
+		@Override
+		public void setCanceled(boolean value) {
+			targetMonitor.setCanceled(value);
+		}
+
+		@Override
+		public void setTaskName(String name) {
+			targetMonitor.setTaskName(name);
+		}
+
+		@Override
+		public void subTask(String name) {
+			targetMonitor.subTask(name);
+		}
+
+		@Override
+		public void worked(int work) {
+			if (taskMonitor != null) {
+				taskMonitor.worked(work);
+			}
+		}
+	}
+
+	public SampledProgressBuildListener(Project project, List<String> targetNames, IProgressMonitor monitor) {
+		super(project, targetNames, monitor);
+	}
+
+	/**
+	 * Returns whether the progress of the given project is to be reported in samples.
+	 *
+	 * @param project
+	 *            the project to build
+	 * @return whether to use this listener
+	 */
+	public static boolean isEnabled(Project project) {
+		return Boolean.valueOf(project.getProperty(PROPERTY_PROGRESS_SAMPLING)).booleanValue();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.core.ant.ProgressBuildListener#buildFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void buildFinished(BuildEvent event) {
+		reportPendingTasks();
+		super.buildFinished(event);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.core.ant.ProgressBuildListener#targetFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void targetFinished(BuildEvent event) {
+		reportPendingTasks();
+		super.targetFinished(event);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.core.ant.ProgressBuildListener#taskStarted(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskStarted(BuildEvent event) {
+		Task task = event.getTask();
+		if (task instanceof Ant) {
+			// the called script reports its progress in the tick of this task
+			reportPendingTasks();
+			super.taskStarted(event);
+			taskThread = Thread.currentThread();
+			return;
+		}
+		checkCanceled();
+		Project currentProject = event.getProject();
+		if (currentProject == null) {
+			return;
+		}
+		ProjectMonitors monitors = projects.get(currentProject);
+		if (monitors == null || task == null) {
+			currentProject.getReferences().remove(AntCorePlugin.ECLIPSE_PROGRESS_MONITOR);
+			return;
+		}
+		taskThread = Thread.currentThread();
+		IProgressMonitor current = monitors.getTaskMonitor();
+		TaskMonitor taskMonitor = null;
+		if (current instanceof TaskMonitor && ((TaskMonitor) current).getTargetMonitor() == monitors.getTargetMonitor()) {
+			taskMonitor = (TaskMonitor) current;
+			taskMonitor.reset();
+		} else {
+			taskMonitor = new TaskMonitor(monitors.getTargetMonitor());
+			monitors.setTaskMonitor(taskMonitor);
+		}
+		// put directly: Project.addReference logs every replacement
+		currentProject.getReferences().put(AntCorePlugin.ECLIPSE_PROGRESS_MONITOR, taskMonitor);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.core.ant.ProgressBuildListener#taskFinished(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void taskFinished(BuildEvent event) {
+		checkCanceled();
+		Project project = event.getProject();
+		if (project == null) {
+			return;
+		}
+		project.getReferences().remove(AntCorePlugin.ECLIPSE_PROGRESS_MONITOR);
+		ProjectMonitors monitors = projects.get(project);
+		if (monitors == null) {
+			return;
+		}
+		IProgressMonitor current = monitors.getTaskMonitor();
+		if (current instanceof TaskMonitor) {
+			TaskMonitor taskMonitor = (TaskMonitor) current;
+			if (taskMonitor.isClaimed()) {
+				taskMonitor.done();
+			} else {
+				addPendingTask(taskMonitor.getTargetMonitor());
+			}
+		} else if (current != null) {
+			current.done();
+		}
+		taskThread = null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.core.ant.ProgressBuildListener#messageLogged(org.apache.tools.ant.BuildEvent)
+	 */
+	@Override
+	public void messageLogged(BuildEvent event) {
+		checkCanceled();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ant.internal.core.ant.ProgressBuildListener#checkCanceled()
+	 */
+	@Override
+	protected void checkCanceled() {
+		// as in ProgressBuildListener only the thread of the current task is canceled, see bug 32657
+		Thread thread = taskThread;
+		if (thread != null && thread != Thread.currentThread()) {
+			return;
+		}
+		if (!canceled) {
+			long now = System.currentTimeMillis();
+			if (now - lastCancelCheck < SAMPLE_INTERVAL) {
+				return;
+			}
+			lastCancelCheck = now;
+			if (!projects.get(mainProject).getMainMonitor().isCanceled()) {
+				return;
+			}
+			canceled = true;
+		}
+		taskThread = null;
+		throw new OperationCanceledException(InternalAntMessages.ProgressBuildListener_Build_cancelled);
+	}
+
+	private synchronized void addPendingTask(IProgressMonitor targetMonitor) {
+		if (targetMonitor != pendingMonitor) {
+			reportPendingTasks();
+			pendingMonitor = targetMonitor;
+		}
+		pendingTasks++;
+		if (pendingTasks >= SAMPLE_TASKS || System.currentTimeMillis() - lastReport >= SAMPLE_INTERVAL) {
+			reportPendingTasks();
+		}
+	}
+
+	private synchronized void reportPendingTasks() {
+		if (pendingMonitor != null && pendingTasks > 0) {
+			pendingMonitor.worked(pendingTasks);
+		}
+		pendingTasks = 0;
+		lastReport = System.currentTimeMillis();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,23 +20,31 @@ import org.apache.tools.ant.BuildEvent;
 import org.apache.tools.ant.Location;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.Target;
-import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.launching.AntLaunch;
 import org.eclipse.ant.internal.launching.AntLaunching;
 import org.eclipse.ant.internal.launching.AntLaunchingUtil;
 import org.eclipse.ant.internal.launching.debug.AntDebugState;
 import org.eclipse.ant.internal.launching.launchConfigurations.AntProcess;
-import org.eclipse.ant.internal.launching.launchConfigurations.AntStreamMonitor;
-import org.eclipse.ant.internal.launching.launchConfigurations.AntStreamsProxy;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntProcessRegistry;
 import org.eclipse.core.runtime.OperationCanceledException;
-import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Region;
 
 public class AntProcessBuildLogger extends NullBuildLogger {
 
+	private static final String LINE_SEPARATOR = System.getProperty("line.separator"); //$NON-NLS-1$
+	private static final String COLUMN;
+
+	static {
+		StringBuffer column = new StringBuffer(AntLaunching.LEFT_COLUMN_SIZE);
+		for (int i = 0; i < AntLaunching.LEFT_COLUMN_SIZE; i++) {
+			column.append(' ');
+		}
+		COLUMN = column.toString();
+	}
+
 	private long fStartTime;
 
 	/**
@@ -44,6 +52,16 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 	 */
 	private AntProcess fProcess = null;
 
+	/**
+	 * Hands the messages to the stream monitors of the process, created with the first message
+	 */
+	private ConsoleOutputQueue fOutputQueue = null;
+
+	/**
+	 * Reused to format messages, also serializes messages logged from several threads
+	 */
+	private final StringBuffer fMessageBuffer = new StringBuffer(256);
+
 	protected void logMessage(String message, BuildEvent event, int overridePriority) {
 		int priority = overridePriority;
 		if (priority == -1) {
@@ -58,22 +76,27 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 			return;
 		}
 
-		StringBuffer fullMessage = new StringBuffer();
-		if (!loggingToLogFile()) {
-			fullMessage.append(System.getProperty("line.separator")); //$NON-NLS-1$
-		}
-		if (event.getException() == null && event.getTask() != null && !fEmacsMode) {
-			adornMessage(event, fullMessage);
-		} else {
-			fullMessage.append(message);
-		}
-		message = fullMessage.toString();
+		synchronized (fMessageBuffer) {
+			StringBuffer fullMessage = fMessageBuffer;
+			fullMessage.setLength(0);
+			boolean toLogFile = loggingToLogFile();
+			if (!toLogFile) {
+				fullMessage.append(LINE_SEPARATOR);
+			}
+			if (event.getException() == null && event.getTask() != null && !fEmacsMode) {
+				adornMessage(event, fullMessage, antProcess, priority);
+			} else {
+				fullMessage.append(message);
+			}
 
-		if (loggingToLogFile()) {
-			logMessageToLogFile(message, priority);
-		} else {
-			AntStreamMonitor monitor = getMonitor(priority);
-			monitor.append(message);
+			if (toLogFile) {
+				logMessageToLogFile(fullMessage.toString(), priority);
+			} else {
+				if (fOutputQueue == null) {
+					fOutputQueue = new ConsoleOutputQueue(antProcess);
+				}
+				fOutputQueue.append(priority, fullMessage);
+			}
 		}
 	}
 
@@ -85,88 +108,63 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 	 *            build event
 	 * @param fullMessage
 	 *            buffer to place task prefix in
+	 * @param antProcess
+	 *            the process to create the hyperlinks for
+	 * @param priority
+	 *            the priority of the message, which selects the console stream it is written to
 	 */
-	private void adornMessage(BuildEvent event, StringBuffer fullMessage) {
+	private void adornMessage(BuildEvent event, StringBuffer fullMessage, AntProcess antProcess, int priority) {
+		String message = event.getMessage();
+		if (message == null) {
+			return;
+		}
 		String name = event.getTask().getTaskName();
 		if (name == null) {
 			name = "null"; //$NON-NLS-1$
 		}
 		Location location = event.getTask().getLocation();
-		StringBuffer column = new StringBuffer();
-		int size = AntLaunching.LEFT_COLUMN_SIZE - (name.length() + 3);
-		for (int i = 0; i < size; i++) {
-			column.append(' ');
+		if (location != null && location.getFileName() == null) {
+			// nothing to link to
+			location = null;
 		}
-		StringBuffer labelBuff = new StringBuffer();
-		labelBuff.append('[');
-		labelBuff.append(name);
-		labelBuff.append("] "); //$NON-NLS-1$
-
+		int size = AntLaunching.LEFT_COLUMN_SIZE - (name.length() + 3);
 		int offset = Math.max(size, 0) + 1;
-		String label = labelBuff.toString();
-		if (event.getMessage() == null) {
-			return;
-		}
-		try {
-			BufferedReader r = new BufferedReader(new StringReader(event.getMessage()));
-			String line = r.readLine();
-			fullMessage.append(column);
-			appendAndLink(fullMessage, location, label, offset, line);
-			line = r.readLine();
-			while (line != null) {
-				fullMessage.append(System.getProperty("line.separator")); //$NON-NLS-1$
-				fullMessage.append(column);
-				appendAndLink(fullMessage, location, label, offset, line);
-				line = r.readLine();
+
+		// one console line per line of the message, as read by BufferedReader.readLine()
+		int length = message.length();
+		int start = 0;
+		do {
+			int end = start;
+			while (end < length && message.charAt(end) != '\n' && message.charAt(end) != '\r') {
+				end++;
 			}
-		}
-		catch (IOException e) {
-			if (event.getMessage() != null) {
-				fullMessage.append(label).append(event.getMessage());
+			if (start > 0) {
+				fullMessage.append(LINE_SEPARATOR);
 			}
-		}
+			if (size > 0) {
+				fullMessage.append(COLUMN, 0, size);
+			}
+			appendAndLink(fullMessage, location, name, offset, message, start, end, antProcess, priority);
+			if (end + 1 < length && message.charAt(end) == '\r' && message.charAt(end + 1) == '\n') {
+				end++;
+			}
+			start = end + 1;
+		} while (start < length);
 	}
 
-	private void appendAndLink(StringBuffer fullMessage, Location location, String label, int offset, String line) {
-		fullMessage.append(label);
-		fullMessage.append(line);
+	private void appendAndLink(StringBuffer fullMessage, Location location, String name, int offset, String message, int start, int end, AntProcess antProcess, int priority) {
+		int labelStart = fullMessage.length();
+		fullMessage.append('[');
+		fullMessage.append(name);
+		fullMessage.append("] "); //$NON-NLS-1$
+		fullMessage.append(message, start, end);
 		if (location != null) {
-			String newLine = (label + line).trim();
-			IRegion region = new Region(offset, label.length() - 3); // only
-			// want
-			// the
-			// name
-			// length
-			// "[name] "
-			AntProcess antProcess = getAntProcess(fProcessId);
+			String newLine = fullMessage.substring(labelStart).trim();
+			// only want the name length "[name] "
+			IRegion region = new Region(offset, name.length());
 			AntLaunch antLaunch = (AntLaunch) antProcess.getLaunch();
-			antLaunch.addLinkDescriptor(newLine, location.getFileName(), location.getLineNumber(), region.getOffset(), region.getLength());
-		}
-	}
-
-	private AntStreamMonitor getMonitor(int priority) {
-		AntStreamsProxy proxy = (AntStreamsProxy) fProcess.getStreamsProxy();
-		AntStreamMonitor monitor = null;
-		switch (priority) {
-			case Project.MSG_INFO:
-				monitor = (AntStreamMonitor) proxy.getOutputStreamMonitor();
-				break;
-			case Project.MSG_ERR:
-				monitor = (AntStreamMonitor) proxy.getErrorStreamMonitor();
-				break;
-			case Project.MSG_DEBUG:
-				monitor = (AntStreamMonitor) proxy.getDebugStreamMonitor();
-				break;
-			case Project.MSG_WARN:
-				monitor = (AntStreamMonitor) proxy.getWarningStreamMonitor();
-				break;
-			case Project.MSG_VERBOSE:
-				monitor = (AntStreamMonitor) proxy.getVerboseStreamMonitor();
-				break;
-			default:
-				break;
+			antLaunch.addLinkDescriptor(newLine, location.getFileName(), location.getLineNumber(), region.getOffset(), region.getLength(), priority);
 		}
-		return monitor;
 	}
 
 	private void logMessageToLogFile(String message, int priority) {
@@ -182,13 +180,9 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 	 */
 	protected AntProcess getAntProcess(String processId) {
 		if (fProcess == null && processId != null) {
-			IProcess[] all = DebugPlugin.getDefault().getLaunchManager().getProcesses();
-			for (int i = 0; i < all.length; i++) {
-				IProcess process = all[i];
-				if (process instanceof AntProcess && processId.equals(process.getAttribute(AbstractEclipseBuildLogger.ANT_PROCESS_ID))) {
-					fProcess = (AntProcess) process;
-					break;
-				}
+			IProcess process = AntProcessRegistry.getProcess(processId);
+			if (process instanceof AntProcess) {
+				fProcess = (AntProcess) process;
 			}
 		}
 		return fProcess;
@@ -222,7 +216,7 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 				while (line != null) {
 					logMessage(line, event, Project.MSG_ERR);
 					if (!message.startsWith("Total time:")) { //$NON-NLS-1$
-						AntLaunchingUtil.linkBuildFailedMessage(line, antProcess);
+						AntLaunchingUtil.linkBuildFailedMessage(line, antProcess, Project.MSG_ERR);
 					}
 					line = r.readLine();
 				}
@@ -236,6 +230,13 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 		if (!(event.getException() instanceof OperationCanceledException)) {
 			logMessage(getTimeString(System.currentTimeMillis() - fStartTime), event, fMessageOutputLevel);
 		}
+		synchronized (fMessageBuffer) {
+			if (fOutputQueue != null) {
+				// the console has all output before the process terminates
+				fOutputQueue.close();
+				fOutputQueue = null;
+			}
+		}
 		fProcess = null;
 		event.getProject().removeBuildListener(this);
 	}
@@ -271,7 +272,7 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 			result.append(RuntimeMessages.AntProcessBuildLogger__milliseconds_6);
 		}
 
-		result.append(System.getProperty("line.separator")); //$NON-NLS-1$
+		result.append(LINE_SEPARATOR);
 		return result.toString();
 	}
 
@@ -301,7 +302,7 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 			return;
 		}
 		Target target = event.getTarget();
-		StringBuffer msg = new StringBuffer(System.getProperty("line.separator")); //$NON-NLS-1$
+		StringBuffer msg = new StringBuffer(LINE_SEPARATOR);
 		String targetName = target.getName();
 		msg.append(targetName);
 		msg.append(':');
@@ -311,7 +312,7 @@ public class AntProcessBuildLogger extends NullBuildLogger {
 			IRegion region = new Region(0, targetName.length());
 			AntProcess antProcess = getAntProcess(fProcessId);
 			AntLaunch antLaunch = (AntLaunch) antProcess.getLaunch();
-			antLaunch.addLinkDescriptor(message, location.getFileName(), location.getLineNumber(), region.getOffset(), region.getLength());
+			antLaunch.addLinkDescriptor(message, location.getFileName(), location.getLineNumber(), region.getOffset(), region.getLength(), Project.MSG_INFO);
 		}
 		logMessage(message, event, Project.MSG_INFO);
 	}
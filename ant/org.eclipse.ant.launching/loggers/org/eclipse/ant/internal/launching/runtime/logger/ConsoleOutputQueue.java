@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.runtime.logger;
+
+import org.apache.tools.ant.Project;
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntProcess;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntStreamMonitor;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntStreamsProxy;
+
+/**
+ * Hands the console output of an in-VM build to the stream monitors of its process on a separate thread, so stream listeners (the console) run
+ * off the build thread.
+ * <p>
+ * Messages are copied into a pending batch; consecutive messages for the same stream are coalesced into a single append. The consumer delivers a
+ * batch at most every {@link #FLUSH_INTERVAL} milliseconds and the build blocks only when more than {@link #MAX_PENDING} characters are waiting.
+ * The order of messages across streams is kept.
+ * </p>
+ */
+final class ConsoleOutputQueue implements Runnable {
+
+	/**
+	 * Minimum time between two deliveries, in milliseconds.
+	 */
+	private static final int FLUSH_INTERVAL = 50;
+
+	/**
+	 * Number of pending characters above which the build waits for the console.
+	 */
+	private static final int MAX_PENDING = 1 << 20;
+
+	/**
+	 * Messages waiting for delivery: the text of all messages and where each run of messages for one stream ends.
+	 */
+	private static final class Batch {
+		final StringBuffer fText = new StringBuffer(1024);
+		int[] fPriorities = new int[16];
+		int[] fEnds = new int[16];
+		int fCount = 0;
+
+		void add(int priority, CharSequence message) {
+			if (fCount == 0 || fPriorities[fCount - 1] != priority) {
+				if (fCount == fEnds.length) {
+					int[] priorities = new int[fCount * 2];
+					System.arraycopy(fPriorities, 0, priorities, 0, fCount);
+					fPriorities = priorities;
+					int[] ends = new int[fCount * 2];
+					System.arraycopy(fEnds, 0, ends, 0, fCount);
+					fEnds = ends;
+				}
+				fPriorities[fCount] = priority;
+				fCount++;
+			}
+			fText.append(message);
+			fEnds[fCount - 1] = fText.length();
+		}
+
+		boolean isEmpty() {
+			return fCount == 0;
+		}
+
+		void clear() {
+			fText.setLength(0);
+			fCount = 0;
+		}
+	}
+
+	private final AntProcess fProcess;
+	private final AntStreamMonitor[] fMonitors;
+	private final Object fLock = new Object();
+
+	private Batch fPending = new Batch();
+	private Batch fSpare = new Batch();
+	private Thread fConsumer;
+	private boolean fClosed = false;
+
+	ConsoleOutputQueue(AntProcess process) {
+		fProcess = process;
+		AntStreamsProxy proxy = (AntStreamsProxy) process.getStreamsProxy();
+		fMonitors = new AntStreamMonitor[Project.MSG_DEBUG + 1];
+		fMonitors[Project.MSG_ERR] = (AntStreamMonitor) proxy.getErrorStreamMonitor();
+		fMonitors[Project.MSG_WARN] = (AntStreamMonitor) proxy.getWarningStreamMonitor();
+		fMonitors[Project.MSG_INFO] = (AntStreamMonitor) proxy.getOutputStreamMonitor();
+		fMonitors[Project.MSG_VERBOSE] = (AntStreamMonitor) proxy.getVerboseStreamMonitor();
+		fMonitors[Project.MSG_DEBUG] = (AntStreamMonitor) proxy.getDebugStreamMonitor();
+	}
+
+	/**
+	 * Queues the given message for the stream of the given priority. The message is copied, the caller may reuse its buffer.
+	 */
+	void append(int priority, CharSequence message) {
+		if (priority < 0 || priority >= fMonitors.length) {
+			return;
+		}
+		synchronized (fLock) {
+			if (!fClosed || fConsumer != null) {
+				while (fPending.fText.length() > MAX_PENDING && fConsumer != null) {
+					try {
+						fLock.wait();
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						break;
+					}
+				}
+				boolean wasEmpty = fPending.isEmpty();
+				fPending.add(priority, message);
+				if (fConsumer == null) {
+					fConsumer = new Thread(this, "Ant Console Output"); //$NON-NLS-1$
+					fConsumer.setDaemon(true);
+					fConsumer.start();
+				} else if (wasEmpty) {
+					fLock.notifyAll();
+				}
+				return;
+			}
+		}
+		// late messages of the build, after the queue was drained
+		deliver(priority, message.toString());
+	}
+
+	/**
+	 * Delivers all queued messages and stops the consumer. Later messages are delivered right away.
+	 */
+	void close() {
+		Thread consumer;
+		synchronized (fLock) {
+			fClosed = true;
+			consumer = fConsumer;
+			fLock.notifyAll();
+		}
+		if (consumer != null && consumer != Thread.currentThread()) {
+			try {
+				consumer.join();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	@Override
+	public void run() {
+		Batch batch = null;
+		try {
+			while (true) {
+				synchronized (fLock) {
+					if (batch != null) {
+						batch.clear();
+						fSpare = batch;
+						// producers may wait for room
+						fLock.notifyAll();
+						waitForNextFlush();
+					}
+					while (fPending.isEmpty()) {
+						if (fClosed || fProcess.isTerminated()) {
+							// drained, or the build went away without finishing
+							fConsumer = null;
+							fLock.notifyAll();
+							return;
+						}
+						fLock.wait(1000);
+					}
+					batch = fPending;
+					fPending = fSpare;
+					fSpare = null;
+				}
+				deliver(batch);
+			}
+		}
+		catch (InterruptedException e) {
+			synchronized (fLock) {
+				fConsumer = null;
+				fLock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits for the flush interval unless the queue is closed. Must be called holding the lock.
+	 */
+	private void waitForNextFlush() throws InterruptedException {
+		long end = System.currentTimeMillis() + FLUSH_INTERVAL;
+		long remaining = FLUSH_INTERVAL;
+		while (!fClosed && remaining > 0) {
+			fLock.wait(remaining);
+			remaining = end - System.currentTimeMillis();
+		}
+	}
+
+	private void deliver(Batch batch) {
+		int start = 0;
+		for (int i = 0; i < batch.fCount; i++) {
+			int end = batch.fEnds[i];
+			deliver(batch.fPriorities[i], batch.fText.substring(start, end));
+			start = end;
+		}
+	}
+
+	private void deliver(int priority, String text) {
+		try {
+			fMonitors[priority].append(text);
+		}
+		catch (RuntimeException e) {
+			AntLaunching.log(e);
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Properties;
+
+import org.apache.tools.ant.BuildEvent;
+import org.apache.tools.ant.BuildListener;
+import org.apache.tools.ant.MagicNames;
+import org.apache.tools.ant.ProjectHelper;
+
+/**
+ * Entry point of a persistent build VM. Instead of running one build and exiting like {@link InternalAntRunner#main(String[])}, the daemon
+ * listens on a loopback port and runs one build per connection, each in a fresh Ant project, until no build was requested for the idle timeout.
+ * <p>
+ * Arguments: <code>&lt;port&gt; &lt;idle timeout in milliseconds&gt;</code>
+ * </p>
+ * <p>
+ * Protocol, per connection: the client sends the number of build arguments as an <code>int</code> followed by each argument as the
+ * <code>int</code> length of its UTF-8 encoding and the encoded bytes, and the daemon answers with a single byte, {@link #STATUS_OK} when the build ran (successfully or not, build failures are reported through
+ * the build logger), {@link #STATUS_RETIRED} when the build ran and the daemon exits and {@link #STATUS_ERROR} when the build could not be run.
+ * Build output goes through the build logger named in the arguments, exactly as for a build in its own VM.
+ * </p>
+ * <p>
+ * Each build gets a new project and the system properties of the daemon, but classes loaded by a build and their static state stay in the VM.
+ * A build that defines tasks or types of its own with <code>taskdef</code>, <code>typedef</code>, <code>componentdef</code>,
+ * <code>scriptdef</code> or an antlib namespace could leave state for the next build behind, so the daemon exits after such a build and the
+ * next build starts a new one.
+ * </p>
+ */
+public class AntBuildDaemon {
+
+	public static final int STATUS_OK = 0;
+	public static final int STATUS_ERROR = 1;
+	public static final int STATUS_RETIRED = 2;
+
+	private static final String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+	/**
+	 * The tasks that define components
+	 */
+	private static final String[] DEFINERS = { "taskdef", "typedef", "componentdef", "scriptdef" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	private final ServerSocket fServerSocket;
+
+	private AntBuildDaemon(int port, int idleTimeout) throws IOException {
+		fServerSocket = new ServerSocket(port, 1, InetAddress.getByName(null));
+		fServerSocket.setSoTimeout(idleTimeout);
+	}
+
+	public static void main(String[] args) {
+		try {
+			new AntBuildDaemon(Integer.parseInt(args[0]), Integer.parseInt(args[1])).serve();
+		}
+		catch (Throwable t) {
+			t.printStackTrace();
+			System.exit(1);
+		}
+		System.exit(0);
+	}
+
+	private void serve() throws IOException {
+		try {
+			while (true) {
+				Socket socket;
+				try {
+					socket = fServerSocket.accept();
+				}
+				catch (SocketTimeoutException e) {
+					// idle for too long
+					return;
+				}
+				boolean retire;
+				try {
+					retire = handle(socket);
+				}
+				finally {
+					socket.close();
+				}
+				if (retire) {
+					return;
+				}
+			}
+		}
+		finally {
+			fServerSocket.close();
+		}
+	}
+
+	/*
+	 * Runs the build requested on the given connection and returns whether the daemon has to exit.
+	 */
+	private boolean handle(Socket socket) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		int count = in.readInt();
+		ArrayList<String> args = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			args.add(readString(in));
+		}
+
+		int status = STATUS_OK;
+		// builds must not see the system properties of earlier builds
+		Properties systemProperties = (Properties) System.getProperties().clone();
+		DefinitionListener definitions = new DefinitionListener();
+		try {
+			InternalAntRunner runner = new InternalAntRunner();
+			runner.addBuildListener(definitions);
+			runner.run(args);
+			if (definitions.fDefined) {
+				status = STATUS_RETIRED;
+			}
+		}
+		catch (Throwable t) {
+			t.printStackTrace();
+			status = STATUS_ERROR;
+		}
+		finally {
+			System.setProperties(systemProperties);
+		}
+		out.write(status);
+		out.flush();
+		return status == STATUS_RETIRED;
+	}
+
+	/*
+	 * Reads a string written as the length of its UTF-8 encoding followed by the encoded bytes.
+	 */
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			throw new IOException("Invalid argument length: " + length); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, ENCODING);
+	}
+
+	/**
+	 * Notices the tasks of a build, or of the projects it calls with <code>ant</code> or <code>antcall</code>, that define components.
+	 */
+	private static class DefinitionListener implements BuildListener {
+
+		volatile boolean fDefined = false;
+
+		@Override
+		public void taskStarted(BuildEvent event) {
+			String type = event.getTask().getTaskType();
+			if (fDefined || type == null) {
+				return;
+			}
+			String uri = ProjectHelper.extractUriFromComponentName(type);
+			if (uri.length() == 0 || uri.equals(ProjectHelper.ANT_CORE_URI)) {
+				String name = ProjectHelper.extractNameFromComponentName(type);
+				for (int i = 0; i < DEFINERS.length; i++) {
+					if (DEFINERS[i].equals(name)) {
+						fDefined = true;
+					}
+				}
+			} else if (uri.startsWith(MagicNames.ANTLIB_PREFIX)) {
+				// the antlib was loaded when the element was created
+				fDefined = true;
+			}
+		}
+
+		@Override
+		public void buildStarted(BuildEvent event) {
+			// do nothing
+		}
+
+		@Override
+		public void buildFinished(BuildEvent event) {
+			// do nothing
+		}
+
+		@Override
+		public void targetStarted(BuildEvent event) {
+			// do nothing
+		}
+
+		@Override
+		public void targetFinished(BuildEvent event) {
+			// do nothing
+		}
+
+		@Override
+		public void taskFinished(BuildEvent event) {
+			// do nothing
+		}
+
+		@Override
+		public void messageLogged(BuildEvent event) {
+			// do nothing
+		}
+	}
+}
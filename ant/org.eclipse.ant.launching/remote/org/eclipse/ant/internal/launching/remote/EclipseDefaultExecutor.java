@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -33,6 +33,11 @@ public class EclipseDefaultExecutor extends DefaultExecutor {
 		Vector<String> v = new Vector<String>();
 		v.addAll(Arrays.asList(targetNames));
 		project.addReference(IAntCoreConstants.TARGET_VECTOR_NAME, v);
+		int threadCount = EclipseParallelExecutor.getThreadCount(project);
+		if (threadCount > 1) {
+			new EclipseParallelExecutor(threadCount).executeTargets(project, targetNames);
+			return;
+		}
 		super.executeTargets(project, targetNames);
 	}
 
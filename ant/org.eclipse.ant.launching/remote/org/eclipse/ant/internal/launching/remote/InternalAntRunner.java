@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * Portions Copyright  2000-2005 The Apache Software Foundation
  * All rights reserved. This program and the accompanying materials are made 
  * available under the terms of the Apache Software License v2.0 which 
@@ -65,6 +65,11 @@ public class InternalAntRunner {
 
 	private List<String> buildListeners;
 
+	/**
+	 * Listener of the AntBuildDaemon, see {@link #addBuildListener(BuildListener)}
+	 */
+	private BuildListener daemonListener = null;
+
 	private String buildFileLocation;
 
 	/**
@@ -137,6 +142,16 @@ public class InternalAntRunner {
 
 	private String fEarlyErrorMessage = null;
 
+	/**
+	 * The startup descriptor given with <code>-startupDescriptor</code> or <code>null</code>
+	 */
+	private StartupDescriptor startupDescriptor = null;
+
+	/**
+	 * Why the startup descriptor could not be read or <code>null</code>. The build fails with it once its loggers have been added.
+	 */
+	private String startupDescriptorError = null;
+
 	public static void main(String[] args) {
 		try {
 			new InternalAntRunner().run(getArrayList(args));
@@ -173,6 +188,9 @@ public class InternalAntRunner {
 			if (logger != null) {
 				project.addBuildListener(logger);
 			}
+			if (daemonListener != null) {
+				project.addBuildListener(daemonListener);
+			}
 			if (buildListeners != null) {
 				for (String className : buildListeners) {
 					clazz = className;
@@ -195,6 +213,13 @@ public class InternalAntRunner {
 		}
 	}
 
+	/*
+	 * Adds a listener to the build in addition to the ones named with -listener. Called by the AntBuildDaemon before run(List).
+	 */
+	void addBuildListener(BuildListener listener) {
+		daemonListener = listener;
+	}
+
 	/**
 	 * Parses the build file and adds necessary information into the given project.
 	 * 
@@ -340,10 +365,10 @@ public class InternalAntRunner {
 	}
 
 	/*
-	 * Note that the list passed to this method must support List#remove(Object)
+	 * Note that the list passed to this method must support List#remove(Object). Also called by the AntBuildDaemon, once per build.
 	 */
 	@SuppressWarnings("unused")
-	private void run(List<String> argList) {
+	void run(List<String> argList) {
 		setCurrentProject(new Project());
 		if (isVersionCompatible("1.6.3")) { //$NON-NLS-1$
 			new ExecutorSetter().setExecutor(getCurrentProject());
@@ -392,6 +417,11 @@ public class InternalAntRunner {
 				}
 			}
 
+			if (startupDescriptorError != null) {
+				// the arguments of the build are missing
+				throw new BuildException(startupDescriptorError);
+			}
+
 			// properties can only be set after buildStarted as some listeners/loggers
 			// depend on this (e.g. XMLLogger)
 			setProperties(getCurrentProject());
@@ -790,7 +820,12 @@ public class InternalAntRunner {
 	@SuppressWarnings("unused")
 	private boolean preprocessCommandLine(List<String> commands) {
 
-		String arg = getArgument(commands, "-listener"); //$NON-NLS-1$
+		String arg = getArgument(commands, StartupDescriptor.ARGUMENT);
+		if (arg != null) {
+			readStartupDescriptor(arg);
+		}
+
+		arg = getArgument(commands, "-listener"); //$NON-NLS-1$
 		while (arg != null) {
 			if (arg.length() == 0) {
 				throw new BuildException(RemoteAntMessages.getString("InternalAntRunner.You_must_specify_a_classname_when_using_the_-listener_argument_1")); //$NON-NLS-1$
@@ -823,9 +858,36 @@ public class InternalAntRunner {
 		if (arg != null) {
 			throw new BuildException(RemoteAntMessages.getString("InternalAntRunner.Only_one_input_handler_class_may_be_specified._2")); //$NON-NLS-1$
 		}
+
+		if (startupDescriptor != null) {
+			// the launching side only names a logger and an input handler if the command line does not
+			if (loggerClassname == null) {
+				loggerClassname = startupDescriptor.getLogger();
+			}
+			if (inputHandlerClassname == null) {
+				inputHandlerClassname = startupDescriptor.getInputHandler();
+			}
+		}
 		return true;
 	}
 
+	/*
+	 * Reads the startup descriptor with the given file name.
+	 */
+	private void readStartupDescriptor(String fileName) {
+		if (fileName.length() == 0) {
+			throw new BuildException(RemoteAntMessages.getString("InternalAntRunner.You_must_specify_a_file_when_using_the_-startupDescriptor_argument_1")); //$NON-NLS-1$
+		}
+		try {
+			startupDescriptor = StartupDescriptor.read(new File(fileName));
+		}
+		catch (IOException e) {
+			// no logger has been added yet to report it, see run(List)
+			startupDescriptorError = MessageFormat.format(RemoteAntMessages.getString("InternalAntRunner.Could_not_read_startup_descriptor_{0}__{1}_1"), new Object[] { //$NON-NLS-1$
+					fileName, e.getMessage() });
+		}
+	}
+
 	/*
 	 * Looks for interesting command line arguments. Returns whether it is OK to run the script.
 	 */
@@ -947,6 +1009,10 @@ public class InternalAntRunner {
 			processTargets(commands);
 		}
 
+		if (startupDescriptor != null && !startupDescriptor.getTargets().isEmpty()) {
+			processTargets(startupDescriptor.getTargets());
+		}
+
 		return true;
 	}
 
@@ -979,6 +1045,21 @@ public class InternalAntRunner {
 			}
 			arg = getArgument(commands, "-eclipseType"); //$NON-NLS-1$
 		}
+
+		if (startupDescriptor != null) {
+			if (!startupDescriptor.getTasks().isEmpty()) {
+				if (eclipseSpecifiedTasks == null) {
+					eclipseSpecifiedTasks = new HashMap<String, String>();
+				}
+				eclipseSpecifiedTasks.putAll(startupDescriptor.getTasks());
+			}
+			if (!startupDescriptor.getTypes().isEmpty()) {
+				if (eclipseSpecifiedTypes == null) {
+					eclipseSpecifiedTypes = new HashMap<String, String>();
+				}
+				eclipseSpecifiedTypes.putAll(startupDescriptor.getTypes());
+			}
+		}
 	}
 
 	/*
@@ -1081,6 +1162,9 @@ public class InternalAntRunner {
 			propertyFiles.add(arg);
 			arg = getArgument(commands, "-propertyfile"); //$NON-NLS-1$
 		}
+		if (startupDescriptor != null) {
+			propertyFiles.addAll(startupDescriptor.getPropertyFiles());
+		}
 
 		if (propertyFiles != null && !propertyFiles.isEmpty()) {
 			loadPropertyFiles();
@@ -1089,6 +1173,13 @@ public class InternalAntRunner {
 		if (commands != null) {
 			processMinusDProperties(commands);
 		}
+		if (startupDescriptor != null && !startupDescriptor.getProperties().isEmpty()) {
+			// as if they followed the -D properties of the command line
+			if (userProperties == null) {
+				userProperties = new HashMap<String, String>();
+			}
+			userProperties.putAll(startupDescriptor.getProperties());
+		}
 		return exceptionToBeThrown;
 	}
 
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The startup descriptor written by the launching side for a build in a separate VM, see <code>-startupDescriptor &lt;file&gt;</code>. It holds the
+ * logger, input handler, property files, properties, Eclipse tasks and types and targets that were otherwise passed as command line arguments.
+ * <p>
+ * Format: all integers are big endian, a string is the length of its UTF-8 bytes followed by the bytes, or -1 for no string. The file starts with
+ * {@link #MAGIC} and {@link #VERSION}, followed by the logger, the input handler and counted lists of property files, of property name and value
+ * pairs, of task name and class pairs, of type name and class pairs and of targets.
+ * </p>
+ */
+public class StartupDescriptor {
+
+	public static final String ARGUMENT = "-startupDescriptor"; //$NON-NLS-1$
+
+	public static final int MAGIC = 0x414E5453;
+
+	public static final int VERSION = 1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8"); //$NON-NLS-1$
+
+	private String logger;
+	private String inputHandler;
+	private List<String> propertyFiles;
+	private Map<String, String> properties;
+	private Map<String, String> tasks;
+	private Map<String, String> types;
+	private List<String> targets;
+
+	private StartupDescriptor() {
+		// see read(File)
+	}
+
+	/**
+	 * Reads the given descriptor and deletes it, also when it cannot be read, as it is only used by one build.
+	 *
+	 * @param file
+	 *            the descriptor
+	 * @return the contents of the descriptor
+	 * @throws IOException
+	 *             if the file cannot be read or is not a descriptor of this version
+	 */
+	public static StartupDescriptor read(File file) throws IOException {
+		StartupDescriptor descriptor = new StartupDescriptor();
+		RandomAccessFile raf = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+		try {
+			FileChannel channel = raf.getChannel();
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			descriptor.read(buffer);
+		}
+		catch (BufferUnderflowException e) {
+			throw new IOException(MessageFormat.format(RemoteAntMessages.getString("StartupDescriptor.Truncated_{0}_1"), new Object[] { file })); //$NON-NLS-1$
+		}
+		finally {
+			raf.close();
+			// a descriptor that cannot be read is not read again either
+			if (!file.delete()) {
+				// still mapped on some platforms
+				file.deleteOnExit();
+			}
+		}
+		return descriptor;
+	}
+
+	private void read(ByteBuffer buffer) throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException(RemoteAntMessages.getString("StartupDescriptor.Not_a_startup_descriptor_2")); //$NON-NLS-1$
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException(MessageFormat.format(RemoteAntMessages.getString("StartupDescriptor.Unsupported_version_{0}_3"), new Object[] { //$NON-NLS-1$
+					Integer.toString(version) }));
+		}
+		logger = readString(buffer);
+		inputHandler = readString(buffer);
+		propertyFiles = readList(buffer);
+		properties = readMap(buffer);
+		tasks = readMap(buffer);
+		types = readMap(buffer);
+		targets = readList(buffer);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length == -1) {
+			return null;
+		}
+		if (length < 0 || length > buffer.remaining()) {
+			// a corrupt length, reported like a file that ends early
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	private static List<String> readList(ByteBuffer buffer) {
+		int count = readCount(buffer);
+		List<String> list = new ArrayList<String>(count);
+		for (int i = 0; i < count; i++) {
+			list.add(readString(buffer));
+		}
+		return list;
+	}
+
+	private static Map<String, String> readMap(ByteBuffer buffer) {
+		int count = readCount(buffer);
+		Map<String, String> map = new LinkedHashMap<String, String>(count * 2);
+		for (int i = 0; i < count; i++) {
+			String name = readString(buffer);
+			map.put(name, readString(buffer));
+		}
+		return map;
+	}
+
+	/*
+	 * Every entry takes at least the four bytes of its length, so a larger count cannot be read.
+	 */
+	private static int readCount(ByteBuffer buffer) {
+		int count = buffer.getInt();
+		if (count < 0 || count > buffer.remaining() / 4) {
+			throw new BufferUnderflowException();
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the class name of the build logger or <code>null</code> if the build uses the logger of its command line.
+	 */
+	public String getLogger() {
+		return logger;
+	}
+
+	/**
+	 * Returns the class name of the input handler or <code>null</code> if the build uses the input handler of its command line.
+	 */
+	public String getInputHandler() {
+		return inputHandler;
+	}
+
+	/**
+	 * Returns the property files, which follow those of the command line.
+	 */
+	public List<String> getPropertyFiles() {
+		return propertyFiles;
+	}
+
+	/**
+	 * Returns the user properties by name. They take precedence over the <code>-D</code> properties of the command line.
+	 */
+	public Map<String, String> getProperties() {
+		return properties;
+	}
+
+	/**
+	 * Returns the class names of the Eclipse tasks by component name.
+	 */
+	public Map<String, String> getTasks() {
+		return tasks;
+	}
+
+	/**
+	 * Returns the class names of the Eclipse types by component name.
+	 */
+	public Map<String, String> getTypes() {
+		return types;
+	}
+
+	/**
+	 * Returns the targets, which follow those of the command line.
+	 */
+	public List<String> getTargets() {
+		return targets;
+	}
+}
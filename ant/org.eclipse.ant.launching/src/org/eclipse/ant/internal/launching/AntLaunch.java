@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2016 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,47 +10,163 @@
  *******************************************************************************/
 package org.eclipse.ant.internal.launching;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.tools.ant.Project;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.Launch;
 import org.eclipse.debug.core.model.ISourceLocator;
 
 /**
- * Stores link descriptors for Launch for further use of TaskLinkManager
+ * Stores link descriptors for Launch for further use of TaskLinkManager.
+ * <p>
+ * Descriptors are numbered in the order they are emitted and indexed by the trimmed text of the console line they belong to, so the console can
+ * find the descriptor of each appended line in constant time. Each output level has its own console stream and lines of different streams may
+ * overtake each other on their way to the console, but the lines of one stream arrive in the order they were emitted. So once the line of a
+ * descriptor is linked, the descriptors of the same stream emitted before it can no longer show up (their line was filtered by the output level)
+ * and are dropped. Descriptors of the other streams are kept, however far behind their stream is.
+ * </p>
  */
 public class AntLaunch extends Launch {
-	List<LinkDescriptor> linkDescriptors;
+
+	private final Object fLinkLock = new Object();
+	private final Map<String, ArrayDeque<LinkDescriptor>> fLinksByLine = new HashMap<>();
+	// the pending descriptors of each stream in emission order, indexed by the Ant message priority of the stream
+	private final Map<Integer, ArrayDeque<LinkDescriptor>> fLinksByStream = new HashMap<>();
+	private long fNextSequence;
 
 	public AntLaunch(ILaunchConfiguration launchConfiguration, String mode, ISourceLocator locator) {
 		super(launchConfiguration, mode, locator);
-		linkDescriptors = new ArrayList<>();
 	}
 
+	/**
+	 * Adds the descriptor of a link for a line written to the information stream.
+	 */
 	public void addLinkDescriptor(String line, String fileName, int lineNumber, int offset, int length) {
+		addLinkDescriptor(line, fileName, lineNumber, offset, length, Project.MSG_INFO);
+	}
+
+	/**
+	 * Adds the descriptor of a link for a line written to the stream of the given Ant message priority.
+	 */
+	public void addLinkDescriptor(String line, String fileName, int lineNumber, int offset, int length, int priority) {
 		if (fileName != null && fileName.trim().length() > 0) {
-			synchronized (linkDescriptors) {
-				linkDescriptors.add(new LinkDescriptor(line, fileName, lineNumber, offset, length));
+			LinkDescriptor descriptor = new LinkDescriptor(line, fileName, lineNumber, offset, length);
+			descriptor.priority = priority;
+			String key = line.trim();
+			synchronized (fLinkLock) {
+				descriptor.sequence = fNextSequence++;
+				ArrayDeque<LinkDescriptor> links = fLinksByLine.get(key);
+				if (links == null) {
+					links = new ArrayDeque<>(2);
+					fLinksByLine.put(key, links);
+				}
+				links.addLast(descriptor);
+				Integer stream = Integer.valueOf(priority);
+				ArrayDeque<LinkDescriptor> streamLinks = fLinksByStream.get(stream);
+				if (streamLinks == null) {
+					streamLinks = new ArrayDeque<>();
+					fLinksByStream.put(stream, streamLinks);
+				}
+				streamLinks.addLast(descriptor);
+			}
+		}
+	}
+
+	/**
+	 * Removes and returns the oldest pending descriptor for the given console line.
+	 *
+	 * @param line
+	 *            the trimmed text of the console line
+	 * @return the descriptor or <code>null</code> if the line has no link
+	 */
+	public LinkDescriptor takeLinkDescriptor(String line) {
+		synchronized (fLinkLock) {
+			ArrayDeque<LinkDescriptor> links = fLinksByLine.get(line);
+			if (links == null) {
+				return null;
+			}
+			LinkDescriptor descriptor = links.pollFirst();
+			if (links.isEmpty()) {
+				fLinksByLine.remove(line);
 			}
+			descriptor.consumed = true;
+			expireLinkDescriptors(descriptor);
+			return descriptor;
+		}
+	}
+
+	/**
+	 * Drops the descriptors of the stream of the given descriptor that were emitted before it. Must be called holding the link lock.
+	 */
+	private void expireLinkDescriptors(LinkDescriptor consumed) {
+		ArrayDeque<LinkDescriptor> streamLinks = fLinksByStream.get(Integer.valueOf(consumed.priority));
+		LinkDescriptor oldest = streamLinks.peekFirst();
+		while (oldest != null && (oldest.consumed || oldest.sequence < consumed.sequence)) {
+			streamLinks.removeFirst();
+			if (!oldest.consumed) {
+				String key = oldest.line.trim();
+				ArrayDeque<LinkDescriptor> links = fLinksByLine.get(key);
+				// the same line may be pending on another stream, with an older descriptor
+				links.remove(oldest);
+				if (links.isEmpty()) {
+					fLinksByLine.remove(key);
+				}
+				oldest.consumed = true;
+			}
+			oldest = streamLinks.peekFirst();
 		}
 	}
 
 	public void removeLinkDescriptor(LinkDescriptor ld) {
-		synchronized (linkDescriptors) {
-			linkDescriptors.remove(ld);
+		synchronized (fLinkLock) {
+			if (ld.consumed) {
+				return;
+			}
+			String key = ld.line.trim();
+			ArrayDeque<LinkDescriptor> links = fLinksByLine.get(key);
+			if (links != null && links.remove(ld)) {
+				if (links.isEmpty()) {
+					fLinksByLine.remove(key);
+				}
+				ld.consumed = true;
+			}
 		}
 	}
 
+	/**
+	 * Returns the pending descriptors in the order they were emitted.
+	 */
 	public List<LinkDescriptor> getLinkDescriptors() {
-		synchronized (linkDescriptors) {
-			return new ArrayList<>(linkDescriptors);
+		synchronized (fLinkLock) {
+			List<LinkDescriptor> pending = new ArrayList<>();
+			for (ArrayDeque<LinkDescriptor> streamLinks : fLinksByStream.values()) {
+				for (LinkDescriptor descriptor : streamLinks) {
+					if (!descriptor.consumed) {
+						pending.add(descriptor);
+					}
+				}
+			}
+			Collections.sort(pending, new Comparator<LinkDescriptor>() {
+				@Override
+				public int compare(LinkDescriptor first, LinkDescriptor second) {
+					return Long.compare(first.sequence, second.sequence);
+				}
+			});
+			return pending;
 		}
 	}
 
 	public void clearLinkDescriptors() {
-		synchronized (linkDescriptors) {
-			linkDescriptors.clear();
+		synchronized (fLinkLock) {
+			fLinksByLine.clear();
+			fLinksByStream.clear();
 		}
 	}
 
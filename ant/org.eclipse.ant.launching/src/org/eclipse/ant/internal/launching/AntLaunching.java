@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.ant.internal.launching;
 
+import org.eclipse.ant.internal.launching.launchConfigurations.RemoteAntBuildDaemon;
 import org.eclipse.core.externaltools.internal.IExternalToolConstants;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Plugin;
@@ -99,6 +100,7 @@ public class AntLaunching extends Plugin {
 	 */
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		RemoteAntBuildDaemon.shutdownAll();
 		plugin = null;
 		super.stop(context);
 	}
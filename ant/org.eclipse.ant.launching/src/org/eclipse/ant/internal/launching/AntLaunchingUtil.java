@@ -397,7 +397,17 @@ public final class AntLaunchingUtil {
 		return separateJRE;
 	}
 
-	public static void linkBuildFailedMessage(String message, IProcess process) {
+	/**
+	 * Links a line of the build failure message to the build file it names, if any.
+	 * 
+	 * @param message
+	 *            the line of the build failure message
+	 * @param process
+	 *            the process of the build
+	 * @param priority
+	 *            the Ant message priority the line was written with
+	 */
+	public static void linkBuildFailedMessage(String message, IProcess process, int priority) {
 		String fileName = null;
 		String lineNumber = ""; //$NON-NLS-1$
 		int fileStart = 0;
@@ -437,7 +447,7 @@ public final class AntLaunchingUtil {
 						launch = ((AntProcess) process).getLaunch();
 					}
 					if (launch != null) {
-						((AntLaunch) launch).addLinkDescriptor(message, fileName, num, 0, message.length());
+						((AntLaunch) launch).addLinkDescriptor(message, fileName, num, 0, message.length(), priority);
 					}
 				}
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,4 +20,21 @@ public interface IAntLaunchingPreferenceConstants {
 	 * JRE to capture the output
 	 */
 	public static final String ANT_COMMUNICATION_TIMEOUT = "timeout"; //$NON-NLS-1$
+
+	/**
+	 * boolean preference identifier constant which specifies whether builds in a separate JRE are run by a persistent build VM that is reused by
+	 * later builds with the same JRE, classpath and environment
+	 */
+	public static final String ANT_BUILD_DAEMON = "buildDaemon"; //$NON-NLS-1$
+
+	/**
+	 * int preference identifier constant which specifies the length of time in milliseconds after which an unused build VM exits
+	 */
+	public static final String ANT_BUILD_DAEMON_IDLE_TIMEOUT = "buildDaemonIdleTimeout"; //$NON-NLS-1$
+
+	/**
+	 * boolean preference identifier constant which specifies whether builds in a separate JRE read their setup from a startup descriptor file
+	 * rather than from their command line, and share the class data of the Ant classpath between runs on VMs that support it
+	 */
+	public static final String ANT_FAST_STARTUP = "fastStartup"; //$NON-NLS-1$
 }
@@ -19,6 +19,9 @@ public class LinkDescriptor {
 	int lineNumber;
 	int offset;
 	int length;
+	long sequence;
+	int priority;
+	boolean consumed;
 
 	public LinkDescriptor(String line, String fileName, int lineNumber, int offset, int length) {
 		super();
@@ -69,4 +72,11 @@ public class LinkDescriptor {
 		this.length = length;
 	}
 
+	/**
+	 * Returns the position of this descriptor in the order the links of its launch were emitted.
+	 */
+	public long getSequence() {
+		return sequence;
+	}
+
 }
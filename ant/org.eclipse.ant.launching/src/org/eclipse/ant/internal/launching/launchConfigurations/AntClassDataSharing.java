@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.eclipse.ant.internal.core.AntCoreUtil;
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.IVMInstall2;
+
+/**
+ * Computes the VM arguments that let builds in a separate JRE share the class data of the Ant classpath.
+ * <p>
+ * There is one dynamic class data sharing archive per VM and classpath in the state location of the plug-in. Until it exists, each build dumps
+ * the classes it loaded into a temporary file of its own when its VM exits, and {@link #buildTerminated()} renames that file to the archive in
+ * one atomic step. Later builds map the archive instead of loading and verifying these classes again, and never see a partly written one. A
+ * changed classpath entry leads to a new archive. Only VMs of Java 13 and later support dynamic archives.
+ * </p>
+ */
+class AntClassDataSharing {
+
+	private static final String DIRECTORY = "cds"; //$NON-NLS-1$
+
+	private static final String DUMP_EXTENSION = ".tmp"; //$NON-NLS-1$
+
+	private static final int MINIMUM_JAVA_VERSION = 13;
+
+	/**
+	 * The age in milliseconds after which a dump no build has renamed is deleted
+	 */
+	private static final long STALE_AGE = 24 * 60 * 60 * 1000L;
+
+	private final File fArchive;
+	private File fDump = null;
+
+	private AntClassDataSharing(File archive) {
+		fArchive = archive;
+	}
+
+	/**
+	 * Returns the archive for the given VM and classpath.
+	 *
+	 * @param vm
+	 *            the VM the build runs on
+	 * @param classpath
+	 *            the classpath of the build
+	 * @return the archive or <code>null</code> if the VM does not support dynamic archives
+	 */
+	static AntClassDataSharing create(IVMInstall vm, String[] classpath) {
+		if (!(vm instanceof IVMInstall2) || getMajorVersion(((IVMInstall2) vm).getJavaVersion()) < MINIMUM_JAVA_VERSION) {
+			return null;
+		}
+		String key = computeKey(vm, classpath);
+		if (key == null) {
+			return null;
+		}
+		File directory = AntLaunching.getDefault().getStateLocation().append(DIRECTORY).toFile();
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			return null;
+		}
+		return new AntClassDataSharing(new File(directory, key + ".jsa")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the VM arguments that map the archive, or if there is none yet and <code>dump</code> is set, the arguments that dump the classes
+	 * of the build to a new temporary file when the VM exits. The caller has to call {@link #buildTerminated()} once the VM has exited.
+	 *
+	 * @param dump
+	 *            whether the build may dump the archive
+	 * @return the arguments or <code>null</code> if the build neither maps nor dumps the archive
+	 */
+	synchronized String getVMArguments(boolean dump) {
+		StringBuffer vmArgs = new StringBuffer();
+		if (fArchive.isFile()) {
+			vmArgs.append("-XX:SharedArchiveFile=\""); //$NON-NLS-1$
+			vmArgs.append(fArchive.getAbsolutePath());
+		} else if (dump) {
+			deleteStaleDumps(fArchive.getParentFile());
+			try {
+				fDump = File.createTempFile(fArchive.getName(), DUMP_EXTENSION, fArchive.getParentFile());
+			}
+			catch (IOException e) {
+				return null;
+			}
+			vmArgs.append("-XX:ArchiveClassesAtExit=\""); //$NON-NLS-1$
+			vmArgs.append(fDump.getAbsolutePath());
+		} else {
+			return null;
+		}
+		vmArgs.append('\"');
+		return vmArgs.toString();
+	}
+
+	/**
+	 * Makes the archive the build VM dumped when it exited the archive of its VM and classpath, unless another build was first. Deletes the dump
+	 * of a VM that did not write one.
+	 */
+	synchronized void buildTerminated() {
+		if (fDump == null) {
+			return;
+		}
+		File dump = fDump;
+		fDump = null;
+		if (dump.length() == 0 || fArchive.isFile()) {
+			dump.delete();
+			return;
+		}
+		try {
+			Files.move(dump.toPath(), fArchive.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (IOException e) {
+			// the archive is in use or the file system cannot rename atomically, a later build dumps again
+			dump.delete();
+		}
+	}
+
+	/*
+	 * Removes the dumps of builds that were not renamed because Eclipse exited before their VM.
+	 */
+	private static void deleteStaleDumps(File directory) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		long limit = System.currentTimeMillis() - STALE_AGE;
+		for (int i = 0; i < files.length; i++) {
+			if (files[i].getName().endsWith(DUMP_EXTENSION) && files[i].lastModified() < limit) {
+				files[i].delete();
+			}
+		}
+	}
+
+	/*
+	 * Returns the feature version of the given Java version, 8 for "1.8.0_181" and 17 for "17.0.2", or -1 if the version is not known.
+	 */
+	private static int getMajorVersion(String version) {
+		if (version == null) {
+			return -1;
+		}
+		int start = version.startsWith("1.") ? 2 : 0; //$NON-NLS-1$
+		int end = start;
+		while (end < version.length() && Character.isDigit(version.charAt(end))) {
+			end++;
+		}
+		if (end == start) {
+			return -1;
+		}
+		return Integer.parseInt(version.substring(start, end));
+	}
+
+	/*
+	 * Returns a digest of the VM, the classpath entries and their modification times.
+	 */
+	private static String computeKey(IVMInstall vm, String[] classpath) {
+		MessageDigest digest = null;
+		try {
+			digest = MessageDigest.getInstance("SHA-1"); //$NON-NLS-1$
+		}
+		catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+		StringBuffer buffer = new StringBuffer();
+		buffer.append(vm.getInstallLocation());
+		buffer.append('\n');
+		buffer.append(((IVMInstall2) vm).getJavaVersion());
+		for (int i = 0; i < classpath.length; i++) {
+			buffer.append('\n');
+			buffer.append(classpath[i]);
+			buffer.append('@');
+			buffer.append(new File(classpath[i]).lastModified());
+		}
+		return AntCoreUtil.toHexString(digest.digest(buffer.toString().getBytes(StandardCharsets.UTF_8)));
+	}
+}
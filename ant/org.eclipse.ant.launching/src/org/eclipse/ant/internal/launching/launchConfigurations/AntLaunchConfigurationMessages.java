@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2000, 2018 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -22,6 +22,7 @@ public class AntLaunchConfigurationMessages extends NLS {
 	public static String AntLaunchDelegate_Failure;
 	public static String AntLaunchDelegate_23;
 	public static String AntLaunchDelegate_28;
+	public static String AntLaunchDelegate_Could_not_write_startup_descriptor;
 
 	public static String AntHomeClasspathEntry_8;
 	public static String AntHomeClasspathEntry_9;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -183,9 +184,8 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 			return;
 		}
 
-		// link the process to its build logger via a timestamp
-		long timeStamp = System.currentTimeMillis();
-		String idStamp = Long.toString(timeStamp);
+		// link the process to its build logger via a unique id
+		String idStamp = AntProcessRegistry.newProcessId();
 		StringBuffer idProperty = new StringBuffer("-D"); //$NON-NLS-1$
 		idProperty.append(AbstractEclipseBuildLogger.ANT_PROCESS_ID);
 		idProperty.append('=');
@@ -240,12 +240,32 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 			}
 		}
 
-		StringBuffer commandLine = generateCommandLine(location, arguments, userProperties, propertyFiles, targets, antHome, basedir, isSeparateJRE, captureOutput, setInputHandler);
+		AntStartupDescriptor descriptor = null;
+		if (isSeparateJRE && AntStartupDescriptor.isEnabled()) {
+			descriptor = new AntStartupDescriptor();
+		}
+		StringBuffer commandLine = null;
+		if (descriptor != null) {
+			try {
+				commandLine = generateCommandLine(location, arguments, userProperties, propertyFiles, targets, antHome, basedir, isSeparateJRE, captureOutput, setInputHandler, descriptor);
+			}
+			catch (CoreException e) {
+				if (e.getStatus().getCode() != AntStartupDescriptor.WRITE_FAILED) {
+					throw e;
+				}
+				// pass the arguments on the command line instead
+				AntLaunching.log(e);
+				descriptor = null;
+			}
+		}
+		if (commandLine == null) {
+			commandLine = generateCommandLine(location, arguments, userProperties, propertyFiles, targets, antHome, basedir, isSeparateJRE, captureOutput, setInputHandler, null);
+		}
 
 		if (isSeparateJRE) {
 			monitor.beginTask(MessageFormat.format(AntLaunchConfigurationMessages.AntLaunchDelegate_Launching__0__1, new Object[] {
 					configuration.getName() }), 10);
-			runInSeparateVM(configuration, launch, monitor, idStamp, antHome, port, requestPort, commandLine, captureOutput, setInputHandler);
+			runInSeparateVM(configuration, launch, monitor, idStamp, antHome, port, requestPort, commandLine, captureOutput, setInputHandler, descriptor);
 		} else {
 			runInSameVM(configuration, launch, monitor, location, idStamp, runner, commandLine);
 		}
@@ -362,9 +382,10 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 	}
 
 	private void setProcessAttributes(IProcess process, String idStamp, StringBuffer commandLine) {
-		// link the process to the Eclipse build logger via a timestamp
+		// link the process to the Eclipse build logger via its id
 		if (!fUserSpecifiedLogger) {
 			process.setAttribute(AbstractEclipseBuildLogger.ANT_PROCESS_ID, idStamp);
+			AntProcessRegistry.register(idStamp, process);
 		}
 
 		// create "fake" command line for the process
@@ -373,7 +394,7 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		}
 	}
 
-	private StringBuffer generateCommandLine(IPath location, String[] arguments, Map<String, String> userProperties, String[] propertyFiles, String[] targets, String antHome, String basedir, boolean separateVM, boolean captureOutput, boolean setInputHandler) {
+	private StringBuffer generateCommandLine(IPath location, String[] arguments, Map<String, String> userProperties, String[] propertyFiles, String[] targets, String antHome, String basedir, boolean separateVM, boolean captureOutput, boolean setInputHandler, AntStartupDescriptor descriptor) throws CoreException {
 		StringBuffer commandLine = new StringBuffer();
 
 		if (!separateVM) {
@@ -389,17 +410,11 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		if (propertyFiles == null) { // global
 			String[] files = prefs.getCustomPropertyFiles();
 			for (int i = 0; i < files.length; i++) {
-				String path = files[i];
-				commandLine.append(" -propertyfile \""); //$NON-NLS-1$
-				commandLine.append(path);
-				commandLine.append('\"');
+				appendPropertyFile(commandLine, descriptor, files[i]);
 			}
 		} else {// "local" configuration
 			for (int i = 0; i < propertyFiles.length; i++) {
-				String path = propertyFiles[i];
-				commandLine.append(" -propertyfile \""); //$NON-NLS-1$
-				commandLine.append(path);
-				commandLine.append('\"');
+				appendPropertyFile(commandLine, descriptor, propertyFiles[i]);
 			}
 		}
 		// "local" configuration
@@ -408,7 +423,7 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 			String key;
 			while (keys.hasNext()) {
 				key = keys.next();
-				appendProperty(commandLine, key, userProperties.get(key));
+				appendProperty(commandLine, descriptor, key, userProperties.get(key));
 			}
 		}
 
@@ -436,37 +451,46 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 				String key = property.getName();
 				String value = property.getValue(false);
 				if (value != null) {
-					appendProperty(commandLine, key, value);
+					appendProperty(commandLine, descriptor, key, value);
 				}
 			}
 		}
 
 		if (basedir != null && basedir.length() > 0) {
-			appendProperty(commandLine, "basedir", basedir); //$NON-NLS-1$
+			appendProperty(commandLine, descriptor, "basedir", basedir); //$NON-NLS-1$
 		}
 
 		if (antHome != null) {
-			commandLine.append(" \"-Dant.home="); //$NON-NLS-1$
-			commandLine.append(antHome);
-			commandLine.append('\"');
+			if (descriptor != null) {
+				descriptor.setProperty("ant.home", antHome); //$NON-NLS-1$
+			} else {
+				commandLine.append(" \"-Dant.home="); //$NON-NLS-1$
+				commandLine.append(antHome);
+				commandLine.append('\"');
+			}
 		}
 
 		if (separateVM) {
 			if (commandLine.indexOf("-logger") == -1) { //$NON-NLS-1$
 				if (captureOutput) {
-					commandLine.append(" -logger "); //$NON-NLS-1$
-					if (fMode.equals(ILaunchManager.DEBUG_MODE)) {
-						commandLine.append(REMOTE_ANT_DEBUG_LOGGER_CLASS);
+					String logger = fMode.equals(ILaunchManager.DEBUG_MODE) ? REMOTE_ANT_DEBUG_LOGGER_CLASS : REMOTE_ANT_LOGGER_CLASS;
+					if (descriptor != null) {
+						descriptor.setLogger(logger);
 					} else {
-						commandLine.append(REMOTE_ANT_LOGGER_CLASS);
+						commandLine.append(" -logger "); //$NON-NLS-1$
+						commandLine.append(logger);
 					}
 				}
 			} else {
 				fUserSpecifiedLogger = true;
 			}
 			if (commandLine.indexOf("-inputhandler") == -1 && setInputHandler) { //$NON-NLS-1$
-				commandLine.append(" -inputhandler "); //$NON-NLS-1$
-				commandLine.append(REMOTE_INPUT_HANDLER_CLASS);
+				if (descriptor != null) {
+					descriptor.setInputHandler(REMOTE_INPUT_HANDLER_CLASS);
+				} else {
+					commandLine.append(" -inputhandler "); //$NON-NLS-1$
+					commandLine.append(REMOTE_INPUT_HANDLER_CLASS);
+				}
 			}
 		} else {
 			if (commandLine.indexOf("-inputhandler") == -1 && setInputHandler) { //$NON-NLS-1$
@@ -486,7 +510,7 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		}
 
 		if (separateVM) {
-			appendTaskAndTypes(prefs, commandLine);
+			appendTaskAndTypes(prefs, commandLine, descriptor);
 		}
 		commandLine.append(" -buildfile \""); //$NON-NLS-1$
 		commandLine.append(location.toOSString());
@@ -494,19 +518,35 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 
 		if (targets != null) {
 			for (int i = 0; i < targets.length; i++) {
-				commandLine.append(" \""); //$NON-NLS-1$
-				commandLine.append(targets[i]);
-				commandLine.append('\"');
+				if (descriptor != null) {
+					descriptor.addTarget(targets[i]);
+				} else {
+					commandLine.append(" \""); //$NON-NLS-1$
+					commandLine.append(targets[i]);
+					commandLine.append('\"');
+				}
 			}
 		}
+
+		if (descriptor != null) {
+			commandLine.append(' ');
+			commandLine.append(AntStartupDescriptor.ARGUMENT);
+			commandLine.append(" \""); //$NON-NLS-1$
+			commandLine.append(descriptor.write().getAbsolutePath());
+			commandLine.append('\"');
+		}
 		return commandLine;
 	}
 
-	private void appendTaskAndTypes(AntCorePreferences prefs, StringBuffer commandLine) {
+	private void appendTaskAndTypes(AntCorePreferences prefs, StringBuffer commandLine, AntStartupDescriptor descriptor) {
 		List<Task> tasks = prefs.getRemoteTasks();
 		for (Task task : tasks) {
-			commandLine.append(" -eclipseTask "); //$NON-NLS-1$
 			String name = ProjectHelper.genComponentName(task.getURI(), task.getTaskName());
+			if (descriptor != null) {
+				descriptor.addTask(name, task.getClassName());
+				continue;
+			}
+			commandLine.append(" -eclipseTask "); //$NON-NLS-1$
 			commandLine.append(name);
 			commandLine.append(',');
 			commandLine.append(task.getClassName());
@@ -514,15 +554,33 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 
 		List<Type> types = prefs.getRemoteTypes();
 		for (Type type : types) {
-			commandLine.append(" -eclipseType "); //$NON-NLS-1$
 			String name = ProjectHelper.genComponentName(type.getURI(), type.getTypeName());
+			if (descriptor != null) {
+				descriptor.addType(name, type.getClassName());
+				continue;
+			}
+			commandLine.append(" -eclipseType "); //$NON-NLS-1$
 			commandLine.append(name);
 			commandLine.append(',');
 			commandLine.append(type.getClassName());
 		}
 	}
 
-	private void appendProperty(StringBuffer commandLine, String name, String value) {
+	private void appendPropertyFile(StringBuffer commandLine, AntStartupDescriptor descriptor, String path) {
+		if (descriptor != null) {
+			descriptor.addPropertyFile(path);
+			return;
+		}
+		commandLine.append(" -propertyfile \""); //$NON-NLS-1$
+		commandLine.append(path);
+		commandLine.append('\"');
+	}
+
+	private void appendProperty(StringBuffer commandLine, AntStartupDescriptor descriptor, String name, String value) {
+		if (descriptor != null) {
+			descriptor.setProperty(name, value);
+			return;
+		}
 		commandLine.append(" \"-D"); //$NON-NLS-1$
 		commandLine.append(name);
 		commandLine.append('=');
@@ -533,7 +591,7 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		commandLine.append("\""); //$NON-NLS-1$
 	}
 
-	private void runInSeparateVM(ILaunchConfiguration configuration, ILaunch launch, IProgressMonitor monitor, String idStamp, String antHome, int port, int requestPort, StringBuffer commandLine, boolean captureOutput, boolean setInputHandler) throws CoreException {
+	private void runInSeparateVM(ILaunchConfiguration configuration, ILaunch launch, IProgressMonitor monitor, String idStamp, String antHome, int port, int requestPort, StringBuffer commandLine, boolean captureOutput, boolean setInputHandler, AntStartupDescriptor descriptor) throws CoreException {
 		boolean debug = fMode.equals(ILaunchManager.DEBUG_MODE);
 		if (captureOutput) {
 			String encoding = DebugPlugin.getDefault().getLaunchManager().getEncoding(configuration);
@@ -550,39 +608,82 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 			}
 		}
 
-		ILaunchConfigurationWorkingCopy copy = configuration.getWorkingCopy();
-		setDefaultWorkingDirectory(copy);
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROGRAM_ARGUMENTS, commandLine.toString());
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, IAntLaunchConstants.MAIN_TYPE_NAME);
-		StringBuffer vmArgs = generateVMArguments(copy, setInputHandler, antHome);
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, vmArgs.toString());
-		copy.setAttribute(ILaunchManager.ATTR_PRIVATE, true);
-		if (copy.getAttribute(IAntLaunchConstants.ATTR_DEFAULT_VM_INSTALL, false)) {
-			setDefaultVM(configuration, copy);
-		}
+		ILaunchConfigurationWorkingCopy copy;
+		IProcess[] launched = null;
+		boolean started = false;
+		try {
+			copy = configuration.getWorkingCopy();
+			setDefaultWorkingDirectory(copy);
+			copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROGRAM_ARGUMENTS, commandLine.toString());
+			copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, IAntLaunchConstants.MAIN_TYPE_NAME);
+			StringBuffer vmArgs = generateVMArguments(copy, setInputHandler, antHome);
+			copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, vmArgs.toString());
+			copy.setAttribute(ILaunchManager.ATTR_PRIVATE, true);
+			if (copy.getAttribute(IAntLaunchConstants.ATTR_DEFAULT_VM_INSTALL, false)) {
+				setDefaultVM(configuration, copy);
+			}
 
-		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_USE_START_ON_FIRST_THREAD, false);
+			copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_USE_START_ON_FIRST_THREAD, false);
 
-		if (debug) { // do not allow launch in foreground bug 83254
-			copy.setAttribute(IExternalToolConstants.ATTR_LAUNCH_IN_BACKGROUND, true);
-		}
+			if (debug) { // do not allow launch in foreground bug 83254
+				copy.setAttribute(IExternalToolConstants.ATTR_LAUNCH_IN_BACKGROUND, true);
+			}
 
-		// set the ANT_HOME environment variable
-		if (antHome != null) {
-			Map<String, String> vars = copy.getAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, new HashMap<String, String>(1));
-			vars.put("ANT_HOME", antHome); //$NON-NLS-1$
-			copy.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, vars);
-		}
-		// copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS,
-		// "-Xdebug -Xnoagent -Djava.compiler=NONE -Xrunjdwp:transport=dt_socket,server=y,suspend=y,address=8000");
-		IProgressMonitor subMonitor = SubMonitor.convert(monitor, 10);
-		AntJavaLaunchDelegate delegate = new AntJavaLaunchDelegate();
-		delegate.preLaunchCheck(copy, ILaunchManager.RUN_MODE, subMonitor);
-		delegate.launch(copy, ILaunchManager.RUN_MODE, launch, subMonitor);
-		final IProcess[] processes = launch.getProcesses();
-		for (int i = 0; i < processes.length; i++) {
-			setProcessAttributes(processes[i], idStamp, null);
+			// set the ANT_HOME environment variable
+			if (antHome != null) {
+				Map<String, String> vars = copy.getAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, new HashMap<String, String>(1));
+				vars.put("ANT_HOME", antHome); //$NON-NLS-1$
+				copy.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, vars);
+			}
+			// copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS,
+			// "-Xdebug -Xnoagent -Djava.compiler=NONE -Xrunjdwp:transport=dt_socket,server=y,suspend=y,address=8000");
+			IProgressMonitor subMonitor = SubMonitor.convert(monitor, 10);
+			AntJavaLaunchDelegate delegate = new AntJavaLaunchDelegate();
+			AntClassDataSharing sharing = null;
+			if (AntStartupDescriptor.isEnabled()) {
+				sharing = AntClassDataSharing.create(delegate.verifyVMInstall(copy), delegate.getClasspath(copy));
+			}
+			if (!debug && captureOutput && !fUserSpecifiedLogger && RemoteAntBuildDaemon.isEnabled()) {
+				// the daemon only maps an existing archive, its VM arguments are part of its key and it exits at an unknown time
+				setSharingArguments(copy, vmArgs, sharing, false);
+				launched = runInBuildDaemon(copy, delegate, launch, subMonitor, idStamp, commandLine, descriptor);
+			}
+			if (launched == null) {
+				setSharingArguments(copy, vmArgs, sharing, true);
+				final AntClassDataSharing dumped = sharing;
+				Runnable cleanup = () -> {
+					if (descriptor != null) {
+						descriptor.delete();
+					}
+					if (dumped != null) {
+						dumped.buildTerminated();
+					}
+				};
+				try {
+					delegate.preLaunchCheck(copy, ILaunchManager.RUN_MODE, subMonitor);
+					delegate.launch(copy, ILaunchManager.RUN_MODE, launch, subMonitor);
+				}
+				catch (CoreException | RuntimeException e) {
+					if (dumped != null) {
+						dumped.buildTerminated();
+					}
+					throw e;
+				}
+				launched = launch.getProcesses();
+				for (int i = 0; i < launched.length; i++) {
+					setProcessAttributes(launched[i], idStamp, null);
+				}
+				runWhenTerminated(launched, cleanup);
+			}
+			started = true;
 		}
+		finally {
+			// the build never started and read its descriptor
+			if (!started && descriptor != null) {
+				descriptor.delete();
+			}
+		}
+		final IProcess[] processes = launched;
 
 		if (AntLaunchingUtil.isLaunchInBackground(copy)) {
 			// refresh resources after process finishes
@@ -625,6 +726,87 @@ public class AntLaunchDelegate extends LaunchConfigurationDelegate {
 		}
 	}
 
+	/**
+	 * Hands the build to the warm build VM for its VM setup. The build is represented by an {@link AntProcess} that receives the build output from
+	 * the {@link RemoteAntBuildListener} and terminates when the build finishes.
+	 * 
+	 * @return the build process or <code>null</code> if the build has to be launched in its own VM
+	 */
+	private IProcess[] runInBuildDaemon(ILaunchConfigurationWorkingCopy copy, AntJavaLaunchDelegate delegate, ILaunch launch, IProgressMonitor monitor, String idStamp, StringBuffer commandLine, final AntStartupDescriptor descriptor) throws CoreException {
+		final RemoteAntBuildDaemon daemon = RemoteAntBuildDaemon.acquire(copy, delegate, monitor);
+		if (daemon == null) {
+			return null;
+		}
+		Map<String, String> attributes = new HashMap<>(2);
+		attributes.put(IProcess.ATTR_PROCESS_TYPE, IAntLaunchConstants.ID_ANT_PROCESS_TYPE);
+		attributes.put(AbstractEclipseBuildLogger.ANT_PROCESS_ID, idStamp);
+		final AntProcess process = new AntProcess(ExternalToolsCoreUtil.getLocation(copy).toOSString(), launch, attributes);
+		setProcessAttributes(process, idStamp, commandLine);
+		// same variable substitution as for the program arguments of a new VM
+		final String[] arguments = DebugPlugin.parseArguments(delegate.getProgramArguments(copy));
+		Thread build = new Thread(() -> {
+			daemon.build(arguments, process);
+			if (descriptor != null) {
+				descriptor.delete();
+			}
+			process.terminated();
+		}, "Ant Build Daemon Request"); //$NON-NLS-1$
+		build.setDaemon(true);
+		build.start();
+		return new IProcess[] { process };
+	}
+
+	private void setSharingArguments(ILaunchConfigurationWorkingCopy copy, StringBuffer vmArgs, AntClassDataSharing sharing, boolean dump) {
+		String sharingArgs = sharing != null ? sharing.getVMArguments(dump) : null;
+		if (sharingArgs != null) {
+			copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, vmArgs.toString() + ' ' + sharingArgs);
+		} else {
+			copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_VM_ARGUMENTS, vmArgs.toString());
+		}
+	}
+
+	/**
+	 * Runs the given cleanup once the build VM has terminated: deleting a startup descriptor the VM did not read because it exited early, and
+	 * renaming the class data sharing archive it dumped.
+	 */
+	private void runWhenTerminated(final IProcess[] processes, final Runnable cleanup) {
+		if (processes.length == 0) {
+			cleanup.run();
+			return;
+		}
+		final boolean[] done = new boolean[1];
+		IDebugEventSetListener listener = new IDebugEventSetListener() {
+			@Override
+			public void handleDebugEvents(DebugEvent[] events) {
+				for (int i = 0; i < events.length; i++) {
+					if (events[i].getKind() == DebugEvent.TERMINATE && Arrays.asList(processes).contains(events[i].getSource())) {
+						DebugPlugin.getDefault().removeDebugEventListener(this);
+						runOnce(done, cleanup);
+						return;
+					}
+				}
+			}
+		};
+		DebugPlugin.getDefault().addDebugEventListener(listener);
+		for (int i = 0; i < processes.length; i++) {
+			if (processes[i].isTerminated()) {
+				DebugPlugin.getDefault().removeDebugEventListener(listener);
+				runOnce(done, cleanup);
+				return;
+			}
+		}
+	}
+
+	private static void runOnce(boolean[] done, Runnable runnable) {
+		synchronized (done) {
+			if (done[0]) {
+				return;
+			}
+			done[0] = true;
+		}
+		runnable.run();
+	}
+
 	@SuppressWarnings("deprecation")
 	private void setDefaultVM(ILaunchConfiguration configuration, ILaunchConfigurationWorkingCopy copy) {
 		try {
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.core.model.IProcess;
+
+/**
+ * Links the processes of Ant launches to their build loggers. A launch gets a unique process id from {@link #newProcessId()}, passes it to its
+ * build logger (as the <code>ANT_PROCESS_ID</code> property) and registers the process under it; the logger then looks up its process by id
+ * instead of searching all processes of the launch manager. A process is released when it terminates.
+ */
+public final class AntProcessRegistry {
+
+	private static final Map<String, IProcess> fgProcesses = new ConcurrentHashMap<>();
+	private static final AtomicLong fgCounter = new AtomicLong();
+
+	/**
+	 * Differs between sessions, so ids stay unique across restarts and build VMs that outlive a session.
+	 */
+	private static final String fgNonce = Long.toHexString(new SecureRandom().nextLong() & Long.MAX_VALUE);
+
+	private static boolean fgListening = false;
+
+	private AntProcessRegistry() {
+		// Do not instantiate
+	}
+
+	/**
+	 * Returns a new process id, unique in this session.
+	 */
+	public static String newProcessId() {
+		StringBuffer id = new StringBuffer(fgNonce);
+		id.append('-');
+		id.append(fgCounter.incrementAndGet());
+		return id.toString();
+	}
+
+	/**
+	 * Registers the process of an Ant launch under the given id until the process terminates.
+	 */
+	public static void register(String processId, IProcess process) {
+		if (process.isTerminated()) {
+			return;
+		}
+		addListener();
+		fgProcesses.put(processId, process);
+		if (process.isTerminated()) {
+			// terminated before the listener could see it
+			fgProcesses.remove(processId, process);
+		}
+	}
+
+	/**
+	 * Returns the running process registered under the given id or <code>null</code> if there is none.
+	 */
+	public static IProcess getProcess(String processId) {
+		if (processId == null) {
+			return null;
+		}
+		return fgProcesses.get(processId);
+	}
+
+	private static synchronized void addListener() {
+		if (fgListening) {
+			return;
+		}
+		DebugPlugin.getDefault().addDebugEventListener(new IDebugEventSetListener() {
+			@Override
+			public void handleDebugEvents(DebugEvent[] events) {
+				for (int i = 0; i < events.length; i++) {
+					DebugEvent event = events[i];
+					if (event.getKind() == DebugEvent.TERMINATE && event.getSource() instanceof IProcess) {
+						IProcess process = (IProcess) event.getSource();
+						String processId = process.getAttribute(AbstractEclipseBuildLogger.ANT_PROCESS_ID);
+						if (processId != null) {
+							fgProcesses.remove(processId, process);
+						}
+					}
+				}
+			}
+		});
+		fgListening = true;
+	}
+}
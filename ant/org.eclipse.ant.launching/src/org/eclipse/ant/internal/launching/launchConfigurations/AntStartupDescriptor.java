@@ -0,0 +1,210 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.ant.internal.launching.IAntLaunchingPreferenceConstants;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.VariablesPlugin;
+
+/**
+ * Collects the logger, input handler, property files, properties, Eclipse tasks and types and targets of a build in a separate JRE and writes
+ * them to a startup descriptor file instead of passing them on the command line. The remote <code>InternalAntRunner</code> is given the file with
+ * <code>-startupDescriptor &lt;file&gt;</code>; it memory-maps the file, applies its contents in bulk and deletes it.
+ * <p>
+ * The format is that of <code>org.eclipse.ant.internal.launching.remote.StartupDescriptor</code>. Strings are written with the variables
+ * substituted that would have been substituted in the program arguments.
+ * </p>
+ */
+class AntStartupDescriptor {
+
+	static final String ARGUMENT = "-startupDescriptor"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x414E5453;
+
+	private static final int VERSION = 1;
+
+	private static final String DIRECTORY = "startup"; //$NON-NLS-1$
+
+	/**
+	 * The code of the status of a descriptor that cannot be written, the build then passes its arguments on the command line
+	 */
+	static final int WRITE_FAILED = 1;
+
+	/**
+	 * The age in milliseconds after which a descriptor no build has read is deleted
+	 */
+	private static final long STALE_AGE = 24 * 60 * 60 * 1000L;
+
+	private String fLogger = null;
+	private String fInputHandler = null;
+	private final List<String> fPropertyFiles = new ArrayList<>();
+	private final Map<String, String> fProperties = new LinkedHashMap<>();
+	private final Map<String, String> fTasks = new LinkedHashMap<>();
+	private final Map<String, String> fTypes = new LinkedHashMap<>();
+	private final List<String> fTargets = new ArrayList<>();
+	private File fFile = null;
+
+	/**
+	 * Returns whether builds in a separate JRE start from a startup descriptor and with class data sharing.
+	 */
+	static boolean isEnabled() {
+		return Platform.getPreferencesService().getBoolean(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_FAST_STARTUP, false, null);
+	}
+
+	void setLogger(String className) {
+		fLogger = className;
+	}
+
+	void setInputHandler(String className) {
+		fInputHandler = className;
+	}
+
+	void addPropertyFile(String path) {
+		fPropertyFiles.add(path);
+	}
+
+	/**
+	 * Sets a user property. A later value for the same name replaces the earlier one, as for <code>-D</code> arguments.
+	 */
+	void setProperty(String name, String value) {
+		fProperties.put(name, value);
+	}
+
+	void addTask(String name, String className) {
+		fTasks.put(name, className);
+	}
+
+	void addType(String name, String className) {
+		fTypes.put(name, className);
+	}
+
+	void addTarget(String target) {
+		fTargets.add(target);
+	}
+
+	/**
+	 * Writes the descriptor to a new file in the state location of the plug-in. No file is left behind when writing fails.
+	 *
+	 * @return the file
+	 * @throws CoreException
+	 *             if a variable cannot be substituted or the file cannot be written, the latter with the code {@link #WRITE_FAILED}
+	 */
+	File write() throws CoreException {
+		IStringVariableManager manager = VariablesPlugin.getDefault().getStringVariableManager();
+		File directory = AntLaunching.getDefault().getStateLocation().append(DIRECTORY).toFile();
+		boolean written = false;
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				throw new IOException(directory.getAbsolutePath());
+			}
+			deleteStaleFiles(directory);
+			fFile = File.createTempFile("build", ".desc", directory); //$NON-NLS-1$ //$NON-NLS-2$
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeString(out, fLogger);
+				writeString(out, fInputHandler);
+				writeList(out, fPropertyFiles, manager);
+				out.writeInt(fProperties.size());
+				for (Iterator<Entry<String, String>> iter = fProperties.entrySet().iterator(); iter.hasNext();) {
+					Entry<String, String> entry = iter.next();
+					writeString(out, manager.performStringSubstitution(entry.getKey()));
+					writeString(out, manager.performStringSubstitution(entry.getValue()));
+				}
+				writeMap(out, fTasks);
+				writeMap(out, fTypes);
+				writeList(out, fTargets, manager);
+			}
+			written = true;
+			return fFile;
+		}
+		catch (IOException e) {
+			throw new CoreException(new Status(IStatus.ERROR, AntLaunching.PLUGIN_ID, WRITE_FAILED, AntLaunchConfigurationMessages.AntLaunchDelegate_Could_not_write_startup_descriptor, e));
+		}
+		finally {
+			// a variable that cannot be substituted leaves a partial file as well
+			if (!written) {
+				delete();
+			}
+		}
+	}
+
+	/**
+	 * Deletes the written file unless the build has already read and deleted it. Called when the launch fails or the build ends, so the file of a
+	 * build VM that never read it does not wait for the stale file cleanup.
+	 */
+	synchronized void delete() {
+		if (fFile != null) {
+			fFile.delete();
+			fFile = null;
+		}
+	}
+
+	/*
+	 * A build deletes its descriptor as soon as it has read it, this removes those of builds whose VM never started.
+	 */
+	private static void deleteStaleFiles(File directory) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		long limit = System.currentTimeMillis() - STALE_AGE;
+		for (int i = 0; i < files.length; i++) {
+			if (files[i].lastModified() < limit) {
+				files[i].delete();
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		if (string == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static void writeList(DataOutputStream out, List<String> strings, IStringVariableManager manager) throws IOException, CoreException {
+		out.writeInt(strings.size());
+		for (int i = 0; i < strings.size(); i++) {
+			writeString(out, manager.performStringSubstitution(strings.get(i)));
+		}
+	}
+
+	private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+		out.writeInt(map.size());
+		for (Iterator<Entry<String, String>> iter = map.entrySet().iterator(); iter.hasNext();) {
+			Entry<String, String> entry = iter.next();
+			writeString(out, entry.getKey());
+			writeString(out, entry.getValue());
+		}
+	}
+}
@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.launching.launchConfigurations;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.ant.internal.launching.IAntLaunchingPreferenceConstants;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
+import org.eclipse.jdt.launching.SocketUtil;
+
+/**
+ * A warm build VM for Ant builds in a separate JRE. The VM runs <code>org.eclipse.ant.internal.launching.remote.AntBuildDaemon</code> and is
+ * shared by all builds with the same JRE, VM arguments, classpath (which includes the Ant home), working directory and environment, one build at
+ * a time. Builds reach it over a loopback socket; their output still goes from the <code>RemoteAntBuildLogger</code> to a
+ * {@link RemoteAntBuildListener}, as for a build in its own VM.
+ * <p>
+ * The VM is launched outside of the launch manager, so it does not show up in the Debug view or the console. It exits on its own when it was not
+ * used for the idle timeout preference and is terminated when this plug-in stops.
+ * </p>
+ * <p>
+ * Classes a build loads and their static state stay in the VM for the next build; only the system properties are restored. The VM therefore
+ * exits after a build that defines tasks or types of its own, see <code>AntBuildDaemon</code>, and the next build starts a new one.
+ * </p>
+ */
+public class RemoteAntBuildDaemon {
+
+	private static final String DAEMON_MAIN_TYPE_NAME = "org.eclipse.ant.internal.launching.remote.AntBuildDaemon"; //$NON-NLS-1$
+	private static final int POLL_INTERVAL = 250;
+
+	// the answers of the AntBuildDaemon
+	private static final int STATUS_OK = 0;
+	private static final int STATUS_RETIRED = 2;
+
+	private static final Map<String, RemoteAntBuildDaemon> fgDaemons = new HashMap<>();
+
+	private final String fKey;
+	private final int fPort;
+	private ILaunch fLaunch;
+	private boolean fBusy = true;
+	private Socket fSocket;
+
+	private RemoteAntBuildDaemon(String key, int port) {
+		fKey = key;
+		fPort = port;
+	}
+
+	/**
+	 * Returns whether separate JRE builds should use a build daemon.
+	 */
+	public static boolean isEnabled() {
+		return Platform.getPreferencesService().getBoolean(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON, false, null);
+	}
+
+	/**
+	 * Returns a connected build daemon for the given build configuration, starting a new one if there is none for its VM setup yet. The daemon is
+	 * reserved for the caller until {@link #build(String[], AntProcess)} returns.
+	 *
+	 * @param configuration
+	 *            the configuration the build would be launched with in its own VM
+	 * @param delegate
+	 *            the delegate that launches Ant builds in their own VM
+	 * @return the daemon, or <code>null</code> if the build has to run in its own VM, because the daemon for its setup is busy or cannot be
+	 *         reached
+	 */
+	static RemoteAntBuildDaemon acquire(ILaunchConfigurationWorkingCopy configuration, AntJavaLaunchDelegate delegate, IProgressMonitor monitor) throws CoreException {
+		String key = computeKey(configuration, delegate);
+		RemoteAntBuildDaemon daemon;
+		boolean start = false;
+		synchronized (fgDaemons) {
+			daemon = fgDaemons.get(key);
+			if (daemon != null && daemon.fLaunch != null && daemon.fLaunch.isTerminated()) {
+				// exited after the idle timeout
+				fgDaemons.remove(key);
+				daemon = null;
+			}
+			if (daemon == null) {
+				daemon = new RemoteAntBuildDaemon(key, SocketUtil.findFreePort());
+				fgDaemons.put(key, daemon);
+				start = true;
+			} else if (daemon.fBusy) {
+				return null;
+			} else {
+				daemon.fBusy = true;
+			}
+		}
+		try {
+			if (start) {
+				daemon.start(configuration, delegate, monitor);
+			}
+			daemon.connect();
+			return daemon;
+		}
+		catch (IOException e) {
+			AntLaunching.log(e);
+		}
+		catch (CoreException e) {
+			AntLaunching.log(e);
+		}
+		daemon.dispose();
+		return null;
+	}
+
+	private static String computeKey(ILaunchConfigurationWorkingCopy configuration, AntJavaLaunchDelegate delegate) throws CoreException {
+		StringBuffer key = new StringBuffer();
+		key.append(delegate.verifyVMInstall(configuration).getInstallLocation());
+		key.append('\n');
+		key.append(delegate.getVMArguments(configuration));
+		String[] classpath = delegate.getClasspath(configuration);
+		for (int i = 0; i < classpath.length; i++) {
+			key.append(i == 0 ? '\n' : File.pathSeparatorChar);
+			key.append(classpath[i]);
+		}
+		key.append('\n');
+		key.append(delegate.verifyWorkingDirectory(configuration));
+		String[] environment = delegate.getEnvironment(configuration);
+		if (environment != null) {
+			for (int i = 0; i < environment.length; i++) {
+				key.append('\n');
+				key.append(environment[i]);
+			}
+		}
+		return key.toString();
+	}
+
+	private void start(ILaunchConfigurationWorkingCopy configuration, AntJavaLaunchDelegate delegate, IProgressMonitor monitor) throws CoreException {
+		int idleTimeout = Platform.getPreferencesService().getInt(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON_IDLE_TIMEOUT, 600000, null);
+		ILaunchConfigurationWorkingCopy copy = configuration.getWorkingCopy();
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_MAIN_TYPE_NAME, DAEMON_MAIN_TYPE_NAME);
+		copy.setAttribute(IJavaLaunchConfigurationConstants.ATTR_PROGRAM_ARGUMENTS, fPort + " " + idleTimeout); //$NON-NLS-1$
+		// a plain process, its output has to be drained rather than fed by a build listener
+		copy.setAttribute(DebugPlugin.ATTR_PROCESS_FACTORY_ID, (String) null);
+		fLaunch = new Launch(copy, ILaunchManager.RUN_MODE, null);
+		delegate.launch(copy, ILaunchManager.RUN_MODE, fLaunch, monitor);
+	}
+
+	private void connect() throws IOException {
+		int timeout = Platform.getPreferencesService().getInt(AntLaunching.getUniqueIdentifier(), IAntLaunchingPreferenceConstants.ANT_COMMUNICATION_TIMEOUT, 20000, null);
+		long end = System.currentTimeMillis() + timeout;
+		while (true) {
+			try {
+				fSocket = new Socket(InetAddress.getByName(null), fPort);
+				return;
+			}
+			catch (IOException e) {
+				// a new VM may not be listening yet
+				if (fLaunch.isTerminated() || System.currentTimeMillis() > end) {
+					throw e;
+				}
+			}
+			try {
+				Thread.sleep(100);
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Runs the build with the given command line arguments and waits for it to finish. Terminating the process terminates the daemon. Releases
+	 * the daemon for the next build.
+	 *
+	 * @return <code>true</code> if the daemon ran the build
+	 */
+	boolean build(String[] arguments, AntProcess process) {
+		boolean success = false;
+		boolean reusable = false;
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fSocket.getOutputStream()));
+			out.writeInt(arguments.length);
+			for (int i = 0; i < arguments.length; i++) {
+				// not writeUTF, which is limited to 64K per string
+				byte[] bytes = arguments[i].getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			out.flush();
+
+			fSocket.setSoTimeout(POLL_INTERVAL);
+			InputStream in = fSocket.getInputStream();
+			while (true) {
+				if (process.isCanceled()) {
+					dispose();
+					return false;
+				}
+				try {
+					int status = in.read();
+					success = status == STATUS_OK || status == STATUS_RETIRED;
+					reusable = status == STATUS_OK;
+					break;
+				}
+				catch (SocketTimeoutException e) {
+					// still building
+				}
+			}
+		}
+		catch (IOException e) {
+			AntLaunching.log(e);
+		}
+		finally {
+			closeSocket();
+		}
+		if (reusable) {
+			synchronized (fgDaemons) {
+				fBusy = false;
+			}
+		} else {
+			// the daemon died, is in an unknown state or exits after a build that defined tasks or types
+			dispose();
+		}
+		return success;
+	}
+
+	private void closeSocket() {
+		if (fSocket != null) {
+			try {
+				fSocket.close();
+			}
+			catch (IOException e) {
+				// do nothing
+			}
+			fSocket = null;
+		}
+	}
+
+	private void dispose() {
+		synchronized (fgDaemons) {
+			if (fgDaemons.get(fKey) == this) {
+				fgDaemons.remove(fKey);
+			}
+		}
+		closeSocket();
+		if (fLaunch != null && fLaunch.canTerminate()) {
+			try {
+				fLaunch.terminate();
+			}
+			catch (DebugException e) {
+				AntLaunching.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of build daemons that were started and have not been disposed of.
+	 */
+	public static int getDaemonCount() {
+		synchronized (fgDaemons) {
+			return fgDaemons.size();
+		}
+	}
+
+	/**
+	 * Terminates all build daemons.
+	 */
+	public static void shutdownAll() {
+		List<RemoteAntBuildDaemon> daemons;
+		synchronized (fgDaemons) {
+			daemons = new ArrayList<>(fgDaemons.values());
+		}
+		for (RemoteAntBuildDaemon daemon : daemons) {
+			daemon.dispose();
+		}
+	}
+}
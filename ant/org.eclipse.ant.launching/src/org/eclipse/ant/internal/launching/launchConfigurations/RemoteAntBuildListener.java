@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2003, 2016 IBM Corporation and others.
+ *  Copyright (c) 2003, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -197,7 +197,7 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 					if (msg.startsWith("Total time:")) { //$NON-NLS-1$
 						fBuildFailed = false;
 					} else {
-						AntLaunchingUtil.linkBuildFailedMessage(msg, getProcess());
+						AntLaunchingUtil.linkBuildFailedMessage(msg, getProcess(), priority);
 					}
 				}
 
@@ -218,7 +218,7 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 				location += tokenizer.nextToken();
 			}
 			int lineNumber = Integer.parseInt(tokenizer.nextToken());
-			generateLink(msg, location, lineNumber, 0, msg.length() - 1);
+			generateLink(msg, location, lineNumber, 0, msg.length() - 1, Project.MSG_INFO);
 		}
 		writeMessage(msg + System.getProperty("line.separator"), Project.MSG_INFO); //$NON-NLS-1$
 	}
@@ -262,7 +262,7 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 		int offset = Math.max(size - 2, 1);
 		int length = AntLaunching.LEFT_COLUMN_SIZE - size - 3;
 		if (fileName != null) {
-			generateLink(line, fileName, lineNumber, offset, length);
+			generateLink(line, fileName, lineNumber, offset, length, priority);
 		}
 
 		StringBuffer fullMessage = new StringBuffer();
@@ -270,9 +270,9 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 		writeMessage(fullMessage.append(System.getProperty("line.separator")).toString(), priority); //$NON-NLS-1$
 	}
 
-	private void generateLink(String line, String fileName, int lineNumber, int offset, int length) {
+	private void generateLink(String line, String fileName, int lineNumber, int offset, int length, int priority) {
 		if (fLaunch != null) {
-			((AntLaunch) fLaunch).addLinkDescriptor(line, fileName, lineNumber, offset, length);
+			((AntLaunch) fLaunch).addLinkDescriptor(line, fileName, lineNumber, offset, length, priority);
 		}
 	}
 
@@ -282,12 +282,16 @@ public class RemoteAntBuildListener implements ILaunchesListener {
 	protected IProcess getProcess() {
 		if (fProcess == null) {
 			if (fProcessId != null) {
-				IProcess[] all = DebugPlugin.getDefault().getLaunchManager().getProcesses();
-				for (int i = 0; i < all.length; i++) {
-					IProcess process = all[i];
-					if (fProcessId.equals(process.getAttribute(AbstractEclipseBuildLogger.ANT_PROCESS_ID))) {
-						fProcess = process;
-						break;
+				fProcess = AntProcessRegistry.getProcess(fProcessId);
+				if (fProcess == null && fLaunch != null) {
+					// the build VM may report before its process is registered, or after it terminated
+					IProcess[] all = fLaunch.getProcesses();
+					for (int i = 0; i < all.length; i++) {
+						IProcess process = all[i];
+						if (fProcessId.equals(process.getAttribute(AbstractEclipseBuildLogger.ANT_PROCESS_ID))) {
+							fProcess = process;
+							break;
+						}
 					}
 				}
 			}
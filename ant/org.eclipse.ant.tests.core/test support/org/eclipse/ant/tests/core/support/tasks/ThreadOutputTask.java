@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.support.tasks;
+
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Task;
+
+/**
+ * Writes a message to <code>System.out</code>, either from the thread performing the task or from a thread the task starts and waits for.
+ */
+public class ThreadOutputTask extends Task {
+
+	private String message;
+	private boolean inThread = false;
+
+	public void setMessage(String message) {
+		this.message = message;
+	}
+
+	public void setInThread(boolean inThread) {
+		this.inThread = inThread;
+	}
+
+	/**
+	 * @see org.apache.tools.ant.Task#execute()
+	 */
+	@Override
+	public void execute() throws BuildException {
+		if (!inThread) {
+			System.out.println(message);
+			return;
+		}
+		Thread thread = new Thread("Thread output") { //$NON-NLS-1$
+			@Override
+			public void run() {
+				System.out.println(message);
+			}
+		};
+		thread.start();
+		try {
+			thread.join();
+		}
+		catch (InterruptedException e) {
+			throw new BuildException(e);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,9 +13,18 @@ package org.eclipse.ant.tests.core;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.ant.tests.core.tests.AntClassLoaderTests;
+import org.eclipse.ant.tests.core.tests.AntClasspathSnapshotTests;
+import org.eclipse.ant.tests.core.tests.AntComponentTableTests;
+import org.eclipse.ant.tests.core.tests.BuildThreadOutputTests;
+import org.eclipse.ant.tests.core.tests.ContentDescriberTests;
 import org.eclipse.ant.tests.core.tests.FrameworkTests;
 import org.eclipse.ant.tests.core.tests.OptionTests;
+import org.eclipse.ant.tests.core.tests.ParallelTargetTests;
+import org.eclipse.ant.tests.core.tests.PluginLoaderOrderTests;
+import org.eclipse.ant.tests.core.tests.ProgressSamplingTests;
 import org.eclipse.ant.tests.core.tests.ProjectTests;
+import org.eclipse.ant.tests.core.tests.PropertyFileCacheTests;
 import org.eclipse.ant.tests.core.tests.PropertyTests;
 import org.eclipse.ant.tests.core.tests.TargetTests;
 import org.eclipse.ant.tests.core.tests.TaskTests;
@@ -52,5 +61,14 @@ public class AutomatedSuite extends TestSuite {
 		addTest(new TestSuite(TaskTests.class));
 		addTest(new TestSuite(TypeTests.class));
 		addTest(new TestSuite(PropertyTests.class));
+		addTest(new TestSuite(ContentDescriberTests.class));
+		addTest(new TestSuite(ParallelTargetTests.class));
+		addTest(new TestSuite(PropertyFileCacheTests.class));
+		addTest(new TestSuite(ProgressSamplingTests.class));
+		addTest(new TestSuite(PluginLoaderOrderTests.class));
+		addTest(new TestSuite(AntClasspathSnapshotTests.class));
+		addTest(new TestSuite(BuildThreadOutputTests.class));
+		addTest(new TestSuite(AntComponentTableTests.class));
+		addTest(new TestSuite(AntClassLoaderTests.class));
 	}
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ant.internal.core.AntClassLoader;
+import org.eclipse.ant.internal.core.IPluginClassLoader;
+import org.eclipse.ant.tests.core.AbstractAntTest;
+
+/**
+ * Tests which plug-in class loaders an Ant class loader asks for classes and resources.
+ */
+public class AntClassLoaderTests extends AbstractAntTest {
+
+	private static final String PACKAGE = AntClassLoaderTests.class.getPackage().getName();
+	private static final String CLASS = AntClassLoaderTests.class.getName();
+	private static final String RESOURCE = CLASS.replace('.', '/') + ".class"; //$NON-NLS-1$
+
+	/**
+	 * A plug-in class loader that counts the requests it gets. It provides the classes and resources of the test bundle if it is given its
+	 * class loader, and nothing otherwise.
+	 */
+	private static class CountingLoader extends ClassLoader implements IPluginClassLoader {
+
+		private final String[] fPackageNames;
+		private final ClassLoader fDelegate;
+		final AtomicInteger fRequests = new AtomicInteger();
+
+		CountingLoader(String[] packageNames, ClassLoader delegate) {
+			super(null);
+			fPackageNames = packageNames;
+			fDelegate = delegate;
+		}
+
+		@Override
+		public String[] getPackageNames() {
+			return fPackageNames;
+		}
+
+		@Override
+		public Class<?> loadClass(String name) throws ClassNotFoundException {
+			fRequests.incrementAndGet();
+			if (fDelegate == null) {
+				throw new ClassNotFoundException(name);
+			}
+			return fDelegate.loadClass(name);
+		}
+
+		@Override
+		public URL getResource(String name) {
+			fRequests.incrementAndGet();
+			return fDelegate == null ? null : fDelegate.getResource(name);
+		}
+
+		@Override
+		public Enumeration<URL> getResources(String name) throws IOException {
+			fRequests.incrementAndGet();
+			return fDelegate == null ? Collections.<URL> emptyEnumeration() : fDelegate.getResources(name);
+		}
+	}
+
+	public AntClassLoaderTests(String name) {
+		super(name);
+	}
+
+	private ClassLoader getTestLoader() {
+		return AntClassLoaderTests.class.getClassLoader();
+	}
+
+	/**
+	 * Ensures that a class is only requested from the loaders that provide its package
+	 */
+	public void testClassFromProvider() throws ClassNotFoundException {
+		CountingLoader other = new CountingLoader(new String[] { "org.eclipse.ant.tests.other" }, null); //$NON-NLS-1$
+		CountingLoader provider = new CountingLoader(new String[] { PACKAGE }, getTestLoader());
+		AntClassLoader loader = new AntClassLoader(new URL[0], new ClassLoader[] { other, provider });
+		assertSame("The class should be loaded by its provider", AntClassLoaderTests.class, loader.loadClass(CLASS)); //$NON-NLS-1$
+		assertEquals("A loader of another package should not be asked", 0, other.fRequests.get()); //$NON-NLS-1$
+		assertEquals("The provider should be asked once", 1, provider.fRequests.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a loader that cannot tell its packages is asked for every class, in its original order
+	 */
+	public void testLoaderWithoutPackages() throws ClassNotFoundException {
+		CountingLoader unknown = new CountingLoader(null, null);
+		CountingLoader provider = new CountingLoader(new String[] { PACKAGE }, getTestLoader());
+		AntClassLoader loader = new AntClassLoader(new URL[0], new ClassLoader[] { unknown, provider });
+		assertSame("The class should be loaded by its provider", AntClassLoaderTests.class, loader.loadClass(CLASS)); //$NON-NLS-1$
+		assertEquals("A loader without packages should be asked first", 1, unknown.fRequests.get()); //$NON-NLS-1$
+		assertEquals("The provider should be asked once", 1, provider.fRequests.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a package no loader provides is requested from all of them, and only once
+	 */
+	public void testPackageWithoutProvider() {
+		CountingLoader first = new CountingLoader(new String[] { "org.eclipse.ant.tests.first" }, null); //$NON-NLS-1$
+		CountingLoader second = new CountingLoader(new String[] { "org.eclipse.ant.tests.second" }, null); //$NON-NLS-1$
+		AntClassLoader loader = new AntClassLoader(new URL[0], new ClassLoader[] { first, second });
+		for (int i = 0; i < 2; i++) {
+			try {
+				loader.loadClass("org.eclipse.ant.tests.nowhere.Missing"); //$NON-NLS-1$
+				fail("The class should not be found"); //$NON-NLS-1$
+			}
+			catch (ClassNotFoundException e) {
+				// expected
+			}
+		}
+		assertEquals("The first loader should be asked once", 1, first.fRequests.get()); //$NON-NLS-1$
+		assertEquals("The second loader should be asked once", 1, second.fRequests.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that resources are only requested from the loaders that provide their folder and that a missing resource is not searched again
+	 */
+	public void testResources() {
+		CountingLoader other = new CountingLoader(new String[] { "org.eclipse.ant.tests.other" }, null); //$NON-NLS-1$
+		CountingLoader provider = new CountingLoader(new String[] { PACKAGE }, getTestLoader());
+		AntClassLoader loader = new AntClassLoader(new URL[0], new ClassLoader[] { other, provider });
+		assertNotNull("The resource should be found by its provider", loader.getResource(RESOURCE)); //$NON-NLS-1$
+		assertEquals("A loader of another folder should not be asked", 0, other.fRequests.get()); //$NON-NLS-1$
+
+		String missing = "org/eclipse/ant/tests/other/missing.txt"; //$NON-NLS-1$
+		assertNull("The resource should not be found", loader.getResource(missing)); //$NON-NLS-1$
+		assertNull("The resource should not be found", loader.getResource(missing)); //$NON-NLS-1$
+		assertEquals("A missing resource should be searched once", 1, other.fRequests.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that all resources of a name are collected from the providers of its folder
+	 */
+	public void testAllResources() throws IOException {
+		CountingLoader other = new CountingLoader(new String[] { "org.eclipse.ant.tests.other" }, null); //$NON-NLS-1$
+		CountingLoader provider = new CountingLoader(new String[] { PACKAGE }, getTestLoader());
+		AntClassLoader loader = new AntClassLoader(new URL[0], new ClassLoader[] { other, provider });
+		assertTrue("The resource should be found by its provider", loader.getResources(RESOURCE).hasMoreElements()); //$NON-NLS-1$
+		assertEquals("A loader of another folder should not be asked", 0, other.fRequests.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that classes are found when several threads load them through the same class loader
+	 */
+	public void testConcurrentLoading() throws InterruptedException {
+		CountingLoader other = new CountingLoader(new String[] { "org.eclipse.ant.tests.other" }, null); //$NON-NLS-1$
+		CountingLoader provider = new CountingLoader(new String[] { PACKAGE }, getTestLoader());
+		final AntClassLoader loader = new AntClassLoader(new URL[0], new ClassLoader[] { other, provider });
+		final Object[] results = new Object[8];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread("Ant class loader " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					try {
+						results[index] = loader.loadClass(CLASS);
+					}
+					catch (Throwable e) {
+						results[index] = e;
+					}
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+			assertSame("Each thread should load the class: " + results[i], AntClassLoaderTests.class, results[i]); //$NON-NLS-1$
+		}
+		assertEquals("A loader of another package should not be asked", 0, other.fRequests.get()); //$NON-NLS-1$
+	}
+}
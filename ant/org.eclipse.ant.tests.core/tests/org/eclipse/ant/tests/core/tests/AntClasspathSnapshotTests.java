@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.File;
+import java.net.URL;
+
+import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.ant.core.AntCorePreferences;
+import org.eclipse.ant.core.IAntClasspathEntry;
+import org.eclipse.ant.internal.core.AntClasspathEntry;
+import org.eclipse.ant.internal.core.AntClasspathSnapshot;
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.VariablesPlugin;
+
+/**
+ * Tests the snapshot of the Ant runtime classpath that is shared by builds.
+ */
+public class AntClasspathSnapshotTests extends AbstractAntTest {
+
+	private static final String VARIABLE = "ant_tests_classpath_snapshot"; //$NON-NLS-1$
+
+	private AntCorePreferences fPreferences;
+	private String fAntHome;
+	private IAntClasspathEntry[] fAdditionalEntries;
+	private File fDirectory;
+	private IValueVariable fVariable;
+
+	public AntClasspathSnapshotTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fPreferences = AntCorePlugin.getPlugin().getPreferences();
+		fAntHome = fPreferences.getAntHome();
+		fAdditionalEntries = fPreferences.getAdditionalClasspathEntries();
+		fDirectory = File.createTempFile("classpathSnapshot", null); //$NON-NLS-1$
+		fDirectory.delete();
+		new File(fDirectory, "lib").mkdirs(); //$NON-NLS-1$
+		AntClasspathSnapshot.invalidate();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fVariable != null) {
+			VariablesPlugin.getDefault().getStringVariableManager().removeVariables(new IValueVariable[] { fVariable });
+			fVariable = null;
+		}
+		fPreferences.setAntHome(fAntHome);
+		fPreferences.setAdditionalClasspathEntries(fAdditionalEntries);
+		new File(fDirectory, "lib").delete(); //$NON-NLS-1$
+		fDirectory.delete();
+		super.tearDown();
+	}
+
+	/**
+	 * Ensures that the snapshot is reused and that the arrays of the preferences are copies of it
+	 */
+	public void testCacheHit() {
+		AntClasspathSnapshot first = AntClasspathSnapshot.getSnapshot(fPreferences);
+		AntClasspathSnapshot second = AntClasspathSnapshot.getSnapshot(fPreferences);
+		assertSame("The snapshot should be reused", first, second); //$NON-NLS-1$
+		assertSame("The URLs of a snapshot should be shared", first.getURLs(), second.getURLs()); //$NON-NLS-1$
+
+		URL[] urls = fPreferences.getURLs();
+		assertNotSame("The preferences should not return the shared URLs", first.getURLs(), urls); //$NON-NLS-1$
+		if (urls.length > 0) {
+			urls[0] = null;
+			assertNotNull("Modifying the returned URLs should not modify the snapshot", first.getURLs()[0]); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Ensures that changing the classpath preferences discards the snapshot
+	 */
+	public void testPreferenceChangeInvalidates() {
+		AntClasspathSnapshot first = AntClasspathSnapshot.getSnapshot(fPreferences);
+		IAntClasspathEntry entry = new AntClasspathEntry(new File(fDirectory, "added.jar").getAbsolutePath()); //$NON-NLS-1$
+		IAntClasspathEntry[] entries = new IAntClasspathEntry[fAdditionalEntries.length + 1];
+		System.arraycopy(fAdditionalEntries, 0, entries, 0, fAdditionalEntries.length);
+		entries[fAdditionalEntries.length] = entry;
+		fPreferences.setAdditionalClasspathEntries(entries);
+
+		AntClasspathSnapshot second = AntClasspathSnapshot.getSnapshot(fPreferences);
+		assertNotSame("Changing the preferences should discard the snapshot", first, second); //$NON-NLS-1$
+		assertEquals("The added entry should be on the classpath", first.getURLs().length + 1, second.getURLs().length); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a change of the library folder of the Ant home is only noticed when a build starts
+	 */
+	public void testLibraryChangeCheckedOnRefresh() {
+		fPreferences.setAntHome(fDirectory.getAbsolutePath());
+		File lib = new File(fDirectory, "lib"); //$NON-NLS-1$
+		AntClasspathSnapshot first = AntClasspathSnapshot.getSnapshot(fPreferences);
+		AntClasspathSnapshot.refresh();
+		assertSame("An unchanged snapshot should be kept when a build starts", first, AntClasspathSnapshot.getSnapshot(fPreferences)); //$NON-NLS-1$
+
+		lib.setLastModified(lib.lastModified() + 2000);
+		assertSame("The library folder should not be checked outside of a build", first, AntClasspathSnapshot.getSnapshot(fPreferences)); //$NON-NLS-1$
+		AntClasspathSnapshot.refresh();
+		assertNotSame("A changed library folder should discard the snapshot when a build starts", first, AntClasspathSnapshot.getSnapshot(fPreferences)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a variable used by a classpath entry is substituted again when a build starts after its value changed
+	 */
+	public void testVariableChangeCheckedOnRefresh() throws Exception {
+		IStringVariableManager manager = VariablesPlugin.getDefault().getStringVariableManager();
+		fVariable = manager.newValueVariable(VARIABLE, null, false, fDirectory.getAbsolutePath());
+		manager.addVariables(new IValueVariable[] { fVariable });
+		fPreferences.setAdditionalClasspathEntries(new IAntClasspathEntry[] { new AntClasspathEntry("${" + VARIABLE + "}/first.jar") }); //$NON-NLS-1$ //$NON-NLS-2$
+
+		AntClasspathSnapshot first = AntClasspathSnapshot.getSnapshot(fPreferences);
+		assertTrue("The variable should have been substituted", contains(first.getURLs(), "first.jar")); //$NON-NLS-1$ //$NON-NLS-2$
+		fVariable.setValue(new File(fDirectory, "lib").getAbsolutePath()); //$NON-NLS-1$
+		AntClasspathSnapshot.refresh();
+		AntClasspathSnapshot second = AntClasspathSnapshot.getSnapshot(fPreferences);
+		assertNotSame("A changed variable should discard the snapshot when a build starts", first, second); //$NON-NLS-1$
+		assertTrue("The new value should have been substituted", contains(second.getURLs(), "lib/first.jar")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that threads asking for the classpath at the same time share one snapshot
+	 */
+	public void testConcurrentAccess() throws InterruptedException {
+		final AntClasspathSnapshot[] snapshots = new AntClasspathSnapshot[8];
+		Thread[] threads = new Thread[snapshots.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread("Classpath snapshot " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					snapshots[index] = AntClasspathSnapshot.getSnapshot(fPreferences);
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		for (int i = 1; i < snapshots.length; i++) {
+			assertSame("All threads should share one snapshot", snapshots[0], snapshots[i]); //$NON-NLS-1$
+		}
+	}
+
+	private boolean contains(URL[] urls, String suffix) {
+		for (int i = 0; i < urls.length; i++) {
+			if (urls[i] != null && urls[i].getPath().endsWith(suffix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
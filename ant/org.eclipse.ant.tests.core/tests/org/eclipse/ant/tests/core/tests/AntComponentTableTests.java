@@ -0,0 +1,175 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.net.URL;
+
+import org.eclipse.ant.core.AntCorePlugin;
+import org.eclipse.ant.core.AntCorePreferences;
+import org.eclipse.ant.core.Task;
+import org.eclipse.ant.core.Type;
+import org.eclipse.ant.internal.core.AntClasspathEntry;
+import org.eclipse.ant.internal.core.AntComponentTable;
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.ant.tests.core.testplugin.AntTestChecker;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Tests the table of tasks and types shared between builds.
+ */
+public class AntComponentTableTests extends AbstractAntTest {
+
+	public AntComponentTableTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		restorePreferenceDefaults();
+		super.tearDown();
+	}
+
+	private Task newTask(String name, String uri) {
+		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		URL[] urls = prefs.getExtraClasspathURLs();
+		Task task = new Task();
+		task.setLibraryEntry(new AntClasspathEntry(urls[0]));
+		task.setTaskName(name);
+		task.setURI(uri);
+		task.setClassName("org.eclipse.ant.tests.core.support.tasks.AntTestTask"); //$NON-NLS-1$
+		return task;
+	}
+
+	private int indexOf(AntComponentTable table, String taskName) {
+		for (int i = 0; i < table.getTasks().size(); i++) {
+			if (taskName.equals(table.getTasks().get(i).getTaskName())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Ensures that the table is shared as long as the tasks and types do not change
+	 */
+	public void testShared() {
+		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		AntComponentTable table = AntComponentTable.getTable(prefs);
+		assertSame("The table should be shared", table, AntComponentTable.getTable(prefs)); //$NON-NLS-1$
+		assertEquals("The table should hold the tasks of the preferences", prefs.getTasks().size(), table.getTasks().size()); //$NON-NLS-1$
+		assertEquals("The table should hold the types of the preferences", prefs.getTypes().size(), table.getTypes().size()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the table cannot be changed by the builds sharing it
+	 */
+	public void testUnmodifiable() {
+		AntComponentTable table = AntComponentTable.getTable(AntCorePlugin.getPlugin().getPreferences());
+		try {
+			table.getTasks().add(new Task());
+			fail("The tasks of the table should not be modifiable"); //$NON-NLS-1$
+		}
+		catch (UnsupportedOperationException e) {
+			// expected
+		}
+		try {
+			table.getTypes().clear();
+			fail("The types of the table should not be modifiable"); //$NON-NLS-1$
+		}
+		catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Ensures that setting the custom tasks or types replaces the table, before the preferences are saved
+	 */
+	public void testInvalidatedBySetters() {
+		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		AntComponentTable table = AntComponentTable.getTable(prefs);
+		prefs.setCustomTasks(new Task[] { newTask("componentTableTask", null) }); //$NON-NLS-1$
+		AntComponentTable withTask = AntComponentTable.getTable(prefs);
+		assertNotSame("Setting the custom tasks should replace the table", table, withTask); //$NON-NLS-1$
+		assertTrue("The new table should hold the custom task", indexOf(withTask, "componentTableTask") != -1); //$NON-NLS-1$ //$NON-NLS-2$
+
+		Type type = new Type();
+		type.setTypeName("componentTableType"); //$NON-NLS-1$
+		type.setClassName("org.eclipse.ant.tests.core.support.types.AntTestPath"); //$NON-NLS-1$
+		type.setLibraryEntry(new AntClasspathEntry(prefs.getExtraClasspathURLs()[0]));
+		prefs.setCustomTypes(new Type[] { type });
+		AntComponentTable withType = AntComponentTable.getTable(prefs);
+		assertNotSame("Setting the custom types should replace the table", withTask, withType); //$NON-NLS-1$
+		assertTrue("The new table should hold the custom type", withType.getTypes().contains(type)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the components are registered under the names Ant gives them
+	 */
+	public void testComponentNames() {
+		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		prefs.setCustomTasks(new Task[] { newTask("plainTask", null), //$NON-NLS-1$
+				newTask("coreTask", "antlib:org.apache.tools.ant"), //$NON-NLS-1$ //$NON-NLS-2$
+				newTask("qualifiedTask", "antlib:org.eclipse.ant.tests") }); //$NON-NLS-1$ //$NON-NLS-2$
+		AntComponentTable table = AntComponentTable.getTable(prefs);
+		assertEquals("A task without namespace should keep its name", "plainTask", table.getTaskComponentName(indexOf(table, "plainTask"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("A task of the core namespace should keep its name", "coreTask", table.getTaskComponentName(indexOf(table, "coreTask"))); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("A task of another namespace should be qualified", "antlib:org.eclipse.ant.tests:qualifiedTask", //$NON-NLS-1$ //$NON-NLS-2$
+				table.getTaskComponentName(indexOf(table, "qualifiedTask"))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a build after the custom tasks changed does not use the table of the previous build
+	 */
+	public void testBuildAfterChange() throws CoreException {
+		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		prefs.setCustomTasks(new Task[] { newTask("AntTestTask", null) }); //$NON-NLS-1$
+		run("CustomTask.xml", new String[0], false); //$NON-NLS-1$
+		assertSuccessful();
+		assertEquals("The custom task should run", "Testing Ant in Eclipse with a custom task", AntTestChecker.getDefault().getMessages().get(1)); //$NON-NLS-1$ //$NON-NLS-2$
+
+		prefs.setCustomTasks(new Task[] {});
+		try {
+			run("CustomTask.xml", new String[0], false); //$NON-NLS-1$
+		}
+		catch (CoreException e) {
+			return;
+		}
+		fail("The build should fail as the task is no longer defined"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that builds asking for the table at the same time share one table
+	 */
+	public void testConcurrentBuilds() throws InterruptedException {
+		final AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
+		AntComponentTable.invalidate();
+		final AntComponentTable[] tables = new AntComponentTable[8];
+		Thread[] threads = new Thread[tables.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread("Component table " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					tables[index] = AntComponentTable.getTable(prefs);
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		for (int i = 1; i < tables.length; i++) {
+			assertSame("All builds should share one table", tables[0], tables[i]); //$NON-NLS-1$
+		}
+	}
+}
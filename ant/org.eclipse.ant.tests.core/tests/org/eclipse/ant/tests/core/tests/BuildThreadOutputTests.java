@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.ant.tests.core.testplugin.AntTestChecker;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Tests which output of <code>System.out</code> is part of an in-process build.
+ */
+public class BuildThreadOutputTests extends AbstractAntTest {
+
+	private static final String BUILD_FILE = "threadOutput.xml"; //$NON-NLS-1$
+
+	private PrintStream fOriginalOut;
+	private ByteArrayOutputStream fOut;
+
+	public BuildThreadOutputTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fOriginalOut = System.out;
+		fOut = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(fOut, true));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		System.setOut(fOriginalOut);
+		super.tearDown();
+	}
+
+	private void assertLogged(String message) {
+		List<String> messages = AntTestChecker.getDefault().getMessages();
+		assertTrue("The output should be part of the build: " + message, messages.contains(message)); //$NON-NLS-1$
+		assertTrue("The output should not reach the original stream: " + message, fOut.toString().indexOf(message) == -1); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the output of the thread running the build is logged
+	 */
+	public void testBuildThread() throws CoreException {
+		run(BUILD_FILE, new String[] { "buildThread" }); //$NON-NLS-1$
+		assertSuccessful();
+		assertLogged("from the build thread"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the output of a thread started while the build runs goes to the original stream
+	 */
+	public void testStartedThread() throws CoreException {
+		run(BUILD_FILE, new String[] { "startedThread" }); //$NON-NLS-1$
+		assertSuccessful();
+		String message = "from a started thread"; //$NON-NLS-1$
+		assertFalse("A started thread should not be part of the build", AntTestChecker.getDefault().getMessages().contains(message)); //$NON-NLS-1$
+		assertTrue("The output of a started thread should reach the original stream", fOut.toString().indexOf(message) != -1); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the output of the threads of parallel is logged
+	 */
+	public void testParallel() throws CoreException {
+		run(BUILD_FILE, new String[] { "parallel" }); //$NON-NLS-1$
+		assertSuccessful();
+		assertLogged("from the first parallel thread"); //$NON-NLS-1$
+		assertLogged("from the second parallel thread"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the output of the tasks of a sub build is logged
+	 */
+	public void testSubBuild() throws CoreException {
+		run(BUILD_FILE, new String[] { "subBuild" }); //$NON-NLS-1$
+		assertSuccessful();
+		assertLogged("from the build thread"); //$NON-NLS-1$
+	}
+}
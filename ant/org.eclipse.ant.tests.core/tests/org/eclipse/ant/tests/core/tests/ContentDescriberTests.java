@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.ant.internal.core.contentDescriber.AntBuildfileContentDescriber;
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.core.runtime.content.IContentDescriber;
+
+/**
+ * Tests the recognition of Ant buildfiles by their contents, both by scanning and by parsing.
+ */
+public class ContentDescriberTests extends AbstractAntTest {
+
+	public ContentDescriberTests(String name) {
+		super(name);
+	}
+
+	private void assertDescribed(int expected, String contents) throws IOException {
+		AntBuildfileContentDescriber describer = new AntBuildfileContentDescriber();
+		assertEquals("Stream: " + contents, expected, describer.describe(new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8)), null)); //$NON-NLS-1$
+		assertEquals("Reader: " + contents, expected, describer.describe(new StringReader(contents), null)); //$NON-NLS-1$
+	}
+
+	public void testDefaultAttribute() throws IOException {
+		assertDescribed(IContentDescriber.VALID, "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<project name=\"p\" default=\"a\"/>"); //$NON-NLS-1$
+	}
+
+	public void testTopLevelElements() throws IOException {
+		assertDescribed(IContentDescriber.VALID, "<project>\n<!-- <echo> -->\n<description>a &amp; b</description>\n<target name=\"a\"/>\n</project>"); //$NON-NLS-1$
+		assertDescribed(IContentDescriber.VALID, "<project><![CDATA[<echo>]]><property name=\"p\" value=\"v\"/></project>"); //$NON-NLS-1$
+		assertDescribed(IContentDescriber.VALID, "<a:project xmlns:a=\"urn:a\"><a:import file=\"b.xml\"/></a:project>"); //$NON-NLS-1$
+	}
+
+	public void testNestedElementsOnly() throws IOException {
+		assertDescribed(IContentDescriber.INDETERMINATE, "<project><sequential><target name=\"a\"/></sequential></project>"); //$NON-NLS-1$
+		assertDescribed(IContentDescriber.INDETERMINATE, "<project/>"); //$NON-NLS-1$
+	}
+
+	public void testOtherRootElement() throws IOException {
+		assertDescribed(IContentDescriber.INDETERMINATE, "<plugin default=\"a\"><target/></plugin>"); //$NON-NLS-1$
+	}
+
+	public void testMalformed() throws IOException {
+		assertDescribed(IContentDescriber.INDETERMINATE, "<project><echo></sequential><target name=\"a\"/></project>"); //$NON-NLS-1$
+		assertDescribed(IContentDescriber.INDETERMINATE, "<project><target name=\"a\""); //$NON-NLS-1$
+	}
+
+	public void testDoctype() throws IOException {
+		assertDescribed(IContentDescriber.VALID, "<!DOCTYPE project SYSTEM \"project.dtd\"><project><path id=\"p\"/></project>"); //$NON-NLS-1$
+		// the target comes from the internal subset, only a parser sees it
+		assertDescribed(IContentDescriber.VALID, "<!DOCTYPE project [<!ENTITY t \"<target name='a'/>\">]><project>&t;</project>"); //$NON-NLS-1$
+	}
+
+	public void testDecisionBeyondScannedContents() throws IOException {
+		StringBuffer contents = new StringBuffer("<project>"); //$NON-NLS-1$
+		for (int i = 0; i < 2000; i++) {
+			contents.append("<echo message=\"").append(i).append("\"/>"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		contents.append("<target name=\"a\"/></project>"); //$NON-NLS-1$
+		assertDescribed(IContentDescriber.VALID, contents.toString());
+	}
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.util.List;
+
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.ant.tests.core.testplugin.AntTestChecker;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Tests the targets of a build that run in parallel when <code>eclipse.ant.parallelTargets</code> is set.
+ */
+public class ParallelTargetTests extends AbstractAntTest {
+
+	private static final String BUILD_FILE = "parallelTargets.xml"; //$NON-NLS-1$
+	private static final String PARALLEL_TARGETS = "-Declipse.ant.parallelTargets=4"; //$NON-NLS-1$
+
+	public ParallelTargetTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Ensures that a dependency shared by two targets runs once and before both, and that the target depending on both runs after them
+	 */
+	public void testDiamond() throws CoreException {
+		run(BUILD_FILE, new String[] { PARALLEL_TARGETS, "diamond" }); //$NON-NLS-1$
+		assertSuccessful();
+		List<String> messages = AntTestChecker.getDefault().getMessages();
+		assertEquals("common should have run once", 1, count(messages, "common")); //$NON-NLS-1$ //$NON-NLS-2$
+		int common = messages.indexOf("common"); //$NON-NLS-1$
+		int left = messages.indexOf("left"); //$NON-NLS-1$
+		int right = messages.indexOf("right"); //$NON-NLS-1$
+		int diamond = messages.indexOf("diamond"); //$NON-NLS-1$
+		assertTrue("left should have run after common", left > common); //$NON-NLS-1$
+		assertTrue("right should have run after common", right > common); //$NON-NLS-1$
+		assertTrue("diamond should have run after left and right", diamond > left && diamond > right); //$NON-NLS-1$
+		assertEquals("Incorrect number of targets started", 4, AntTestChecker.getDefault().getTargetsStartedCount()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that independent targets run at the same time. Each of the two targets waits for the other one to start, so a build that runs
+	 * them one after the other fails.
+	 */
+	public void testConcurrentTargets() throws CoreException {
+		run(BUILD_FILE, new String[] { PARALLEL_TARGETS, "concurrent" }); //$NON-NLS-1$
+		assertSuccessful();
+		assertEquals("Incorrect message", "concurrent", AntTestChecker.getDefault().getLoggedMessage(1)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that a failing target fails the build and that no target depending on it runs
+	 */
+	public void testFailurePropagation() {
+		try {
+			run(BUILD_FILE, new String[] { PARALLEL_TARGETS, "failingBranch" }); //$NON-NLS-1$
+		}
+		catch (CoreException ce) {
+			String message = ce.getMessage();
+			assertTrue("Core exception message not as expected: " + message, message.indexOf("Failing branch") != -1); //$NON-NLS-1$ //$NON-NLS-2$
+			List<String> messages = AntTestChecker.getDefault().getMessages();
+			assertEquals("common should have run once", 1, count(messages, "common")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse("afterFailure should not have run", messages.contains("after failure")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse("failingBranch should not have run", messages.contains("failing branch")); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+		assertTrue("The build should have failed", false); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that with <code>-k</code> the targets that do not depend on a failed target still run, that the others are skipped and that
+	 * the build fails
+	 */
+	public void testKeepGoing() {
+		try {
+			run(BUILD_FILE, new String[] { PARALLEL_TARGETS, "-k", "failingBranch" }); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		catch (CoreException ce) {
+			List<String> messages = AntTestChecker.getDefault().getMessages();
+			assertEquals("common should have run once", 1, count(messages, "common")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("left should have run", messages.contains("left")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("right should have run", messages.contains("right")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("diamond should have run", messages.contains("diamond")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("afterFailure should have been skipped", messages.contains("Cannot execute 'afterFailure' - 'fails' failed or was not executed.")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("failingBranch should have been skipped", messages.contains("Cannot execute 'failingBranch' - 'afterFailure' failed or was not executed.")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse("afterFailure should not have run", messages.contains("after failure")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertFalse("failingBranch should not have run", messages.contains("failing branch")); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+		assertTrue("The build should have failed", false); //$NON-NLS-1$
+	}
+
+	private int count(List<String> messages, String message) {
+		int count = 0;
+		for (String logged : messages) {
+			if (message.equals(logged)) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
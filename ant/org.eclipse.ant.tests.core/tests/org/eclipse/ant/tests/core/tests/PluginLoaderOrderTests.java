@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.eclipse.ant.internal.core.PluginLoaderOrder;
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.ant.tests.core.testplugin.AntTestPlugin;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.FrameworkEvent;
+import org.osgi.framework.FrameworkListener;
+import org.osgi.framework.wiring.FrameworkWiring;
+
+/**
+ * Tests the order of the plug-in class loaders of the Ant classpath.
+ */
+public class PluginLoaderOrderTests extends AbstractAntTest {
+
+	private static final String PREFIX = "org.eclipse.ant.tests.order."; //$NON-NLS-1$
+
+	private File fDirectory;
+	private final List<Bundle> fInstalled = new ArrayList<>();
+
+	public PluginLoaderOrderTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDirectory = File.createTempFile("pluginLoaderOrder", null); //$NON-NLS-1$
+		fDirectory.delete();
+		fDirectory.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (Bundle bundle : fInstalled) {
+			bundle.uninstall();
+		}
+		refresh(fInstalled);
+		fInstalled.clear();
+		File[] files = fDirectory.listFiles();
+		if (files != null) {
+			for (int i = 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+		fDirectory.delete();
+		super.tearDown();
+	}
+
+	private BundleContext getContext() {
+		return AntTestPlugin.getDefault().getBundle().getBundleContext();
+	}
+
+	/*
+	 * Installs a bundle that has only a manifest with the given headers, given as name and value pairs
+	 */
+	private Bundle install(String name, String... headers) throws IOException, BundleException {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+		attributes.putValue("Bundle-ManifestVersion", "2"); //$NON-NLS-1$ //$NON-NLS-2$
+		attributes.putValue("Bundle-SymbolicName", PREFIX + name); //$NON-NLS-1$
+		attributes.putValue("Bundle-Version", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+		for (int i = 0; i < headers.length; i += 2) {
+			attributes.putValue(headers[i], headers[i + 1]);
+		}
+		File file = new File(fDirectory, name + ".jar"); //$NON-NLS-1$
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest)) {
+			// only the manifest
+		}
+		Bundle bundle = getContext().installBundle(file.toURI().toString());
+		fInstalled.add(bundle);
+		return bundle;
+	}
+
+	private void resolve() {
+		FrameworkWiring wiring = getContext().getBundle(0).adapt(FrameworkWiring.class);
+		assertTrue("The test bundles should resolve", wiring.resolveBundles(fInstalled)); //$NON-NLS-1$
+	}
+
+	private void refresh(List<Bundle> bundles) throws InterruptedException {
+		final CountDownLatch refreshed = new CountDownLatch(1);
+		FrameworkWiring wiring = getContext().getBundle(0).adapt(FrameworkWiring.class);
+		wiring.refreshBundles(bundles, new FrameworkListener() {
+			@Override
+			public void frameworkEvent(FrameworkEvent event) {
+				refreshed.countDown();
+			}
+		});
+		refreshed.await(30, TimeUnit.SECONDS);
+	}
+
+	private static void assertBefore(List<Bundle> order, Bundle first, Bundle second) {
+		assertTrue(first.getSymbolicName() + " should come before " + second.getSymbolicName() + " in " + order, //$NON-NLS-1$ //$NON-NLS-2$
+				order.indexOf(first) < order.indexOf(second));
+	}
+
+	/**
+	 * Ensures that a bundle comes after the bundles it requires or imports packages from
+	 */
+	public void testPrerequisiteOrder() throws Exception {
+		Bundle base = install("base", "Export-Package", PREFIX + "base"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Bundle middle = install("middle", "Require-Bundle", PREFIX + "base"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Bundle top = install("top", "Require-Bundle", PREFIX + "middle"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Bundle importer = install("importer", "Import-Package", PREFIX + "base"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		resolve();
+
+		List<Bundle> order = PluginLoaderOrder.getPrerequisiteOrder(Arrays.asList(top, importer, middle, base));
+		assertEquals("Incorrect number of bundles", 4, order.size()); //$NON-NLS-1$
+		assertBefore(order, base, middle);
+		assertBefore(order, middle, top);
+		assertBefore(order, base, importer);
+	}
+
+	/**
+	 * Ensures that a fragment comes after its host
+	 */
+	public void testFragmentAfterHost() throws Exception {
+		Bundle host = install("host"); //$NON-NLS-1$
+		Bundle fragment = install("fragment", "Fragment-Host", PREFIX + "host"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		resolve();
+
+		List<Bundle> order = PluginLoaderOrder.getPrerequisiteOrder(Arrays.asList(fragment, host));
+		assertEquals("Incorrect order", Arrays.asList(host, fragment), order); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the bundles of a cycle keep their relative order and follow the others
+	 */
+	public void testCycle() throws Exception {
+		Bundle first = install("first", "Require-Bundle", PREFIX + "second"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Bundle second = install("second", "Require-Bundle", PREFIX + "first"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		Bundle independent = install("independent"); //$NON-NLS-1$
+		resolve();
+
+		List<Bundle> order = PluginLoaderOrder.getPrerequisiteOrder(Arrays.asList(first, second, independent));
+		assertEquals("Incorrect order", Arrays.asList(independent, first, second), order); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the order follows a change of the wiring, as a bundle that is updated to need another one
+	 */
+	public void testWiringChange() throws Exception {
+		Bundle one = install("one"); //$NON-NLS-1$
+		Bundle two = install("two"); //$NON-NLS-1$
+		resolve();
+		List<Bundle> bundles = Arrays.asList(one, two);
+		assertEquals("Incorrect order", bundles, PluginLoaderOrder.getPrerequisiteOrder(bundles)); //$NON-NLS-1$
+
+		one.uninstall();
+		fInstalled.remove(one);
+		one = install("one", "Require-Bundle", PREFIX + "two"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		resolve();
+		bundles = Arrays.asList(one, two);
+		assertEquals("The order should follow the new wiring", Arrays.asList(two, one), PluginLoaderOrder.getPrerequisiteOrder(bundles)); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.util.List;
+
+import org.eclipse.ant.core.AntRunner;
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.ant.tests.core.testplugin.AntTestChecker;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Tests the progress reporting and cancellation of builds that set <code>eclipse.ant.progressSampling</code>.
+ */
+public class ProgressSamplingTests extends AbstractAntTest {
+
+	private static final String BUILD_FILE = "progressSampling.xml"; //$NON-NLS-1$
+
+	/**
+	 * A monitor that records the work reported to it and is canceled once a given message has been logged.
+	 */
+	private static class TestMonitor implements IProgressMonitor {
+
+		private final String cancelAfter;
+		private volatile boolean canceled = false;
+		double worked = 0;
+		boolean begun = false;
+		boolean done = false;
+
+		TestMonitor(String cancelAfter) {
+			this.cancelAfter = cancelAfter;
+		}
+
+		@Override
+		public void beginTask(String name, int totalWork) {
+			begun = true;
+		}
+
+		@Override
+		public void done() {
+			done = true;
+		}
+
+		@Override
+		public void internalWorked(double work) {
+			worked += work;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			if (!canceled && cancelAfter != null && AntTestChecker.getDefault().getMessages().contains(cancelAfter)) {
+				canceled = true;
+			}
+			return canceled;
+		}
+
+		@Override
+		public void setCanceled(boolean value) {
+			canceled = value;
+		}
+
+		@Override
+		public void setTaskName(String name) {
+			// not recorded
+		}
+
+		@Override
+		public void subTask(String name) {
+			// not recorded
+		}
+
+		@Override
+		public void worked(int work) {
+			internalWorked(work);
+		}
+	}
+
+	public ProgressSamplingTests(String name) {
+		super(name);
+	}
+
+	private void runSampled(IProgressMonitor monitor) throws CoreException {
+		AntTestChecker.reset();
+		AntRunner runner = new AntRunner();
+		runner.setBuildFileLocation(getBuildFile(BUILD_FILE).getLocation().toFile().getAbsolutePath());
+		runner.setArguments("-Declipse.ant.progressSampling=true"); //$NON-NLS-1$
+		runner.addBuildLogger(ANT_TEST_BUILD_LOGGER);
+		runner.run(monitor);
+	}
+
+	/**
+	 * Ensures that a build that is not canceled runs all its targets and reports its work
+	 */
+	public void testProgress() throws CoreException {
+		TestMonitor monitor = new TestMonitor(null);
+		runSampled(monitor);
+		assertSuccessful();
+		List<String> messages = AntTestChecker.getDefault().getMessages();
+		assertTrue("second should have run", messages.contains("second")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("third should have run", messages.contains("third")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("The monitor should have been begun", monitor.begun); //$NON-NLS-1$
+		assertTrue("Work should have been reported", monitor.worked > 0); //$NON-NLS-1$
+		assertTrue("The monitor should be done", monitor.done); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a build canceled before it starts runs no task
+	 */
+	public void testCanceledBeforeStart() throws CoreException {
+		TestMonitor monitor = new TestMonitor(null);
+		monitor.setCanceled(true);
+		runSampled(monitor);
+		List<String> messages = AntTestChecker.getDefault().getMessages();
+		assertFalse("first should not have run", messages.contains("first")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("The build should have been canceled", messages.contains("Build cancelled.")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that a build canceled while a task runs lets that task finish and runs no later target
+	 */
+	public void testCanceledWhileRunning() throws CoreException {
+		TestMonitor monitor = new TestMonitor("first"); //$NON-NLS-1$
+		runSampled(monitor);
+		List<String> messages = AntTestChecker.getDefault().getMessages();
+		assertTrue("first should have run", messages.contains("first")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("second should not have run", messages.contains("second")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("The build should have been canceled", messages.contains("Build cancelled.")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertFalse("The thread of the build should not be left interrupted", Thread.interrupted()); //$NON-NLS-1$
+	}
+}
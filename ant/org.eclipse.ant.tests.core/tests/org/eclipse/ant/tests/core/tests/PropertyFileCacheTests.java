@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.core.tests;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ant.internal.core.PropertyFileCache;
+import org.eclipse.ant.tests.core.AbstractAntTest;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.VariablesPlugin;
+
+/**
+ * Tests the cache of property files used by Ant builds.
+ */
+public class PropertyFileCacheTests extends AbstractAntTest {
+
+	private static final String VARIABLE = "ant_tests_property_file_cache"; //$NON-NLS-1$
+
+	private File fDirectory;
+	private IValueVariable fVariable;
+
+	public PropertyFileCacheTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		PropertyFileCache.dispose();
+		fDirectory = File.createTempFile("propertyFileCache", null); //$NON-NLS-1$
+		fDirectory.delete();
+		fDirectory.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fVariable != null) {
+			VariablesPlugin.getDefault().getStringVariableManager().removeVariables(new IValueVariable[] { fVariable });
+			fVariable = null;
+		}
+		PropertyFileCache.dispose();
+		File[] files = fDirectory.listFiles();
+		if (files != null) {
+			for (int i = 0; i < files.length; i++) {
+				files[i].delete();
+			}
+		}
+		fDirectory.delete();
+		super.tearDown();
+	}
+
+	private File write(String name, String contents) throws IOException {
+		File file = new File(fDirectory, name);
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.ISO_8859_1)) {
+			writer.write(contents);
+		}
+		return file;
+	}
+
+	/**
+	 * Ensures that an unchanged file is served from the cache and that the returned properties cannot be modified
+	 */
+	public void testCacheHit() throws IOException {
+		File file = write("hit.properties", "a=1\nb=2\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		Map<String, String> first = PropertyFileCache.getProperties(Arrays.asList(file)).get(0);
+		Map<String, String> second = PropertyFileCache.getProperties(Arrays.asList(file)).get(0);
+		assertSame("An unchanged file should be served from the cache", first, second); //$NON-NLS-1$
+		assertEquals("Incorrect value", "1", second.get("a")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		try {
+			second.put("a", "3"); //$NON-NLS-1$ //$NON-NLS-2$
+			fail("The cached properties should not be modifiable"); //$NON-NLS-1$
+		}
+		catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Ensures that a file is read again when its modification time changes
+	 */
+	public void testModificationInvalidates() throws IOException {
+		File file = write("modified.properties", "a=1\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		long modified = file.lastModified();
+		Map<String, String> first = PropertyFileCache.getProperties(Arrays.asList(file)).get(0);
+		assertEquals("Incorrect value", "1", first.get("a")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		write("modified.properties", "a=2\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		file.setLastModified(modified + 2000);
+		Map<String, String> second = PropertyFileCache.getProperties(Arrays.asList(file)).get(0);
+		assertNotSame("A changed file should be read again", first, second); //$NON-NLS-1$
+		assertEquals("Incorrect value after the change", "2", second.get("a")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Ensures that variables are substituted in names and values and substituted again when a value variable changes
+	 */
+	public void testSubstitution() throws Exception {
+		IStringVariableManager manager = VariablesPlugin.getDefault().getStringVariableManager();
+		fVariable = manager.newValueVariable(VARIABLE, null, false, "first"); //$NON-NLS-1$
+		manager.addVariables(new IValueVariable[] { fVariable });
+		File file = write("substituted.properties", "plain=$HOME\nvalue=${" + VARIABLE + "}\nname.${" + VARIABLE + "}=x\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+		Map<String, String> first = PropertyFileCache.getProperties(Arrays.asList(file)).get(0);
+		assertEquals("Incorrect substituted value", "first", first.get("value")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("Incorrect substituted name", "x", first.get("name.first")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("A value without a variable reference should be kept", "$HOME", first.get("plain")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		fVariable.setValue("second"); //$NON-NLS-1$
+		Map<String, String> second = PropertyFileCache.getProperties(Arrays.asList(file)).get(0);
+		assertEquals("The value should be substituted again after the variable changed", "second", second.get("value")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals("Incorrect substituted name after the change", "x", second.get("name.second")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Ensures that several files that are read in parallel are returned in the order they were requested
+	 */
+	public void testOrderOfSeveralFiles() throws IOException {
+		List<File> files = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			files.add(write("file" + i + ".properties", "index=" + i + "\n")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		List<Map<String, String>> properties = PropertyFileCache.getProperties(files);
+		assertEquals("Incorrect number of properties", files.size(), properties.size()); //$NON-NLS-1$
+		for (int i = 0; i < files.size(); i++) {
+			assertEquals("Incorrect order", String.valueOf(i), properties.get(i).get("index")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Ensures that a missing file is reported
+	 */
+	public void testMissingFile() {
+		File missing = new File(fDirectory, "missing.properties"); //$NON-NLS-1$
+		try {
+			PropertyFileCache.getProperties(Arrays.asList(missing, missing));
+			fail("A missing file should be reported"); //$NON-NLS-1$
+		}
+		catch (IOException e) {
+			// expected
+		}
+	}
+}
@@ -0,0 +1,225 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui.editor.performance;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ant.internal.ui.editor.AntEditor;
+import org.eclipse.ant.internal.ui.editor.OccurrencesFinder;
+import org.eclipse.ant.internal.ui.editor.formatter.FormattingPreferences;
+import org.eclipse.ant.internal.ui.editor.formatter.XmlDocumentFormatter;
+import org.eclipse.ant.internal.ui.model.AntModel;
+import org.eclipse.ant.tests.ui.editor.support.TestLocationProvider;
+import org.eclipse.ant.tests.ui.editor.support.TestProblemRequestor;
+import org.eclipse.ant.tests.ui.editor.support.TestTextCompletionProcessor;
+import org.eclipse.ant.tests.ui.performance.AbstractAntPerformanceTest;
+import org.eclipse.ant.tests.ui.testplugin.ProjectHelper;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.TextSelection;
+import org.eclipse.jface.text.contentassist.ICompletionProposal;
+
+/**
+ * Measures the Ant editor model and the editor operations that work on it against a generated corpus of build files (see
+ * {@link SyntheticBuildFileCorpus}): parsing, reconciling after an edit, task and property completion, mark occurrences and formatting.
+ * <p>
+ * Each test measures one operation. Besides the measurements of the performance framework it prints the median and 99th percentile latency
+ * and the allocation per operation (see {@link OperationStatistics}).
+ * </p>
+ */
+public class AntEditorModelPerformanceTest extends AbstractAntPerformanceTest {
+
+	private static final int WARMUP_RUNS = 5;
+	private static final int RUNS = 30;
+
+	private static final SyntheticBuildFileCorpus CORPUS = new SyntheticBuildFileCorpus(1000, 2000, 50, 10);
+
+	private IFolder fFolder;
+	private String fText;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fFolder = ResourcesPlugin.getWorkspace().getRoot().getProject(ProjectHelper.PROJECT_NAME).getFolder("buildfiles").getFolder("performance").getFolder("synthetic"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		if (!fFolder.exists()) {
+			fFolder.create(true, true, null);
+		}
+		Map<String, String> files = CORPUS.generate();
+		for (Map.Entry<String, String> entry : files.entrySet()) {
+			IFile file = fFolder.getFile(entry.getKey());
+			ByteArrayInputStream contents = new ByteArrayInputStream(entry.getValue().getBytes(StandardCharsets.UTF_8));
+			if (file.exists()) {
+				file.setContents(contents, IResource.FORCE, null);
+			} else {
+				file.create(contents, true, null);
+			}
+		}
+		fText = files.get(SyntheticBuildFileCorpus.MAIN_FILE_NAME);
+		EditorTestHelper.runEventQueue();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		EditorTestHelper.closeAllEditors();
+		fFolder.delete(true, null);
+		super.tearDown();
+	}
+
+	private IFile getMainFile() {
+		return fFolder.getFile(SyntheticBuildFileCorpus.MAIN_FILE_NAME);
+	}
+
+	private AntModel createModel(IDocument document) {
+		return new AntModel(document, new TestProblemRequestor(), new TestLocationProvider(getMainFile().getLocation().toFile()));
+	}
+
+	/**
+	 * A full parse of the build file and its imports into a new model, as when an editor opens.
+	 */
+	public void testParse() {
+		OperationStatistics statistics = new OperationStatistics("Parse"); //$NON-NLS-1$
+		for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+			boolean measured = i >= WARMUP_RUNS;
+			AntModel model = createModel(new Document(fText));
+			start(statistics, measured);
+			model.reconcile();
+			stop(statistics, measured);
+			assertNotNull(model.getProjectNode());
+			model.dispose();
+		}
+		report(statistics);
+	}
+
+	/**
+	 * Reconciling an existing model after a single character was typed into a target.
+	 */
+	public void testReconcile() throws Exception {
+		OperationStatistics statistics = new OperationStatistics("Reconcile"); //$NON-NLS-1$
+		Document document = new Document(fText);
+		AntModel model = createModel(document);
+		model.reconcile();
+		int offset = fText.indexOf("for target", fText.indexOf("name=\"" + CORPUS.getMiddleTargetName() + '"')); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+				boolean measured = i >= WARMUP_RUNS;
+				// alternately insert and remove a character
+				if (i % 2 == 0) {
+					document.replace(offset, 0, "x"); //$NON-NLS-1$
+				} else {
+					document.replace(offset, 1, ""); //$NON-NLS-1$
+				}
+				start(statistics, measured);
+				model.reconcile();
+				stop(statistics, measured);
+			}
+		}
+		finally {
+			model.dispose();
+		}
+		report(statistics);
+	}
+
+	/**
+	 * Task proposals inside a target.
+	 */
+	public void testTaskCompletion() throws Exception {
+		int offset = fText.indexOf('<', fText.indexOf("name=\"" + CORPUS.getMiddleTargetName() + '"')); //$NON-NLS-1$
+		measureCompletion(new OperationStatistics("Completion: tasks"), offset); //$NON-NLS-1$
+	}
+
+	/**
+	 * Property proposals inside a property reference.
+	 */
+	public void testPropertyCompletion() throws Exception {
+		int targetOffset = fText.indexOf('<', fText.indexOf("name=\"" + CORPUS.getMiddleTargetName() + '"')); //$NON-NLS-1$
+		int offset = fText.indexOf("${" + CORPUS.getReferencedPropertyName(), targetOffset) + 2; //$NON-NLS-1$
+		measureCompletion(new OperationStatistics("Completion: properties"), offset); //$NON-NLS-1$
+	}
+
+	private void measureCompletion(OperationStatistics statistics, int offset) throws Exception {
+		AntEditor editor = (AntEditor) EditorTestHelper.openInEditor(getMainFile(), "org.eclipse.ant.ui.internal.editor.AntEditor", true); //$NON-NLS-1$
+		TestTextCompletionProcessor processor = new TestTextCompletionProcessor(editor);
+		for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+			boolean measured = i >= WARMUP_RUNS;
+			editor.getSelectionProvider().setSelection(new TextSelection(offset, 0));
+			start(statistics, measured);
+			ICompletionProposal[] proposals = processor.computeCompletionProposals(offset);
+			stop(statistics, measured);
+			assertTrue("Expected proposals", proposals.length > 0); //$NON-NLS-1$
+		}
+		report(statistics);
+	}
+
+	/**
+	 * Mark occurrences of a property that is referenced by every target.
+	 */
+	public void testOccurrences() throws Exception {
+		AntEditor editor = (AntEditor) EditorTestHelper.openInEditor(getMainFile(), "org.eclipse.ant.ui.internal.editor.AntEditor", true); //$NON-NLS-1$
+		IDocument document = editor.getDocumentProvider().getDocument(editor.getEditorInput());
+		int offset = fText.indexOf("${" + CORPUS.getReferencedPropertyName() + '}') + 3; //$NON-NLS-1$
+		OperationStatistics statistics = new OperationStatistics("Occurrences"); //$NON-NLS-1$
+		for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+			boolean measured = i >= WARMUP_RUNS;
+			OccurrencesFinder finder = new OccurrencesFinder(editor, editor.getAntModel(), document, offset);
+			start(statistics, measured);
+			List<Position> positions = finder.perform();
+			stop(statistics, measured);
+			assertNotNull("Expected occurrences", positions); //$NON-NLS-1$
+		}
+		report(statistics);
+	}
+
+	/**
+	 * Formatting the whole build file.
+	 */
+	public void testFormat() {
+		XmlDocumentFormatter formatter = new XmlDocumentFormatter();
+		formatter.setDefaultLineDelimiter("\n"); //$NON-NLS-1$
+		FormattingPreferences preferences = new FormattingPreferences();
+		OperationStatistics statistics = new OperationStatistics("Format"); //$NON-NLS-1$
+		for (int i = 0; i < WARMUP_RUNS + RUNS; i++) {
+			boolean measured = i >= WARMUP_RUNS;
+			start(statistics, measured);
+			String result = formatter.format(fText, preferences);
+			stop(statistics, measured);
+			assertNotNull(result);
+		}
+		report(statistics);
+	}
+
+	private void start(OperationStatistics statistics, boolean measured) {
+		if (measured) {
+			startMeasuring();
+			statistics.start();
+		}
+	}
+
+	private void stop(OperationStatistics statistics, boolean measured) {
+		if (measured) {
+			statistics.stop();
+			stopMeasuring();
+		}
+	}
+
+	private void report(OperationStatistics statistics) {
+		System.out.println(statistics);
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui.editor.performance;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * Records the latency and the allocated memory of each run of an operation and reports the median and 99th percentile latency and the average
+ * allocation per run.
+ * <p>
+ * Allocation is measured with the per thread allocation counter of the HotSpot <code>com.sun.management.ThreadMXBean</code>; on VMs without it
+ * only latencies are reported.
+ * </p>
+ */
+public class OperationStatistics {
+
+	private static final Object fgThreadBean = ManagementFactory.getThreadMXBean();
+	private static final Method fgAllocatedBytes = getAllocatedBytesMethod();
+
+	private final String fName;
+	private long[] fNanos = new long[64];
+	private long fAllocatedBytes = 0;
+	private int fCount = 0;
+
+	private long fStartNanos;
+	private long fStartBytes;
+
+	public OperationStatistics(String name) {
+		fName = name;
+	}
+
+	private static Method getAllocatedBytesMethod() {
+		try {
+			// the bundle class loader does not see com.sun.management
+			Class<?> type = ClassLoader.getSystemClassLoader().loadClass("com.sun.management.ThreadMXBean"); //$NON-NLS-1$
+			if (!type.isInstance(fgThreadBean)) {
+				return null;
+			}
+			Method isSupported = type.getMethod("isThreadAllocatedMemorySupported"); //$NON-NLS-1$
+			if (!((Boolean) isSupported.invoke(fgThreadBean)).booleanValue()) {
+				return null;
+			}
+			type.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(fgThreadBean, Boolean.TRUE); //$NON-NLS-1$
+			return type.getMethod("getThreadAllocatedBytes", long.class); //$NON-NLS-1$
+		}
+		catch (Exception e) {
+			return null;
+		}
+	}
+
+	private static long getAllocatedBytes() {
+		if (fgAllocatedBytes == null) {
+			return 0;
+		}
+		try {
+			return ((Long) fgAllocatedBytes.invoke(fgThreadBean, Long.valueOf(Thread.currentThread().getId()))).longValue();
+		}
+		catch (Exception e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Starts a run of the operation on the current thread.
+	 */
+	public void start() {
+		fStartBytes = getAllocatedBytes();
+		fStartNanos = System.nanoTime();
+	}
+
+	/**
+	 * Ends the run started last.
+	 */
+	public void stop() {
+		long nanos = System.nanoTime() - fStartNanos;
+		fAllocatedBytes += getAllocatedBytes() - fStartBytes;
+		if (fCount == fNanos.length) {
+			fNanos = Arrays.copyOf(fNanos, fCount * 2);
+		}
+		fNanos[fCount++] = nanos;
+	}
+
+	/**
+	 * Returns the latency below which the given percentage of the runs completed, in milliseconds.
+	 */
+	public double getPercentile(double percent) {
+		if (fCount == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(fNanos, fCount);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percent / 100 * fCount) - 1;
+		return sorted[Math.max(0, Math.min(fCount - 1, index))] / 1000000d;
+	}
+
+	/**
+	 * Returns the average number of bytes allocated per run, or <code>-1</code> if the VM cannot tell.
+	 */
+	public long getAllocatedBytesPerRun() {
+		if (fgAllocatedBytes == null) {
+			return -1;
+		}
+		return fCount == 0 ? 0 : fAllocatedBytes / fCount;
+	}
+
+	/**
+	 * Returns a one line summary of the recorded runs.
+	 */
+	@Override
+	public String toString() {
+		StringBuffer buffer = new StringBuffer(fName);
+		buffer.append(": runs="); //$NON-NLS-1$
+		buffer.append(fCount);
+		buffer.append(String.format(" p50=%.3fms p99=%.3fms", Double.valueOf(getPercentile(50)), Double.valueOf(getPercentile(99)))); //$NON-NLS-1$
+		long allocated = getAllocatedBytesPerRun();
+		if (allocated >= 0) {
+			buffer.append(" allocated="); //$NON-NLS-1$
+			buffer.append(allocated / 1024);
+			buffer.append("KB/run"); //$NON-NLS-1$
+		}
+		return buffer.toString();
+	}
+}
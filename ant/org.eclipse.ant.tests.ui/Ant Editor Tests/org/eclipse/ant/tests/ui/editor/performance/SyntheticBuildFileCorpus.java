@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui.editor.performance;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Generates a set of build files that stresses the Ant editor: a main build file with many properties, macro definitions and targets, which
+ * imports a chain of build files, each importing the next one.
+ * <p>
+ * Properties refer to earlier properties through short chains, so their values stay short. Targets depend on earlier targets and call the
+ * macros, so that the model has references to resolve and occurrences to find.
+ * </p>
+ */
+public class SyntheticBuildFileCorpus {
+
+	public static final String MAIN_FILE_NAME = "build.xml"; //$NON-NLS-1$
+
+	private final int fTargets;
+	private final int fProperties;
+	private final int fMacrodefs;
+	private final int fImportDepth;
+
+	/**
+	 * @param targets
+	 *            the number of targets of the main build file
+	 * @param properties
+	 *            the number of properties of the main build file
+	 * @param macrodefs
+	 *            the number of macro definitions of the main build file
+	 * @param importDepth
+	 *            the length of the chain of imported build files
+	 */
+	public SyntheticBuildFileCorpus(int targets, int properties, int macrodefs, int importDepth) {
+		fTargets = targets;
+		fProperties = properties;
+		fMacrodefs = macrodefs;
+		fImportDepth = importDepth;
+	}
+
+	/**
+	 * Returns the contents of the build files by file name, the main build file first.
+	 */
+	public Map<String, String> generate() {
+		Map<String, String> files = new LinkedHashMap<>();
+		files.put(MAIN_FILE_NAME, generateMain());
+		for (int i = 1; i <= fImportDepth; i++) {
+			files.put(getImportName(i), generateImport(i));
+		}
+		return files;
+	}
+
+	/**
+	 * Returns the name of a property of the main build file that is referenced by many targets.
+	 */
+	public String getReferencedPropertyName() {
+		return "prop" + (fProperties / 2); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns the name of a target in the middle of the main build file.
+	 */
+	public String getMiddleTargetName() {
+		return "target" + (fTargets / 2); //$NON-NLS-1$
+	}
+
+	private static String getImportName(int depth) {
+		return "import" + depth + ".xml"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private String generateMain() {
+		StringBuffer buffer = new StringBuffer(fTargets * 400 + fProperties * 60);
+		buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+		buffer.append("<project name=\"synthetic\" default=\"target0\" basedir=\".\">\n"); //$NON-NLS-1$
+		buffer.append("\t<description>Synthetic build file</description>\n"); //$NON-NLS-1$
+		if (fImportDepth > 0) {
+			buffer.append("\t<import file=\"").append(getImportName(1)).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i = 0; i < fProperties; i++) {
+			buffer.append("\t<property name=\"prop").append(i).append("\" value=\""); //$NON-NLS-1$ //$NON-NLS-2$
+			if (i > 0) {
+				buffer.append("${prop").append(i / 2).append("}/"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			buffer.append("value").append(i).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i = 0; i < fMacrodefs; i++) {
+			buffer.append("\t<macrodef name=\"macro").append(i).append("\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buffer.append("\t\t<attribute name=\"dir\"/>\n"); //$NON-NLS-1$
+			buffer.append("\t\t<attribute name=\"message\" default=\"macro").append(i).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			buffer.append("\t\t<element name=\"body\" optional=\"true\"/>\n"); //$NON-NLS-1$
+			buffer.append("\t\t<sequential>\n"); //$NON-NLS-1$
+			buffer.append("\t\t\t<mkdir dir=\"@{dir}\"/>\n"); //$NON-NLS-1$
+			buffer.append("\t\t\t<echo message=\"@{message}\"/>\n"); //$NON-NLS-1$
+			buffer.append("\t\t\t<body/>\n"); //$NON-NLS-1$
+			buffer.append("\t\t</sequential>\n"); //$NON-NLS-1$
+			buffer.append("\t</macrodef>\n"); //$NON-NLS-1$
+		}
+		String referenced = getReferencedPropertyName();
+		for (int i = 0; i < fTargets; i++) {
+			buffer.append("\t<target name=\"target").append(i).append('"'); //$NON-NLS-1$
+			if (i % 2 == 0) {
+				buffer.append(" description=\"Builds part ").append(i).append('"'); //$NON-NLS-1$
+			}
+			if (i > 0) {
+				buffer.append(" depends=\"target").append(i - 1); //$NON-NLS-1$
+				if (i > 2) {
+					buffer.append(",target").append(i / 2); //$NON-NLS-1$
+				}
+				buffer.append('"');
+			}
+			buffer.append(">\n"); //$NON-NLS-1$
+			buffer.append("\t\t<echo message=\"Building ${").append(referenced).append("} for target ").append(i).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			buffer.append("\t\t<property name=\"done").append(i).append("\" value=\"${prop").append(i % Math.max(1, fProperties)).append("}\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			if (fMacrodefs > 0) {
+				buffer.append("\t\t<macro").append(i % fMacrodefs).append(" dir=\"${basedir}/out/part").append(i).append("\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				buffer.append("\t\t\t<body>\n"); //$NON-NLS-1$
+				buffer.append("\t\t\t\t<touch file=\"${basedir}/out/part").append(i).append("/marker\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				buffer.append("\t\t\t</body>\n"); //$NON-NLS-1$
+				buffer.append("\t\t</macro").append(i % fMacrodefs).append(">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			if (i % 10 == 9) {
+				buffer.append("\t\t<antcall target=\"target").append(i - 9).append("\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				buffer.append("\t\t\t<param name=\"").append(referenced).append("\" value=\"override\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				buffer.append("\t\t</antcall>\n"); //$NON-NLS-1$
+			}
+			buffer.append("\t</target>\n"); //$NON-NLS-1$
+		}
+		buffer.append("</project>\n"); //$NON-NLS-1$
+		return buffer.toString();
+	}
+
+	private String generateImport(int depth) {
+		StringBuffer buffer = new StringBuffer(4096);
+		buffer.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+		buffer.append("<project name=\"import").append(depth).append("\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (depth < fImportDepth) {
+			buffer.append("\t<import file=\"").append(getImportName(depth + 1)).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i = 0; i < 20; i++) {
+			buffer.append("\t<property name=\"import").append(depth).append(".prop").append(i).append("\" value=\"value").append(i).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+		for (int i = 0; i < 10; i++) {
+			buffer.append("\t<target name=\"import").append(depth).append(".target").append(i).append("\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			buffer.append("\t\t<echo message=\"${import").append(depth).append(".prop").append(i).append("}\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			buffer.append("\t</target>\n"); //$NON-NLS-1$
+		}
+		buffer.append("</project>\n"); //$NON-NLS-1$
+		return buffer.toString();
+	}
+}
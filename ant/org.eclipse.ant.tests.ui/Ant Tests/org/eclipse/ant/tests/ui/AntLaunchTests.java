@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.util.List;
+
+import org.apache.tools.ant.Project;
+import org.eclipse.ant.internal.launching.AntLaunch;
+import org.eclipse.ant.internal.launching.LinkDescriptor;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.debug.core.ILaunchManager;
+
+/**
+ * Tests the link descriptors an Ant launch keeps for the lines of the console.
+ */
+public class AntLaunchTests extends AbstractAntUITest {
+
+	private static final String BUILD_FILE = "/build.xml"; //$NON-NLS-1$
+
+	private AntLaunch fLaunch;
+
+	public AntLaunchTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fLaunch = new AntLaunch(null, ILaunchManager.RUN_MODE, null);
+	}
+
+	private void add(String line, int lineNumber, int priority) {
+		fLaunch.addLinkDescriptor(line, BUILD_FILE, lineNumber, 0, line.length(), priority);
+	}
+
+	/**
+	 * Ensures that the descriptors of a line are taken in the order they were added
+	 */
+	public void testTakeInOrder() {
+		add("[echo] same", 1, Project.MSG_INFO); //$NON-NLS-1$
+		add("[echo] same", 2, Project.MSG_INFO); //$NON-NLS-1$
+		LinkDescriptor first = fLaunch.takeLinkDescriptor("[echo] same"); //$NON-NLS-1$
+		LinkDescriptor second = fLaunch.takeLinkDescriptor("[echo] same"); //$NON-NLS-1$
+		assertEquals("Incorrect first descriptor", 1, first.getLineNumber()); //$NON-NLS-1$
+		assertEquals("Incorrect second descriptor", 2, second.getLineNumber()); //$NON-NLS-1$
+		assertNull("No descriptor should be left", fLaunch.takeLinkDescriptor("[echo] same")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that the descriptors of a stream emitted before a linked line of that stream are dropped
+	 */
+	public void testSkippedLinesExpire() {
+		add("[echo] filtered", 1, Project.MSG_INFO); //$NON-NLS-1$
+		add("[echo] shown", 2, Project.MSG_INFO); //$NON-NLS-1$
+		assertNotNull("The shown line should be linked", fLaunch.takeLinkDescriptor("[echo] shown")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("The skipped line should have expired", fLaunch.takeLinkDescriptor("[echo] filtered")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("No descriptor should be pending", fLaunch.getLinkDescriptors().isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the descriptors of a stream are kept however far the other streams are ahead
+	 */
+	public void testLaggingStreamIsKept() {
+		add("[javac] error", 1, Project.MSG_ERR); //$NON-NLS-1$
+		for (int i = 0; i < 5000; i++) {
+			add("[echo] line " + i, i + 2, Project.MSG_INFO); //$NON-NLS-1$
+		}
+		for (int i = 0; i < 5000; i++) {
+			assertNotNull("An output line should be linked", fLaunch.takeLinkDescriptor("[echo] line " + i)); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		LinkDescriptor error = fLaunch.takeLinkDescriptor("[javac] error"); //$NON-NLS-1$
+		assertNotNull("The error line should still be linked", error); //$NON-NLS-1$
+		assertEquals("Incorrect error descriptor", 1, error.getLineNumber()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the same line written to two streams is linked for both
+	 */
+	public void testSameLineOnTwoStreams() {
+		add("[echo] twice", 1, Project.MSG_WARN); //$NON-NLS-1$
+		add("[echo] twice", 2, Project.MSG_INFO); //$NON-NLS-1$
+		assertEquals("Incorrect first descriptor", 1, fLaunch.takeLinkDescriptor("[echo] twice").getLineNumber()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect second descriptor", 2, fLaunch.takeLinkDescriptor("[echo] twice").getLineNumber()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that the pending descriptors are returned in the order they were emitted and can be removed
+	 */
+	public void testPendingDescriptors() {
+		add("[echo] one", 1, Project.MSG_INFO); //$NON-NLS-1$
+		add("[echo] two", 2, Project.MSG_ERR); //$NON-NLS-1$
+		add("[echo] three", 3, Project.MSG_INFO); //$NON-NLS-1$
+		List<LinkDescriptor> pending = fLaunch.getLinkDescriptors();
+		assertEquals("Incorrect number of pending descriptors", 3, pending.size()); //$NON-NLS-1$
+		for (int i = 0; i < pending.size(); i++) {
+			assertEquals("Incorrect order", i + 1, pending.get(i).getLineNumber()); //$NON-NLS-1$
+		}
+		fLaunch.removeLinkDescriptor(pending.get(1));
+		assertNull("A removed descriptor should not be taken", fLaunch.takeLinkDescriptor("[echo] two")); //$NON-NLS-1$ //$NON-NLS-2$
+		fLaunch.clearLinkDescriptors();
+		assertTrue("No descriptor should be pending after clearing", fLaunch.getLinkDescriptors().isEmpty()); //$NON-NLS-1$
+	}
+}
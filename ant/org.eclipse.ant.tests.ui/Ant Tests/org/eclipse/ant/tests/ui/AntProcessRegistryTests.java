@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.ant.internal.core.AbstractEclipseBuildLogger;
+import org.eclipse.ant.internal.launching.launchConfigurations.AntProcessRegistry;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamsProxy;
+
+/**
+ * Tests the registry that links the processes of Ant launches to their build loggers.
+ */
+public class AntProcessRegistryTests extends AbstractAntUITest {
+
+	/**
+	 * A process that only knows its attributes and whether it is terminated.
+	 */
+	private static class TestProcess implements IProcess {
+
+		private final Map<String, String> fAttributes = new HashMap<>();
+		private volatile boolean fTerminated = false;
+
+		TestProcess(String processId) {
+			fAttributes.put(AbstractEclipseBuildLogger.ANT_PROCESS_ID, processId);
+		}
+
+		@Override
+		public <T> T getAdapter(Class<T> adapter) {
+			return null;
+		}
+
+		@Override
+		public boolean canTerminate() {
+			return !fTerminated;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return fTerminated;
+		}
+
+		@Override
+		public void terminate() {
+			fTerminated = true;
+			DebugPlugin.getDefault().fireDebugEventSet(new DebugEvent[] { new DebugEvent(this, DebugEvent.TERMINATE) });
+		}
+
+		@Override
+		public String getLabel() {
+			return "Test process"; //$NON-NLS-1$
+		}
+
+		@Override
+		public ILaunch getLaunch() {
+			return null;
+		}
+
+		@Override
+		public IStreamsProxy getStreamsProxy() {
+			return null;
+		}
+
+		@Override
+		public void setAttribute(String key, String value) {
+			fAttributes.put(key, value);
+		}
+
+		@Override
+		public String getAttribute(String key) {
+			return fAttributes.get(key);
+		}
+
+		@Override
+		public int getExitValue() {
+			return 0;
+		}
+	}
+
+	public AntProcessRegistryTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Ensures that a registered process is found by its id
+	 */
+	public void testRegister() {
+		String processId = AntProcessRegistry.newProcessId();
+		TestProcess process = new TestProcess(processId);
+		AntProcessRegistry.register(processId, process);
+		try {
+			assertSame("The registered process should be found", process, AntProcessRegistry.getProcess(processId)); //$NON-NLS-1$
+			assertNull("An unknown id should find no process", AntProcessRegistry.getProcess(AntProcessRegistry.newProcessId())); //$NON-NLS-1$
+			assertNull("No id should find no process", AntProcessRegistry.getProcess(null)); //$NON-NLS-1$
+		}
+		finally {
+			process.terminate();
+		}
+	}
+
+	/**
+	 * Ensures that a process is released when it terminates
+	 */
+	public void testReleasedOnTerminate() throws InterruptedException {
+		String processId = AntProcessRegistry.newProcessId();
+		TestProcess process = new TestProcess(processId);
+		AntProcessRegistry.register(processId, process);
+		process.terminate();
+		// debug events are delivered asynchronously
+		long end = System.currentTimeMillis() + 10000;
+		while (AntProcessRegistry.getProcess(processId) != null && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		assertNull("A terminated process should be released", AntProcessRegistry.getProcess(processId)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a process that already terminated is not registered
+	 */
+	public void testTerminatedNotRegistered() {
+		String processId = AntProcessRegistry.newProcessId();
+		TestProcess process = new TestProcess(processId);
+		process.terminate();
+		AntProcessRegistry.register(processId, process);
+		assertNull("A terminated process should not be registered", AntProcessRegistry.getProcess(processId)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that ids requested from several threads at the same time are unique
+	 */
+	public void testUniqueIds() throws InterruptedException {
+		final String[][] ids = new String[8][500];
+		Thread[] threads = new Thread[ids.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread("Process ids " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					for (int j = 0; j < ids[index].length; j++) {
+						ids[index][j] = AntProcessRegistry.newProcessId();
+					}
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+		}
+		Set<String> unique = new HashSet<>();
+		for (int i = 0; i < ids.length; i++) {
+			for (int j = 0; j < ids[i].length; j++) {
+				assertTrue("Duplicate process id: " + ids[i][j], unique.add(ids[i][j])); //$NON-NLS-1$
+			}
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012 IBM Corporation and others.
+ * Copyright (c) 2012, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,31 +11,200 @@
 
 package org.eclipse.ant.tests.ui;
 
+import java.io.ByteArrayInputStream;
 import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 import org.eclipse.ant.internal.ui.AntUtil;
+import org.eclipse.ant.internal.ui.model.AntProjectNode;
+import org.eclipse.ant.internal.ui.model.AntProjectNodeProxy;
+import org.eclipse.ant.internal.ui.model.AntTargetNode;
+import org.eclipse.ant.internal.ui.model.IAntElement;
 import org.eclipse.ant.internal.ui.preferences.FileFilter;
+import org.eclipse.ant.internal.ui.views.AntView;
 import org.eclipse.ant.internal.ui.views.actions.AddBuildFilesAction;
 import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.action.ActionContributionItem;
 import org.eclipse.jface.action.IContributionItem;
 import org.eclipse.jface.action.IToolBarManager;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IViewPart;
 import org.eclipse.ui.IViewSite;
 import org.eclipse.ui.PlatformUI;
 
 public class AntViewTests extends AbstractAntUITest {
 
+	private static final String VIEW_ID = "org.eclipse.ant.ui.views.AntView"; //$NON-NLS-1$
+	private static final String IMPORTING = "antViewImporting.xml"; //$NON-NLS-1$
+	private static final String IMPORTED = "antViewImported.xml"; //$NON-NLS-1$
+	private static final String UNRELATED = "antViewUnrelated.xml"; //$NON-NLS-1$
+
 	public AntViewTests(String name) {
 		super(name);
 	}
 
+	@Override
+	protected void tearDown() throws Exception {
+		String[] names = new String[] { IMPORTING, IMPORTED, UNRELATED };
+		for (int i = 0; i < names.length; i++) {
+			IFile file = getIFile(names[i]);
+			if (file.exists()) {
+				file.delete(true, null);
+			}
+		}
+		super.tearDown();
+	}
+
+	/**
+	 * Creates or replaces the given build file with a project of the given targets, importing the given file if not <code>null</code>
+	 */
+	private IFile writeBuildFile(String name, String importedFile, String[] targets) throws CoreException {
+		StringBuffer contents = new StringBuffer("<project default=\"").append(targets[0]).append("\">\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (importedFile != null) {
+			contents.append("<import file=\"").append(importedFile).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i = 0; i < targets.length; i++) {
+			contents.append("<target name=\"").append(targets[i]).append("\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		contents.append("</project>\n"); //$NON-NLS-1$
+		IFile file = getIFile(name);
+		ByteArrayInputStream stream = new ByteArrayInputStream(contents.toString().getBytes(StandardCharsets.UTF_8));
+		if (file.exists()) {
+			file.setContents(stream, true, false, null);
+		} else {
+			file.create(stream, true, null);
+		}
+		return file;
+	}
+
+	private boolean hasTarget(AntProjectNode project, String name) {
+		List<IAntElement> children = project.getChildNodes();
+		for (IAntElement child : children) {
+			if (child instanceof AntTargetNode && name.equals(((AntTargetNode) child).getTargetName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Runs the event loop until the given condition holds or ten seconds have passed
+	 */
+	private boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		Display display = Display.getDefault();
+		long end = System.currentTimeMillis() + 10000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > end) {
+				return false;
+			}
+			if (!display.readAndDispatch()) {
+				Thread.sleep(10);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the event loop for the given time
+	 */
+	private void spin(long millis) throws InterruptedException {
+		Display display = Display.getDefault();
+		long end = System.currentTimeMillis() + millis;
+		while (System.currentTimeMillis() < end) {
+			if (!display.readAndDispatch()) {
+				Thread.sleep(10);
+			}
+		}
+	}
+
+	private AntView showView() throws CoreException {
+		IViewPart view = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage().showView(VIEW_ID);
+		assertTrue("Failed to obtain the AntView", view instanceof AntView); //$NON-NLS-1$
+		return (AntView) view;
+	}
+
+	/**
+	 * Ensures that parsing a build file does not change its node and that setting the result remembers the imported files
+	 */
+	public void testParseTargets() throws CoreException {
+		IFile imported = writeBuildFile(IMPORTED, null, new String[] { "imported" }); //$NON-NLS-1$
+		IFile importing = writeBuildFile(IMPORTING, IMPORTED, new String[] { "main" }); //$NON-NLS-1$
+		AntProjectNodeProxy project = new AntProjectNodeProxy(importing.getFullPath().toString());
+		AntTargetNode[] targets = project.parseTargets();
+		assertNotNull("The build file should be parsed", targets); //$NON-NLS-1$
+		assertTrue("Parsing should not change the node", project.getImportedFiles().isEmpty()); //$NON-NLS-1$
+		project.setTargets(targets);
+		assertTrue("The imported file should be remembered", project.getImportedFiles().contains(imported.getFullPath().toString())); //$NON-NLS-1$
+		assertTrue("The target of the build file should be a child", hasTarget(project, "main")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that a change of a build file is picked up by the view in the background
+	 */
+	public void testRefreshOnChange() throws Exception {
+		IFile importing = writeBuildFile(IMPORTING, null, new String[] { "main" }); //$NON-NLS-1$
+		final AntProjectNodeProxy project = new AntProjectNodeProxy(importing.getFullPath().toString());
+		AntView view = showView();
+		view.addProject(project);
+		try {
+			assertTrue("The target of the build file should be a child", hasTarget(project, "main")); //$NON-NLS-1$ //$NON-NLS-2$
+			writeBuildFile(IMPORTING, null, new String[] { "main", "added" }); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The view should pick up the added target", waitFor(() -> hasTarget(project, "added"))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		finally {
+			view.removeProjects(Arrays.<AntProjectNode> asList(project));
+		}
+	}
+
+	/**
+	 * Ensures that a change of an imported file re-parses the build files that import it, and only those
+	 */
+	public void testRefreshOnImportChange() throws Exception {
+		writeBuildFile(IMPORTED, null, new String[] { "imported" }); //$NON-NLS-1$
+		writeBuildFile(UNRELATED, null, new String[] { "unrelated" }); //$NON-NLS-1$
+		IFile importing = writeBuildFile(IMPORTING, IMPORTED, new String[] { "main" }); //$NON-NLS-1$
+		final AntProjectNodeProxy project = new AntProjectNodeProxy(importing.getFullPath().toString());
+		AntView view = showView();
+		view.addProject(project);
+		try {
+			List<IAntElement> children = project.getChildNodes();
+			writeBuildFile(UNRELATED, null, new String[] { "unrelated", "other" }); //$NON-NLS-1$ //$NON-NLS-2$
+			spin(1000);
+			assertSame("A change of a file that is not imported should not re-parse the build file", children, project.getChildNodes()); //$NON-NLS-1$
+
+			writeBuildFile(IMPORTED, null, new String[] { "imported", "added" }); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("A change of the imported file should re-parse the build file", waitFor(() -> project.getChildNodes() != children)); //$NON-NLS-1$
+		}
+		finally {
+			view.removeProjects(Arrays.<AntProjectNode> asList(project));
+		}
+	}
+
+	/**
+	 * Ensures that a build file that is deleted is removed from the view
+	 */
+	public void testRemovedOnDelete() throws Exception {
+		IFile importing = writeBuildFile(IMPORTING, null, new String[] { "main" }); //$NON-NLS-1$
+		final AntProjectNodeProxy project = new AntProjectNodeProxy(importing.getFullPath().toString());
+		final AntView view = showView();
+		view.addProject(project);
+		importing.delete(true, null);
+		boolean removed = waitFor(() -> !Arrays.asList(view.getProjects()).contains(project));
+		if (!removed) {
+			view.removeProjects(Arrays.<AntProjectNode> asList(project));
+		}
+		assertTrue("A deleted build file should be removed from the view", removed); //$NON-NLS-1$
+	}
+
 	public void testAddBuildFilesAction() throws CoreException {
 		// Ensure that AddBuildFilesAction is present!
-		String viewId = "org.eclipse.ant.ui.views.AntView"; //$NON-NLS-1$
-		IViewPart view = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage().showView(viewId);
+		IViewPart view = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage().showView(VIEW_ID);
 		assertNotNull("Failed to obtain the AntView", view); //$NON-NLS-1$
 		IViewSite viewSite = view.getViewSite();
 		assertNotNull("Failed to obtain view site", viewSite); //$NON-NLS-1$
@@ -14,6 +14,7 @@ package org.eclipse.ant.tests.ui;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.ant.internal.ui.AntUIPlugin;
@@ -164,6 +165,49 @@ public class BuildTests extends AbstractAntUIBuildTest {
 		assertTrue("XML logging file is empty", content.length() > 0); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that the messages of a build reach the console in the order they were logged, although they go to different streams
+	 */
+	public void testOutputOrderAcrossStreams() throws CoreException {
+		launch("consoleOutput"); //$NON-NLS-1$
+		List<String> messages = ConsoleLineTracker.getAllMessages();
+		String[] expected = new String[] { "[echo] first", "[echo] second", "[echo] third", "[echo] fourth" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		int previous = -1;
+		for (int i = 0; i < expected.length; i++) {
+			int index = indexOf(messages, expected[i]);
+			assertTrue("Message not logged: " + expected[i], index != -1); //$NON-NLS-1$
+			assertTrue("Message logged out of order: " + expected[i], index > previous); //$NON-NLS-1$
+			previous = index;
+		}
+	}
+
+	/**
+	 * Tests that each line of a long message reaches the console once, before the messages logged after it
+	 */
+	public void testManyLinesOfOneMessage() throws CoreException {
+		launch("consoleOutput", "many"); //$NON-NLS-1$ //$NON-NLS-2$
+		List<String> messages = ConsoleLineTracker.getAllMessages();
+		int count = 0;
+		int lastLine = -1;
+		for (int i = 0; i < messages.size(); i++) {
+			if ("[echo] line".equals(messages.get(i).trim())) { //$NON-NLS-1$
+				count++;
+				lastLine = i;
+			}
+		}
+		assertEquals("Incorrect number of lines logged for the message", 1024, count); //$NON-NLS-1$
+		assertTrue("The next message should follow the lines of the message", indexOf(messages, "[echo] last") > lastLine); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private int indexOf(List<String> messages, String message) {
+		for (int i = 0; i < messages.size(); i++) {
+			if (message.equals(messages.get(i).trim())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
 	/**
 	 * Tests launching Ant and getting the build failed message logged to the console. Bug 42333.
 	 */
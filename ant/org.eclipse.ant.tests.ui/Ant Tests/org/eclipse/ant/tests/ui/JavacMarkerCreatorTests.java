@@ -0,0 +1,213 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.ant.internal.ui.AntUIPlugin;
+import org.eclipse.ant.internal.ui.IAntUIPreferenceConstants;
+import org.eclipse.ant.internal.ui.console.JavacMarkerCreator;
+import org.eclipse.ant.internal.ui.console.JavacPatternMatcher;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IJavaModelMarker;
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.ui.console.MessageConsole;
+import org.eclipse.ui.console.PatternMatchEvent;
+
+/**
+ * Tests the problem markers created from the javac output of a console.
+ */
+public class JavacMarkerCreatorTests extends AbstractAntUITest {
+
+	private static final String PROJECT_NAME = "JavacMarkerCreatorTests"; //$NON-NLS-1$
+
+	private IProject fProject;
+	private IFile fFile;
+	private MessageConsole fConsole;
+	private boolean fCreateMarkers;
+
+	public JavacMarkerCreatorTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		IPreferenceStore store = AntUIPlugin.getDefault().getPreferenceStore();
+		fCreateMarkers = store.getBoolean(IAntUIPreferenceConstants.ANT_CREATE_MARKERS);
+		store.setValue(IAntUIPreferenceConstants.ANT_CREATE_MARKERS, true);
+		fProject = ResourcesPlugin.getWorkspace().getRoot().getProject(PROJECT_NAME);
+		if (!fProject.exists()) {
+			fProject.create(null);
+		}
+		fProject.open(null);
+		fFile = fProject.getFile("Broken.java"); //$NON-NLS-1$
+		fFile.create(new ByteArrayInputStream("public class Broken {\n}\n".getBytes(StandardCharsets.US_ASCII)), true, null); //$NON-NLS-1$
+		fConsole = new MessageConsole("javac", null); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavacMarkerCreator.consoleClosed(fConsole);
+		fProject.delete(true, true, null);
+		AntUIPlugin.getDefault().getPreferenceStore().setValue(IAntUIPreferenceConstants.ANT_CREATE_MARKERS, fCreateMarkers);
+		super.tearDown();
+	}
+
+	/**
+	 * Appends the given lines to the console and returns the index of the first of them
+	 */
+	private int append(String[] lines) throws BadLocationException {
+		IDocument document = fConsole.getDocument();
+		int first = document.getNumberOfLines() - 1;
+		StringBuffer text = new StringBuffer();
+		for (int i = 0; i < lines.length; i++) {
+			text.append(lines[i]);
+			text.append('\n');
+		}
+		document.replace(document.getLength(), 0, text.toString());
+		return first;
+	}
+
+	private void match(JavacPatternMatcher matcher, int line) throws BadLocationException {
+		IRegion region = fConsole.getDocument().getLineInformation(line);
+		matcher.matchFound(new PatternMatchEvent(fConsole, region.getOffset(), region.getLength()));
+	}
+
+	private String problem(int lineNumber, String kind) {
+		return "    [javac] " + fFile.getLocation().toOSString() + ':' + lineNumber + ": " + kind + ": ';' expected"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	private IMarker[] getMarkers() throws CoreException {
+		return fFile.findMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_ZERO);
+	}
+
+	/**
+	 * Ensures that the console shares one marker creator between its matchers until it is closed
+	 */
+	public void testCreatorPerConsole() {
+		JavacMarkerCreator creator = JavacMarkerCreator.getMarkerCreator(fConsole);
+		assertSame("The matchers of a console should share its marker creator", creator, JavacMarkerCreator.getMarkerCreator(fConsole)); //$NON-NLS-1$
+		assertNotSame("Each console should have its own marker creator", creator, JavacMarkerCreator.getMarkerCreator(new MessageConsole("other", null))); //$NON-NLS-1$ //$NON-NLS-2$
+		JavacMarkerCreator.consoleClosed(fConsole);
+		assertNotSame("A closed console should not keep its marker creator", creator, JavacMarkerCreator.getMarkerCreator(fConsole)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the markers of the problems are created once the console is closed
+	 */
+	public void testMarkersCreatedWhenClosed() throws Exception {
+		int first = append(new String[] { problem(2, "error"), problem(4, "warning") }); //$NON-NLS-1$ //$NON-NLS-2$
+		JavacPatternMatcher matcher = new JavacPatternMatcher();
+		matcher.connect(fConsole);
+		match(matcher, first);
+		match(matcher, first + 1);
+		assertEquals("No marker should be created before the console is closed", 0, getMarkers().length); //$NON-NLS-1$
+
+		JavacMarkerCreator.consoleClosed(fConsole);
+		IMarker[] markers = getMarkers();
+		assertEquals("Incorrect number of markers", 2, markers.length); //$NON-NLS-1$
+		for (int i = 0; i < markers.length; i++) {
+			int line = markers[i].getAttribute(IMarker.LINE_NUMBER, -1);
+			int severity = markers[i].getAttribute(IMarker.SEVERITY, -1);
+			if (line == 2) {
+				assertEquals("Incorrect severity of the error", IMarker.SEVERITY_ERROR, severity); //$NON-NLS-1$
+			} else {
+				assertEquals("Incorrect line of the warning", 4, line); //$NON-NLS-1$
+				assertEquals("Incorrect severity of the warning", IMarker.SEVERITY_WARNING, severity); //$NON-NLS-1$
+			}
+		}
+		matcher.disconnect();
+	}
+
+	/**
+	 * Ensures that the old problem markers of a file listed by javac are removed
+	 */
+	public void testListedFileCleaned() throws Exception {
+		fFile.createMarker(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER).setAttribute(IMarker.LINE_NUMBER, 1);
+		int first = append(new String[] { "    [javac] " + fFile.getLocation().toOSString(), problem(2, "error") }); //$NON-NLS-1$ //$NON-NLS-2$
+		JavacPatternMatcher matcher = new JavacPatternMatcher();
+		matcher.connect(fConsole);
+		match(matcher, first);
+		match(matcher, first + 1);
+		JavacMarkerCreator.consoleClosed(fConsole);
+		IMarker[] markers = getMarkers();
+		assertEquals("Only the new marker should be left", 1, markers.length); //$NON-NLS-1$
+		assertEquals("Incorrect line of the new marker", 2, markers[0].getAttribute(IMarker.LINE_NUMBER, -1)); //$NON-NLS-1$
+		matcher.disconnect();
+	}
+
+	/**
+	 * Ensures that no marker is created when the preference is off
+	 */
+	public void testPreferenceOff() throws Exception {
+		AntUIPlugin.getDefault().getPreferenceStore().setValue(IAntUIPreferenceConstants.ANT_CREATE_MARKERS, false);
+		int first = append(new String[] { problem(2, "error") }); //$NON-NLS-1$
+		JavacPatternMatcher matcher = new JavacPatternMatcher();
+		matcher.connect(fConsole);
+		match(matcher, first);
+		JavacMarkerCreator.consoleClosed(fConsole);
+		assertEquals("No marker should be created", 0, getMarkers().length); //$NON-NLS-1$
+		matcher.disconnect();
+	}
+
+	/**
+	 * Ensures that the problems found by matchers running at the same time are all marked
+	 */
+	public void testConcurrentMatchers() throws Exception {
+		final int count = 50;
+		String[] lines = new String[count * 2];
+		for (int i = 0; i < lines.length; i++) {
+			lines[i] = problem(i + 1, "error"); //$NON-NLS-1$
+		}
+		final int first = append(lines);
+		final Exception[] failures = new Exception[2];
+		Thread[] threads = new Thread[failures.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread("Javac matcher " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					JavacPatternMatcher matcher = new JavacPatternMatcher();
+					matcher.connect(fConsole);
+					try {
+						for (int j = index; j < count * 2; j += 2) {
+							match(matcher, first + j);
+						}
+					}
+					catch (Exception e) {
+						failures[index] = e;
+					}
+					matcher.disconnect();
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].start();
+		}
+		for (int i = 0; i < threads.length; i++) {
+			threads[i].join();
+			assertNull("A matcher failed", failures[i]); //$NON-NLS-1$
+		}
+		JavacMarkerCreator.consoleClosed(fConsole);
+		assertEquals("Each problem should be marked", count * 2, getMarkers().length); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.tests.ui;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.ant.internal.ui.datatransfer.EclipseClasspath;
+import org.eclipse.ant.internal.ui.datatransfer.SourceAnalyzer;
+import org.eclipse.ant.tests.ui.testplugin.AbstractAntUITest;
+import org.eclipse.ant.tests.ui.testplugin.ProjectHelper;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.launching.JavaRuntime;
+
+/**
+ * Tests the analysis of the source folders of a project that is done before its buildfile is exported.
+ */
+public class SourceAnalyzerTests extends AbstractAntUITest {
+
+	private static final String PROJECT_NAME = "SourceAnalyzerTests"; //$NON-NLS-1$
+
+	private IProject fProject;
+
+	public SourceAnalyzerTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = ProjectHelper.createProject(PROJECT_NAME);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ProjectHelper.delete(fProject);
+		super.tearDown();
+	}
+
+	/**
+	 * Creates and compiles the given classes. Each class is given as its source folder, its name and the name of a class it refers to or
+	 * <code>null</code>; the source folders are on the classpath in the given order.
+	 */
+	private IJavaProject createJavaProject(String[] folders, String[][] classes) throws CoreException {
+		IJavaProject javaProject = JavaCore.create(fProject);
+		IClasspathEntry[] entries = new IClasspathEntry[folders.length + 1];
+		for (int i = 0; i < folders.length; i++) {
+			IFolder folder = fProject.getFolder(folders[i]);
+			folder.create(true, true, null);
+			entries[i] = JavaCore.newSourceEntry(folder.getFullPath());
+		}
+		entries[folders.length] = JavaCore.newContainerEntry(JavaRuntime.newDefaultJREContainerPath());
+		javaProject.setRawClasspath(entries, fProject.getFullPath().append("bin"), null); //$NON-NLS-1$
+		for (int i = 0; i < classes.length; i++) {
+			String source = "public class " + classes[i][1] + " {" //$NON-NLS-1$ //$NON-NLS-2$
+					+ (classes[i][2] == null ? "" : " " + classes[i][2] + " field;") + " }\n"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			fProject.getFolder(classes[i][0]).getFile(classes[i][1] + ".java").create(new ByteArrayInputStream(source.getBytes(StandardCharsets.US_ASCII)), true, null); //$NON-NLS-1$
+		}
+		fProject.build(IncrementalProjectBuilder.FULL_BUILD, null);
+		return javaProject;
+	}
+
+	private List<SourceAnalyzer.Problem> findProblems(IJavaProject javaProject) throws CoreException {
+		return SourceAnalyzer.findProblems(javaProject, new EclipseClasspath(javaProject));
+	}
+
+	/**
+	 * Ensures that source folders that refer to each other in classpath order raise no problem
+	 */
+	public void testNoProblem() throws CoreException {
+		IJavaProject javaProject = createJavaProject(new String[] { "first", "second" }, new String[][] { //$NON-NLS-1$ //$NON-NLS-2$
+				{ "first", "Base", null }, //$NON-NLS-1$ //$NON-NLS-2$
+				{ "second", "User", "Base" } }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertTrue("No problem should be found", findProblems(javaProject).isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a source folder that refers to a later source folder of the classpath is reported
+	 */
+	public void testBuildOrder() throws CoreException {
+		IJavaProject javaProject = createJavaProject(new String[] { "first", "second" }, new String[][] { //$NON-NLS-1$ //$NON-NLS-2$
+				{ "first", "User", "Base" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				{ "second", "Base", null } }); //$NON-NLS-1$ //$NON-NLS-2$
+		List<SourceAnalyzer.Problem> problems = findProblems(javaProject);
+		assertEquals("The build order should be reported", 1, problems.size()); //$NON-NLS-1$
+		String message = problems.get(0).getMessage();
+		assertTrue("The message should name the project: " + message, message.indexOf(PROJECT_NAME) != -1); //$NON-NLS-1$
+		assertTrue("The message should name the source folders: " + message, message.indexOf("second <-> first") != -1); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that source folders that refer to each other are reported as a cycle only
+	 */
+	public void testCycle() throws CoreException {
+		IJavaProject javaProject = createJavaProject(new String[] { "first", "second" }, new String[][] { //$NON-NLS-1$ //$NON-NLS-2$
+				{ "first", "Left", "Right" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				{ "second", "Right", "Left" } }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		List<SourceAnalyzer.Problem> problems = findProblems(javaProject);
+		assertEquals("Only the cycle should be reported", 1, problems.size()); //$NON-NLS-1$
+		String message = problems.get(0).getMessage();
+		assertTrue("The message should show the cycle: " + message, message.indexOf("first -> second -> first") != -1 //$NON-NLS-1$ //$NON-NLS-2$
+				|| message.indexOf("second -> first -> second") != -1); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the analysis can run outside of the UI thread and that showing no problem opens no dialog
+	 */
+	public void testFindProblemsInBackground() throws Exception {
+		final IJavaProject javaProject = createJavaProject(new String[] { "first", "second" }, new String[][] { //$NON-NLS-1$ //$NON-NLS-2$
+				{ "first", "Left", "Right" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				{ "second", "Right", "Left" } }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		final Object[] result = new Object[1];
+		Thread thread = new Thread("Source analysis") { //$NON-NLS-1$
+			@Override
+			public void run() {
+				try {
+					result[0] = findProblems(javaProject);
+				}
+				catch (Exception e) {
+					result[0] = e;
+				}
+			}
+		};
+		thread.start();
+		thread.join();
+		assertTrue("The analysis should succeed outside of the UI thread: " + result[0], result[0] instanceof List); //$NON-NLS-1$
+		assertEquals("The cycle should be found outside of the UI thread", 1, ((List<?>) result[0]).size()); //$NON-NLS-1$
+		SourceAnalyzer.showWarnings(Collections.<SourceAnalyzer.Problem> emptyList(), null);
+	}
+}
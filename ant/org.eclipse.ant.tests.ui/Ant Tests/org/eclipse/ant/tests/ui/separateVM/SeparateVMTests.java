@@ -13,12 +13,17 @@ package org.eclipse.ant.tests.ui.separateVM;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.ant.internal.ui.AntUIPlugin;
 import org.eclipse.ant.internal.ui.IAntUIConstants;
+import org.eclipse.ant.internal.launching.AntLaunching;
+import org.eclipse.ant.internal.launching.IAntLaunchingPreferenceConstants;
+import org.eclipse.ant.internal.launching.launchConfigurations.RemoteAntBuildDaemon;
 import org.eclipse.ant.internal.ui.IAntUIPreferenceConstants;
 import org.eclipse.ant.launching.IAntLaunchConstants;
 import org.eclipse.ant.tests.ui.AbstractAntUIBuildTest;
@@ -28,6 +33,8 @@ import org.eclipse.ant.tests.ui.testplugin.ProjectHelper;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
@@ -280,4 +287,118 @@ public class SeparateVMTests extends AbstractAntUIBuildTest {
 		assertNotNull("There must be a message", message); //$NON-NLS-1$
 		assertTrue("Incorrect message. Should start with Message:. Message: " + message, message.startsWith("echo1")); //$NON-NLS-1$ //$NON-NLS-2$
 	}
+
+	/**
+	 * Tests launching Ant in a separate VM from a startup descriptor: the properties, the Eclipse tasks and the targets given to the build are
+	 * read from the descriptor, which the build deletes
+	 */
+	public void testStartupDescriptor() throws CoreException {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(AntLaunching.getUniqueIdentifier());
+		node.putBoolean(IAntLaunchingPreferenceConstants.ANT_FAST_STARTUP, true);
+		try {
+			launch("extensionPointSepVM"); //$NON-NLS-1$
+			assertLines(8);
+			assertTrue("Incorrect message. Should start with [echo] hey. Message: " //$NON-NLS-1$
+					+ ConsoleLineTracker.getMessage(4), ConsoleLineTracker.getMessage(4).trim().startsWith("[echo] hey")); //$NON-NLS-1$
+			File directory = AntLaunching.getDefault().getStateLocation().append("startup").toFile(); //$NON-NLS-1$
+			String[] left = directory.list();
+			assertTrue("The build should have deleted its startup descriptor", left == null || left.length == 0); //$NON-NLS-1$
+		}
+		finally {
+			node.remove(IAntLaunchingPreferenceConstants.ANT_FAST_STARTUP);
+		}
+	}
+
+	/**
+	 * Tests launching Ant in a separate VM with a startup descriptor that is corrupt: the build reports it instead of failing to start
+	 */
+	public void testCorruptStartupDescriptor() throws CoreException, IOException {
+		File descriptor = File.createTempFile("corrupt", ".desc"); //$NON-NLS-1$ //$NON-NLS-2$
+		try (FileOutputStream out = new FileOutputStream(descriptor)) {
+			// the magic number followed by a string length larger than the file
+			out.write(new byte[] { 0x41, 0x4E, 0x54, 0x53, 0, 0, 0, 1, 0x7F, 0, 0, 0 });
+		}
+		try {
+			launch("echoingSepVM", "-startupDescriptor \"" + descriptor.getAbsolutePath() + '"'); //$NON-NLS-1$ //$NON-NLS-2$
+			ConsoleLineTracker.waitForConsole();
+			boolean reported = false;
+			for (String line : ConsoleLineTracker.getAllMessages()) {
+				if (line.indexOf("Could not read startup descriptor") != -1) { //$NON-NLS-1$
+					reported = true;
+				}
+				assertFalse("The build should not have run", line.trim().startsWith("[echo]")); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			assertTrue("The corrupt startup descriptor should have been reported", reported); //$NON-NLS-1$
+			assertFalse("The build should have deleted the corrupt startup descriptor", descriptor.exists()); //$NON-NLS-1$
+		}
+		finally {
+			descriptor.delete();
+		}
+	}
+
+	/**
+	 * Tests that builds with the same VM setup run in one build daemon one after the other, and that arguments longer than 64K reach it
+	 */
+	public void testBuildDaemonReuse() throws CoreException {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(AntLaunching.getUniqueIdentifier());
+		node.putBoolean(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON, true);
+		try {
+			StringBuffer big = new StringBuffer(70000);
+			for (int i = 0; i < 70000; i++) {
+				big.append('\u00e9');
+			}
+			launch("buildDaemon", "-Dbig=" + big); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The first build should have run", hasMessage("[echo] length 70000")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("The first build should have started a daemon", 1, RemoteAntBuildDaemon.getDaemonCount()); //$NON-NLS-1$
+
+			launch("buildDaemon", "-Dbig=" + big); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The second build should have run", hasMessage("[echo] length 70000")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("The second build should have reused the daemon", 1, RemoteAntBuildDaemon.getDaemonCount()); //$NON-NLS-1$
+		}
+		finally {
+			node.remove(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON);
+			RemoteAntBuildDaemon.shutdownAll();
+		}
+	}
+
+	/**
+	 * Tests that a build daemon exits after a build that defines a task and that the next build starts a new one
+	 */
+	public void testBuildDaemonRetired() throws CoreException {
+		IEclipsePreferences node = InstanceScope.INSTANCE.getNode(AntLaunching.getUniqueIdentifier());
+		node.putBoolean(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON, true);
+		try {
+			launch("buildDaemon", "define"); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The build should have run", hasMessage("[echoing] defined")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("The daemon should have exited after defining a task", 0, RemoteAntBuildDaemon.getDaemonCount()); //$NON-NLS-1$
+
+			launch("buildDaemon", "-Dbig=x"); //$NON-NLS-1$ //$NON-NLS-2$
+			assertTrue("The next build should have run in a new daemon", hasMessage("[echo] length 1")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("The next build should have started a new daemon", 1, RemoteAntBuildDaemon.getDaemonCount()); //$NON-NLS-1$
+		}
+		finally {
+			node.remove(IAntLaunchingPreferenceConstants.ANT_BUILD_DAEMON);
+			RemoteAntBuildDaemon.shutdownAll();
+		}
+	}
+
+	/**
+	 * Tests that a build runs in its own VM when build daemons are turned off
+	 */
+	public void testBuildDaemonDisabled() throws CoreException {
+		RemoteAntBuildDaemon.shutdownAll();
+		launch("buildDaemon", "-Dbig=x"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("The build should have run", hasMessage("[echo] length 1")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("No daemon should have been started", 0, RemoteAntBuildDaemon.getDaemonCount()); //$NON-NLS-1$
+	}
+
+	private boolean hasMessage(String message) {
+		ConsoleLineTracker.waitForConsole();
+		for (String line : ConsoleLineTracker.getAllMessages()) {
+			if (line.trim().equals(message)) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
@@ -205,6 +205,7 @@ public abstract class AbstractAntUITest extends TestCase {
 			ProjectHelper.createLaunchConfigurationForBoth("failingTarget"); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfiguration("build"); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfiguration("bad"); //$NON-NLS-1$
+			ProjectHelper.createLaunchConfiguration("consoleOutput"); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfiguration("importRequiringUserProp"); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfigurationForSeparateVM("echoPropertiesSepVM", "echoProperties"); //$NON-NLS-1$ //$NON-NLS-2$
 			ProjectHelper.createLaunchConfigurationForSeparateVM("extensionPointSepVM", null); //$NON-NLS-1$
@@ -212,6 +213,7 @@ public abstract class AbstractAntUITest extends TestCase {
 			ProjectHelper.createLaunchConfigurationForSeparateVM("extensionPointTypeSepVM", null); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfigurationForSeparateVM("input", null); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfigurationForSeparateVM("environmentVar", null); //$NON-NLS-1$
+			ProjectHelper.createLaunchConfigurationForSeparateVM("buildDaemon", null); //$NON-NLS-1$
 
 			ProjectHelper.createLaunchConfigurationForBoth("breakpoints"); //$NON-NLS-1$
 			ProjectHelper.createLaunchConfigurationForBoth("debugAntCall"); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2004, 2008 IBM Corporation and others.
+ *  Copyright (c) 2004, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ant.tests.ui.testplugin;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.ant.tests.ui.editor.performance.AntEditorModelPerformanceTest;
 import org.eclipse.ant.tests.ui.editor.performance.OpenAntEditorTest;
 import org.eclipse.ant.tests.ui.performance.SeparateVMTests;
 
@@ -28,6 +29,7 @@ public class AntUIPerformanceTests extends TestSuite {
 		TestSuite suite = new AntUIPerformanceTests();
 		suite.setName("Ant UI Performance Unit Tests"); //$NON-NLS-1$
 		suite.addTest(new TestSuite(OpenAntEditorTest.class));
+		suite.addTest(new TestSuite(AntEditorModelPerformanceTest.class));
 		suite.addTest(new TestSuite(SeparateVMTests.class));
 		// suite.addTest(new TestSuite(NonInitialTypingTest.class));
 		// suite.addTest(new TestSuite(OpenLaunchConfigurationDialogTests.class));
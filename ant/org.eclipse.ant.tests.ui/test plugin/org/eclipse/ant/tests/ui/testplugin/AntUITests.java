@@ -15,10 +15,14 @@
 package org.eclipse.ant.tests.ui.testplugin;
 
 import org.eclipse.ant.tests.ui.APITests;
+import org.eclipse.ant.tests.ui.AntLaunchTests;
+import org.eclipse.ant.tests.ui.AntProcessRegistryTests;
 import org.eclipse.ant.tests.ui.AntUtilTests;
 import org.eclipse.ant.tests.ui.AntViewTests;
 import org.eclipse.ant.tests.ui.BuildTests;
+import org.eclipse.ant.tests.ui.JavacMarkerCreatorTests;
 import org.eclipse.ant.tests.ui.ModelProjectTests;
+import org.eclipse.ant.tests.ui.SourceAnalyzerTests;
 import org.eclipse.ant.tests.ui.debug.BreakpointTests;
 import org.eclipse.ant.tests.ui.debug.PropertyTests;
 import org.eclipse.ant.tests.ui.debug.RunToLineTests;
@@ -71,6 +75,10 @@ public class AntUITests extends TestSuite {
 		suite.addTest(new TestSuite(OccurrencesFinderTests.class));
 		suite.addTest(new TestSuite(StackTests.class));
 		suite.addTest(new TestSuite(APITests.class));
+		suite.addTest(new TestSuite(AntLaunchTests.class));
+		suite.addTest(new TestSuite(SourceAnalyzerTests.class));
+		suite.addTest(new TestSuite(AntProcessRegistryTests.class));
+		suite.addTest(new TestSuite(JavacMarkerCreatorTests.class));
 		return suite;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,12 +10,8 @@
  *******************************************************************************/
 package org.eclipse.ant.internal.ui.console;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.ant.internal.ui.AntUIPlugin;
 import org.eclipse.ant.internal.ui.IAntUIPreferenceConstants;
@@ -23,7 +19,6 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.Path;
-import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.ui.console.FileLink;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.BadLocationException;
@@ -36,8 +31,9 @@ import org.eclipse.ui.console.TextConsole;
 public abstract class AbstractJavacPatternMatcher implements IPatternMatchListenerDelegate {
 
 	protected TextConsole fConsole;
-	private static Pattern fgLineNumberPattern = Pattern.compile("\\d+"); //$NON-NLS-1$
-	private static List<AbstractJavacPatternMatcher> fgPatternMatchers = new ArrayList<>();
+	/**
+	 * The workspace files of the paths seen so far; <code>null</code> for paths outside the workspace
+	 */
 	private Map<String, IFile> fFileNameToIFile = new HashMap<>();
 
 	private JavacMarkerCreator fMarkerCreator;
@@ -54,8 +50,7 @@ public abstract class AbstractJavacPatternMatcher implements IPatternMatchListen
 		fConsole = console;
 		IPreferenceStore store = AntUIPlugin.getDefault().getPreferenceStore();
 		if (store.getBoolean(IAntUIPreferenceConstants.ANT_CREATE_MARKERS)) {
-			fMarkerCreator = new JavacMarkerCreator(fConsole, this instanceof EclipseJavacPatternMatcher);
-			fgPatternMatchers.add(this);
+			fMarkerCreator = JavacMarkerCreator.getMarkerCreator(fConsole);
 		}
 	}
 
@@ -67,6 +62,7 @@ public abstract class AbstractJavacPatternMatcher implements IPatternMatchListen
 	@Override
 	public void disconnect() {
 		fConsole = null;
+		fMarkerCreator = null;
 		fFileNameToIFile.clear();
 	}
 
@@ -74,14 +70,15 @@ public abstract class AbstractJavacPatternMatcher implements IPatternMatchListen
 		if (filePath == null) {
 			return null;
 		}
-		IFile file = fFileNameToIFile.get(filePath);
-		if (file == null) {
-			IFile[] files = ResourcesPlugin.getWorkspace().getRoot().findFilesForLocationURI(new Path(filePath).toFile().toURI());
-			if (files.length > 0) {
-				file = files[0];
-				fFileNameToIFile.put(filePath, file);
-			}
+		if (fFileNameToIFile.containsKey(filePath)) {
+			return fFileNameToIFile.get(filePath);
 		}
+		IFile file = null;
+		IFile[] files = ResourcesPlugin.getWorkspace().getRoot().findFilesForLocationURI(new Path(filePath).toFile().toURI());
+		if (files.length > 0) {
+			file = files[0];
+		}
+		fFileNameToIFile.put(filePath, file);
 		return file;
 	}
 
@@ -99,6 +96,10 @@ public abstract class AbstractJavacPatternMatcher implements IPatternMatchListen
 		return matchedText;
 	}
 
+	/**
+	 * Returns the first number following the given offset on its line, or on the next line if <code>sameLine</code> is <code>false</code>. The
+	 * characters are scanned in place, so no text is copied out of the console.
+	 */
 	protected int getLineNumber(int eventOffset, boolean sameLine) {
 		IDocument document = fConsole.getDocument();
 		try {
@@ -107,28 +108,25 @@ public abstract class AbstractJavacPatternMatcher implements IPatternMatchListen
 				fileLine += 1;
 			}
 			IRegion region = document.getLineInformation(fileLine);
-			int regionLength = region.getLength();
-			if (region.getOffset() != eventOffset) {
-				regionLength = regionLength - (eventOffset - region.getOffset());
+			int end = region.getOffset() + region.getLength();
+			int lineNumber = -1;
+			for (int offset = eventOffset; offset < end; offset++) {
+				char c = document.getChar(offset);
+				if (c >= '0' && c <= '9') {
+					if (lineNumber > (Integer.MAX_VALUE - 9) / 10) {
+						// not a line number
+						return -1;
+					}
+					lineNumber = (lineNumber == -1 ? 0 : lineNumber * 10) + (c - '0');
+				} else if (lineNumber != -1) {
+					break;
+				}
 			}
-
-			String lineLine = document.get(eventOffset, regionLength);
-			Matcher matcher = null;
-			synchronized (fgLineNumberPattern) {
-				matcher = fgLineNumberPattern.matcher(lineLine);
-			}
-			if (matcher.find()) {
-				String lineString = matcher.group();
-				return Integer.parseInt(lineString);
-			}
-
+			return lineNumber;
 		}
 		catch (BadLocationException e) {
 			AntUIPlugin.log(e);
 		}
-		catch (NumberFormatException e) {
-			AntUIPlugin.log(e);
-		}
 		return -1;
 	}
 
@@ -142,7 +140,7 @@ public abstract class AbstractJavacPatternMatcher implements IPatternMatchListen
 			if (type == null) { // match for listfiles
 				fMarkerCreator.addFileToBeCleaned(file);
 			} else { // match for error or warning
-				fMarkerCreator.addMarker(file, lineNumber, offset, type);
+				fMarkerCreator.addMarker(file, lineNumber, offset, type, this instanceof EclipseJavacPatternMatcher);
 			}
 		}
 
@@ -154,17 +152,4 @@ public abstract class AbstractJavacPatternMatcher implements IPatternMatchListen
 			AntUIPlugin.log(e);
 		}
 	}
-
-	public static void consoleClosed(IProcess process) {
-		for (AbstractJavacPatternMatcher matcher : fgPatternMatchers) {
-			matcher.finished(process);
-		}
-	}
-
-	protected void finished(IProcess process) {
-		if (fMarkerCreator != null) {
-			fMarkerCreator.finished(process);
-			fgPatternMatchers.remove(this);
-		}
-	}
-}
\ No newline at end of file
+}
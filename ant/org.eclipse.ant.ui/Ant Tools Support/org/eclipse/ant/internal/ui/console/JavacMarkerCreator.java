@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,7 +11,8 @@
 package org.eclipse.ant.internal.ui.console;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -25,48 +26,84 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
-import org.eclipse.debug.core.model.IProcess;
-import org.eclipse.debug.internal.ui.views.console.ProcessConsole;
 import org.eclipse.jdt.core.IJavaModelMarker;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.FindReplaceDocumentAdapter;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.ui.console.TextConsole;
 
+/**
+ * Collects the problems the javac pattern matchers find in the output of one console and turns them into problem markers once the build has
+ * finished.
+ * <p>
+ * There is one marker creator per console, shared by all matchers of the console and kept as an attribute of the console. Problems are
+ * accumulated per file; when the console is closed, the markers of each file are replaced in a single workspace operation that holds only the
+ * marker rule of that file.
+ * </p>
+ */
 public class JavacMarkerCreator {
 
+	private static final String MARKER_CREATOR = AntUIPlugin.PI_ANTUI + ".javacMarkerCreator"; //$NON-NLS-1$
+	private static final String[] MARKER_ATTRIBUTES = new String[] { IMarker.LINE_NUMBER, IMarker.MESSAGE, IMarker.SEVERITY };
+	private static final String SEPARATOR = "[javac] ----------"; //$NON-NLS-1$
+	private static final String JAVAC = "[javac]"; //$NON-NLS-1$
+
 	private final TextConsole fConsole;
-	private IProcess fProcess;
-	private static List<IFile> fgFilesToBeCleaned = new ArrayList<>();
-	private Map<IFile, List<MarkerInfo>> fFileToMarkerInfo = new HashMap<>();
-	private final boolean fUseCustomMessage;
+	private Map<IFile, FileMarkers> fFileToMarkers = new LinkedHashMap<>();
 
-	private class MarkerInfo {
+	private static class MarkerInfo {
 
-		public int fLineNumber;
-		public int fOffset;
-		public Integer fType;
+		final int fLineNumber;
+		final int fOffset;
+		final Integer fType;
+		final boolean fUseCustomMessage;
 
-		public void setLineNumber(int lineNumber) {
+		MarkerInfo(int lineNumber, int offset, Integer type, boolean useCustomMessage) {
 			fLineNumber = lineNumber;
-		}
-
-		public void setOffset(int offset) {
 			fOffset = offset;
+			fType = type;
+			fUseCustomMessage = useCustomMessage;
 		}
+	}
 
-		public void setType(Integer type) {
-			fType = type;
+	/**
+	 * The markers to create for one file and whether its existing problem markers are to be removed first.
+	 */
+	private static class FileMarkers {
 
-		}
+		boolean fClean = false;
+		final List<MarkerInfo> fInfos = new ArrayList<>();
 	}
 
-	public JavacMarkerCreator(TextConsole console, boolean useCustomMessage) {
+	private JavacMarkerCreator(TextConsole console) {
 		fConsole = console;
-		fUseCustomMessage = useCustomMessage;
-		if (fConsole instanceof ProcessConsole) {
-			fProcess = ((ProcessConsole) fConsole).getProcess();
+	}
+
+	/**
+	 * Returns the marker creator of the given console, creating it if needed.
+	 */
+	public static JavacMarkerCreator getMarkerCreator(TextConsole console) {
+		synchronized (console) {
+			JavacMarkerCreator creator = (JavacMarkerCreator) console.getAttribute(MARKER_CREATOR);
+			if (creator == null) {
+				creator = new JavacMarkerCreator(console);
+				console.setAttribute(MARKER_CREATOR, creator);
+			}
+			return creator;
+		}
+	}
+
+	/**
+	 * Creates the markers collected for the given console, if any. Called once all output of the console has been processed.
+	 */
+	public static void consoleClosed(TextConsole console) {
+		JavacMarkerCreator creator;
+		synchronized (console) {
+			creator = (JavacMarkerCreator) console.getAttribute(MARKER_CREATOR);
+			console.setAttribute(MARKER_CREATOR, null);
+		}
+		if (creator != null) {
+			creator.finished();
 		}
 	}
 
@@ -81,44 +118,41 @@ public class JavacMarkerCreator {
 
 	protected void run(ISchedulingRule rule, IWorkspaceRunnable wr) {
 		try {
-			ResourcesPlugin.getWorkspace().run(wr, rule, 0, null);
+			ResourcesPlugin.getWorkspace().run(wr, rule, IResource.NONE, null);
 		}
 		catch (CoreException e) {
 			AntUIPlugin.log(e.getStatus());
 		}
 	}
 
-	protected void addFileToBeCleaned(IFile file) {
-		fgFilesToBeCleaned.add(file);
+	private FileMarkers getFileMarkers(IFile file) {
+		FileMarkers markers = fFileToMarkers.get(file);
+		if (markers == null) {
+			markers = new FileMarkers();
+			fFileToMarkers.put(file, markers);
+		}
+		return markers;
 	}
 
-	protected void addMarker(IFile file, int lineNumber, int offset, Integer type) {
-		MarkerInfo info = new MarkerInfo();
-		info.setLineNumber(lineNumber);
-		info.setOffset(offset);
-		info.setType(type);
-		List<MarkerInfo> infos = fFileToMarkerInfo.get(file);
-		if (infos == null) {
-			infos = new ArrayList<>();
-			fFileToMarkerInfo.put(file, infos);
-		}
-		infos.add(info);
+	protected synchronized void addFileToBeCleaned(IFile file) {
+		getFileMarkers(file).fClean = true;
+	}
+
+	protected synchronized void addMarker(IFile file, int lineNumber, int offset, Integer type, boolean useCustomMessage) {
+		getFileMarkers(file).fInfos.add(new MarkerInfo(lineNumber, offset, type, useCustomMessage));
 	}
 
-	private void createMarkers(final IFile file, final List<MarkerInfo> infos) {
+	private void updateMarkers(final IFile file, final boolean clean, final Object[][] values) {
 		IWorkspaceRunnable wr = new IWorkspaceRunnable() {
 			@Override
 			public void run(IProgressMonitor monitor) throws CoreException {
-
 				try {
-					for (MarkerInfo info : infos) {
+					if (clean) {
+						file.deleteMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+					}
+					for (int i = 0; i < values.length; i++) {
 						IMarker marker = file.createMarker(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER);
-						Map<String, Object> attributes = new HashMap<>(3);
-						attributes.put(IMarker.LINE_NUMBER, Integer.valueOf(info.fLineNumber));
-						String message = getMessage(info);
-						attributes.put(IMarker.MESSAGE, message);
-						attributes.put(IMarker.SEVERITY, info.fType);
-						marker.setAttributes(attributes);
+						marker.setAttributes(MARKER_ATTRIBUTES, values[i]);
 					}
 				}
 				catch (CoreException e) {
@@ -129,45 +163,55 @@ public class JavacMarkerCreator {
 		run(getMarkerRule(file), wr);
 	}
 
-	protected String getMessage(MarkerInfo info) {
-		IDocument doc = fConsole.getDocument();
+	/**
+	 * Returns the message of the problem: for the Eclipse compiler the line preceding the separator that ends the problem, the generic message
+	 * otherwise.
+	 */
+	private String getMessage(IDocument doc, MarkerInfo info) {
 		String message = ConsoleMessages.JavacMarkerCreator_0;
-		if (fUseCustomMessage) {
-			FindReplaceDocumentAdapter adapter = new FindReplaceDocumentAdapter(doc);
-			try {
-				IRegion match = adapter.find(info.fOffset, "[javac] ----------", true, false, false, false); //$NON-NLS-1$
-				if (match != null) {
-					match = adapter.find(match.getOffset(), "[javac]", false, false, false, false); //$NON-NLS-1$
-					if (match != null) {
-						int start = match.getOffset() + match.getLength() + 1;
-						IRegion lineInfo = doc.getLineInformationOfOffset(start);
-						message = doc.get(start, lineInfo.getOffset() - start + lineInfo.getLength());
+		if (!info.fUseCustomMessage) {
+			return message;
+		}
+		try {
+			int lines = doc.getNumberOfLines();
+			String previousLine = null;
+			for (int line = doc.getLineOfOffset(info.fOffset); line < lines; line++) {
+				IRegion region = doc.getLineInformation(line);
+				String text = doc.get(region.getOffset(), region.getLength());
+				if (previousLine != null && text.indexOf(SEPARATOR) != -1) {
+					int index = previousLine.lastIndexOf(JAVAC);
+					if (index != -1 && index + JAVAC.length() + 1 <= previousLine.length()) {
+						message = previousLine.substring(index + JAVAC.length() + 1);
 					}
+					break;
 				}
-			}
-			catch (BadLocationException e) {
-				AntUIPlugin.log(e);
+				previousLine = text;
 			}
 		}
-
+		catch (BadLocationException e) {
+			AntUIPlugin.log(e);
+		}
 		return message;
 	}
 
-	protected void finished(IProcess process) {
-		if (process.equals(fProcess)) {
-			for (IFile file : fgFilesToBeCleaned) {
-				try {
-					file.deleteMarkers(IJavaModelMarker.JAVA_MODEL_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
-				}
-				catch (CoreException e) {
-					AntUIPlugin.log(e.getStatus());
-				}
-			}
-			for (IFile file : fFileToMarkerInfo.keySet()) {
-				createMarkers(file, fFileToMarkerInfo.get(file));
+	protected void finished() {
+		Map<IFile, FileMarkers> fileToMarkers;
+		synchronized (this) {
+			fileToMarkers = fFileToMarkers;
+			fFileToMarkers = new LinkedHashMap<>();
+		}
+		IDocument doc = fConsole.getDocument();
+		Iterator<Map.Entry<IFile, FileMarkers>> iter = fileToMarkers.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<IFile, FileMarkers> entry = iter.next();
+			FileMarkers markers = entry.getValue();
+			// read the messages from the console before entering the workspace operation
+			Object[][] values = new Object[markers.fInfos.size()][];
+			for (int i = 0; i < values.length; i++) {
+				MarkerInfo info = markers.fInfos.get(i);
+				values[i] = new Object[] { Integer.valueOf(info.fLineNumber), getMessage(doc, info), info.fType };
 			}
-			fFileToMarkerInfo.clear();
-			fgFilesToBeCleaned.clear();
+			updateMarkers(entry.getKey(), markers.fClean, values);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2006 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ import org.eclipse.ant.internal.ui.launchConfigurations.TaskLinkManager;
 import org.eclipse.debug.ui.console.IConsole;
 import org.eclipse.debug.ui.console.IConsoleLineTrackerExtension;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.ui.console.TextConsole;
 
 /**
  * Processes task hyperlinks as lines are appended to the console
@@ -61,6 +62,8 @@ public class TaskLineTracker implements IConsoleLineTrackerExtension {
 	@Override
 	public void consoleClosed() {
 		TaskLinkManager.dispose(fConsole.getProcess());
-		AbstractJavacPatternMatcher.consoleClosed(fConsole.getProcess());
+		if (fConsole instanceof TextConsole) {
+			JavacMarkerCreator.consoleClosed((TextConsole) fConsole);
+		}
 	}
 }
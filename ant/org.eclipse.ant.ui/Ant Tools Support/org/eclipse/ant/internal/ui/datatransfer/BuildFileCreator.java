@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2017 Richard Hoefter and others.
+ * Copyright (c) 2004, 2018 Richard Hoefter and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -31,6 +32,14 @@ import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -97,6 +106,44 @@ public class BuildFileCreator {
 	private Shell shell;
 	private Set<String> visited = new TreeSet<>(); // record used subclasspaths
 	private Node classpathNode;
+	private ClasspathCache cache;
+
+	/**
+	 * Classpaths and dependent projects of the projects of an export. Each is computed once and shared by the buildfiles of all projects, so the
+	 * classpaths are frozen before they are shared.
+	 */
+	static class ClasspathCache {
+		private final Map<IJavaProject, EclipseClasspath> classpaths = new ConcurrentHashMap<>();
+		private final Map<IJavaProject, List<IJavaProject>> classpathProjects = new ConcurrentHashMap<>();
+
+		EclipseClasspath getClasspath(IJavaProject project) throws JavaModelException {
+			EclipseClasspath classpath = classpaths.get(project);
+			if (classpath == null) {
+				classpath = new EclipseClasspath(project);
+				classpath.freeze();
+				EclipseClasspath existing = classpaths.putIfAbsent(project, classpath);
+				if (existing != null) {
+					classpath = existing;
+				}
+			}
+			return classpath;
+		}
+
+		/**
+		 * @see ExportUtil#getClasspathProjectsRecursive(IJavaProject)
+		 */
+		List<IJavaProject> getClasspathProjectsRecursive(IJavaProject project) throws JavaModelException {
+			List<IJavaProject> projects = classpathProjects.get(project);
+			if (projects == null) {
+				projects = Collections.unmodifiableList(ExportUtil.getClasspathProjectsRecursive(project));
+				List<IJavaProject> existing = classpathProjects.putIfAbsent(project, projects);
+				if (existing != null) {
+					projects = existing;
+				}
+			}
+			return projects;
+		}
+	}
 
 	/**
 	 * Constructor. Please prefer {@link #createBuildFiles(Set, Shell, IProgressMonitor)} if you do not want call the various createXXX() methods
@@ -108,7 +155,12 @@ public class BuildFileCreator {
 	 *            parent instance for dialogs
 	 */
 	public BuildFileCreator(IJavaProject project, Shell shell) throws ParserConfigurationException {
+		this(project, shell, new ClasspathCache());
+	}
+
+	private BuildFileCreator(IJavaProject project, Shell shell, ClasspathCache cache) throws ParserConfigurationException {
 		this.project = project;
+		this.cache = cache;
 		this.projectName = project.getProject().getName();
 		this.projectRoot = ExportUtil.getProjectRoot(project);
 		this.variable2valueMap = new LinkedHashMap<>();
@@ -141,7 +193,7 @@ public class BuildFileCreator {
 		return res;
 	}
 
-	private static void createBuildFilesLoop(Set<IJavaProject> projects, Shell shell, IProgressMonitor pm, List<String> res) throws CoreException, ParserConfigurationException, JavaModelException, TransformerConfigurationException, TransformerFactoryConfigurationError, TransformerException, UnsupportedEncodingException {
+	private static void createBuildFilesLoop(Set<IJavaProject> projects, Shell shell, IProgressMonitor pm, List<String> res) throws CoreException, ParserConfigurationException, JavaModelException, TransformerConfigurationException, TransformerFactoryConfigurationError, TransformerException, UnsupportedEncodingException, InterruptedException {
 
 		// determine files to create/change
 		List<IFile> files = new ArrayList<>();
@@ -153,25 +205,57 @@ public class BuildFileCreator {
 
 		// trigger checkout
 		Set<IFile> confirmedFiles = ExportUtil.validateEdit(shell, files);
-		SubMonitor localmonitor = SubMonitor.convert(pm, DataTransferMessages.AntBuildfileExportPage_0, confirmedFiles.size());
+		List<IJavaProject> confirmedProjects = new ArrayList<>();
+		for (Iterator<IJavaProject> iter = projects.iterator(); iter.hasNext();) {
+			IJavaProject currentProject = iter.next();
+			if (confirmedFiles.contains(currentProject.getProject().getFile(BuildFileCreator.BUILD_XML))) {
+				confirmedProjects.add(currentProject);
+			}
+		}
+		SubMonitor localmonitor = SubMonitor.convert(pm, DataTransferMessages.AntBuildfileExportPage_0, confirmedProjects.size());
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(confirmedProjects.size(), Runtime.getRuntime().availableProcessors())), new ThreadFactory() {
+			private int fCount = 0;
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "Ant Buildfile Export " + (++fCount)); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
 		try {
-			Iterator<IJavaProject> iter = projects.iterator();
-			while (iter.hasNext()) {
-				IJavaProject currentProject = iter.next();
-				IFile file = currentProject.getProject().getFile(BuildFileCreator.BUILD_XML);
-				if (!confirmedFiles.contains(file)) {
-					continue;
-				}
+			// resolve the classpaths and analyze the sources of all projects up front, in parallel; any warnings are shown by the loop below
+			final ClasspathCache cache = new ClasspathCache();
+			Map<IJavaProject, Future<List<SourceAnalyzer.Problem>>> analyses = new HashMap<>();
+			for (final IJavaProject currentProject : confirmedProjects) {
+				analyses.put(currentProject, executor.submit(() -> {
+					EclipseClasspath classpath = cache.getClasspath(currentProject);
+					for (IJavaProject subProject : cache.getClasspathProjectsRecursive(currentProject)) {
+						cache.getClasspath(subProject);
+					}
+					if (CHECK_SOURCE_CYCLES) {
+						return SourceAnalyzer.findProblems(currentProject, classpath);
+					}
+					return Collections.<SourceAnalyzer.Problem> emptyList();
+				}));
+			}
 
+			// build the documents here, they may ask questions, and serialize them in parallel
+			List<IFile> buildFiles = new ArrayList<>();
+			List<String> projectNames = new ArrayList<>();
+			List<Future<byte[]>> contents = new ArrayList<>();
+			for (IJavaProject currentProject : confirmedProjects) {
+				if (localmonitor.isCanceled()) {
+					break;
+				}
 				localmonitor.setTaskName(NLS.bind(DataTransferMessages.BuildFileCreator_generating_buildfile_for, currentProject.getProject().getName()));
 
-				BuildFileCreator instance = new BuildFileCreator(currentProject, shell);
+				List<SourceAnalyzer.Problem> problems = getResult(analyses.get(currentProject), localmonitor);
+				BuildFileCreator instance = new BuildFileCreator(currentProject, shell, cache);
 				instance.createRoot();
 				instance.createImports();
-				EclipseClasspath classpath = new EclipseClasspath(currentProject);
-				if (CHECK_SOURCE_CYCLES) {
-					SourceAnalyzer.checkCycles(currentProject, classpath, shell);
-				}
+				EclipseClasspath classpath = cache.getClasspath(currentProject);
+				SourceAnalyzer.showWarnings(problems, shell);
 				instance.createClasspaths(classpath);
 				instance.createInit(classpath.srcDirs, classpath.classDirs, classpath.inclusionLists, classpath.exclusionLists);
 				instance.createClean(classpath.classDirs);
@@ -186,28 +270,67 @@ public class BuildFileCreator {
 				instance.addSubProperties(currentProject, classpath);
 				instance.createProperty();
 
-				// write build file
-				String xml = ExportUtil.toString(instance.doc);
-				InputStream is = new ByteArrayInputStream(xml.getBytes("UTF-8")); //$NON-NLS-1$
-				if (file.exists()) {
-					file.setContents(is, true, true, null);
-				} else {
-					file.create(is, true, null);
-				}
+				final Document doc = instance.doc;
+				contents.add(executor.submit(() -> ExportUtil.toByteArray(doc)));
+				buildFiles.add(currentProject.getProject().getFile(BuildFileCreator.BUILD_XML));
+				projectNames.add(instance.projectName);
+			}
+
+			// write build files, unless they did not change; resource change listeners run in this thread as before
+			for (int i = 0; i < contents.size(); i++) {
 				if (localmonitor.isCanceled()) {
-					return;
+					break;
 				}
+				ExportUtil.writeIfChanged(buildFiles.get(i), getResult(contents.get(i), localmonitor));
 				localmonitor.worked(1);
-				res.add(instance.projectName);
+				res.add(projectNames.get(i));
 			}
 		}
 		finally {
+			// drops the tasks that did not start and interrupts the running ones, if the export was canceled or failed
+			executor.shutdownNow();
 			if (!localmonitor.isCanceled()) {
 				localmonitor.done();
 			}
 		}
 	}
 
+	/**
+	 * Waits for the given task and rethrows its exception. Stops waiting with an {@link InterruptedException} when the monitor is canceled.
+	 */
+	private static <T> T getResult(Future<T> future, IProgressMonitor monitor) throws CoreException, TransformerException, InterruptedException {
+		try {
+			while (true) {
+				if (monitor.isCanceled()) {
+					future.cancel(true);
+					throw new InterruptedException();
+				}
+				try {
+					return future.get(100, TimeUnit.MILLISECONDS);
+				}
+				catch (TimeoutException e) {
+					// check the monitor again
+				}
+			}
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof TransformerException) {
+				throw (TransformerException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(AntUIPlugin.newErrorStatus(cause.getMessage(), cause));
+		}
+	}
+
 	/**
 	 * Add property tag.
 	 */
@@ -374,7 +497,7 @@ public class BuildFileCreator {
 				pathElement.setAttribute("refid", refPathId); //$NON-NLS-1$
 				element.appendChild(pathElement);
 				if (visited.add(refPathId)) {
-					createClasspaths(null, referencedProject, new EclipseClasspath(referencedProject)); // recursion
+					createClasspaths(null, referencedProject, cache.getClasspath(referencedProject)); // recursion
 				}
 			} else if (EclipseClasspath.isUserLibraryReference(entry) || EclipseClasspath.isLibraryReference(entry)) {
 				addUserLibrary(element, entry);
@@ -479,7 +602,7 @@ public class BuildFileCreator {
 	 * Add properties of sub-projects to internal properties map.
 	 */
 	public void addSubProperties(IJavaProject subproject, EclipseClasspath classpath) throws JavaModelException {
-		for (Iterator<IJavaProject> iterator = ExportUtil.getClasspathProjectsRecursive(subproject).iterator(); iterator.hasNext();) {
+		for (Iterator<IJavaProject> iterator = cache.getClasspathProjectsRecursive(subproject).iterator(); iterator.hasNext();) {
 			IJavaProject subProject = iterator.next();
 			String location = subProject.getProject().getName() + ".location"; //$NON-NLS-1$
 			// add subproject properties to variable2valueMap
@@ -627,7 +750,7 @@ public class BuildFileCreator {
 		Element element = doc.createElement("target"); //$NON-NLS-1$
 		element.setAttribute(IAntCoreConstants.NAME, "cleanall"); //$NON-NLS-1$
 		element.setAttribute("depends", "clean"); //$NON-NLS-1$ //$NON-NLS-2$
-		List<IJavaProject> subProjects = ExportUtil.getClasspathProjectsRecursive(project);
+		List<IJavaProject> subProjects = cache.getClasspathProjectsRecursive(project);
 		for (Iterator<IJavaProject> iterator = subProjects.iterator(); iterator.hasNext();) {
 			IJavaProject subProject = iterator.next();
 			Element antElement = doc.createElement("ant"); //$NON-NLS-1$
@@ -664,7 +787,7 @@ public class BuildFileCreator {
 		// </target>
 		element = doc.createElement("target"); //$NON-NLS-1$
 		element.setAttribute(IAntCoreConstants.NAME, "build-subprojects"); //$NON-NLS-1$
-		List<IJavaProject> subProjects = ExportUtil.getClasspathProjectsRecursive(project);
+		List<IJavaProject> subProjects = cache.getClasspathProjectsRecursive(project);
 		for (Iterator<IJavaProject> iterator = subProjects.iterator(); iterator.hasNext();) {
 			IJavaProject subProject = iterator.next();
 			Element antElement = doc.createElement("ant"); //$NON-NLS-1$
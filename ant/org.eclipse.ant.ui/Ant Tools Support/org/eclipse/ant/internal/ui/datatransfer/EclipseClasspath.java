@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 Richard Hoefter and others.
+ * Copyright (c) 2004, 2018 Richard Hoefter and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,10 +16,12 @@ import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
@@ -56,7 +58,7 @@ public class EclipseClasspath {
 
 	private IJavaProject project;
 
-	private static Map<String, IClasspathContainer> userLibraryCache = new HashMap<>();
+	private static Map<String, IClasspathContainer> userLibraryCache = new ConcurrentHashMap<>();
 
 	/**
 	 * Initialize object with classpath of given project.
@@ -114,6 +116,28 @@ public class EclipseClasspath {
 		handle(entries);
 	}
 
+	/**
+	 * Makes the lists and the variable map of this classpath unmodifiable, so it can be shared by the buildfiles of several projects that are
+	 * created in parallel.
+	 */
+	void freeze() {
+		srcDirs = Collections.unmodifiableList(srcDirs);
+		classDirs = Collections.unmodifiableList(classDirs);
+		inclusionLists = unmodifiableLists(inclusionLists);
+		exclusionLists = unmodifiableLists(exclusionLists);
+		variable2valueMap = Collections.unmodifiableMap(variable2valueMap);
+		rawClassPathEntries = Collections.unmodifiableList(rawClassPathEntries);
+		rawClassPathEntriesAbsolute = Collections.unmodifiableList(rawClassPathEntriesAbsolute);
+	}
+
+	private static List<List<String>> unmodifiableLists(List<List<String>> lists) {
+		List<List<String>> frozen = new ArrayList<>(lists.size());
+		for (Iterator<List<String>> iter = lists.iterator(); iter.hasNext();) {
+			frozen.add(Collections.unmodifiableList(iter.next()));
+		}
+		return Collections.unmodifiableList(frozen);
+	}
+
 	private void handle(IClasspathEntry[] entries) throws JavaModelException {
 		for (int i = 0; i < entries.length; i++) {
 			handleSources(entries[i]);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2017 Richard Hoefter and others.
+ * Copyright (c) 2004, 2018 Richard Hoefter and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,12 +15,15 @@
 
 package org.eclipse.ant.internal.ui.datatransfer;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.StringWriter;
 import java.net.URI;
 import java.util.ArrayList;
@@ -455,6 +458,25 @@ public class ExportUtil {
 	 * Convert document to formatted XML string.
 	 */
 	public static String toString(Document doc) throws TransformerConfigurationException, TransformerFactoryConfigurationError, TransformerException {
+		StringWriter writer = new StringWriter();
+		Source source = new DOMSource(doc);
+		Result result = new StreamResult(writer);
+		newTransformer().transform(source, result);
+		return writer.toString();
+	}
+
+	/**
+	 * Convert document to formatted XML, encoded in UTF-8.
+	 */
+	public static byte[] toByteArray(Document doc) throws TransformerConfigurationException, TransformerFactoryConfigurationError, TransformerException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+		Transformer transformer = newTransformer();
+		transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); //$NON-NLS-1$
+		transformer.transform(new DOMSource(doc), new StreamResult(out));
+		return out.toByteArray();
+	}
+
+	private static Transformer newTransformer() throws TransformerConfigurationException, TransformerFactoryConfigurationError {
 		// NOTE: There are different transformer implementations in the wild,
 		// which are configured differently
 		// regarding the indent size:
@@ -462,9 +484,6 @@ public class ExportUtil {
 		// Java 1.5:
 		// com.sun.org.apache.xalan.internal.xsltc.trax.TransformerImpl
 
-		StringWriter writer = new StringWriter();
-		Source source = new DOMSource(doc);
-		Result result = new StreamResult(writer);
 		TransformerFactory factory = TransformerFactory.newInstance();
 		// https://ant.apache.org/manual/Tasks/style.html
 		// Need this feature to set true for Java 9 to enable extension Functions in the presence of Security manager
@@ -484,8 +503,43 @@ public class ExportUtil {
 			// indent using TransformerIdentityImpl
 			transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4"); //$NON-NLS-1$ //$NON-NLS-2$
 		}
-		transformer.transform(source, result);
-		return writer.toString();
+		return transformer;
+	}
+
+	/**
+	 * Write the given contents to the file, unless it already has exactly these contents. Leaving an unchanged file alone keeps its time stamp and
+	 * does not trigger builds or resource change events.
+	 * 
+	 * @return <code>true</code> if the file was written
+	 */
+	public static boolean writeIfChanged(IFile file, byte[] contents) throws CoreException {
+		if (file.exists()) {
+			if (hasContents(file, contents)) {
+				return false;
+			}
+			file.setContents(new ByteArrayInputStream(contents), true, true, null);
+		} else {
+			file.create(new ByteArrayInputStream(contents), true, null);
+		}
+		return true;
+	}
+
+	private static boolean hasContents(IFile file, byte[] contents) {
+		try (InputStream in = new BufferedInputStream(file.getContents())) {
+			for (int i = 0; i < contents.length; i++) {
+				if (in.read() != (contents[i] & 0xFF)) {
+					return false;
+				}
+			}
+			return in.read() == -1;
+		}
+		catch (CoreException e) {
+			// out of sync or not readable, overwrite it
+			return false;
+		}
+		catch (IOException e) {
+			return false;
+		}
 	}
 
 	/**
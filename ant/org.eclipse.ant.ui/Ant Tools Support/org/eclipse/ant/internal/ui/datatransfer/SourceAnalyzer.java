@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 Richard Hoefter and others.
+ * Copyright (c) 2005, 2018 Richard Hoefter and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -54,20 +54,67 @@ public class SourceAnalyzer {
 	 * bytecode and indeed the compiler throws unused references away.
 	 */
 	public static void checkCycles(IJavaProject currentProject, EclipseClasspath classpath, Shell shell) {
-		StringBuffer message = new StringBuffer();
+		showWarnings(findProblems(currentProject, classpath), shell);
+	}
+
+	/**
+	 * A problem found by {@link SourceAnalyzer#findProblems(IJavaProject, EclipseClasspath)}.
+	 */
+	public static class Problem {
+		private final String title;
+		private final String message;
+
+		Problem(String title, String message) {
+			this.title = title;
+			this.message = message;
+		}
+
+		/**
+		 * Returns the title of the warning dialog of this problem.
+		 */
+		public String getTitle() {
+			return title;
+		}
+
+		/**
+		 * Returns the message of the warning dialog of this problem.
+		 */
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	/**
+	 * Does the analysis of {@link #checkCycles(IJavaProject, EclipseClasspath, Shell)} without showing its results, so it can run outside of the
+	 * UI thread.
+	 * 
+	 * @return the problems to show with {@link #showWarnings(List, Shell)}
+	 */
+	public static List<Problem> findProblems(IJavaProject currentProject, EclipseClasspath classpath) {
 		Map<String, String> src2dir = new TreeMap<>(); // map string to string
 		Map<String, Set<String>> srcdir2classes = new TreeMap<>(); // map string to Set of strings
 		determineSources(currentProject, classpath, src2dir, srcdir2classes);
 		Map<String, Set<String>> srcdir2sourcedirs = determineRequiredSrcDirs(src2dir, srcdir2classes);
 		String projectName = currentProject.getProject().getName();
 
+		List<Problem> problems = new ArrayList<>();
 		List<String> cycle = new ArrayList<>();
 		if (isCyclic(srcdir2sourcedirs, cycle)) {
-			showCycleWarning(projectName, shell, cycle, message);
-			return;
+			problems.add(getCycleWarning(projectName, cycle));
+			return problems;
 		}
 
-		checkBuildOrder(classpath, projectName, shell, srcdir2sourcedirs);
+		checkBuildOrder(classpath, projectName, srcdir2sourcedirs, problems);
+		return problems;
+	}
+
+	/**
+	 * Shows the given problems in warning dialogs.
+	 */
+	public static void showWarnings(List<Problem> problems, Shell shell) {
+		for (Problem problem : problems) {
+			MessageDialog.openWarning(shell, problem.getTitle(), problem.getMessage());
+		}
 	}
 
 	/**
@@ -143,8 +190,8 @@ public class SourceAnalyzer {
 		return srcdir2sourcedirs;
 	}
 
-	private static void showCycleWarning(String projectName, Shell shell, List<String> cycle, StringBuffer message) {
-
+	private static Problem getCycleWarning(String projectName, List<String> cycle) {
+		StringBuffer message = new StringBuffer();
 		String m = MessageFormat.format(DataTransferMessages.SourceAnalyzer_0, new Object[] { projectName });
 		message.append(m);
 		message.append(ExportUtil.NEWLINE);
@@ -156,13 +203,13 @@ public class SourceAnalyzer {
 			message.append(" -> "); //$NON-NLS-1$
 		}
 		message.append(EclipseClasspath.getLinkedResourceName(cycle.get(0)));
-		MessageDialog.openWarning(shell, DataTransferMessages.SourceAnalyzer_1, message.toString());
+		return new Problem(DataTransferMessages.SourceAnalyzer_1, message.toString());
 	}
 
 	/**
 	 * Check if build order is correct.
 	 */
-	private static void checkBuildOrder(EclipseClasspath classpath, String projectName, Shell shell, Map<String, Set<String>> srcdir2sourcedirs) {
+	private static void checkBuildOrder(EclipseClasspath classpath, String projectName, Map<String, Set<String>> srcdir2sourcedirs, List<Problem> problems) {
 		for (Iterator<String> iter = srcdir2sourcedirs.keySet().iterator(); iter.hasNext();) {
 			String srcdir = iter.next();
 			Set<String> sourcedirs = srcdir2sourcedirs.get(srcdir);
@@ -172,8 +219,8 @@ public class SourceAnalyzer {
 				int i = classpath.srcDirs.indexOf(requiredSrc);
 				if (i > classpathIndex) {
 					String s = MessageFormat.format(DataTransferMessages.SourceAnalyzer_3, new Object[] { projectName });
-					MessageDialog.openWarning(shell, DataTransferMessages.SourceAnalyzer_2, s + ExportUtil.NEWLINE + requiredSrc + " <-> " + srcdir //$NON-NLS-1$
-							+ ExportUtil.NEWLINE);
+					problems.add(new Problem(DataTransferMessages.SourceAnalyzer_2, s + ExportUtil.NEWLINE + requiredSrc + " <-> " + srcdir //$NON-NLS-1$
+							+ ExportUtil.NEWLINE));
 					break;
 				}
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,12 +11,10 @@
 package org.eclipse.ant.internal.ui.launchConfigurations;
 
 import java.io.File;
-import java.util.HashMap;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.tools.ant.util.FileUtils;
-import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.launching.AntLaunch;
 import org.eclipse.ant.internal.launching.AntLaunchingUtil;
 import org.eclipse.ant.internal.launching.LinkDescriptor;
@@ -36,10 +34,23 @@ import org.eclipse.ui.console.IHyperlink;
  * associated line is later appended to the console, the corresponding text region in the console document is determined (as the length of a console
  * document can not be determined beforehand), and the hyperlink is added to the document. The new line is added to the console, information from that
  * line may be stored to process future incoming tasks hyperlinks.
+ * <p>
+ * The pending hyperlinks are kept by the launch of each console and looked up by line, so consoles of concurrent builds do not contend with each
+ * other. Resolved buildfiles are kept in a small most recently used cache.
+ * </p>
  */
 public class TaskLinkManager {
 
-	private static Map<String, IFile> fFileNameToIFile = new HashMap<>();
+	private static final int MAX_CACHED_FILES = 64;
+
+	private static final Map<String, IFile> fFileNameToIFile = new LinkedHashMap<String, IFile>(MAX_CACHED_FILES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, IFile> eldest) {
+			return size() > MAX_CACHED_FILES;
+		}
+	};
 
 	/**
 	 * Not to be called.
@@ -57,11 +68,16 @@ public class TaskLinkManager {
 			// fileName will actually be the String representation of Location
 			taskLink = AntUtil.getLocationLink(fileName, null);
 		} else {
-			IFile file = fFileNameToIFile.get(fileName);
+			IFile file;
+			synchronized (fFileNameToIFile) {
+				file = fFileNameToIFile.get(fileName);
+			}
 			if (file == null) {
 				file = AntLaunchingUtil.getFileForLocation(fileName, null);
 				if (file != null) {
-					fFileNameToIFile.put(fileName, file);
+					synchronized (fFileNameToIFile) {
+						fFileNameToIFile.put(fileName, file);
+					}
 					taskLink = new FileLink(file, null, -1, -1, lineNumber);
 				} else if (fileName != null) {
 					File javaIOFile = FileUtils.getFileUtils().resolveFile(null, fileName);
@@ -76,24 +92,6 @@ public class TaskLinkManager {
 		return taskLink;
 	}
 
-	private static boolean addLink(IConsole console, IRegion lineRegion, LinkDescriptor descriptor) {
-		try {
-			String text = console.getDocument().get(lineRegion.getOffset(), lineRegion.getLength());
-			if (text.trim().equals(descriptor.getLine())) {
-				int offset = lineRegion.getOffset() + descriptor.getOffset();
-				IHyperlink link = createHyperlink(descriptor);
-				if (link != null) {
-					console.addLink(link, offset, descriptor.getLength());
-				}
-				return true;
-			}
-		}
-		catch (BadLocationException e) {
-			// do nothing
-		}
-		return false;
-	}
-
 	/**
 	 * A new line has been added to the given console. Adds any task hyperlink associated with the line, to the console. The new line may be stored to
 	 * process future incoming tasks hyperlinks.
@@ -101,17 +99,23 @@ public class TaskLinkManager {
 	 * @param console
 	 * @param newLine
 	 */
-	public static synchronized void processNewLine(IConsole console, IRegion newLine) {
-		AntLaunch launch = (AntLaunch) console.getProcess().getLaunch();
-		List<LinkDescriptor> links = launch.getLinkDescriptors();
-
-		if (linkBuildFileMessage(console, newLine)) {
+	public static void processNewLine(IConsole console, IRegion newLine) {
+		String text;
+		try {
+			text = console.getDocument().get(newLine.getOffset(), newLine.getLength());
+		}
+		catch (BadLocationException e) {
+			return;
+		}
+		if (linkBuildFileMessage(console, newLine.getOffset(), text)) {
 			return;
 		}
-		for (LinkDescriptor descriptor : links) {
-			if (addLink(console, newLine, descriptor)) {
-				launch.removeLinkDescriptor(descriptor);
-				return;
+		AntLaunch launch = (AntLaunch) console.getProcess().getLaunch();
+		LinkDescriptor descriptor = launch.takeLinkDescriptor(text.trim());
+		if (descriptor != null) {
+			IHyperlink link = createHyperlink(descriptor);
+			if (link != null) {
+				console.addLink(link, newLine.getOffset() + descriptor.getOffset(), descriptor.getLength());
 			}
 		}
 	}
@@ -127,16 +131,7 @@ public class TaskLinkManager {
 	}
 
 	@SuppressWarnings("deprecation")
-	private static boolean linkBuildFileMessage(IConsole console, IRegion region) {
-
-		String message = IAntCoreConstants.EMPTY_STRING;
-		int offset = region.getOffset();
-		try {
-			message = console.getDocument().get(offset, region.getLength());
-		}
-		catch (BadLocationException e) {
-			// do nothing
-		}
+	private static boolean linkBuildFileMessage(IConsole console, int offset, String message) {
 		if (message.startsWith("Buildfile:")) { //$NON-NLS-1$
 			String fileName = message.substring(10).trim();
 			IFile file = AntUtil.getFileForLocation(fileName, null);
@@ -29,6 +29,7 @@ import org.apache.tools.ant.UnknownElement;
 import org.eclipse.ant.core.AntCorePlugin;
 import org.eclipse.ant.core.AntCorePreferences;
 import org.eclipse.ant.core.AntSecurityException;
+import org.eclipse.ant.internal.core.AntClasspathSnapshot;
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.AntUIImages;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
@@ -142,7 +143,7 @@ public class AntDefiningTaskNode extends AntTaskNode {
 	public static void setJavaClassPath() {
 
 		AntCorePreferences prefs = AntCorePlugin.getPlugin().getPreferences();
-		URL[] antClasspath = prefs.getURLs();
+		URL[] antClasspath = AntClasspathSnapshot.getSnapshot(prefs).getURLs();
 
 		setJavaClassPath(antClasspath);
 	}
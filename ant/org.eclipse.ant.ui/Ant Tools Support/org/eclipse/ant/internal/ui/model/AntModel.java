@@ -19,14 +19,12 @@ import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Properties;
 import java.util.Set;
 import java.util.Stack;
 import java.util.regex.Pattern;
@@ -488,7 +486,7 @@ public class AntModel implements IAntModel {
 	private void loadExtraPropertyFiles(Project project) {
 		if (fPropertyFiles != null) {
 			try {
-				List<Properties> allProperties = AntCoreUtil.loadPropertyFiles(fPropertyFiles, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
+				List<Map<String, String>> allProperties = AntCoreUtil.loadPropertyFiles(fPropertyFiles, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
 				setPropertiesFromFiles(project, allProperties);
 			}
 			catch (IOException e1) {
@@ -503,7 +501,7 @@ public class AntModel implements IAntModel {
 	private void loadPropertyFiles(Project project) {
 		List<String> fileNames = Arrays.asList(AntCorePlugin.getPlugin().getPreferences().getCustomPropertyFiles());
 		try {
-			List<Properties> allProperties = AntCoreUtil.loadPropertyFiles(fileNames, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
+			List<Map<String, String>> allProperties = AntCoreUtil.loadPropertyFiles(fileNames, project.getUserProperty("basedir"), getEditedFile().getAbsolutePath()); //$NON-NLS-1$
 			setPropertiesFromFiles(project, allProperties);
 		}
 		catch (IOException e1) {
@@ -511,14 +509,12 @@ public class AntModel implements IAntModel {
 		}
 	}
 
-	private void setPropertiesFromFiles(Project project, List<Properties> allProperties) {
-		for (Properties props : allProperties) {
-			Enumeration<?> propertyNames = props.propertyNames();
-			while (propertyNames.hasMoreElements()) {
-				String name = (String) propertyNames.nextElement();
+	private void setPropertiesFromFiles(Project project, List<Map<String, String>> allProperties) {
+		for (Map<String, String> props : allProperties) {
+			for (Entry<String, String> entry : props.entrySet()) {
 				// do not override extra local properties with the global settings
-				if (project.getUserProperty(name) == null) {
-					project.setUserProperty(name, props.getProperty(name));
+				if (project.getUserProperty(entry.getKey()) == null) {
+					project.setUserProperty(entry.getKey(), entry.getValue());
 				}
 			}
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2013 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,17 +12,40 @@
 package org.eclipse.ant.internal.ui.model;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.ant.internal.ui.AntUtil;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 
 public class AntProjectNodeProxy extends AntProjectNode {
 
+	/**
+	 * The rule of the jobs that parse build files in the background. The Ant model swaps the system security manager and registers itself with
+	 * the project helper while parsing, so only one of these jobs may parse at a time.
+	 */
+	public static final ISchedulingRule PARSE_RULE = new ISchedulingRule() {
+		@Override
+		public boolean contains(ISchedulingRule rule) {
+			return rule == this;
+		}
+
+		@Override
+		public boolean isConflicting(ISchedulingRule rule) {
+			return rule == this;
+		}
+	};
+
 	private String fBuildFileName;
 	private String fDefaultTargetName;
 	private boolean fParsed = false;
+	/**
+	 * The workspace paths of the build files imported by the build file when it was last parsed
+	 */
+	private volatile Set<String> fImportedFiles = Collections.emptySet();
 
 	/**
 	 * Creates a new project node with the given name and the given build file name.
@@ -49,20 +72,39 @@ public class AntProjectNodeProxy extends AntProjectNode {
 		if (fParsed && !force) {
 			return;
 		}
-		fChildNodes = null;
-		fParsed = true;
-		AntTargetNode[] nodes = null;
+		setTargets(parseTargets());
+	}
+
+	/**
+	 * Parses the build file without changing this node. May be called from any thread; the result is to be passed to
+	 * {@link #setTargets(AntTargetNode[])}.
+	 * 
+	 * @return the targets of the build file or <code>null</code> if it could not be parsed
+	 */
+	public AntTargetNode[] parseTargets() {
 		IPath buildFilePath = AntUtil.getFile(getBuildFileName()).getLocation();
 		if (buildFilePath == null) {
-			setProblemSeverity(AntModelProblem.SEVERITY_ERROR);
-			setProblemMessage(AntModelMessages.AntProjectNodeProxy_0);
-			return;
+			return null;
 		}
-		nodes = AntUtil.getTargets(buildFilePath.toString());
+		return AntUtil.getTargets(buildFilePath.toString());
+	}
 
+	/**
+	 * Replaces the targets of this node with the result of {@link #parseTargets()}.
+	 * 
+	 * @param nodes
+	 *            the parsed targets or <code>null</code>
+	 */
+	public void setTargets(AntTargetNode[] nodes) {
+		fChildNodes = null;
+		fParsed = true;
 		if (nodes == null || nodes.length < 1) {
 			setProblemSeverity(AntModelProblem.SEVERITY_ERROR);
-			setProblemMessage(AntModelMessages.AntProjectNodeProxy_1);
+			if (AntUtil.getFile(getBuildFileName()).getLocation() == null) {
+				setProblemMessage(AntModelMessages.AntProjectNodeProxy_0);
+			} else {
+				setProblemMessage(AntModelMessages.AntProjectNodeProxy_1);
+			}
 			return;
 		}
 
@@ -76,10 +118,36 @@ public class AntProjectNodeProxy extends AntProjectNode {
 
 		fModel = projectNode.getAntModel();
 		fProject = (AntModelProject) projectNode.getProject();
+		fImportedFiles = collectImportedFiles(projectNode);
 		fLabel = null;
 		fName = null;
 	}
 
+	private static Set<String> collectImportedFiles(AntProjectNode projectNode) {
+		List<IAntElement> children = projectNode.getChildNodes();
+		if (children == null) {
+			return Collections.emptySet();
+		}
+		Set<String> files = new HashSet<>();
+		for (IAntElement child : children) {
+			// the imports of imported build files are children of the project as well
+			if (child instanceof AntImportNode) {
+				IFile file = ((AntImportNode) child).getIFile();
+				if (file != null) {
+					files.add(file.getFullPath().toString());
+				}
+			}
+		}
+		return Collections.unmodifiableSet(files);
+	}
+
+	/**
+	 * Returns the full workspace paths of the files the build file imported, directly or indirectly, when it was last parsed.
+	 */
+	public Set<String> getImportedFiles() {
+		return fImportedFiles;
+	}
+
 	public void parseBuildFile() {
 		parseBuildFile(false);
 	}
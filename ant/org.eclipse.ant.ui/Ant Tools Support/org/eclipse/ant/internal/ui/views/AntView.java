@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,9 +16,12 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
@@ -45,7 +48,6 @@ import org.eclipse.core.resources.IResourceChangeEvent;
 import org.eclipse.core.resources.IResourceChangeListener;
 import org.eclipse.core.resources.IResourceDelta;
 import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
@@ -154,16 +156,45 @@ public class AntView extends ViewPart implements IResourceChangeListener, IShowI
 	private AntOpenWithMenu openWithMenu;
 
 	/**
-	 * The given build file has changed. Refresh the view to pick up any structural changes.
+	 * Re-parses the changed build files in the background
 	 */
-	private void handleBuildFileChanged(AntProjectNode project) {
-		((AntProjectNodeProxy) project).parseBuildFile(true);
-		Display.getDefault().asyncExec(() -> {
-			// must do a full refresh to re-sort
-			projectViewer.refresh();
-			// update the status line
-			handleSelectionChanged((IStructuredSelection) projectViewer.getSelection());
-		});
+	private AntViewRefreshJob fRefreshJob;
+
+	/**
+	 * Re-parses the given build files in the background and updates the view once all are parsed.
+	 * 
+	 * @param projects
+	 *            the projects whose build files to re-parse
+	 */
+	public void refreshProjects(Collection<AntProjectNode> projects) {
+		AntViewRefreshJob job;
+		synchronized (this) {
+			if (fRefreshJob == null) {
+				fRefreshJob = new AntViewRefreshJob(this);
+			}
+			job = fRefreshJob;
+		}
+		job.refresh(projects);
+	}
+
+	/**
+	 * Applies the results of a refresh to the projects and updates the viewer once for all of them. Called in the UI thread.
+	 */
+	void updateProjects(List<AntProjectNodeProxy> projects, AntTargetNode[][] targets) {
+		if (projectViewer == null || projectViewer.getControl().isDisposed()) {
+			return;
+		}
+		for (int i = 0; i < targets.length; i++) {
+			AntProjectNodeProxy project = projects.get(i);
+			// the project may have been removed in the meantime
+			if (fInput.contains(project)) {
+				project.setTargets(targets[i]);
+			}
+		}
+		// must do a full refresh to re-sort
+		projectViewer.refresh();
+		// update the status line
+		handleSelectionChanged((IStructuredSelection) projectViewer.getSelection());
 	}
 
 	/*
@@ -453,18 +484,6 @@ public class AntView extends ViewPart implements IResourceChangeListener, IShowI
 		handleSelectionChanged(new StructuredSelection(project));
 	}
 
-	/**
-	 * Removes the given project from the view
-	 * 
-	 * @param project
-	 *            the project to remove
-	 */
-	private void removeProject(AntProjectNode project) {
-		fInput.remove(project);
-		projectViewer.refresh();
-		setProjectViewerSelectionAfterDeletion();
-	}
-
 	private void setProjectViewerSelectionAfterDeletion() {
 		Object[] children = getProjects();
 		if (children.length > 0) {
@@ -632,6 +651,9 @@ public class AntView extends ViewPart implements IResourceChangeListener, IShowI
 	 */
 	@Override
 	public void dispose() {
+		if (fRefreshJob != null) {
+			fRefreshJob.cancel();
+		}
 		saveViewerState();
 		fInput.clear();
 		super.dispose();
@@ -649,37 +671,78 @@ public class AntView extends ViewPart implements IResourceChangeListener, IShowI
 	@Override
 	public void resourceChanged(IResourceChangeEvent event) {
 		IResourceDelta delta = event.getDelta();
-		if (delta != null) {
-			AntProjectNode projects[] = getProjects();
-			IPath buildFilePath;
-			for (int i = 0; i < projects.length; i++) {
-				buildFilePath = new Path(projects[i].getBuildFileName());
-				IResourceDelta change = delta.findMember(buildFilePath);
-				if (change != null) {
-					handleChangeDelta(change, projects[i]);
-				}
+		if (delta == null) {
+			return;
+		}
+		AntProjectNode projects[] = getProjects();
+		// look up each build file and import once, not the whole delta
+		Set<String> changedFiles = new HashSet<>();
+		Set<String> unchangedFiles = new HashSet<>();
+		final List<AntProjectNode> removed = new ArrayList<>();
+		List<AntProjectNode> changed = new ArrayList<>();
+		for (int i = 0; i < projects.length; i++) {
+			AntProjectNode project = projects[i];
+			String buildFileName = project.getBuildFileName();
+			IResourceDelta change = delta.findMember(new Path(buildFileName));
+			if (change != null && change.getResource().getType() == IResource.FILE && change.getKind() == IResourceDelta.REMOVED) {
+				removed.add(project);
+			} else if (isChanged(change) || isImportChanged(project, delta, changedFiles, unchangedFiles)) {
+				changed.add(project);
 			}
 		}
+		if (!removed.isEmpty()) {
+			Display.getDefault().asyncExec(() -> {
+				if (!projectViewer.getControl().isDisposed()) {
+					removeProjects(removed);
+				}
+			});
+		}
+		if (!changed.isEmpty()) {
+			refreshProjects(changed);
+		}
 	}
 
 	/**
-	 * Update the view for the given resource delta. The delta is a resource delta for the given build file in the view
-	 * 
-	 * @param delta
-	 *            a delta for a build file in the view
-	 * @param project
-	 *            the project node that has changed
+	 * Returns whether the given delta is a change of the contents of a file, or an addition or removal of a file.
 	 */
-	private void handleChangeDelta(IResourceDelta delta, final AntProjectNode project) {
-		IResource resource = delta.getResource();
-		if (resource.getType() != IResource.FILE) {
-			return;
+	private boolean isChanged(IResourceDelta delta) {
+		if (delta == null || delta.getResource().getType() != IResource.FILE) {
+			return false;
+		}
+		switch (delta.getKind()) {
+			case IResourceDelta.ADDED:
+			case IResourceDelta.REMOVED:
+				return true;
+			case IResourceDelta.CHANGED:
+				return (delta.getFlags() & IResourceDelta.CONTENT) != 0;
+			default:
+				return false;
 		}
-		if (delta.getKind() == IResourceDelta.REMOVED) {
-			Display.getDefault().asyncExec(() -> removeProject(project));
-		} else if (delta.getKind() == IResourceDelta.CHANGED && (delta.getFlags() & IResourceDelta.CONTENT) != 0) {
-			handleBuildFileChanged(project);
+	}
+
+	/**
+	 * Returns whether one of the files the given project imported when it was last parsed has changed. Files already looked up in the delta are
+	 * remembered in the given sets.
+	 */
+	private boolean isImportChanged(AntProjectNode project, IResourceDelta delta, Set<String> changedFiles, Set<String> unchangedFiles) {
+		if (!(project instanceof AntProjectNodeProxy)) {
+			return false;
+		}
+		Set<String> importedFiles = ((AntProjectNodeProxy) project).getImportedFiles();
+		for (String importedFile : importedFiles) {
+			if (changedFiles.contains(importedFile)) {
+				return true;
+			}
+			if (unchangedFiles.contains(importedFile)) {
+				continue;
+			}
+			if (isChanged(delta.findMember(new Path(importedFile)))) {
+				changedFiles.add(importedFile);
+				return true;
+			}
+			unchangedFiles.add(importedFile);
 		}
+		return false;
 	}
 
 	private void fillMainToolBar() {
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.ui.views;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.ant.internal.ui.model.AntProjectNode;
+import org.eclipse.ant.internal.ui.model.AntProjectNodeProxy;
+import org.eclipse.ant.internal.ui.model.AntTargetNode;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import com.ibm.icu.text.MessageFormat;
+
+/**
+ * Re-parses build files of the Ant view in the background and updates the view with the results of one run at once.
+ * <p>
+ * Requests arriving while the job waits or runs are collected and handled by the next run, so a burst of resource changes parses each build file
+ * once. The files are parsed one after the other and under {@link AntProjectNodeProxy#PARSE_RULE}, so no other background job parses at the
+ * same time.
+ * </p>
+ */
+class AntViewRefreshJob extends Job {
+
+	/**
+	 * Delay before a run, in milliseconds, to collect the changes of a series of workspace operations
+	 */
+	private static final long DELAY = 200;
+
+	private final AntView fView;
+	private final Set<AntProjectNodeProxy> fPending = new LinkedHashSet<>();
+
+	AntViewRefreshJob(AntView view) {
+		super(AntViewMessages.AntViewRefreshJob_0);
+		fView = view;
+		setRule(AntProjectNodeProxy.PARSE_RULE);
+	}
+
+	/**
+	 * Schedules the given projects to be re-parsed.
+	 */
+	void refresh(Collection<AntProjectNode> projects) {
+		synchronized (fPending) {
+			for (AntProjectNode project : projects) {
+				if (project instanceof AntProjectNodeProxy) {
+					fPending.add((AntProjectNodeProxy) project);
+				}
+			}
+			if (fPending.isEmpty()) {
+				return;
+			}
+		}
+		schedule(DELAY);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		final List<AntProjectNodeProxy> projects;
+		synchronized (fPending) {
+			projects = new ArrayList<>(fPending);
+			fPending.clear();
+		}
+		if (projects.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		monitor.beginTask(AntViewMessages.AntViewRefreshJob_0, projects.size());
+		final AntTargetNode[][] targets = new AntTargetNode[projects.size()][];
+		try {
+			for (int i = 0; i < targets.length; i++) {
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				AntProjectNodeProxy project = projects.get(i);
+				monitor.subTask(MessageFormat.format(AntViewMessages.AntViewRefreshJob_1, new Object[] { project.getBuildFileName() }));
+				targets[i] = project.parseTargets();
+				monitor.worked(1);
+			}
+		}
+		finally {
+			monitor.done();
+		}
+		Display.getDefault().asyncExec(() -> fView.updateProjects(projects, targets));
+		return Status.OK_STATUS;
+	}
+}
@@ -1,5 +1,5 @@
 /**********************************************************************
- * Copyright (c) 2000, 2005 IBM Corporation and others. All rights reserved. This
+ * Copyright (c) 2000, 2018 IBM Corporation and others. All rights reserved. This
  * program and the accompanying materials are made available under the terms of
  * the Eclipse Public License v1.0 which accompanies this distribution, and is
  * available at http://www.eclipse.org/legal/epl-v10.html
@@ -25,6 +25,7 @@ public class AntViewActionMessages extends NLS {
 	public static String SearchForBuildFilesDialog_Include_errors;
 	public static String SearchForBuildFilesDialog_Must_select_a_working_set_10;
 	public static String SearchForBuildFilesDialog_No_searchable;
+	public static String SearchForBuildFilesJob_0;
 	public static String AntViewOpenWithMenu_Editor_failed;
 	public static String AntViewOpenWithMenu_Default_Editor_4;
 	public static String AddBuildFilesAction_0;
@@ -48,8 +49,6 @@ public class AntViewActionMessages extends NLS {
 	public static String SearchForBuildFilesAction_Processing_search_results_3;
 	public static String SearchForBuildFilesAction_Adding__0__4;
 	public static String RefreshBuildFilesAction_Refresh_Buildfiles_1;
-	public static String RefreshBuildFilesAction_Refreshing_buildfiles_3;
-	public static String RefreshBuildFilesAction_Refreshing__0__4;
 	public static String FilterInternalTargetsAction_0;
 
 	static {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,7 +10,6 @@
  *******************************************************************************/
 package org.eclipse.ant.internal.ui.views.actions;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -19,18 +18,13 @@ import org.eclipse.ant.internal.ui.AntUIImages;
 import org.eclipse.ant.internal.ui.IAntUIConstants;
 import org.eclipse.ant.internal.ui.IAntUIHelpContextIds;
 import org.eclipse.ant.internal.ui.model.AntProjectNode;
-import org.eclipse.ant.internal.ui.model.AntProjectNodeProxy;
 import org.eclipse.ant.internal.ui.model.AntTargetNode;
 import org.eclipse.ant.internal.ui.views.AntView;
-import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.action.Action;
-import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.texteditor.IUpdate;
 
-import com.ibm.icu.text.MessageFormat;
-
 /**
  * Action which refreshes the selected buildfiles in the Ant view
  */
@@ -52,11 +46,11 @@ public class RefreshBuildFilesAction extends Action implements IUpdate {
 	}
 
 	/**
-	 * Refreshes the selected buildfiles (or all buildfiles if none selected) in the Ant view
+	 * Refreshes the selected buildfiles (or all buildfiles if none selected) in the Ant view. The buildfiles are parsed in the background.
 	 */
 	@Override
 	public void run() {
-		final Set<AntProjectNode> projects = getSelectedProjects();
+		Set<AntProjectNode> projects = getSelectedProjects();
 		if (projects.isEmpty()) {
 			// If no selection, add all
 			AntProjectNode[] allProjects = fView.getProjects();
@@ -64,33 +58,7 @@ public class RefreshBuildFilesAction extends Action implements IUpdate {
 				projects.add(allProjects[i]);
 			}
 		}
-		final Iterator<AntProjectNode> iter = projects.iterator();
-		if (!iter.hasNext()) {
-			return;
-		}
-
-		try {
-			PlatformUI.getWorkbench().getProgressService().busyCursorWhile(new IRunnableWithProgress() {
-				@Override
-				public void run(IProgressMonitor monitor) {
-					monitor.beginTask(AntViewActionMessages.RefreshBuildFilesAction_Refreshing_buildfiles_3, projects.size());
-					AntProjectNodeProxy project;
-					while (iter.hasNext()) {
-						project = (AntProjectNodeProxy) iter.next();
-						monitor.subTask(MessageFormat.format(AntViewActionMessages.RefreshBuildFilesAction_Refreshing__0__4, new Object[] { project.getBuildFileName() }));
-						project.parseBuildFile(true);
-						monitor.worked(1);
-					}
-				}
-			});
-		}
-		catch (InvocationTargetException e) {
-			// do nothing
-		}
-		catch (InterruptedException e) {
-			// do nothing
-		}
-		fView.getViewer().refresh();
+		fView.refreshProjects(projects);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,21 +11,14 @@
 package org.eclipse.ant.internal.ui.views.actions;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.eclipse.ant.internal.core.IAntCoreConstants;
 import org.eclipse.ant.internal.ui.AntUIPlugin;
 import org.eclipse.ant.internal.ui.IAntUIHelpContextIds;
 import org.eclipse.ant.internal.ui.IAntUIPreferenceConstants;
-import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IResource;
-import org.eclipse.core.resources.IResourceProxy;
-import org.eclipse.core.resources.IResourceProxyVisitor;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.dialogs.IInputValidator;
@@ -50,14 +43,14 @@ import org.eclipse.ui.dialogs.IWorkingSetSelectionDialog;
 
 /**
  * This dialog allows the user to search for Ant build files whose names match a given pattern. The search may be performed on the entire workspace or
- * it can be limited to a particular working set.
+ * it can be limited to a particular working set. The search itself runs in a {@link SearchForBuildFilesJob} once the dialog is closed.
  */
 public class SearchForBuildFilesDialog extends InputDialog {
 
 	/**
-	 * List of <code>IFile</code> objects that were found
+	 * The pattern build file names are matched with, set when the user presses the search button
 	 */
-	private List<IResource> results = new ArrayList<>();
+	private Pattern searchPattern = null;
 	/**
 	 * List of <code>IResource</code> objects in which to search.
 	 * 
@@ -333,10 +326,20 @@ public class SearchForBuildFilesDialog extends InputDialog {
 	}
 
 	/**
-	 * Returns the search results
+	 * Returns the pattern the names of the build files to find contain
 	 */
-	public IFile[] getResults() {
-		return results.toArray(new IFile[results.size()]);
+	public Pattern getSearchPattern() {
+		return searchPattern;
+	}
+
+	/**
+	 * Returns the resources to search or <code>null</code> to search the workspace
+	 */
+	public List<IResource> getSearchScopes() {
+		if (searchScopes == null || searchScopes.isEmpty()) {
+			return null;
+		}
+		return searchScopes;
 	}
 
 	/**
@@ -347,7 +350,7 @@ public class SearchForBuildFilesDialog extends InputDialog {
 	}
 
 	/**
-	 * When the user presses the search button (tied to the OK id), search the workspace for files matching the regular expression in the input field.
+	 * When the user presses the search button (tied to the OK id), remember the search settings and the regular expression for the input field.
 	 */
 	@Override
 	protected void okPressed() {
@@ -356,62 +359,34 @@ public class SearchForBuildFilesDialog extends InputDialog {
 		settings.put(IAntUIPreferenceConstants.ANTVIEW_INCLUDE_ERROR_SEARCH_RESULTS, includeErrorResultButton.getSelection());
 		settings.put(IAntUIPreferenceConstants.ANTVIEW_LAST_WORKINGSET_SEARCH_SCOPE, getWorkingSetName());
 		settings.put(IAntUIPreferenceConstants.ANTVIEW_USE_WORKINGSET_SEARCH_SCOPE, workingSetScopeButton.getSelection());
-		results = new ArrayList<>(); // Clear previous results
-		ResourceProxyVisitor visitor = new ResourceProxyVisitor();
-		if (searchScopes == null || searchScopes.isEmpty()) {
-			try {
-				ResourcesPlugin.getWorkspace().getRoot().accept(visitor, IResource.NONE);
-			}
-			catch (CoreException ce) {
-				// Closed project...don't want build files from there
-			}
-		} else {
-			Iterator<IResource> iter = searchScopes.iterator();
-			while (iter.hasNext()) {
-				try {
-					iter.next().accept(visitor, IResource.NONE);
-				}
-				catch (CoreException ce) {
-					// Closed project...don't want build files from there
-				}
-			}
-		}
+		searchPattern = createPattern(input);
 		super.okPressed();
 	}
 
 	/**
-	 * Searches for files whose name matches the given regular expression.
+	 * Returns the regular expression for the given build file name pattern. Users use "*" and "?" where regex uses ".*" and ".?", the character "."
+	 * must be escaped in regex.
 	 */
-	class ResourceProxyVisitor implements IResourceProxyVisitor {
-		Pattern pattern;
-
-		ResourceProxyVisitor() {
-			// Users use "*" and "?" where regex uses ".*" and ".?"
-			// The character "." must be escaped in regex
-			String input = getInput();
-			// replace "." with "\\."
-			input = input.replaceAll("\\.", "\\\\."); //$NON-NLS-1$ //$NON-NLS-2$ 
-			// replace "*" with ".*"
-			input = input.replaceAll("\\*", "\\.\\*"); //$NON-NLS-1$ //$NON-NLS-2$
-			// replace "?" with ".?"
-			input = input.replaceAll("\\?", "\\.\\?"); //$NON-NLS-1$ //$NON-NLS-2$ 
-			pattern = Pattern.compile(input);
-		}
-
-		/**
-		 * @see org.eclipse.core.resources.IResourceProxyVisitor#visit(org.eclipse.core.resources.IResourceProxy)
-		 */
-		@Override
-		public boolean visit(IResourceProxy proxy) {
-			if (proxy.getType() == IResource.FILE) {
-				Matcher matcher = pattern.matcher(proxy.getName());
-				if (matcher.find()) {
-					results.add(proxy.requestResource());
-				}
-				return false;
+	static Pattern createPattern(String input) {
+		StringBuffer regex = new StringBuffer(input.length() + 8);
+		for (int i = 0; i < input.length(); i++) {
+			char c = input.charAt(i);
+			switch (c) {
+				case '.':
+					regex.append("\\."); //$NON-NLS-1$
+					break;
+				case '*':
+					regex.append(".*"); //$NON-NLS-1$
+					break;
+				case '?':
+					regex.append(".?"); //$NON-NLS-1$
+					break;
+				default:
+					regex.append(c);
+					break;
 			}
-			return true;
 		}
+		return Pattern.compile(regex.toString());
 	}
 
 	/*
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ant.internal.ui.views.actions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.eclipse.ant.internal.ui.model.AntProjectNode;
+import org.eclipse.ant.internal.ui.model.AntProjectNodeProxy;
+import org.eclipse.ant.internal.ui.views.AntView;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobManager;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.eclipse.swt.widgets.Display;
+
+import com.ibm.icu.text.MessageFormat;
+
+/**
+ * Searches for build files whose names match a pattern and adds them to the Ant view as they are found.
+ * <p>
+ * Each project (or each resource of a working set scope) is searched by a system job of its own, in a {@link JobGroup} that runs as many of them
+ * at a time as there are processors. Derived folders such as output folders are skipped. The found build files are parsed and added to the view
+ * one by one by this job while the search jobs keep searching. Each file is parsed under {@link AntProjectNodeProxy#PARSE_RULE}, so the parses
+ * never overlap those of the refresh of the view. Canceling this job cancels the search jobs.
+ * </p>
+ */
+class SearchForBuildFilesJob extends Job {
+
+	private final Pattern fPattern;
+	private final List<IResource> fScopes;
+	private final boolean fIncludeErrorNodes;
+	private final AntView fView;
+	private final Set<String> fKnownBuildFiles = new HashSet<>();
+
+	/**
+	 * @param pattern
+	 *            the pattern the names of build files contain
+	 * @param scopes
+	 *            the resources to search, <code>null</code> or empty to search the workspace
+	 * @param includeErrorNodes
+	 *            whether to add build files that cannot be parsed
+	 * @param view
+	 *            the view to add the build files to
+	 */
+	SearchForBuildFilesJob(Pattern pattern, List<IResource> scopes, boolean includeErrorNodes, AntView view) {
+		super(AntViewActionMessages.SearchForBuildFilesJob_0);
+		fPattern = pattern;
+		fScopes = scopes;
+		fIncludeErrorNodes = includeErrorNodes;
+		fView = view;
+		// Don't parse projects that have already been added.
+		AntProjectNode[] existingProjects = view.getProjects();
+		for (int i = 0; i < existingProjects.length; i++) {
+			fKnownBuildFiles.add(existingProjects[i].getBuildFileName());
+		}
+		setUser(true);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		List<IResource> roots = getSearchRoots();
+		monitor.beginTask(AntViewActionMessages.SearchForBuildFilesAction_Processing_search_results_3, roots.size());
+		if (roots.isEmpty()) {
+			monitor.done();
+			return Status.OK_STATUS;
+		}
+
+		BlockingQueue<IFile> found = new LinkedBlockingQueue<>();
+		int threads = Math.min(roots.size(), Runtime.getRuntime().availableProcessors());
+		JobGroup searches = new JobGroup(getName(), threads, roots.size());
+		for (IResource root : roots) {
+			Job search = new SearchJob(root, found);
+			search.setJobGroup(searches);
+			search.schedule();
+		}
+		try {
+			int reported = 0;
+			while (true) {
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				int active = searches.getActiveJobs().size();
+				IFile file = found.poll(100, TimeUnit.MILLISECONDS);
+				if (file != null) {
+					addBuildFile(file, monitor);
+				} else if (active == 0) {
+					// all searches finished before the queue was found empty
+					break;
+				}
+				int done = roots.size() - active;
+				if (done > reported) {
+					monitor.worked(done - reported);
+					reported = done;
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			return Status.CANCEL_STATUS;
+		}
+		finally {
+			searches.cancel();
+			monitor.done();
+		}
+		return Status.OK_STATUS;
+	}
+
+	/**
+	 * Returns the resources to hand to the workers: the accessible projects of the workspace or the resources of the working set.
+	 */
+	private List<IResource> getSearchRoots() {
+		List<IResource> roots = new ArrayList<>();
+		if (fScopes == null || fScopes.isEmpty()) {
+			IProject[] projects = ResourcesPlugin.getWorkspace().getRoot().getProjects();
+			for (int i = 0; i < projects.length; i++) {
+				if (projects[i].isAccessible()) {
+					roots.add(projects[i]);
+				}
+			}
+		} else {
+			roots.addAll(fScopes);
+		}
+		return roots;
+	}
+
+	private void addBuildFile(IFile file, IProgressMonitor monitor) {
+		String buildFileName = file.getFullPath().toString();
+		if (!fKnownBuildFiles.add(buildFileName)) {
+			// overlapping scopes
+			return;
+		}
+		monitor.subTask(MessageFormat.format(AntViewActionMessages.SearchForBuildFilesAction_Adding__0__4, new Object[] { buildFileName }));
+		final AntProjectNodeProxy project = new AntProjectNodeProxy(buildFileName);
+		// Force the project to be parsed so the error state is set.
+		IJobManager manager = Job.getJobManager();
+		manager.beginRule(AntProjectNodeProxy.PARSE_RULE, monitor);
+		try {
+			project.parseBuildFile();
+		}
+		finally {
+			manager.endRule(AntProjectNodeProxy.PARSE_RULE);
+		}
+		if (fIncludeErrorNodes || !(project.isErrorNode())) {
+			Display.getDefault().asyncExec(() -> {
+				if (!fView.getViewer().getControl().isDisposed()) {
+					fView.addProject(project);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Searches one resource.
+	 */
+	private class SearchJob extends Job {
+		private final IResource fRoot;
+		private final BlockingQueue<IFile> fFound;
+
+		SearchJob(IResource root, BlockingQueue<IFile> found) {
+			super(SearchForBuildFilesJob.this.getName());
+			fRoot = root;
+			fFound = found;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				fRoot.accept(new ResourceProxyVisitor(fFound, monitor), IResource.NONE);
+			}
+			catch (CoreException e) {
+				// Closed project...don't want build files from there
+			}
+			return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+	}
+
+	/**
+	 * Searches for files whose name matches the pattern.
+	 */
+	private class ResourceProxyVisitor implements IResourceProxyVisitor {
+		private final BlockingQueue<IFile> fFound;
+		private final IProgressMonitor fMonitor;
+
+		ResourceProxyVisitor(BlockingQueue<IFile> found, IProgressMonitor monitor) {
+			fFound = found;
+			fMonitor = monitor;
+		}
+
+		/**
+		 * @see org.eclipse.core.resources.IResourceProxyVisitor#visit(org.eclipse.core.resources.IResourceProxy)
+		 */
+		@Override
+		public boolean visit(IResourceProxy proxy) {
+			if (fMonitor.isCanceled()) {
+				return false;
+			}
+			switch (proxy.getType()) {
+				case IResource.FILE:
+					if (fPattern.matcher(proxy.getName()).find()) {
+						fFound.add((IFile) proxy.requestResource());
+					}
+					return false;
+				case IResource.FOLDER:
+					// output folders and the like
+					return !proxy.isDerived();
+				default:
+					return true;
+			}
+		}
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.osgi.service.datalocation.Location;
+import org.eclipse.update.internal.configurator.ConfigurationActivator;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Minimal stand-in for the OSGi framework, so that the configurator can run on
+ * a plain JVM. It provides the framework properties and the install
+ * {@link Location} service the configurator looks up. Any other call returns
+ * <code>null</code>, <code>false</code> or 0.
+ */
+final class BenchmarkEnvironment {
+
+	private static final String INSTALL_AREA_TYPE = "osgi.install.area"; //$NON-NLS-1$
+
+	private BenchmarkEnvironment() {
+		// Do not instantiate
+	}
+
+	/**
+	 * Makes the given URL the install location seen by the configurator.
+	 */
+	static void install(URL installURL) throws Exception {
+		Map<String, String> properties = new HashMap<>();
+		properties.put("osgi.os", "linux"); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("osgi.ws", "gtk"); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("osgi.arch", "x86_64"); //$NON-NLS-1$ //$NON-NLS-2$
+		properties.put("osgi.nl", "en_US"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		Location location = proxy(Location.class, (p, method, args) -> {
+			if (method.getName().equals("getURL")) //$NON-NLS-1$
+				return installURL;
+			return defaultValue(method);
+		});
+
+		Map<String, Object> locationProperties = new HashMap<>();
+		locationProperties.put(Constants.OBJECTCLASS, new String[] {Location.class.getName()});
+		locationProperties.put("type", INSTALL_AREA_TYPE); //$NON-NLS-1$
+		ServiceReference<?> locationReference = proxy(ServiceReference.class, (p, method, args) -> {
+			switch (method.getName()) {
+				case "getProperty" : //$NON-NLS-1$
+					return locationProperties.get(args[0]);
+				case "getPropertyKeys" : //$NON-NLS-1$
+					return locationProperties.keySet().toArray(new String[0]);
+				case "compareTo" : //$NON-NLS-1$
+					return Integer.valueOf(0);
+				default :
+					return defaultValue(method);
+			}
+		});
+
+		BundleContext context = proxy(BundleContext.class, (p, method, args) -> {
+			switch (method.getName()) {
+				case "getProperty" : //$NON-NLS-1$
+					String value = properties.get(args[0]);
+					return value != null ? value : System.getProperty((String) args[0]);
+				case "createFilter" : //$NON-NLS-1$
+					return FrameworkUtil.createFilter((String) args[0]);
+				case "getServiceReferences" : //$NON-NLS-1$
+				case "getAllServiceReferences" : //$NON-NLS-1$
+					if (args[0] instanceof Class)
+						return Collections.emptyList();
+					String filter = (String) args[1];
+					if (filter == null || FrameworkUtil.createFilter(filter).matches(locationProperties))
+						return new ServiceReference<?>[] {locationReference};
+					return null;
+				case "getServiceReference" : //$NON-NLS-1$
+					return null;
+				case "getService" : //$NON-NLS-1$
+					return args[0] == locationReference ? location : null;
+				case "ungetService" : //$NON-NLS-1$
+					return Boolean.TRUE;
+				default :
+					return defaultValue(method);
+			}
+		});
+
+		Field field = ConfigurationActivator.class.getDeclaredField("context"); //$NON-NLS-1$
+		field.setAccessible(true);
+		field.set(null, context);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(BenchmarkEnvironment.class.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+			if (method.getDeclaringClass() == Object.class) {
+				switch (method.getName()) {
+					case "equals" : //$NON-NLS-1$
+						return Boolean.valueOf(p == args[0]);
+					case "hashCode" : //$NON-NLS-1$
+						return Integer.valueOf(System.identityHashCode(p));
+					default :
+						return type.getSimpleName();
+				}
+			}
+			return handler.invoke(p, method, args);
+		});
+	}
+
+	private static Object defaultValue(Method method) {
+		Class<?> type = method.getReturnType();
+		if (type == boolean.class)
+			return Boolean.FALSE;
+		if (type == int.class)
+			return Integer.valueOf(0);
+		if (type == long.class)
+			return Long.valueOf(0);
+		return null;
+	}
+}
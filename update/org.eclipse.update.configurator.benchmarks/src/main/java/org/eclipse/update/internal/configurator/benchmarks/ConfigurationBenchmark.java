@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator.benchmarks;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.update.configurator.IPlatformConfiguration.ISiteEntry;
+import org.eclipse.update.configurator.IPlatformConfiguration.ISitePolicy;
+import org.eclipse.update.internal.configurator.ConfigurationParser;
+import org.eclipse.update.internal.configurator.PlatformConfiguration;
+import org.eclipse.update.internal.configurator.SiteEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading and writing platform.xml, and computing the plug-in path from a
+ * loaded configuration. Each benchmark has a state of its own, so it is only
+ * run for the parameters it uses.
+ * <ul>
+ * <li>{@link #parse(ParseState)} reads the configuration either from its
+ * binary snapshot or, with <code>source=xml</code>, from a copy of
+ * platform.xml that has no snapshot.</li>
+ * <li>{@link #save(SaveState)} writes platform.xml and its snapshot to a new
+ * location, so no earlier configuration is moved to the history folder.</li>
+ * <li>{@link #pluginPath(PluginPathState)} detects the sites again and
+ * computes the plug-in path; with <code>stamps=warm</code> detection starts
+ * from the change stamps of the previous start.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConfigurationBenchmark {
+
+	/**
+	 * A synthetic install with a configuration that has the install as its
+	 * only site.
+	 */
+	public abstract static class Installed {
+
+		@Param({"100", "1000", "10000"})
+		int entries;
+
+		SyntheticInstall install;
+		PlatformConfiguration configuration;
+
+		void createInstall() throws Exception {
+			install = SyntheticInstall.create(entries);
+			URL installURL = install.getURL();
+			BenchmarkEnvironment.install(installURL);
+
+			configuration = new PlatformConfiguration((URL) null, installURL);
+			ISiteEntry site = configuration.createSiteEntry(installURL, configuration.createSitePolicy(ISitePolicy.USER_EXCLUDE, new String[0]));
+			configuration.configureSite(site);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() throws Exception {
+			install.delete();
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class ParseState extends Installed {
+
+		@Param({"xml", "snapshot"})
+		String source;
+
+		URL parseURL;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			createInstall();
+			File configFile = install.getConfigFile();
+			configFile.getParentFile().mkdirs();
+			configuration.save(configFile.toURI().toURL());
+
+			if ("xml".equals(source)) { //$NON-NLS-1$
+				// only platform.xml gets a snapshot, a copy under another name is always parsed
+				File copy = new File(configFile.getParentFile(), "platform-copy.xml"); //$NON-NLS-1$
+				Files.copy(configFile.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				parseURL = copy.toURI().toURL();
+			} else {
+				parseURL = configFile.toURI().toURL();
+			}
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SaveState extends Installed {
+
+		File saveDir;
+		URL configURL;
+		private int saves = 0;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			createInstall();
+			// detect the site once, saving is measured without detection
+			configuration.getPluginPath();
+		}
+
+		@Setup(Level.Invocation)
+		public void newLocation() throws Exception {
+			saveDir = new File(install.getConfigFile().getParentFile(), "save" + saves++); //$NON-NLS-1$
+			saveDir.mkdirs();
+			configURL = new File(saveDir, "platform.xml").toURI().toURL(); //$NON-NLS-1$
+		}
+
+		@TearDown(Level.Invocation)
+		public void deleteLocation() throws Exception {
+			SyntheticInstall.delete(saveDir);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class PluginPathState extends Installed {
+
+		@Param({"cold", "warm"})
+		String stamps;
+
+		SiteEntry[] sites;
+		long[] changeStamps;
+
+		@Setup(Level.Trial)
+		public void setUp() throws Exception {
+			createInstall();
+			ISiteEntry[] configured = configuration.getConfiguredSites();
+			sites = new SiteEntry[configured.length];
+			changeStamps = new long[configured.length];
+			for (int i = 0; i < configured.length; i++) {
+				sites[i] = (SiteEntry) configured[i];
+				changeStamps[i] = sites[i].getChangeStamp();
+			}
+		}
+	}
+
+	@Benchmark
+	public Object parse(ParseState state) throws Exception {
+		return new ConfigurationParser().parse(state.parseURL, state.install.getURL());
+	}
+
+	@Benchmark
+	public URL save(SaveState state) throws Exception {
+		state.configuration.save(state.configURL);
+		return state.configURL;
+	}
+
+	@Benchmark
+	public URL[] pluginPath(PluginPathState state) throws Exception {
+		state.configuration.refresh();
+		if ("warm".equals(state.stamps)) { //$NON-NLS-1$
+			for (int i = 0; i < state.sites.length; i++)
+				state.sites[i].loadFromDisk(state.changeStamps[i]);
+		}
+		return state.configuration.getPluginPath();
+	}
+}
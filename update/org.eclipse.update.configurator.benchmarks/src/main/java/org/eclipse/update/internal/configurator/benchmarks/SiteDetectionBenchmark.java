@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.update.configurator.IPlatformConfiguration.ISitePolicy;
+import org.eclipse.update.internal.configurator.Configuration;
+import org.eclipse.update.internal.configurator.SiteEntry;
+import org.eclipse.update.internal.configurator.SitePolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Feature and plug-in detection of a single site.
+ * <ul>
+ * <li><code>cold</code>: no change stamps are known, every feature.xml and
+ * bundle manifest is read, as on the first start of an install.</li>
+ * <li><code>warm</code>: the change stamps of the previous start are known, so
+ * detection only compares time stamps, as on every later start.</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SiteDetectionBenchmark {
+
+	@Param({"100", "1000", "10000"})
+	int entries;
+
+	@Param({"cold", "warm"})
+	String stamps;
+
+	private SyntheticInstall install;
+	private SiteEntry site;
+	private long changeStamp;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		install = SyntheticInstall.create(entries);
+		BenchmarkEnvironment.install(install.getURL());
+
+		Configuration config = new Configuration();
+		config.setInstallLocation(install.getURL());
+		site = new SiteEntry(install.getURL(), new SitePolicy(ISitePolicy.USER_EXCLUDE, new String[0]));
+		config.addSiteEntry(install.getURL().toExternalForm(), site);
+		changeStamp = site.getChangeStamp();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		install.delete();
+	}
+
+	@Benchmark
+	public void detect(Blackhole blackhole) throws Exception {
+		site.refresh();
+		if ("warm".equals(stamps)) //$NON-NLS-1$
+			site.loadFromDisk(changeStamp);
+		blackhole.consume(site.getFeatureEntries());
+		blackhole.consume(site.getAllPluginEntries());
+	}
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * A generated Eclipse install in a temporary directory: a plugins folder with
+ * the given number of bundles, half of them unpacked directories and half of
+ * them jars, and a features folder with one feature per ten plug-ins that
+ * includes those plug-ins.
+ */
+final class SyntheticInstall {
+
+	private static final String ID_PREFIX = "org.eclipse.bench."; //$NON-NLS-1$
+	private static final String VERSION = "1.0.0.v20180601"; //$NON-NLS-1$
+	private static final int PLUGINS_PER_FEATURE = 10;
+
+	private final File root;
+
+	private SyntheticInstall(File root) {
+		this.root = root;
+	}
+
+	static SyntheticInstall create(int plugins) throws IOException {
+		SyntheticInstall install = new SyntheticInstall(Files.createTempDirectory("configurator-bench").toFile()); //$NON-NLS-1$
+		File pluginsDir = new File(install.root, "plugins"); //$NON-NLS-1$
+		File featuresDir = new File(install.root, "features"); //$NON-NLS-1$
+		pluginsDir.mkdirs();
+		featuresDir.mkdirs();
+		for (int i = 0; i < plugins; i++) {
+			if (i % 2 == 0)
+				writeUnpackedPlugin(pluginsDir, pluginId(i));
+			else
+				writePackedPlugin(pluginsDir, pluginId(i));
+		}
+		for (int i = 0; i * PLUGINS_PER_FEATURE < plugins; i++)
+			writeFeature(featuresDir, i, Math.min(plugins, (i + 1) * PLUGINS_PER_FEATURE));
+		return install;
+	}
+
+	URL getURL() throws IOException {
+		return root.toURI().toURL();
+	}
+
+	/**
+	 * @return the platform.xml location of this install
+	 */
+	File getConfigFile() {
+		return new File(root, "configuration/org.eclipse.update/platform.xml"); //$NON-NLS-1$
+	}
+
+	void delete() throws IOException {
+		delete(root);
+	}
+
+	/**
+	 * Deletes the given directory and everything in it.
+	 */
+	static void delete(File directory) throws IOException {
+		Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+				Files.delete(file);
+				return FileVisitResult.CONTINUE;
+			}
+
+			@Override
+			public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+				Files.delete(dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private static String pluginId(int index) {
+		return ID_PREFIX + "plugin" + index; //$NON-NLS-1$
+	}
+
+	private static Manifest createManifest(String id) {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0"); //$NON-NLS-1$
+		attributes.putValue("Bundle-ManifestVersion", "2"); //$NON-NLS-1$ //$NON-NLS-2$
+		attributes.putValue("Bundle-SymbolicName", id + ";singleton:=true"); //$NON-NLS-1$ //$NON-NLS-2$
+		attributes.putValue("Bundle-Version", VERSION); //$NON-NLS-1$
+		return manifest;
+	}
+
+	private static void writeUnpackedPlugin(File pluginsDir, String id) throws IOException {
+		File metaInf = new File(pluginsDir, id + "_" + VERSION + "/META-INF"); //$NON-NLS-1$ //$NON-NLS-2$
+		metaInf.mkdirs();
+		try (OutputStream out = new FileOutputStream(new File(metaInf, "MANIFEST.MF"))) { //$NON-NLS-1$
+			createManifest(id).write(out);
+		}
+	}
+
+	private static void writePackedPlugin(File pluginsDir, String id) throws IOException {
+		File jar = new File(pluginsDir, id + "_" + VERSION + ".jar"); //$NON-NLS-1$ //$NON-NLS-2$
+		try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar), createManifest(id))) {
+			// the manifest is all the configurator reads
+		}
+	}
+
+	private static void writeFeature(File featuresDir, int index, int lastPlugin) throws IOException {
+		String id = ID_PREFIX + "feature" + index; //$NON-NLS-1$
+		File featureDir = new File(featuresDir, id + "_" + VERSION); //$NON-NLS-1$
+		featureDir.mkdirs();
+		try (Writer writer = Files.newBufferedWriter(new File(featureDir, "feature.xml").toPath(), StandardCharsets.UTF_8)) { //$NON-NLS-1$
+			writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+			writer.write("<feature id=\"" + id + "\" version=\"" + VERSION + "\" label=\"Benchmark Feature\" provider-name=\"Eclipse.org\">\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			writer.write("   <description>Synthetic feature</description>\n"); //$NON-NLS-1$
+			for (int i = index * PLUGINS_PER_FEATURE; i < lastPlugin; i++)
+				writer.write("   <plugin id=\"" + pluginId(i) + "\" version=\"" + VERSION + "\" unpack=\"" + (i % 2 == 0) + "\"/>\n"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+			writer.write("</feature>\n"); //$NON-NLS-1$
+		}
+	}
+}
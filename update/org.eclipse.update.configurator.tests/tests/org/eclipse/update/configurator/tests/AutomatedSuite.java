@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.configurator.tests;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.update.internal.configurator.ConfigurationSnapshotTests;
+import org.eclipse.update.internal.configurator.EntryURLTests;
+import org.eclipse.update.internal.configurator.FeatureBrandingCacheTests;
+import org.eclipse.update.internal.configurator.IdentifierPoolTests;
+import org.eclipse.update.internal.configurator.StartupMetricsTests;
+
+/**
+ * Tests the update configurator. The tests are in a fragment of the
+ * configurator, so they can reach its package visible members.
+ *
+ * To run this test suite:
+ * <ol>
+ * <li>Create a new JUnit plugin test launch configuration</li>
+ * <li>Set the Test class to "org.eclipse.update.configurator.tests.AutomatedSuite"</li>
+ * <li>Set the Project to "org.eclipse.update.configurator.tests"</li>
+ * <li>Run the launch configuration. Output from the tests will be displayed in a JUnit view</li>
+ * </ol>
+ */
+public class AutomatedSuite extends TestSuite {
+
+	/**
+	 * Returns the suite. This is required to use the JUnit Launcher.
+	 */
+	public static Test suite() {
+		return new AutomatedSuite();
+	}
+
+	/**
+	 * Construct the test suite.
+	 */
+	public AutomatedSuite() {
+		addTest(new TestSuite(StartupMetricsTests.class));
+		addTest(new TestSuite(IdentifierPoolTests.class));
+		addTest(new TestSuite(EntryURLTests.class));
+		addTest(new TestSuite(FeatureBrandingCacheTests.class));
+		addTest(new TestSuite(ConfigurationSnapshotTests.class));
+	}
+}
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Tests the binary snapshot of platform.xml.
+ */
+public class ConfigurationSnapshotTests extends TestCase {
+
+	/**
+	 * Records the events replayed from a snapshot.
+	 */
+	private static class RecordingHandler extends DefaultHandler {
+		final List<String> events = new ArrayList<>();
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			StringBuffer event = new StringBuffer("start ").append(localName); //$NON-NLS-1$
+			for (int i = 0; i < attributes.getLength(); i++)
+				event.append(' ').append(attributes.getLocalName(i)).append('=').append(attributes.getValue(i));
+			events.add(event.toString());
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			events.add("end " + localName); //$NON-NLS-1$
+		}
+	}
+
+	private File directory;
+	private File xmlFile;
+
+	public ConfigurationSnapshotTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		directory = File.createTempFile("configurationSnapshot", null); //$NON-NLS-1$
+		directory.delete();
+		directory.mkdirs();
+		xmlFile = new File(directory, "platform.xml"); //$NON-NLS-1$
+		writeXml("<config version=\"3.0\"><site url=\"platform:/base/\"/></config>"); //$NON-NLS-1$
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ConfigurationSnapshot.delete(xmlFile);
+		xmlFile.delete();
+		directory.delete();
+		super.tearDown();
+	}
+
+	private void writeXml(String contents) throws IOException {
+		try (FileOutputStream out = new FileOutputStream(xmlFile)) {
+			out.write(contents.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private void takeSnapshot(String siteURL) {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot();
+		AttributesImpl config = new AttributesImpl();
+		config.addAttribute("", "version", "version", "CDATA", "3.0"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+		snapshot.startElement("config", config); //$NON-NLS-1$
+		AttributesImpl site = new AttributesImpl();
+		site.addAttribute("", "url", "url", "CDATA", siteURL); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		snapshot.startElement("site", site); //$NON-NLS-1$
+		snapshot.endElement("site"); //$NON-NLS-1$
+		snapshot.endElement("config"); //$NON-NLS-1$
+		snapshot.write(xmlFile);
+	}
+
+	/**
+	 * Ensures that the recorded elements are replayed in order, including
+	 * attribute values longer than 64K
+	 */
+	public void testRoundTrip() throws Exception {
+		StringBuffer longValue = new StringBuffer(70000);
+		for (int i = 0; i < 70000; i++)
+			longValue.append('\u00e9');
+		takeSnapshot(longValue.toString());
+		assertTrue("The snapshot should have been written", ConfigurationSnapshot.getSnapshotFile(xmlFile).isFile()); //$NON-NLS-1$
+
+		RecordingHandler handler = new RecordingHandler();
+		assertTrue("The snapshot should have been replayed", ConfigurationSnapshot.replay(xmlFile, handler)); //$NON-NLS-1$
+		assertEquals("Incorrect number of events", 4, handler.events.size()); //$NON-NLS-1$
+		assertEquals("Incorrect event", "start config version=3.0", handler.events.get(0)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect event", "start site url=" + longValue, handler.events.get(1)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect event", "end site", handler.events.get(2)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect event", "end config", handler.events.get(3)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that a snapshot is not used once platform.xml changed
+	 */
+	public void testInvalidatedWhenXmlChanges() throws Exception {
+		takeSnapshot("platform:/base/"); //$NON-NLS-1$
+		long modified = xmlFile.lastModified();
+		writeXml("<config version=\"3.0\"><site url=\"file:/other/\"/></config>"); //$NON-NLS-1$
+		xmlFile.setLastModified(modified + 2000);
+		RecordingHandler handler = new RecordingHandler();
+		assertFalse("A changed platform.xml should not be replayed from its snapshot", ConfigurationSnapshot.replay(xmlFile, handler)); //$NON-NLS-1$
+		assertTrue("No event should have been replayed", handler.events.isEmpty()); //$NON-NLS-1$
+
+		takeSnapshot("file:/other/"); //$NON-NLS-1$
+		xmlFile.setLastModified(xmlFile.lastModified() + 2000);
+		assertFalse("A touched platform.xml should not be replayed from its snapshot", ConfigurationSnapshot.replay(xmlFile, handler)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a truncated snapshot is not replayed at all
+	 */
+	public void testTruncatedSnapshot() throws Exception {
+		takeSnapshot("platform:/base/"); //$NON-NLS-1$
+		File snapshotFile = ConfigurationSnapshot.getSnapshotFile(xmlFile);
+		try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw")) { //$NON-NLS-1$
+			file.setLength(file.length() - 10);
+		}
+		RecordingHandler handler = new RecordingHandler();
+		assertFalse("A truncated snapshot should not be replayed", ConfigurationSnapshot.replay(xmlFile, handler)); //$NON-NLS-1$
+		assertTrue("No event of a truncated snapshot should have been replayed", handler.events.isEmpty()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that deleting the snapshot of platform.xml removes its file and
+	 * that only the live platform.xml gets a snapshot
+	 */
+	public void testDeleteAndCandidates() throws Exception {
+		takeSnapshot("platform:/base/"); //$NON-NLS-1$
+		ConfigurationSnapshot.delete(xmlFile);
+		assertFalse("The snapshot should have been deleted", ConfigurationSnapshot.getSnapshotFile(xmlFile).exists()); //$NON-NLS-1$
+		assertFalse("A missing snapshot should not be replayed", ConfigurationSnapshot.replay(xmlFile, new RecordingHandler())); //$NON-NLS-1$
+
+		assertTrue("platform.xml should get a snapshot", ConfigurationSnapshot.isSnapshotCandidate(xmlFile)); //$NON-NLS-1$
+		assertFalse("A backup should not get a snapshot", ConfigurationSnapshot.isSnapshotCandidate(new File(directory, "123.xml"))); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the site relative urls of plug-in and feature entries.
+ */
+public class EntryURLTests extends TestCase {
+
+	public EntryURLTests(String name) {
+		super(name);
+	}
+
+	private PluginEntry createPlugin(String id, String version, String url) {
+		PluginEntry entry = new PluginEntry();
+		entry.setPluginIdentifier(id);
+		entry.setPluginVersion(version);
+		entry.setURL(url);
+		return entry;
+	}
+
+	/**
+	 * Ensures that the url of a plug-in is built once and reused
+	 */
+	public void testPluginURLCached() {
+		PluginEntry entry = createPlugin("org.eclipse.foo", "1.0.0", "plugins/org.eclipse.foo_1.0.0.jar"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		String url = entry.getURL();
+		assertEquals("Incorrect url", "plugins/org.eclipse.foo_1.0.0.jar", url); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSame("The url should be reused", url, entry.getURL()); //$NON-NLS-1$
+
+		entry.setURL("plugins/org.eclipse.foo_1.0.0/"); //$NON-NLS-1$
+		assertEquals("Setting the url should replace the cached one", "plugins/org.eclipse.foo_1.0.0/", entry.getURL()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that the url of a plug-in does not change with its id and version
+	 */
+	public void testPluginURLKeptOnIdentifierChange() {
+		PluginEntry entry = createPlugin("org.eclipse.foo", "1.0.0", "plugins/org.eclipse.foo_1.0.0/"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		entry.getURL();
+		entry.setPluginVersion("2.0.0"); //$NON-NLS-1$
+		assertEquals("A changed version should not change the url", "plugins/org.eclipse.foo_1.0.0/", entry.getURL()); //$NON-NLS-1$ //$NON-NLS-2$
+		entry.setPluginIdentifier("org.eclipse.bar"); //$NON-NLS-1$
+		assertEquals("A changed id should not change the url", "plugins/org.eclipse.foo_1.0.0/", entry.getURL()); //$NON-NLS-1$ //$NON-NLS-2$
+		entry.setVersionedIdentifier(new VersionedIdentifier("org.eclipse.baz", "3.0.0")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("A changed identifier should not change the url", "plugins/org.eclipse.foo_1.0.0/", entry.getURL()); //$NON-NLS-1$ //$NON-NLS-2$
+
+		PluginEntry other = createPlugin("org.eclipse.foo", "1.0.0", "plugins/other/plugin.xml"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		other.setPluginVersion("2.0.0"); //$NON-NLS-1$
+		assertEquals("A url not derived from the id should be kept", "plugins/other/plugin.xml", other.getURL()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that the url of a feature is built once and reused
+	 */
+	public void testFeatureURLCached() {
+		FeatureEntry entry = new FeatureEntry("org.eclipse.foo", "1.0.0", "1.0.0", false, null, null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		entry.setURL("features/org.eclipse.foo_1.0.0/"); //$NON-NLS-1$
+		String url = entry.getURL();
+		assertEquals("Incorrect url", "features/org.eclipse.foo_1.0.0/", url); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSame("The url should be reused", url, entry.getURL()); //$NON-NLS-1$
+
+		entry.setURL("features/other.jar"); //$NON-NLS-1$
+		assertEquals("A feature jar should be kept verbatim", "features/other.jar", entry.getURL()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
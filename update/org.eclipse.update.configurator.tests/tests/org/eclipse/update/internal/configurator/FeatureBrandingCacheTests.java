@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the per-locale cache of the resources and descriptions of features.
+ */
+public class FeatureBrandingCacheTests extends TestCase {
+
+	private File site;
+
+	public FeatureBrandingCacheTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		FeatureBrandingCache.clear();
+		site = File.createTempFile("brandingSite", null); //$NON-NLS-1$
+		site.delete();
+		site.mkdirs();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		FeatureBrandingCache.clear();
+		delete(site);
+		super.tearDown();
+	}
+
+	private void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null)
+			for (int i = 0; i < children.length; i++)
+				delete(children[i]);
+		file.delete();
+	}
+
+	private void write(File file, String contents) throws IOException {
+		file.getParentFile().mkdirs();
+		try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+			writer.write(contents);
+		}
+	}
+
+	/*
+	 * Writes a feature with a translated description, and its
+	 * feature.properties if a translation is given.
+	 */
+	private void writeFeature(String id, String translation) throws IOException {
+		File folder = new File(site, "features/" + id + "_1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+		write(new File(folder, "feature.xml"), "<feature id=\"" + id + "\" version=\"1.0.0\"><description>%description</description>" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ "<plugin id=\"org.eclipse.branding.plugin\" version=\"1.0.0\"/></feature>"); //$NON-NLS-1$
+		if (translation != null)
+			write(new File(folder, "feature.properties"), "description=" + translation + "\n"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	private FeatureEntry createEntry(String id) throws IOException {
+		FeatureEntry entry = new FeatureEntry(id, "1.0.0", "1.0.0", false, null, null); //$NON-NLS-1$ //$NON-NLS-2$
+		entry.setSite(new SiteEntry(site.toURI().toURL()));
+		entry.setURL("features/" + id + "_1.0.0/"); //$NON-NLS-1$ //$NON-NLS-2$
+		return entry;
+	}
+
+	/**
+	 * Ensures that the description is translated and that entries of the same
+	 * feature version share the translation and the resources
+	 */
+	public void testDescriptionShared() throws IOException {
+		writeFeature("org.eclipse.branding.shared", "Translated"); //$NON-NLS-1$ //$NON-NLS-2$
+		FeatureEntry first = createEntry("org.eclipse.branding.shared"); //$NON-NLS-1$
+		FeatureEntry second = createEntry("org.eclipse.branding.shared"); //$NON-NLS-1$
+
+		String description = first.getDescription();
+		assertEquals("Incorrect description", "Translated", description); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSame("The description should be shared", description, second.getDescription()); //$NON-NLS-1$
+		ResourceBundle bundle = first.getResourceBundle();
+		assertNotNull("The feature.properties should have been read", bundle); //$NON-NLS-1$
+		assertSame("The feature.properties should be shared", bundle, second.getResourceBundle()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that a feature without feature.properties is only looked up once
+	 */
+	public void testMissingResources() throws IOException {
+		writeFeature("org.eclipse.branding.missing", null); //$NON-NLS-1$
+		FeatureEntry entry = createEntry("org.eclipse.branding.missing"); //$NON-NLS-1$
+		assertNull("There should be no feature.properties", entry.getResourceBundle()); //$NON-NLS-1$
+
+		// a feature.properties added later is not seen until the cache is cleared
+		write(new File(site, "features/org.eclipse.branding.missing_1.0.0/feature.properties"), "description=Late\n"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertNull("The missing feature.properties should have been cached", entry.getResourceBundle()); //$NON-NLS-1$
+		FeatureBrandingCache.clear();
+		assertNotNull("Clearing the cache should read the feature.properties again", entry.getResourceBundle()); //$NON-NLS-1$
+		assertEquals("Incorrect description", "Late", entry.getDescription()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Ensures that an entry is parsed once when several threads ask for its
+	 * plug-ins at the same time
+	 */
+	public void testConcurrentFullParse() throws Exception {
+		writeFeature("org.eclipse.branding.concurrent", "Translated"); //$NON-NLS-1$ //$NON-NLS-2$
+		final FeatureEntry entry = createEntry("org.eclipse.branding.concurrent"); //$NON-NLS-1$
+		final PluginEntry[][] results = new PluginEntry[8][];
+		Thread[] threads = new Thread[results.length];
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread("Full parse " + i) { //$NON-NLS-1$
+				@Override
+				public void run() {
+					results[index] = entry.getPluginEntries();
+				}
+			};
+		}
+		for (int i = 0; i < threads.length; i++)
+			threads[i].start();
+		for (int i = 0; i < threads.length; i++)
+			threads[i].join();
+		for (int i = 0; i < results.length; i++) {
+			assertEquals("The plug-in should have been added once", 1, results[i].length); //$NON-NLS-1$
+			assertEquals("Incorrect plug-in", "org.eclipse.branding.plugin", results[i][0].getPluginIdentifier()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.lang.ref.WeakReference;
+
+import junit.framework.TestCase;
+
+import org.osgi.framework.Version;
+
+/**
+ * Tests the pool of identifiers and versions of the configuration model.
+ */
+public class IdentifierPoolTests extends TestCase {
+
+	public IdentifierPoolTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Ensures that equal strings and versions are pooled
+	 */
+	public void testIntern() {
+		String first = IdentifierPool.intern(new String("org.eclipse.pooled")); //$NON-NLS-1$
+		String second = IdentifierPool.intern(new String("org.eclipse.pooled")); //$NON-NLS-1$
+		assertSame("Equal strings should be pooled", first, second); //$NON-NLS-1$
+		assertNull("null should not be pooled", IdentifierPool.intern(null)); //$NON-NLS-1$
+
+		Version version = IdentifierPool.getVersion(new String("1.2.3.pooled")); //$NON-NLS-1$
+		assertSame("Equal versions should be pooled", version, IdentifierPool.getVersion(new String("1.2.3.pooled"))); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect version", new Version(1, 2, 3, "pooled"), version); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSame("A missing version should be the empty version", Version.emptyVersion, IdentifierPool.getVersion(null)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the pool does not keep values that are no longer referenced
+	 */
+	public void testUnreferencedValuesAreDropped() throws InterruptedException {
+		WeakReference<String> ref = new WeakReference<>(IdentifierPool.intern(new String("org.eclipse.unreferenced"))); //$NON-NLS-1$
+		for (int i = 0; i < 20 && ref.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull("The pool should not keep an unreferenced string", ref.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the conventional locations are encoded without their name and decoded again
+	 */
+	public void testLocation() {
+		assertLocation("plugins/org.eclipse.foo_1.0.0/", IdentifierPool.LOCATION_DIRECTORY, true); //$NON-NLS-1$
+		assertLocation("plugins/org.eclipse.foo_1.0.0.jar", IdentifierPool.LOCATION_JAR, true); //$NON-NLS-1$
+		assertLocation("plugins/other/", IdentifierPool.LOCATION_DIRECTORY, false); //$NON-NLS-1$
+		assertLocation("plugins/other/plugin.xml", IdentifierPool.LOCATION_OTHER, false); //$NON-NLS-1$
+		assertLocation("elsewhere/org.eclipse.foo_1.0.0/", IdentifierPool.LOCATION_OTHER, false); //$NON-NLS-1$
+	}
+
+	private void assertLocation(String location, byte expectedKind, boolean derived) {
+		byte kind = IdentifierPool.getLocationKind(location, IConfigurationConstants.PLUGINS);
+		assertEquals("Incorrect kind of " + location, expectedKind, kind); //$NON-NLS-1$
+		String name = IdentifierPool.getLocationName(location, IConfigurationConstants.PLUGINS, kind, "org.eclipse.foo", "1.0.0"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect name of " + location, derived, name == null); //$NON-NLS-1$
+		assertEquals("Incorrect decoded location", location, IdentifierPool.getLocation(IConfigurationConstants.PLUGINS, kind, name, "org.eclipse.foo", "1.0.0")); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Properties;
+
+import junit.framework.TestCase;
+
+import org.eclipse.update.internal.configurator.StartupMetrics.Counter;
+import org.eclipse.update.internal.configurator.StartupMetrics.Phase;
+
+/**
+ * Tests the collection of the startup metrics of the configurator.
+ */
+public class StartupMetricsTests extends TestCase {
+
+	private boolean enabled;
+
+	public StartupMetricsTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		enabled = StartupMetrics.ENABLED;
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		StartupMetrics.ENABLED = enabled;
+		super.tearDown();
+	}
+
+	/**
+	 * Ensures that nothing is collected while metrics are off
+	 */
+	public void testDisabled() {
+		StartupMetrics.ENABLED = false;
+		StartupMetrics metrics = StartupMetrics.getDefault();
+		long calls = metrics.getPhaseCalls(Phase.SAVE);
+		long stated = metrics.getCount(Counter.FILES_STATED);
+
+		StartupMetrics.Timer timer = StartupMetrics.start();
+		assertNull("No timer should be started while metrics are off", timer); //$NON-NLS-1$
+		StartupMetrics.end(Phase.SAVE, timer);
+		StartupMetrics.exists(new File(".")); //$NON-NLS-1$
+
+		assertEquals("The phase should not have been counted", calls, metrics.getPhaseCalls(Phase.SAVE)); //$NON-NLS-1$
+		assertEquals("The file system call should not have been counted", stated, metrics.getCount(Counter.FILES_STATED)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that phases and each file system call are counted while metrics are on
+	 */
+	public void testEnabled() {
+		StartupMetrics.ENABLED = true;
+		StartupMetrics metrics = StartupMetrics.getDefault();
+		long calls = metrics.getPhaseCalls(Phase.SAVE);
+		long nanos = metrics.getPhaseNanos(Phase.SAVE);
+		long stated = metrics.getCount(Counter.FILES_STATED);
+		long parsed = metrics.getCount(Counter.XML_PARSED);
+
+		StartupMetrics.Timer timer = StartupMetrics.start();
+		assertNotNull("A timer should be started while metrics are on", timer); //$NON-NLS-1$
+		File file = new File("."); //$NON-NLS-1$
+		StartupMetrics.exists(file);
+		StartupMetrics.isDirectory(file);
+		StartupMetrics.lastModified(file);
+		StartupMetrics.count(Counter.XML_PARSED);
+		StartupMetrics.end(Phase.SAVE, timer);
+
+		assertEquals("The phase should have been entered once", calls + 1, metrics.getPhaseCalls(Phase.SAVE)); //$NON-NLS-1$
+		assertTrue("The time of the phase should have been added", metrics.getPhaseNanos(Phase.SAVE) >= nanos); //$NON-NLS-1$
+		assertEquals("Each file system call should have been counted", stated + 3, metrics.getCount(Counter.FILES_STATED)); //$NON-NLS-1$
+		assertEquals("The parse should have been counted", parsed + 1, metrics.getCount(Counter.XML_PARSED)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ensures that the metrics are named after their phase or counter and that the dump has the same values
+	 */
+	public void testDump() throws Exception {
+		StartupMetrics metrics = StartupMetrics.getDefault();
+		Map<String, Long> values = metrics.getMetrics();
+		assertEquals("Incorrect value", Long.valueOf(metrics.getPhaseCalls(Phase.DETECT_PLUGINS)), values.get("phase.detect_plugins.calls")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect value", Long.valueOf(metrics.getCount(Counter.JARS_OPENED)), values.get("count.jars_opened")); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Incorrect number of metrics", Phase.values().length * 2 + Counter.values().length, values.size()); //$NON-NLS-1$
+
+		File file = File.createTempFile("metrics", ".properties"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			metrics.dump(file);
+			Properties dumped = new Properties();
+			try (InputStream in = new FileInputStream(file)) {
+				dumped.load(in);
+			}
+			assertEquals("Incorrect number of dumped metrics", values.size(), dumped.size()); //$NON-NLS-1$
+			for (Map.Entry<String, Long> entry : values.entrySet())
+				assertEquals("Incorrect dumped value of " + entry.getKey(), entry.getValue().toString(), dumped.getProperty(entry.getKey())); //$NON-NLS-1$
+		} finally {
+			file.delete();
+		}
+	}
+}
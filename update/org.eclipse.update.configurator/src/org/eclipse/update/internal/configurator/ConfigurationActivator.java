@@ -40,12 +40,14 @@ public class ConfigurationActivator implements BundleActivator, IBundleGroupProv
 
 	// debug options
 	public static String OPTION_DEBUG = PI_CONFIGURATOR + "/debug"; //$NON-NLS-1$
+	public static String OPTION_DEBUG_METRICS = PI_CONFIGURATOR + "/debug/metrics"; //$NON-NLS-1$
 	// debug values
 	public static boolean DEBUG = false;
 
 	private static BundleContext context;
 	private ServiceRegistration<IPlatformConfigurationFactory> configurationFactorySR;
 	ServiceRegistration<?> bundleGroupProviderSR;
+	private ServiceRegistration<IStartupMetrics> startupMetricsSR;
 	private PlatformConfiguration configuration;
 
 	// Location of the configuration data
@@ -69,24 +71,31 @@ public class ConfigurationActivator implements BundleActivator, IBundleGroupProv
 		context = ctx;
 		loadOptions();
 		acquireFrameworkLogService();
+		if (StartupMetrics.ENABLED)
+			startupMetricsSR = context.registerService(IStartupMetrics.class, StartupMetrics.getDefault(), null);
+		StartupMetrics.Timer timer = StartupMetrics.start();
 		try {
 			initialize();
 		} catch (Exception e) {
 			//we failed to start, so make sure Utils closes its service trackers
 			Utils.shutdown();
 			throw e;
+		} finally {
+			StartupMetrics.end(StartupMetrics.Phase.INITIALIZE, timer);
 		}
 
 		//Short cut, if the configuration has not changed
 		if (canRunWithCachedData()) {
 			Utils.debug("Running with cached data"); //$NON-NLS-1$
 			registerBundleGroupProvider();
+			FeatureBrandingCache.prefetch(this);
 			return;
 		}
 
 		Utils.debug("Starting update configurator..."); //$NON-NLS-1$
 
 		registerBundleGroupProvider();
+		FeatureBrandingCache.prefetch(this);
 	}
 	
 	private void registerBundleGroupProvider() {
@@ -160,9 +169,27 @@ public class ConfigurationActivator implements BundleActivator, IBundleGroupProv
 		configurationFactorySR.unregister();
 		if (bundleGroupProviderSR != null)
 			bundleGroupProviderSR.unregister();
+		FeatureBrandingCache.clear();
+		IdentifierPool.clear();
+		if (startupMetricsSR != null) {
+			startupMetricsSR.unregister();
+			startupMetricsSR = null;
+			dumpStartupMetrics();
+		}
 		Utils.shutdown();
 	}
 
+	private void dumpStartupMetrics() {
+		String fileName = context.getProperty(StartupMetrics.PROP_METRICS_FILE);
+		if (fileName == null)
+			return;
+		try {
+			StartupMetrics.getDefault().dump(new File(fileName));
+		} catch (IOException e) {
+			Utils.log(Utils.newStatus(NLS.bind(Messages.ConfigurationActivator_dumpMetrics, (new String[] {fileName})), e));
+		}
+	}
+
 	/**
 	 * Creates and starts the platform configuration.
 	 * @return the just started platform configuration
@@ -181,6 +208,8 @@ public class ConfigurationActivator implements BundleActivator, IBundleGroupProv
 	}
 
 	private void loadOptions() {
+		// a metrics file can be requested without enabling the debug options (e.g. in CI)
+		StartupMetrics.ENABLED = context.getProperty(StartupMetrics.PROP_METRICS_FILE) != null;
 		// all this is only to get the application args		
 		DebugOptions service = null;
 		ServiceReference<DebugOptions> reference = context.getServiceReference(DebugOptions.class);
@@ -190,6 +219,7 @@ public class ConfigurationActivator implements BundleActivator, IBundleGroupProv
 			return;
 		try {
 			DEBUG = service.getBooleanOption(OPTION_DEBUG, false);
+			StartupMetrics.ENABLED |= service.getBooleanOption(OPTION_DEBUG_METRICS, false);
 		} finally {
 			// we have what we want - release the service
 			context.ungetService(reference);
@@ -49,15 +49,23 @@ public class ConfigurationParser extends DefaultHandler implements IConfiguratio
 	private URL configURL;
 	private InputStream input;
 	private URL installLocation;
+	private ConfigurationSnapshot snapshot;
 	
 	/**
 	 * Constructor for ConfigurationParser
 	 */
-	public ConfigurationParser() throws InvocationTargetException {
+	public ConfigurationParser() {
+		// the SAX parser is created on demand, it is not needed when
+		// the configuration can be read from its snapshot
+	}
 
+	private SAXParser getParser() throws InvocationTargetException {
+		if (parser != null)
+			return parser;
 		try {
 			parserFactory.setNamespaceAware(true);
 			this.parser = parserFactory.newSAXParser();
+			return parser;
 		} catch (ParserConfigurationException e) {
 			Utils.log(Utils.newStatus("ConfigurationParser", e)); //$NON-NLS-1$
 			throw new InvocationTargetException(e);
@@ -72,23 +80,41 @@ public class ConfigurationParser extends DefaultHandler implements IConfiguratio
 		// DEBUG:		
 		Utils.debug("Start parsing Configuration:" + url); //$NON-NLS-1$	
 		long lastModified = 0;
+		File inputFile = null;
 		try {
 			configURL = url;
 			this.installLocation = installLocation;
 			if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
-				File inputFile = URIUtil.toFile(URIUtil.toURI(url));
+				inputFile = URIUtil.toFile(URIUtil.toURI(url));
 				if (!inputFile.exists() || !inputFile.canRead())
 					return null;
 				lastModified = inputFile.lastModified();
+				try {
+					if (ConfigurationSnapshot.replay(inputFile, this))
+						return config;
+				} catch (SAXException e) {
+					Utils.debug("Unable to replay configuration snapshot: " + e); //$NON-NLS-1$
+				}
+				// no usable snapshot, parse the xml and take a new snapshot on the way
+				config = null;
+				currentSiteURL = null;
+				if (ConfigurationSnapshot.isSnapshotCandidate(inputFile))
+					snapshot = new ConfigurationSnapshot();
 				input = new FileInputStream(inputFile);
 			} else 
 				input = url.openStream();
-			parser.parse(new InputSource(input), this);
+			StartupMetrics.count(StartupMetrics.Counter.XML_PARSED);
+			getParser().parse(new InputSource(input), this);
+			if (snapshot != null && config != null)
+				snapshot.write(inputFile);
 			return config;
+		} catch (InvocationTargetException e) {
+			throw (Exception) e.getTargetException();
 		} catch (Exception e) {
 			Utils.log(Utils.newStatus("ConfigurationParser.parse() error:", e)); //$NON-NLS-1$
 			throw e;
 		} finally {
+			snapshot = null;
 			if (config != null)
 				config.setLastModified(lastModified);
 			try {
@@ -108,6 +134,8 @@ public class ConfigurationParser extends DefaultHandler implements IConfiguratio
 		// DEBUG:		
 		Utils.debug("Start Element: uri:" + uri + " local Name:" + localName + " qName:" + qName); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		try {
+			if (snapshot != null)
+				snapshot.startElement(localName, attributes);
 
 			String tag = localName.trim();
 
@@ -375,6 +403,8 @@ public class ConfigurationParser extends DefaultHandler implements IConfiguratio
 		// DEBUG:		
 		Utils.debug("End Element: uri:" + uri + " local Name:" + localName + " qName:" + qName); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
 		try {
+			if (snapshot != null)
+				snapshot.endElement(localName);
 
 			String tag = localName.trim();
 
@@ -0,0 +1,271 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Compact binary copy of a platform.xml file, stored next to it as
+ * platform.xml.snapshot. The snapshot records the element and attribute stream
+ * of the configuration and is replayed into the {@link ConfigurationParser} on
+ * startup, so the XML parser is only needed when the snapshot is missing or no
+ * longer matches the size and time stamp of the XML file it was taken from.
+ * <p>
+ * A snapshot that cannot be recorded completely is not written, the XML file
+ * is then parsed again on the next startup.
+ * </p>
+ */
+class ConfigurationSnapshot {
+
+	static final String SNAPSHOT_SUFFIX = ".snapshot"; //$NON-NLS-1$
+	private static final String PLATFORM_XML = "platform.xml"; //$NON-NLS-1$
+	private static final String TEMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+	private static final int MAGIC = 0x45434647; // "ECFG"
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte EOF = 0;
+	private static final byte START_ELEMENT = 1;
+	private static final byte END_ELEMENT = 2;
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+	private final DataOutputStream out = new DataOutputStream(buffer);
+	private boolean failed;
+
+	/**
+	 * Records the start of an element as reported by the SAX parser.
+	 */
+	void startElement(String name, Attributes attributes) {
+		if (failed)
+			return;
+		try {
+			out.writeByte(START_ELEMENT);
+			writeString(out, name);
+			int count = attributes.getLength();
+			out.writeInt(count);
+			for (int i = 0; i < count; i++) {
+				writeString(out, attributes.getLocalName(i));
+				writeString(out, attributes.getValue(i));
+			}
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	/**
+	 * Records the end of an element as reported by the SAX parser.
+	 */
+	void endElement(String name) {
+		if (failed)
+			return;
+		try {
+			writeEndElement(name);
+		} catch (IOException e) {
+			fail(e);
+		}
+	}
+
+	private void writeEndElement(String name) throws IOException {
+		out.writeByte(END_ELEMENT);
+		writeString(out, name);
+	}
+
+	/*
+	 * Gives up on this snapshot, so that the XML file is parsed again on the
+	 * next startup.
+	 */
+	private void fail(IOException e) {
+		failed = true;
+		Utils.log(new Status(IStatus.WARNING, ConfigurationActivator.PI_CONFIGURATOR, "Unable to record the configuration snapshot, the configuration will be parsed on the next startup", e)); //$NON-NLS-1$
+	}
+
+	private void record(Element element) throws IOException {
+		out.writeByte(START_ELEMENT);
+		writeString(out, element.getTagName());
+		NamedNodeMap attributes = element.getAttributes();
+		int count = attributes.getLength();
+		out.writeInt(count);
+		for (int i = 0; i < count; i++) {
+			Attr attribute = (Attr) attributes.item(i);
+			writeString(out, attribute.getName());
+			writeString(out, attribute.getValue());
+		}
+		for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+			if (child.getNodeType() == Node.ELEMENT_NODE)
+				record((Element) child);
+		}
+		writeEndElement(element.getTagName());
+	}
+
+	/**
+	 * Writes the recorded elements as the snapshot of the given XML file. The
+	 * XML file must be complete, since its current size and time stamp are used
+	 * to validate the snapshot when it is read back.
+	 */
+	void write(File xmlFile) {
+		if (failed)
+			return;
+		File snapshotFile = getSnapshotFile(xmlFile);
+		File tempFile = new File(snapshotFile.getPath() + TEMP_SUFFIX);
+		try {
+			out.writeByte(EOF);
+			out.flush();
+			try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				os.writeInt(MAGIC);
+				os.writeInt(FORMAT_VERSION);
+				os.writeLong(xmlFile.length());
+				os.writeLong(xmlFile.lastModified());
+				buffer.writeTo(os);
+			}
+			snapshotFile.delete();
+			if (!tempFile.renameTo(snapshotFile)) {
+				tempFile.delete();
+				Utils.debug("Unable to rename configuration snapshot " + tempFile); //$NON-NLS-1$
+			}
+		} catch (IOException e) {
+			// the snapshot is only an optimization, platform.xml is still authoritative
+			tempFile.delete();
+			Utils.debug("Unable to write configuration snapshot " + snapshotFile + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Writes the snapshot of a configuration element that has just been saved
+	 * to the given XML file.
+	 */
+	static void write(Element configElement, File xmlFile) {
+		ConfigurationSnapshot snapshot = new ConfigurationSnapshot();
+		try {
+			snapshot.record(configElement);
+		} catch (IOException e) {
+			snapshot.fail(e);
+		}
+		snapshot.write(xmlFile);
+	}
+
+	/**
+	 * Removes the snapshot of the given XML file, if any. Called before the XML
+	 * file is replaced so that a stale snapshot can never be picked up.
+	 */
+	static void delete(File xmlFile) {
+		File snapshotFile = getSnapshotFile(xmlFile);
+		if (snapshotFile.exists() && !snapshotFile.delete())
+			Utils.debug("Unable to delete configuration snapshot " + snapshotFile); //$NON-NLS-1$
+	}
+
+	/**
+	 * Returns whether a snapshot should be taken when the given XML file is
+	 * parsed. Only the live platform.xml in a writable location is considered;
+	 * temporary and backup files are parsed for recovery only.
+	 */
+	static boolean isSnapshotCandidate(File xmlFile) {
+		File dir = xmlFile.getParentFile();
+		return PLATFORM_XML.equals(xmlFile.getName()) && dir != null && dir.canWrite();
+	}
+
+	/**
+	 * Replays the snapshot of the given XML file into the handler.
+	 *
+	 * @return <code>true</code> if a valid snapshot was found and replayed,
+	 * <code>false</code> if the XML file has to be parsed instead
+	 */
+	static boolean replay(File xmlFile, DefaultHandler handler) throws SAXException {
+		File snapshotFile = getSnapshotFile(xmlFile);
+		if (!snapshotFile.isFile())
+			return false;
+
+		ArrayList<Object> events = new ArrayList<>();
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshotFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+				return false;
+			if (in.readLong() != xmlFile.length() || in.readLong() != xmlFile.lastModified()) {
+				Utils.debug("Configuration snapshot is out of date: " + snapshotFile); //$NON-NLS-1$
+				return false;
+			}
+			// decode everything first, a truncated snapshot must not reach the handler
+			byte type;
+			while ((type = in.readByte()) != EOF) {
+				if (type == START_ELEMENT) {
+					String name = readString(in);
+					AttributesImpl attributes = new AttributesImpl();
+					int count = in.readInt();
+					for (int i = 0; i < count; i++) {
+						String attributeName = readString(in);
+						attributes.addAttribute("", attributeName, attributeName, "CDATA", readString(in)); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					events.add(new Object[] {name, attributes});
+				} else if (type == END_ELEMENT) {
+					events.add(readString(in));
+				} else {
+					return false;
+				}
+			}
+		} catch (IOException e) {
+			Utils.debug("Unable to read configuration snapshot " + snapshotFile + ": " + e); //$NON-NLS-1$ //$NON-NLS-2$
+			return false;
+		}
+
+		Utils.debug("Using configuration snapshot " + snapshotFile); //$NON-NLS-1$
+		for (int i = 0; i < events.size(); i++) {
+			Object event = events.get(i);
+			if (event instanceof String) {
+				String name = (String) event;
+				handler.endElement("", name, name); //$NON-NLS-1$
+			} else {
+				Object[] start = (Object[]) event;
+				String name = (String) start[0];
+				handler.startElement("", name, name, (Attributes) start[1]); //$NON-NLS-1$
+			}
+		}
+		return true;
+	}
+
+	static File getSnapshotFile(File xmlFile) {
+		return new File(xmlFile.getPath() + SNAPSHOT_SUFFIX);
+	}
+
+	private static void writeString(DataOutputStream os, String value) throws IOException {
+		// not writeUTF(), policy lists are not bounded to 64K
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		os.writeInt(bytes.length);
+		os.write(bytes);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			throw new IOException();
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.eclipse.core.runtime.IBundleGroup;
+
+/**
+ * Per-locale cache of the resolved branding and NL strings of features,
+ * keyed by feature id and version. Reading the branding of a feature means
+ * reading its about.ini and the resource bundle of the about.ini; the cache
+ * makes sure this is done once per feature version and locale, no matter how
+ * many {@link FeatureEntry} instances describe it or how often the about
+ * dialog and product branding ask for it. The same holds for the
+ * feature.properties of a feature and its translated description. Lookups do
+ * not lock.
+ */
+final class FeatureBrandingCache {
+
+	/**
+	 * The resolved branding of one feature version in one locale.
+	 */
+	static final class Branding {
+		private final String name;
+		private final String providerName;
+		private final Map<String, String> properties;
+
+		Branding(String name, String providerName, Map<String, String> properties) {
+			this.name = name;
+			this.providerName = providerName;
+			this.properties = Collections.unmodifiableMap(properties);
+		}
+
+		String getName() {
+			return name;
+		}
+
+		String getProviderName() {
+			return providerName;
+		}
+
+		String getProperty(String key) {
+			return properties.get(key);
+		}
+	}
+
+	private static final String PREFETCH_THREAD_NAME = "Update Configurator Branding Prefetch"; //$NON-NLS-1$
+
+	// stand for a feature without feature.properties or description, the
+	// maps cannot hold null
+	private static final Object NO_RESOURCES = new Object();
+	private static final String NO_DESCRIPTION = new String();
+
+	private static final Map<String, Branding> cache = new ConcurrentHashMap<>();
+	private static final Map<String, Object> resources = new ConcurrentHashMap<>();
+	private static final Map<String, String> descriptions = new ConcurrentHashMap<>();
+	private static ExecutorService prefetchExecutor;
+
+	private FeatureBrandingCache() {
+		// Do not instantiate
+	}
+
+	private static String getKey(FeatureEntry feature) {
+		return Utils.getDefaultLocale() + "/" + feature.getFeatureIdentifier() + "_" + feature.getFeatureVersion(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Returns the branding of the given feature for the current locale,
+	 * reading it if no other entry for the same feature version did already.
+	 */
+	static Branding getBranding(FeatureEntry feature) {
+		String key = getKey(feature);
+		Branding branding = cache.get(key);
+		if (branding != null)
+			return branding;
+		// read outside of the map, two readers racing for the same
+		// feature compute the same value and the first one wins
+		branding = feature.readBranding();
+		Branding existing = cache.putIfAbsent(key, branding);
+		return existing != null ? existing : branding;
+	}
+
+	/**
+	 * Returns the feature.properties of the given feature for the current
+	 * locale, or <code>null</code> if it has none, reading it if no other
+	 * entry for the same feature version did already.
+	 */
+	static ResourceBundle getResourceBundle(FeatureEntry feature) {
+		String key = getKey(feature);
+		Object bundle = resources.get(key);
+		if (bundle == null) {
+			ResourceBundle read = feature.readResourceBundle();
+			bundle = read != null ? read : NO_RESOURCES;
+			Object existing = resources.putIfAbsent(key, bundle);
+			if (existing != null)
+				bundle = existing;
+		}
+		return bundle == NO_RESOURCES ? null : (ResourceBundle) bundle;
+	}
+
+	/**
+	 * Returns the description of the given feature translated for the current
+	 * locale, or <code>null</code> if it has none, reading it if no other
+	 * entry for the same feature version did already.
+	 */
+	static String getDescription(FeatureEntry feature) {
+		String key = getKey(feature);
+		String description = descriptions.get(key);
+		if (description == null) {
+			description = feature.readDescription();
+			if (description == null)
+				description = NO_DESCRIPTION;
+			String existing = descriptions.putIfAbsent(key, description);
+			if (existing != null)
+				description = existing;
+		}
+		return description == NO_DESCRIPTION ? null : description;
+	}
+
+	/**
+	 * Resolves the branding of the activator's bundle groups in a low priority
+	 * background thread, so that it is available by the time the about
+	 * dialog or the product branding asks for it.
+	 */
+	static synchronized void prefetch(final ConfigurationActivator activator) {
+		if (prefetchExecutor == null) {
+			prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, PREFETCH_THREAD_NAME);
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}
+			});
+		}
+		prefetchExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					IBundleGroup[] groups = activator.getBundleGroups();
+					for (int i = 0; i < groups.length && !Thread.currentThread().isInterrupted(); i++) {
+						if (groups[i] instanceof FeatureEntry)
+							getBranding((FeatureEntry) groups[i]);
+					}
+				} catch (RuntimeException e) {
+					// the bundle may have been stopped in the meantime,
+					// missing entries are read on demand
+					Utils.debug("Branding prefetch failed: " + e); //$NON-NLS-1$
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stops any running prefetch and forgets all cached branding, resources
+	 * and descriptions.
+	 */
+	static void clear() {
+		synchronized (FeatureBrandingCache.class) {
+			if (prefetchExecutor != null) {
+				prefetchExecutor.shutdownNow();
+				prefetchExecutor = null;
+			}
+		}
+		cache.clear();
+		resources.clear();
+		descriptions.clear();
+	}
+}
@@ -12,6 +12,7 @@ package org.eclipse.update.internal.configurator;
 
 import java.net.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
 
@@ -40,25 +41,29 @@ public class FeatureEntry
 	private URL[] root;
 	private boolean primary;
 	private String pluginIdentifier;
+	// the url is kept as a location kind plus the directory name, see IdentifierPool
+	private byte urlKind = IdentifierPool.LOCATION_OTHER;
+	private String urlName;
+	// the url built from the above, computed when first asked for
 	private String url;
 	private String description;
 	private String licenseURL;
 	private ArrayList<PluginEntry> plugins;
-	private AboutInfo branding;
 	private SiteEntry site;
-	private ResourceBundle resourceBundle;
-	private boolean fullyParsed;
+	private volatile boolean fullyParsed;
+
+	private static final URL[] NO_ROOTS = new URL[0];
 
 	public FeatureEntry(String id, String version, String pluginIdentifier, String pluginVersion, boolean primary, String application, URL[] root) {
 		if (id == null)
 			throw new IllegalArgumentException();
-		this.id = id;
-		this.version = version;
-		this.pluginVersion = pluginVersion;
-		this.pluginIdentifier = pluginIdentifier;
+		this.id = IdentifierPool.intern(id);
+		this.version = IdentifierPool.intern(version);
+		this.pluginVersion = IdentifierPool.intern(pluginVersion);
+		this.pluginIdentifier = IdentifierPool.intern(pluginIdentifier);
 		this.primary = primary;
-		this.application = application;
-		this.root = (root == null ? new URL[0] : root);
+		this.application = IdentifierPool.intern(application);
+		this.root = (root == null || root.length == 0 ? NO_ROOTS : root);
 	}
 
 	public FeatureEntry( String id, String version, String pluginVersion, boolean primary, String application, URL[] root) {
@@ -80,8 +85,7 @@ public class FeatureEntry
 	}
 	
 	public PluginEntry[] getPluginEntries() {
-		if (plugins == null)
-			fullParse();
+		fullParse();
 		return plugins.toArray(new PluginEntry[plugins.size()]);
 	}
 	
@@ -90,15 +94,21 @@ public class FeatureEntry
 	 * @param url
 	 */
 	public void setURL(String url) {
-		this.url = url;
+		urlKind = IdentifierPool.getLocationKind(url, FEATURES);
+		if (urlKind == IdentifierPool.LOCATION_JAR)
+			urlKind = IdentifierPool.LOCATION_OTHER;
+		urlName = IdentifierPool.getLocationName(url, FEATURES, urlKind, id, version);
+		this.url = null;
 	}
 	
 	/**
 	 * @return the feature url (relative to the site): features/org.eclipse.platform/
 	 */
 	public String getURL() {
-//		if (url == null)
-//			url = FEATURES + "/" + id + "_" + version + "/";
+		if (urlKind == IdentifierPool.LOCATION_OTHER)
+			return urlName;
+		if (url == null)
+			url = IdentifierPool.getLocation(FEATURES, urlKind, urlName, id, version);
 		return url;
 	}
 	
@@ -179,8 +189,7 @@ public class FeatureEntry
 	
 	@Override
 	public Bundle[] getBundles() {
-		if (plugins == null)
-			fullParse();
+		fullParse();
 		
 		ArrayList<Bundle> bundles = new ArrayList<>(plugins.size());
 		for (int i=0; i<plugins.size(); i++) {
@@ -195,9 +204,19 @@ public class FeatureEntry
 
 	@Override
 	public String getDescription() {
+		return FeatureBrandingCache.getDescription(this);
+	}
+
+	/*
+	 * Reads the description of this feature from feature.xml and translates it
+	 * for the current locale. Only called to populate the FeatureBrandingCache.
+	 */
+	String readDescription() {
 		if (description == null)
 			fullParse();
-		return description;
+		if (description == null)
+			return null;
+		return Utils.getResourceString(getResourceBundle(), description);
 	}
 
 	@Override
@@ -207,9 +226,7 @@ public class FeatureEntry
 
 	@Override
 	public String getName() {
-		if (branding == null)
-			branding = AboutInfo.readFeatureInfo(id, version, getFeaturePluginIdentifier());
-		return branding.getProductName();
+		return FeatureBrandingCache.getBranding(this).getName();
 	}
 
 	@Override
@@ -217,53 +234,58 @@ public class FeatureEntry
 		if (key == null)
 			return null;
 		
-		if (branding == null)
-			branding = AboutInfo.readFeatureInfo(id, version, getFeaturePluginIdentifier());
-		
-		// IBundleGroupConstants
-		if (key.equals(FEATURE_IMAGE))
-			return branding.getFeatureImageURL() == null ? null : branding.getFeatureImageURL().toExternalForm();
-		else if (key.equals(TIPS_AND_TRICKS_HREF)) 
-			return branding.getTipsAndTricksHref();
-		else if (key.equals(IBundleGroupConstants.WELCOME_PAGE)) // same value is used by product and bundle group
-			return branding.getWelcomePageURL() == null ? null : branding.getWelcomePageURL().toExternalForm();
-		else if (key.equals(WELCOME_PERSPECTIVE))
-			return branding.getWelcomePerspectiveId();
-		else if (key.equals(BRANDING_BUNDLE_ID))
+		if (key.equals(BRANDING_BUNDLE_ID))
 			return pluginIdentifier;
 		else if (key.equals(BRANDING_BUNDLE_VERSION))
 			return pluginVersion;
+		else if (key.equals(LICENSE_HREF))
+			return getLicenseURL();
+		
+		return FeatureBrandingCache.getBranding(this).getProperty(key);
+	}
+	
+	@Override
+	public String getProviderName() {
+		return FeatureBrandingCache.getBranding(this).getProviderName();
+	}
+	
+	/*
+	 * Reads the branding of this feature for the current locale. This is
+	 * expensive (about.ini and its resource bundle are read), so it is only
+	 * called to populate the FeatureBrandingCache. The description and the
+	 * license come from feature.xml and are only read when asked for.
+	 */
+	FeatureBrandingCache.Branding readBranding() {
+		AboutInfo branding = AboutInfo.readFeatureInfo(id, version, getFeaturePluginIdentifier());
+		HashMap<String, String> properties = new HashMap<>();
+		
+		// IBundleGroupConstants
+		properties.put(FEATURE_IMAGE, toExternalForm(branding.getFeatureImageURL()));
+		properties.put(TIPS_AND_TRICKS_HREF, branding.getTipsAndTricksHref());
+		// same value is used by product and bundle group
+		properties.put(IBundleGroupConstants.WELCOME_PAGE, toExternalForm(branding.getWelcomePageURL()));
+		properties.put(WELCOME_PERSPECTIVE, branding.getWelcomePerspectiveId());
 		// IProductConstants
-		else if (key.equals(APP_NAME)) 
-			return branding.getAppName();
-		else if (key.equals(ABOUT_TEXT))
-			return branding.getAboutText();
-		else if (key.equals(ABOUT_IMAGE))
-			return branding.getAboutImageURL() == null ? null : branding.getAboutImageURL().toExternalForm();
-		else if (key.equals(WINDOW_IMAGE))
-			return branding.getWindowImageURL()== null ? null : branding.getWindowImageURL().toExternalForm();
-		else if (key.equals(WINDOW_IMAGES)) {
-			URL[] urls = branding.getWindowImagesURLs();
-			if (urls == null)
-				return null;
+		properties.put(APP_NAME, branding.getAppName());
+		properties.put(ABOUT_TEXT, branding.getAboutText());
+		properties.put(ABOUT_IMAGE, toExternalForm(branding.getAboutImageURL()));
+		properties.put(WINDOW_IMAGE, toExternalForm(branding.getWindowImageURL()));
+		URL[] urls = branding.getWindowImagesURLs();
+		if (urls != null) {
 			StringBuffer windowImagesURLs = new StringBuffer();
 			for (int i=0; i<urls.length; i++){
 				windowImagesURLs.append(urls[i].toExternalForm());
 				if (i != urls.length-1)
 					windowImagesURLs.append(',');
 			}
-			return windowImagesURLs.toString();
-		} else if (key.equals(LICENSE_HREF))
-			return getLicenseURL();
+			properties.put(WINDOW_IMAGES, windowImagesURLs.toString());
+		}
 		
-		return null;
+		return new FeatureBrandingCache.Branding(branding.getProductName(), branding.getProviderName(), properties);
 	}
 	
-	@Override
-	public String getProviderName() {
-		if (branding == null)
-			branding = AboutInfo.readFeatureInfo(id, version, getFeaturePluginIdentifier());
-		return branding.getProviderName();
+	private static String toExternalForm(URL url) {
+		return url == null ? null : url.toExternalForm();
 	}
 	
 	@Override
@@ -280,24 +302,27 @@ public class FeatureEntry
 	}
 	
 	public ResourceBundle getResourceBundle(){
-		if (resourceBundle != null)
-			return resourceBundle;
-		
 		// Determine the properties file location
 		if (site == null)
 			return null;
-		
-		ResourceBundle bundle = null;
+		return FeatureBrandingCache.getResourceBundle(this);
+	}
+
+	/*
+	 * Reads the feature.properties of this feature for the current locale.
+	 * Only called to populate the FeatureBrandingCache.
+	 */
+	ResourceBundle readResourceBundle() {
 		try {
 			URL propertiesURL = new URL(site.getResolvedURL(), getURL());
 			ClassLoader l = new URLClassLoader(new URL[] { propertiesURL }, null);
-			bundle = ResourceBundle.getBundle(IConfigurationConstants.CFG_FEATURE_ENTRY, Utils.getDefaultLocale(), l);
+			return ResourceBundle.getBundle(IConfigurationConstants.CFG_FEATURE_ENTRY, Utils.getDefaultLocale(), l);
 		} catch (MissingResourceException e) {
 			Utils.log(e.getLocalizedMessage()); 
 		} catch (MalformedURLException e) {
 			Utils.log(e.getLocalizedMessage()); 
 		}
-		return bundle;
+		return null;
 	}
 	
 	public void setLicenseURL(String licenseURL) {
@@ -321,13 +346,22 @@ public class FeatureEntry
 	}
 	
 	private void fullParse() {
+		// parsed features are not locked
 		if (fullyParsed)
 			return;
-		fullyParsed = true;
-		if (plugins == null) 
-			plugins = new ArrayList<>();
-		FullFeatureParser parser = new FullFeatureParser(this);
-		parser.parse();
+		synchronized (this) {
+			if (fullyParsed)
+				return;
+			try {
+				if (plugins == null) 
+					plugins = new ArrayList<>();
+				FullFeatureParser parser = new FullFeatureParser(this);
+				parser.parse();
+				plugins.trimToSize();
+			} finally {
+				fullyParsed = true;
+			}
+		}
 	}
 	
 	public Bundle getDefiningBundle() {
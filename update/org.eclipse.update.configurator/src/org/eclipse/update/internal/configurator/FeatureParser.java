@@ -58,6 +58,7 @@ public class FeatureParser extends DefaultHandler {
 		try {
 			this.url = featureURL;
 			in = featureURL.openStream();
+			StartupMetrics.count(StartupMetrics.Counter.XML_PARSED);
 			parser.parse(new InputSource(in), this);
 		} catch (SAXException e) {
 		} catch (IOException e) {
@@ -13,7 +13,6 @@ package org.eclipse.update.internal.configurator;
 
 import java.io.*;
 import java.net.*;
-import java.util.ResourceBundle;
 
 import javax.xml.parsers.*;
 
@@ -59,6 +58,7 @@ public class FullFeatureParser extends DefaultHandler implements IConfigurationC
 				return;
 			this.url = new URL(feature.getSite().getResolvedURL(), feature.getURL() + FEATURE_XML);
 			in = url.openStream();
+			StartupMetrics.count(StartupMetrics.Counter.XML_PARSED);
 			parser.parse(new InputSource(in), this);
 		} catch (SAXException e) {
 		} catch (IOException e) {
@@ -140,9 +140,8 @@ public class FullFeatureParser extends DefaultHandler implements IConfigurationC
 			throws SAXException {
 		if ("description".equals(localName)) { //$NON-NLS-1$
 			isDescription = false;
-			String d = description.toString().trim();
-			ResourceBundle bundle = feature.getResourceBundle();
-			feature.setDescription(Utils.getResourceString(bundle, d));
+			// translated by the feature for each locale
+			feature.setDescription(description.toString().trim());
 		}
 	}
 }
@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.util.Map;
+
+/**
+ * The startup metrics of the configurator: the time spent in its startup
+ * phases and the file system work done while detecting sites.
+ * <p>
+ * The metrics are only collected when the
+ * <code>org.eclipse.update.configurator/debug/metrics</code> debug option is
+ * set or when the <code>org.eclipse.update.configurator.metrics.file</code>
+ * framework property names a file to write them to when the bundle stops.
+ * While they are collected, an instance is registered as an OSGi service under
+ * this interface, for tools and tests of the platform. It is not API.
+ * </p>
+ */
+public interface IStartupMetrics {
+
+	/**
+	 * Returns the current value of all metrics by name, in a stable order.
+	 * <p>
+	 * For each phase there is a <code>phase.&lt;name&gt;.nanos</code> entry
+	 * with the total time spent in the phase in nanoseconds and a
+	 * <code>phase.&lt;name&gt;.calls</code> entry with the number of times the
+	 * phase was entered. For each counted operation there is a
+	 * <code>count.&lt;name&gt;</code> entry. The names are those of the file
+	 * named by <code>org.eclipse.update.configurator.metrics.file</code>.
+	 * </p>
+	 *
+	 * @return the metrics, not <code>null</code>
+	 */
+	public Map<String, Long> getMetrics();
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.osgi.framework.Version;
+
+/**
+ * Shared pool of the identifiers, version strings and parsed versions of the
+ * configuration model. The same ids and versions show up in every site, linked
+ * configuration, feature and plug-in list; pooling them keeps one copy of each
+ * in a running configuration no matter how often it is detected or parsed.
+ * The pool only holds its values weakly, so a value is dropped from it once no
+ * entry of the model refers to it any longer.
+ * <p>
+ * It also encodes the site relative locations of features and plug-ins
+ * (<code>plugins/&lt;name&gt;/</code>, <code>plugins/&lt;name&gt;.jar</code>) as
+ * a location kind plus a name, where the name is omitted when it is the
+ * conventional <code>&lt;id&gt;_&lt;version&gt;</code>.
+ * </p>
+ */
+final class IdentifierPool {
+
+	/** A location that does not follow the folder layout, kept verbatim. */
+	static final byte LOCATION_OTHER = 0;
+	/** <code>&lt;folder&gt;/&lt;name&gt;/</code> */
+	static final byte LOCATION_DIRECTORY = 1;
+	/** <code>&lt;folder&gt;/&lt;name&gt;.jar</code> */
+	static final byte LOCATION_JAR = 2;
+
+	private static final String JAR_SUFFIX = ".jar"; //$NON-NLS-1$
+
+	private static final Map<String, WeakReference<String>> strings = new WeakHashMap<>();
+	// keyed by the pooled version strings, so a version is kept as long as its string
+	private static final Map<String, Version> versions = new WeakHashMap<>();
+
+	private IdentifierPool() {
+		// Do not instantiate
+	}
+
+	/**
+	 * Returns the pooled instance of the given string.
+	 */
+	static String intern(String value) {
+		if (value == null)
+			return null;
+		synchronized (strings) {
+			WeakReference<String> ref = strings.get(value);
+			String existing = ref == null ? null : ref.get();
+			if (existing != null)
+				return existing;
+			strings.put(value, new WeakReference<>(value));
+			return value;
+		}
+	}
+
+	/**
+	 * Returns the pooled parsed form of the given version string.
+	 *
+	 * @throws IllegalArgumentException if the version is not well formed
+	 */
+	static Version getVersion(String version) {
+		if (version == null)
+			return Version.emptyVersion;
+		synchronized (versions) {
+			Version result = versions.get(version);
+			if (result == null) {
+				result = Version.parseVersion(version);
+				versions.put(intern(version), result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Returns how the given site relative location is laid out below the
+	 * folder, one of the <code>LOCATION_*</code> constants.
+	 */
+	static byte getLocationKind(String location, String folder) {
+		if (location == null || location.length() <= folder.length() + 1 || !location.startsWith(folder) || location.charAt(folder.length()) != '/')
+			return LOCATION_OTHER;
+		int slash = location.indexOf('/', folder.length() + 1);
+		if (slash == -1)
+			return location.endsWith(JAR_SUFFIX) ? LOCATION_JAR : LOCATION_OTHER;
+		if (slash == location.length() - 1 && slash > folder.length() + 1)
+			return LOCATION_DIRECTORY;
+		return LOCATION_OTHER;
+	}
+
+	/**
+	 * Returns the part of the location to keep for the given kind, or
+	 * <code>null</code> if it can be derived from the id and version.
+	 */
+	static String getLocationName(String location, String folder, byte kind, String id, String version) {
+		if (kind == LOCATION_OTHER)
+			return location;
+		int end = location.length() - (kind == LOCATION_DIRECTORY ? 1 : JAR_SUFFIX.length());
+		String name = location.substring(folder.length() + 1, end);
+		return isDefaultName(name, id, version) ? null : name;
+	}
+
+	/**
+	 * Inverse of {@link #getLocationKind(String, String)} and
+	 * {@link #getLocationName(String, String, byte, String, String)}.
+	 */
+	static String getLocation(String folder, byte kind, String name, String id, String version) {
+		if (kind == LOCATION_OTHER)
+			return name;
+		StringBuffer buffer = new StringBuffer(64);
+		buffer.append(folder).append('/');
+		if (name != null)
+			buffer.append(name);
+		else
+			buffer.append(id).append('_').append(version);
+		buffer.append(kind == LOCATION_DIRECTORY ? "/" : JAR_SUFFIX); //$NON-NLS-1$
+		return buffer.toString();
+	}
+
+	private static boolean isDefaultName(String name, String id, String version) {
+		if (id == null || version == null)
+			return false;
+		return name.length() == id.length() + 1 + version.length() && name.startsWith(id) && name.charAt(id.length()) == '_' && name.endsWith(version);
+	}
+
+	/**
+	 * Forgets all pooled values. Entries created before keep their own copies.
+	 */
+	static void clear() {
+		synchronized (strings) {
+			strings.clear();
+		}
+		synchronized (versions) {
+			versions.clear();
+		}
+	}
+}
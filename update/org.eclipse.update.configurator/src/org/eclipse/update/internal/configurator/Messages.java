@@ -36,6 +36,7 @@ public final class Messages extends NLS {
 	public static String ConfigurationActivator_uninstallBundle;
 	public static String ConfigurationParser_cannotLoadSharedInstall;
 	public static String ConfigurationActivator_installBundle;
+	public static String ConfigurationActivator_dumpMetrics;
 	public static String PluginEntry_versionError;
 	public static String IniFileReader_MissingDesc;
 	public static String IniFileReader_OpenINIError;
@@ -20,7 +20,6 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.SyncFailedException;
 import java.io.UnsupportedEncodingException;
-import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
@@ -54,6 +53,8 @@ import org.w3c.dom.Element;
  * and whether there are any file system changes that are newer (users may manually unzip
  * features and plugins). In this case, the newly added features and plugins are picked up.
  * A check for existence of features and plugins is also performed, to detect deletions.
+ * Each save also writes a binary snapshot of platform.xml (see {@link ConfigurationSnapshot}),
+ * which is read on startup instead of the XML file as long as the latter is unchanged.
  */
 public class PlatformConfiguration implements IPlatformConfiguration, IConfigurationConstants {
 
@@ -500,6 +501,16 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 		if (url == null)
 			throw new IOException(Messages.cfig_unableToSave_noURL);
 
+		StartupMetrics.Timer timer = StartupMetrics.start();
+		try {
+			doSave(url);
+		} finally {
+			StartupMetrics.end(StartupMetrics.Phase.SAVE, timer);
+		}
+	}
+
+	private void doSave(URL url) throws IOException {
+
 		if (!url.getProtocol().equals("file")) { //$NON-NLS-1$
 			// not a file protocol - attempt to save to the URL
 			URLConnection uc = url.openConnection();
@@ -534,6 +545,9 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 			File cfigFileOriginal = new File(cfigFile.getAbsolutePath());
 			File cfigTmp = new File(cfigFile.getAbsolutePath() + CONFIG_FILE_TEMP_SUFFIX);
 
+			// the snapshot of the current config is about to become stale
+			ConfigurationSnapshot.delete(cfigFileOriginal);
+
 			// Backup old file
 			if (cfigFile.exists()) {
 				File backupDir = new File(workingDir, CONFIG_HISTORY);
@@ -554,8 +568,9 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 			}
 
 			// first save the file as temp
+			Element configElement;
 			try (FileOutputStream os = new FileOutputStream(cfigTmp)){
-				saveAsXML(os);
+				configElement = saveAsXML(os);
 				// Try flushing any internal buffers, and synchronize with the disk
 				try {
 					os.flush();
@@ -595,6 +610,9 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 
 				throw new IOException(NLS.bind(Messages.cfig_unableToSave, (new String[] {cfigTmp.getAbsolutePath()})));
 			}
+
+			// write the binary snapshot used for fast loading on next startup
+			ConfigurationSnapshot.write(configElement, cfigFileOriginal);
 		}
 	}
 
@@ -765,11 +783,13 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 	}
 
 	private long computeChangeStamp() {
+		StartupMetrics.Timer timer = StartupMetrics.start();
 		featuresChangeStamp = computeFeaturesChangeStamp();
 		pluginsChangeStamp = computePluginsChangeStamp();
 		changeStamp = Math.max(featuresChangeStamp, pluginsChangeStamp);
 		// round off to seconds
 		changeStamp = (changeStamp / 1000) * 1000;
+		StartupMetrics.end(StartupMetrics.Phase.COMPUTE_STAMPS, timer);
 		return changeStamp;
 	}
 
@@ -829,13 +849,18 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 		if (url == null)
 			throw new IOException(Messages.cfig_unableToLoad_noURL);
 
-		// try to load saved configuration file (watch for failed prior save())
-		ConfigurationParser parser = null;
+		StartupMetrics.Timer timer = StartupMetrics.start();
 		try {
-			parser = new ConfigurationParser();
-		} catch (InvocationTargetException e) {
-			throw (Exception) e.getTargetException();
+			return doLoadConfig(url, installLocation);
+		} finally {
+			StartupMetrics.end(StartupMetrics.Phase.LOAD_CONFIG, timer);
 		}
+	}
+
+	private Configuration doLoadConfig(URL url, URL installLocation) throws Exception {
+
+		// try to load saved configuration file (watch for failed prior save())
+		ConfigurationParser parser = new ConfigurationParser();
 
 		config = null;
 		Exception originalException = null;
@@ -960,7 +985,7 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 		return installURL;
 	}
 
-	private void saveAsXML(OutputStream stream) throws CoreException, IOException {
+	private Element saveAsXML(OutputStream stream) throws CoreException, IOException {
 		BufferedWriter xmlWriter = new BufferedWriter(new OutputStreamWriter(stream, XML_ENCODING));
 		try {
 			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -980,6 +1005,7 @@ public class PlatformConfiguration implements IPlatformConfiguration, IConfigura
 			// This is not DBCS friendly... PAL
 			//XMLPrintHandler.printComment(xmlWriter,"Created on " + config.getDate().toString());
 			XMLPrintHandler.printNode(xmlWriter, doc, XML_ENCODING);
+			return configElement;
 
 		} catch (Exception e) {
 			throw Utils.newCoreException("", e); //$NON-NLS-1$
@@ -12,12 +12,17 @@ package org.eclipse.update.internal.configurator;
 
 import org.eclipse.osgi.util.NLS;
 
-public class PluginEntry {
+public class PluginEntry implements IConfigurationConstants {
 
 	private String pluginId;
 	private String pluginVersion;
 	private boolean isFragment = false;
 	private VersionedIdentifier versionId;
+	// the url is kept as a location kind plus the directory or jar name,
+	// see IdentifierPool
+	private byte urlKind = IdentifierPool.LOCATION_OTHER;
+	private String urlName;
+	// the url built from the above, computed when first asked for
 	private String url;
 	
 	public PluginEntry() {
@@ -29,6 +34,10 @@ public class PluginEntry {
 	 * Note: to do: we should probably only use plugins/org.eclipse.foo/ in the future
 	 */
 	public String getURL() {
+		if (urlKind == IdentifierPool.LOCATION_OTHER)
+			return urlName;
+		if (url == null)
+			url = IdentifierPool.getLocation(PLUGINS, urlKind, urlName, pluginId, pluginVersion);
 		return url;
 	}
 	
@@ -36,7 +45,17 @@ public class PluginEntry {
 	 * url is relative to the site
 	 */
 	public void setURL(String url) {
-		this.url = url;
+		urlKind = IdentifierPool.getLocationKind(url, PLUGINS);
+		urlName = IdentifierPool.getLocationName(url, PLUGINS, urlKind, pluginId, pluginVersion);
+		this.url = null;
+	}
+
+	/*
+	 * Returns the url if it is derived from the id and version, which are about
+	 * to change, so that it can be set again afterwards.
+	 */
+	private String getDerivedURL() {
+		return urlName == null && urlKind != IdentifierPool.LOCATION_OTHER ? getURL() : null;
 	}
 
 	/**
@@ -75,7 +94,11 @@ public class PluginEntry {
 	 * @param pluginId the entry identifier.
 	 */
 	void setPluginIdentifier(String pluginId) {
-		this.pluginId = pluginId;
+		String derived = getDerivedURL();
+		this.pluginId = IdentifierPool.intern(pluginId);
+		this.versionId = null;
+		if (derived != null)
+			setURL(derived);
 	}
 
 	/**
@@ -85,7 +108,11 @@ public class PluginEntry {
 	 * @param pluginVersion the entry version.
 	 */
 	void setPluginVersion(String pluginVersion) {
-		this.pluginVersion = pluginVersion;
+		String derived = getDerivedURL();
+		this.pluginVersion = IdentifierPool.intern(pluginVersion);
+		this.versionId = null;
+		if (derived != null)
+			setURL(derived);
 	}
 
 	/**
@@ -134,8 +161,12 @@ public class PluginEntry {
 	 * 
 	 */
 	void setVersionedIdentifier(VersionedIdentifier identifier) {
-		setPluginIdentifier(identifier.getIdentifier());
-		setPluginVersion(identifier.getVersion().toString());
+		String derived = getDerivedURL();
+		this.pluginId = identifier.getIdentifier();
+		this.pluginVersion = IdentifierPool.intern(identifier.getVersion().toString());
+		this.versionId = identifier;
+		if (derived != null)
+			setURL(derived);
 	}	
 
 	/**
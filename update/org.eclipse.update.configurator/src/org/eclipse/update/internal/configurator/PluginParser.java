@@ -79,6 +79,7 @@ public class PluginParser extends DefaultHandler implements IConfigurationConsta
             location = bundleUrl;
 			pluginEntry = new PluginEntry();
 			pluginEntry.setURL(bundleUrl);
+			StartupMetrics.count(StartupMetrics.Counter.XML_PARSED);
 			parser.parse(new InputSource(in), this);
 		} catch (ParseCompleteException e) {
 			// expected, we stopped the parsing when we have the information we need
@@ -15,7 +15,6 @@ import java.net.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -249,7 +248,15 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 	 * and validates existing features (they might have been removed)
 	 */
 	private void detectFeatures() {
+		StartupMetrics.Timer timer = StartupMetrics.start();
+		try {
+			doDetectFeatures();
+		} finally {
+			StartupMetrics.end(StartupMetrics.Phase.DETECT_FEATURES, timer);
+		}
+	}
 
+	private void doDetectFeatures() {
 		if (featureEntries != null)
 			validateFeatureEntries();
 		else
@@ -261,13 +268,13 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 		// locate feature entries on site
 		File siteRoot = new File(resolvedURL.getFile().replace('/', File.separatorChar));
 		File featuresDir = new File(siteRoot, FEATURES);
-		if (featuresDir.exists()) {
+		if (StartupMetrics.exists(featuresDir)) {
 			// handle the installed features under the features directory
 			File[] dirs = featuresDir.listFiles((FileFilter) f -> {
 				// mac os folders contain a file .DS_Store in each folder, and we need to skip it (bug 76869) 
 				if (isMacOS && f.getName().equals(MAC_OS_MARKER))
 					return false;
-				boolean valid = f.isDirectory() && (new File(f,FEATURE_XML).exists());
+				boolean valid = StartupMetrics.isDirectory(f) && StartupMetrics.exists(new File(f,FEATURE_XML));
 				if (!valid)
 					Utils.log(NLS.bind(Messages.SiteEntry_cannotFindFeatureInDir, (new String[] { f.getAbsolutePath() })));
 				return valid;
@@ -276,8 +283,8 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 			for (int index = 0; index < dirs.length; index++) {
 				try {
 					File featureXML = new File(dirs[index], FEATURE_XML);
-					if (featureXML.lastModified() <= featuresChangeStamp &&
-						dirs[index].lastModified() <= featuresChangeStamp)
+					if (StartupMetrics.lastModified(featureXML) <= featuresChangeStamp &&
+						StartupMetrics.lastModified(dirs[index]) <= featuresChangeStamp)
 						continue;
 					URL featureURL = featureXML.toURL();
 					FeatureEntry featureEntry = featureParser.parse(featureURL);
@@ -297,6 +304,15 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 	 * and validates existing plugins (they might have been removed)
 	 */
 	private void detectPlugins() {
+		StartupMetrics.Timer timer = StartupMetrics.start();
+		try {
+			doDetectPlugins();
+		} finally {
+			StartupMetrics.end(StartupMetrics.Phase.DETECT_PLUGINS, timer);
+		}
+	}
+
+	private void doDetectPlugins() {
 		boolean compareTimeStamps = false;
 		if (pluginEntries != null) {
 			validatePluginEntries();
@@ -310,10 +326,10 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 		// locate plugin entries on site
 		File pluginsDir = new File(resolvedURL.getFile(), PLUGINS);
 		
-		if (pluginsDir.exists() && pluginsDir.isDirectory()) {
+		if (StartupMetrics.exists(pluginsDir) && StartupMetrics.isDirectory(pluginsDir)) {
 			File[] files = pluginsDir.listFiles();
 			for (int i = 0; i < files.length; i++) {
-				if(files[i].isDirectory()){
+				if(StartupMetrics.isDirectory(files[i])){
 					detectUnpackedPlugin(files[i], compareTimeStamps);
 				}else if(files[i].getName().endsWith(".jar")){ //$NON-NLS-1$
 					detectPackedPlugin(files[i], compareTimeStamps);
@@ -332,13 +348,14 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 	 */
 	private void detectPackedPlugin(File file, boolean compareTimeStamps) {
 		// plugin to run directly from jar
-		if (compareTimeStamps && file.lastModified() <= pluginsChangeStamp) {
+		if (compareTimeStamps && StartupMetrics.lastModified(file) <= pluginsChangeStamp) {
 			return;
 		}
 		String entryName = META_MANIFEST_MF;
 		InputStream bundleManifestIn = null;
 		InputStream pluginManifestIn = null;
 		String pluginURL = PLUGINS + "/" + file.getName(); //$NON-NLS-1$
+		StartupMetrics.count(StartupMetrics.Counter.JARS_OPENED);
 		try (ZipFile z = new ZipFile(file)){
 			// First, check if has valid bundle manifest
 			
@@ -389,7 +406,7 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 	 */
 	private void detectUnpackedPlugin(File file, boolean compareTimeStamps) {
 		// unpacked plugin
-		long dirTimestamp = file.lastModified();
+		long dirTimestamp = StartupMetrics.lastModified(file);
 		File pluginFile = new File(file, META_MANIFEST_MF);
 		try {
 			// First, check if has valid bundle manifest
@@ -397,17 +414,17 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 			if (bundleManifest.exists()) {
 				if (compareTimeStamps
 						&& dirTimestamp <= pluginsChangeStamp
-						&& pluginFile.lastModified() <= pluginsChangeStamp)
+						&& StartupMetrics.lastModified(pluginFile) <= pluginsChangeStamp)
 					return;
 				PluginEntry entry = bundleManifest.getPluginEntry();
 				addPluginEntry(entry);
 			} else {
 				// no bundle manifest, check for plugin.xml or fragment.xml
 				pluginFile = new File(file, PLUGIN_XML);
-				if (!pluginFile.exists()) { 
+				if (!StartupMetrics.exists(pluginFile)) { 
 					pluginFile = new File(file, FRAGMENT_XML); 
 				}
-				if (pluginFile.exists() && !pluginFile.isDirectory()) {
+				if (StartupMetrics.exists(pluginFile) && !StartupMetrics.isDirectory(pluginFile)) {
 					// TODO in the future, assume that the timestamps are not
 					// reliable,
 					// or that the user manually modified an existing plugin,
@@ -417,7 +434,7 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 					// We will need to double check for this. END to do.
 					if (compareTimeStamps 
 							&& dirTimestamp <= pluginsChangeStamp
-							&& pluginFile.lastModified() <= pluginsChangeStamp)
+							&& StartupMetrics.lastModified(pluginFile) <= pluginsChangeStamp)
 						return;
 					PluginEntry entry = pluginParser.parse(pluginFile);
 					addPluginEntry(entry);
@@ -472,7 +489,7 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 		
 		long start = 0;
 		if (ConfigurationActivator.DEBUG)
-			start = (new Date()).getTime();
+			start = System.nanoTime();
 		String[] features = getFeatures();
 	
 		// compute stamp for the features directory
@@ -480,12 +497,12 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 		if (PlatformConfiguration.supportsDetection(resolvedURL, config.getInstallURL())) {
 			File root = new File(resolvedURL.getFile().replace('/', File.separatorChar));
 			File featuresDir = new File(root, FEATURES);
-			dirStamp = featuresDir.lastModified();
+			dirStamp = StartupMetrics.lastModified(featuresDir);
 		}
 		featuresChangeStamp = Math.max(dirStamp, computeStamp(features));
 		if (ConfigurationActivator.DEBUG) {
-			long end = (new Date()).getTime();
-			Utils.debug(resolvedURL.toString() + " feature stamp: " + featuresChangeStamp + " in " + (end - start) + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$   
+			long end = System.nanoTime();
+			Utils.debug(resolvedURL.toString() + " feature stamp: " + featuresChangeStamp + " in " + (end - start) / 1000000 + "ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$   
 		}
 		return featuresChangeStamp;
 	}
@@ -502,12 +519,12 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 		// compute stamp for the plugins directory
 		File root = new File(resolvedURL.getFile().replace('/', File.separatorChar));
 		File pluginsDir = new File(root, PLUGINS);
-		if (!pluginsDir.exists() || !pluginsDir.isDirectory()) {
+		if (!StartupMetrics.exists(pluginsDir) || !StartupMetrics.isDirectory(pluginsDir)) {
 			Utils.debug(NLS.bind(Messages.SiteEntry_pluginsDir, (new String[] { pluginsDir.getAbsolutePath() })));
 			return 0;
 		}
 
-		pluginsChangeStamp = pluginsDir.lastModified();
+		pluginsChangeStamp = StartupMetrics.lastModified(pluginsDir);
 		return pluginsChangeStamp;
 	}
 
@@ -529,12 +546,12 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 		} else {
 			// compute stamp across local targets
 			File rootFile = new File(resolvedURL.getFile().replace('/', File.separatorChar));
-			if (rootFile.exists()) {
+			if (StartupMetrics.exists(rootFile)) {
 				File f = null;
 				for (int i = 0; i < targets.length; i++) {
 					f = new File(rootFile, targets[i]);
-					if (f.exists())
-						result = Math.max(result, f.lastModified());
+					if (StartupMetrics.exists(f))
+						result = Math.max(result, StartupMetrics.lastModified(f));
 				}
 			}
 		}
@@ -682,7 +699,7 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 			// Note: in the future, we can check for absolute url as well.
 			//       For now, feature url is features/org.eclipse.foo/feature.xml
 			File featureXML = new File(root, feature.getURL());
-			if (!featureXML.exists())
+			if (!StartupMetrics.exists(featureXML))
 				deletedFeatures.add(feature.getFeatureIdentifier());
 		}
 		for(Iterator<String> it=deletedFeatures.iterator(); it.hasNext();){
@@ -698,7 +715,7 @@ public class SiteEntry implements IPlatformConfiguration.ISiteEntry, IConfigurat
 			// Note: in the future, we can check for absolute url as well.
 			//       For now, feature url is plugins/org.eclipse.foo/plugin.xml
 			File pluginLocation = new File(root, plugin.getURL());
-			if (!pluginLocation.exists())
+			if (!StartupMetrics.exists(pluginLocation))
 				deletedPlugins.add(plugin);
 		}
 		for(Iterator<PluginEntry> it=deletedPlugins.iterator(); it.hasNext();){
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.update.internal.configurator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Structured startup instrumentation of the configurator. Collects the time
+ * spent in the main startup phases and counts the file system work done while
+ * detecting sites, so startup regressions can be tracked across install sizes.
+ * <p>
+ * Collection is off by default. It is turned on by the
+ * <code>org.eclipse.update.configurator/debug/metrics</code> debug option or by
+ * the <code>org.eclipse.update.configurator.metrics.file</code> framework
+ * property; the latter also names a file the metrics are written to when the
+ * bundle stops. While collecting, the single instance is registered as an OSGi
+ * service under {@link IStartupMetrics}.
+ * </p>
+ * <p>
+ * {@link Counter#FILES_STATED} counts the <code>exists</code>,
+ * <code>isDirectory</code> and <code>lastModified</code> calls site detection
+ * makes through {@link #exists(File)}, {@link #isDirectory(File)} and
+ * {@link #lastModified(File)}.
+ * </p>
+ * <p>
+ * Phase times are inclusive: detection triggered while computing change
+ * stamps is counted in both phases.
+ * </p>
+ */
+public final class StartupMetrics implements IStartupMetrics {
+
+	public static final String PROP_METRICS_FILE = ConfigurationActivator.PI_CONFIGURATOR + ".metrics.file"; //$NON-NLS-1$
+
+	/**
+	 * Timed startup phases.
+	 */
+	public enum Phase {
+		INITIALIZE, LOAD_CONFIG, DETECT_FEATURES, DETECT_PLUGINS, COMPUTE_STAMPS, SAVE
+	}
+
+	/**
+	 * Counted operations.
+	 */
+	public enum Counter {
+		FILES_STATED, JARS_OPENED, XML_PARSED
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+	private static final Counter[] COUNTERS = Counter.values();
+
+	// debug values, set when the bundle starts
+	static volatile boolean ENABLED = false;
+
+	private static final StartupMetrics instance = new StartupMetrics();
+
+	private final AtomicLongArray phaseNanos = new AtomicLongArray(PHASES.length);
+	private final AtomicLongArray phaseCalls = new AtomicLongArray(PHASES.length);
+	private final AtomicLongArray counts = new AtomicLongArray(COUNTERS.length);
+
+	private StartupMetrics() {
+		// single instance
+	}
+
+	public static StartupMetrics getDefault() {
+		return instance;
+	}
+
+	/**
+	 * The start of a timed phase.
+	 */
+	static final class Timer {
+		final long start = System.nanoTime();
+	}
+
+	/**
+	 * Returns the timer to pass to {@link #end(Phase, Timer)}, or
+	 * <code>null</code> when metrics are not collected.
+	 */
+	static Timer start() {
+		return ENABLED ? new Timer() : null;
+	}
+
+	static void end(Phase phase, Timer timer) {
+		if (timer == null)
+			return;
+		instance.phaseNanos.addAndGet(phase.ordinal(), System.nanoTime() - timer.start);
+		instance.phaseCalls.incrementAndGet(phase.ordinal());
+	}
+
+	static void count(Counter counter) {
+		if (ENABLED)
+			instance.counts.incrementAndGet(counter.ordinal());
+	}
+
+	static boolean exists(File file) {
+		count(Counter.FILES_STATED);
+		return file.exists();
+	}
+
+	static boolean isDirectory(File file) {
+		count(Counter.FILES_STATED);
+		return file.isDirectory();
+	}
+
+	static long lastModified(File file) {
+		count(Counter.FILES_STATED);
+		return file.lastModified();
+	}
+
+	/**
+	 * @return the total time spent in the given phase, in nanoseconds
+	 */
+	public long getPhaseNanos(Phase phase) {
+		return phaseNanos.get(phase.ordinal());
+	}
+
+	/**
+	 * @return how many times the given phase was entered
+	 */
+	public long getPhaseCalls(Phase phase) {
+		return phaseCalls.get(phase.ordinal());
+	}
+
+	public long getCount(Counter counter) {
+		return counts.get(counter.ordinal());
+	}
+
+	@Override
+	public Map<String, Long> getMetrics() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (int i = 0; i < PHASES.length; i++) {
+			String name = PHASES[i].name().toLowerCase(Locale.ENGLISH);
+			result.put("phase." + name + ".nanos", Long.valueOf(getPhaseNanos(PHASES[i]))); //$NON-NLS-1$ //$NON-NLS-2$
+			result.put("phase." + name + ".calls", Long.valueOf(getPhaseCalls(PHASES[i]))); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i = 0; i < COUNTERS.length; i++)
+			result.put("count." + COUNTERS[i].name().toLowerCase(Locale.ENGLISH), Long.valueOf(getCount(COUNTERS[i]))); //$NON-NLS-1$
+		return result;
+	}
+
+	/**
+	 * Writes the metrics to the given file in properties format, one
+	 * <code>name=value</code> line per metric.
+	 */
+	void dump(File file) throws IOException {
+		File dir = file.getParentFile();
+		if (dir != null && !dir.exists())
+			dir.mkdirs();
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.ISO_8859_1))) {
+			for (Map.Entry<String, Long> entry : getMetrics().entrySet()) {
+				writer.write(entry.getKey());
+				writer.write('=');
+				writer.write(entry.getValue().toString());
+				writer.write('\n');
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "StartupMetrics" + getMetrics(); //$NON-NLS-1$
+	}
+}
@@ -48,7 +48,7 @@ public class Utils {
 	// os
 	public static boolean isWindows = System.getProperty("os.name").startsWith("Win"); //$NON-NLS-1$ //$NON-NLS-2$	
 	static FrameworkLog log;
-	private static ServiceTracker<?, PackageAdmin> bundleTracker;
+	private static volatile ServiceTracker<?, PackageAdmin> bundleTracker;
 	private static ServiceTracker<?, Location> instanceLocation;
 	private static ServiceTracker<?, Location> configurationLocation;
 
@@ -209,12 +209,20 @@ public class Utils {
 	 * 
 	 * @see PackageAdmin#getBundles(String, String)
 	 */
-	public static synchronized Bundle getBundle(String symbolicName) {
-		if (bundleTracker == null) {
-			bundleTracker = new ServiceTracker<>(getContext(), PackageAdmin.class, null);
-			bundleTracker.open();
+	public static Bundle getBundle(String symbolicName) {
+		// called for every feature by the branding code, only lock to create the tracker
+		ServiceTracker<?, PackageAdmin> tracker = bundleTracker;
+		if (tracker == null) {
+			synchronized (Utils.class) {
+				if (bundleTracker == null) {
+					ServiceTracker<?, PackageAdmin> newTracker = new ServiceTracker<>(getContext(), PackageAdmin.class, null);
+					newTracker.open();
+					bundleTracker = newTracker;
+				}
+				tracker = bundleTracker;
+			}
 		}
-		PackageAdmin admin = bundleTracker.getService();
+		PackageAdmin admin = tracker.getService();
 		if (admin == null)
 			return null;
 		Bundle[] bundles = admin.getBundles(symbolicName, null);
@@ -17,8 +17,8 @@ public class VersionedIdentifier {
 	private Version version;
 
 	public VersionedIdentifier(String id, String version) {
-		this.identifier = id;
-		this.version = Version.parseVersion(version);
+		this.identifier = IdentifierPool.intern(id);
+		this.version = IdentifierPool.getVersion(version);
 	}
 
 	public Version getVersion() {